@@ -0,0 +1,203 @@
+package src.Api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import src.Enum.ServiceError;
+import src.Service.ServiceException;
+
+/**
+ * The ApiHandler class adapts an {@link Endpoint} to the JDK HTTP server.
+ * <p>
+ * It checks the request method, collects the parameters into an
+ * {@link ApiRequest}, runs the endpoint and streams the JSON response with
+ * chunked transfer encoding. A {@link ServiceException} thrown by the
+ * endpoint is turned into an error response with a matching HTTP status.
+ * </p>
+ *
+ * <p>
+ * <b>Error response:</b> {@code {"error":"NOT_FOUND","message":"..."}}</p>
+ *
+ * @see ApiRoutes
+ * @see JsonWriter
+ */
+final class ApiHandler implements HttpHandler {
+
+    /**
+     * An operation of the API.
+     */
+    @FunctionalInterface
+    interface Endpoint {
+
+        /**
+         * Runs the operation. Any refusal has to be thrown before the
+         * response starts, so the response is only written once the operation
+         * has succeeded.
+         *
+         * @param request The parameters of the request.
+         * @return The response of the operation.
+         */
+        Response handle(ApiRequest request);
+    }
+
+    /**
+     * The successful response of an operation.
+     */
+    @FunctionalInterface
+    interface Response {
+
+        /**
+         * Writes the response.
+         *
+         * @param json The writer of the response body.
+         * @throws IOException If the response cannot be written.
+         */
+        void writeTo(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * The largest form encoded body accepted, in bytes.
+     */
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    /**
+     * The request method the endpoint accepts.
+     */
+    private final String method;
+
+    /**
+     * The HTTP status of a successful response.
+     */
+    private final int successStatus;
+
+    /**
+     * The operation of the endpoint.
+     */
+    private final Endpoint endpoint;
+
+    /**
+     * Creates a handler for an endpoint.
+     *
+     * @param method The request method the endpoint accepts.
+     * @param successStatus The HTTP status of a successful response.
+     * @param endpoint The operation of the endpoint.
+     */
+    ApiHandler(String method, int successStatus, Endpoint endpoint) {
+        this.method = method;
+        this.successStatus = successStatus;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Handles one request.
+     *
+     * @param exchange The request and its response.
+     * @throws IOException If the request cannot be read or the response
+     * cannot be written.
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // Contexts match by prefix, so only serve the exact path of the endpoint
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                sendError(exchange, 404, "NOT_FOUND", "No such endpoint.");
+                return;
+            }
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                sendError(exchange, 405, "METHOD_NOT_ALLOWED", "Use " + method + " for this endpoint.");
+                return;
+            }
+            Response response;
+            try {
+                String body = "POST".equals(method) ? readBody(exchange) : null;
+                response = endpoint.handle(new ApiRequest(exchange.getRequestURI().getRawQuery(), body));
+            } catch (ServiceException err) {
+                sendError(exchange, getStatus(err), err.getError().toString(), err.getMessage());
+                return;
+            } catch (RuntimeException err) {
+                System.out.println("Error handling " + exchange.getRequestURI() + ": " + err);
+                sendError(exchange, 500, "INTERNAL_ERROR", "The request could not be completed.");
+                return;
+            }
+            send(exchange, successStatus, response);
+        }
+    }
+
+    /**
+     * Maps the reason of a refusal to an HTTP status.
+     *
+     * @param err The refusal.
+     * @return The HTTP status.
+     */
+    private static int getStatus(ServiceException err) {
+        switch (err.getError()) {
+            case NOT_FOUND:
+                return 404;
+            case INVALID_INPUT:
+                return 400;
+            case INSUFFICIENT_PAYMENT:
+                return 402;
+            case INVALID_STATE:
+            case CONFLICT:
+            case INSUFFICIENT_STOCK:
+            default:
+                return 409;
+        }
+    }
+
+    /**
+     * Reads a form encoded request body.
+     *
+     * @param exchange The request.
+     * @return The body.
+     * @throws IOException If the body cannot be read.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "The request body is too large.");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Sends an error response.
+     *
+     * @param exchange The request.
+     * @param status The HTTP status.
+     * @param error The error code.
+     * @param message The message describing the error.
+     * @throws IOException If the response cannot be written.
+     */
+    private static void sendError(HttpExchange exchange, int status, String error, String message) throws IOException {
+        send(exchange, status, json -> json.beginObject()
+                .name("error").value(error)
+                .name("message").value(message)
+                .endObject());
+    }
+
+    /**
+     * Streams a JSON response.
+     *
+     * @param exchange The request.
+     * @param status The HTTP status.
+     * @param response The response body.
+     * @throws IOException If the response cannot be written.
+     */
+    private static void send(HttpExchange exchange, int status, Response response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // A length of 0 selects chunked encoding, so large lists are sent while they are written
+        exchange.sendResponseHeaders(status, 0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            response.writeTo(new JsonWriter(out));
+        }
+    }
+}
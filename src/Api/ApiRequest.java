@@ -0,0 +1,177 @@
+package src.Api;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import src.Enum.ServiceError;
+import src.Service.ServiceException;
+
+/**
+ * The ApiRequest class gives access to the parameters of an API request.
+ * <p>
+ * Parameters are taken from the query string and, for {@code POST} requests,
+ * from a form encoded body ({@code application/x-www-form-urlencoded}). A
+ * missing or malformed parameter is reported with a {@link ServiceException}
+ * of type {@link ServiceError#INVALID_INPUT}, the same way the services report
+ * invalid arguments.
+ * </p>
+ *
+ * @see ApiHandler
+ */
+final class ApiRequest {
+
+    /**
+     * The decoded parameters by name.
+     */
+    private final Map<String, String> parameters = new HashMap<>();
+
+    /**
+     * Creates a request from the encoded parameter strings.
+     *
+     * @param query The query string, or {@code null}.
+     * @param body The form encoded body, or {@code null}.
+     */
+    ApiRequest(String query, String body) {
+        parse(query);
+        parse(body);
+    }
+
+    /**
+     * Decodes {@code name=value} pairs separated by {@code &}. Later values
+     * override earlier ones.
+     *
+     * @param encoded The encoded parameters, or {@code null}.
+     */
+    private void parse(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            try {
+                parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException err) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Malformed parameter: " + name);
+            }
+        }
+    }
+
+    /**
+     * Returns an optional parameter.
+     *
+     * @param name The parameter name.
+     * @return The value, or {@code null} if it is missing or empty.
+     */
+    String getOptional(String name) {
+        String value = parameters.get(name);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Returns a required parameter.
+     *
+     * @param name The parameter name.
+     * @return The value.
+     * @throws ServiceException {@code INVALID_INPUT} if it is missing.
+     */
+    String getString(String name) {
+        String value = getOptional(name);
+        if (value == null) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Returns a required date and time in ISO format, for example
+     * {@code 2024-11-30T10:00}.
+     *
+     * @param name The parameter name.
+     * @return The date and time.
+     * @throws ServiceException {@code INVALID_INPUT} if it is missing or
+     * malformed.
+     */
+    LocalDateTime getDateTime(String name) {
+        return parseDateTime(name, getString(name));
+    }
+
+    /**
+     * Returns an optional date and time in ISO format.
+     *
+     * @param name The parameter name.
+     * @param defaultValue The value used if the parameter is missing.
+     * @return The date and time.
+     * @throws ServiceException {@code INVALID_INPUT} if it is malformed.
+     */
+    LocalDateTime getDateTime(String name, LocalDateTime defaultValue) {
+        String value = getOptional(name);
+        return value == null ? defaultValue : parseDateTime(name, value);
+    }
+
+    /**
+     * Returns an optional whole number within a range.
+     *
+     * @param name The parameter name.
+     * @param defaultValue The value used if the parameter is missing.
+     * @param min The smallest allowed value.
+     * @param max The largest allowed value.
+     * @return The number.
+     * @throws ServiceException {@code INVALID_INPUT} if it is malformed or out
+     * of range.
+     */
+    int getInt(String name, int defaultValue, int min, int max) {
+        String value = getOptional(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min || number > max) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Parameter " + name + " must be between " + min + " and " + max);
+            }
+            return number;
+        } catch (NumberFormatException err) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "Parameter " + name + " must be a whole number");
+        }
+    }
+
+    /**
+     * Returns a required decimal number.
+     *
+     * @param name The parameter name.
+     * @return The number.
+     * @throws ServiceException {@code INVALID_INPUT} if it is missing or
+     * malformed.
+     */
+    double getDouble(String name) {
+        try {
+            return Double.parseDouble(getString(name));
+        } catch (NumberFormatException err) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "Parameter " + name + " must be a number");
+        }
+    }
+
+    /**
+     * Parses a date and time in ISO format.
+     *
+     * @param name The parameter name, used in the error message.
+     * @param value The value to parse.
+     * @return The date and time.
+     * @throws ServiceException {@code INVALID_INPUT} if it is malformed.
+     */
+    private static LocalDateTime parseDateTime(String name, String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException err) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "Parameter " + name + " must be a date and time such as 2024-11-30T10:00");
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package src.Api;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import src.Controller.AppointmentController;
+import src.Enum.AppointmentStatus;
+import src.Enum.ServiceError;
+import src.Model.Appointment;
+import src.Model.AvailableSlot;
+import src.Model.InventoryList;
+import src.Model.Specialization;
+import src.Service.AppointmentService;
+import src.Service.InventoryService;
+import src.Service.PaymentService;
+import src.Service.PrescriptionService;
+import src.Service.ServiceException;
+
+/**
+ * The ApiRoutes class registers the endpoints of the HTTP API.
+ * <p>
+ * Every endpoint calls the service layer or a read-only controller method and
+ * writes the result as JSON. Parameters are passed in the query string, or as
+ * a form encoded body for {@code POST} requests. Dates and times use the ISO
+ * format, for example {@code 2024-11-30T10:00}.
+ * </p>
+ *
+ * <p>
+ * <b>Endpoints:</b></p>
+ * <ul>
+ * <li>{@code GET /api/appointments} - Lists appointments, optionally filtered
+ * by {@code date} and {@code status}.</li>
+ * <li>{@code POST /api/appointments/book} - Books an appointment from
+ * {@code patientId}, {@code doctorId}, {@code start} and {@code end}.</li>
+ * <li>{@code POST /api/appointments/reschedule} - Moves
+ * {@code appointmentId} to {@code start} and {@code end}.</li>
+ * <li>{@code POST /api/appointments/cancel} - Cancels
+ * {@code appointmentId}.</li>
+ * <li>{@code GET /api/slots} - Finds the earliest free slots of
+ * {@code duration} minutes between {@code from} and {@code to}, optionally for
+ * a {@code specialization}, up to {@code limit} slots.</li>
+ * <li>{@code GET /api/inventory} - Returns the item of {@code medicineId}, or
+ * every item if it is omitted.</li>
+ * <li>{@code POST /api/prescriptions/dispense} - Dispenses
+ * {@code medicineId} of {@code outcomeId}.</li>
+ * <li>{@code GET /api/payments} - Returns the amount due for
+ * {@code outcomeId}.</li>
+ * <li>{@code POST /api/payments/cash} - Pays the bill of {@code outcomeId}
+ * with {@code cash}.</li>
+ * </ul>
+ *
+ * @see HMSApiServer
+ * @see ApiHandler
+ */
+final class ApiRoutes {
+
+    /**
+     * The number of slots returned by a slot search when no limit is given.
+     */
+    private static final int DEFAULT_SLOT_LIMIT = 20;
+
+    /**
+     * The largest number of slots a single slot search may return.
+     */
+    private static final int MAX_SLOT_LIMIT = 1000;
+
+    /**
+     * How many days ahead a slot search looks when no end is given.
+     */
+    private static final int DEFAULT_SEARCH_DAYS = 14;
+
+    /**
+     * Prevents instantiation.
+     */
+    private ApiRoutes() {
+    }
+
+    /**
+     * Registers every endpoint with the server.
+     *
+     * @param server The HTTP server.
+     */
+    static void register(HttpServer server) {
+        server.createContext("/api/appointments", new ApiHandler("GET", 200, ApiRoutes::listAppointments));
+        server.createContext("/api/appointments/book", new ApiHandler("POST", 201, ApiRoutes::bookAppointment));
+        server.createContext("/api/appointments/reschedule", new ApiHandler("POST", 200, ApiRoutes::rescheduleAppointment));
+        server.createContext("/api/appointments/cancel", new ApiHandler("POST", 200, ApiRoutes::cancelAppointment));
+        server.createContext("/api/slots", new ApiHandler("GET", 200, ApiRoutes::findSlots));
+        server.createContext("/api/inventory", new ApiHandler("GET", 200, ApiRoutes::getInventory));
+        server.createContext("/api/prescriptions/dispense", new ApiHandler("POST", 200, ApiRoutes::dispense));
+        server.createContext("/api/payments", new ApiHandler("GET", 200, ApiRoutes::getAmountDue));
+        server.createContext("/api/payments/cash", new ApiHandler("POST", 200, ApiRoutes::payByCash));
+    }
+
+    /**
+     * Lists appointments ordered by start time.
+     *
+     * @param request The request.
+     * @return The appointments as a JSON array.
+     */
+    private static ApiHandler.Response listAppointments(ApiRequest request) {
+        LocalDate date = null;
+        AppointmentStatus status = null;
+        try {
+            String dateValue = request.getOptional("date");
+            date = dateValue == null ? null : LocalDate.parse(dateValue);
+            String statusValue = request.getOptional("status");
+            status = statusValue == null ? null : AppointmentStatus.valueOf(statusValue.toUpperCase());
+        } catch (DateTimeParseException | IllegalArgumentException err) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "Use a date such as 2024-11-30 and a valid appointment status.");
+        }
+        List<Appointment> appointments = AppointmentController.findAppointments(date, status);
+        return json -> {
+            json.beginArray();
+            for (Appointment appointment : appointments) {
+                writeAppointment(json, appointment);
+            }
+            json.endArray();
+        };
+    }
+
+    /**
+     * Books an appointment.
+     *
+     * @param request The request.
+     * @return The new appointment.
+     */
+    private static ApiHandler.Response bookAppointment(ApiRequest request) {
+        Appointment appointment = AppointmentService.book(request.getString("patientId"), request.getString("doctorId"),
+                request.getDateTime("start"), request.getDateTime("end"));
+        return json -> writeAppointment(json, appointment);
+    }
+
+    /**
+     * Reschedules an appointment.
+     *
+     * @param request The request.
+     * @return The rescheduled appointment.
+     */
+    private static ApiHandler.Response rescheduleAppointment(ApiRequest request) {
+        Appointment appointment = AppointmentService.reschedule(request.getString("appointmentId"),
+                request.getDateTime("start"), request.getDateTime("end"));
+        return json -> writeAppointment(json, appointment);
+    }
+
+    /**
+     * Cancels an appointment.
+     *
+     * @param request The request.
+     * @return The cancelled appointment.
+     */
+    private static ApiHandler.Response cancelAppointment(ApiRequest request) {
+        Appointment appointment = AppointmentService.cancel(request.getString("appointmentId"));
+        return json -> writeAppointment(json, appointment);
+    }
+
+    /**
+     * Finds the earliest free slots across doctors.
+     *
+     * @param request The request.
+     * @return The slots as a JSON array ordered by start time.
+     */
+    private static ApiHandler.Response findSlots(ApiRequest request) {
+        int minutes = request.getInt("duration", 30, 1, 24 * 60);
+        LocalDateTime from = request.getDateTime("from", LocalDateTime.now());
+        LocalDateTime to = request.getDateTime("to", from.plusDays(DEFAULT_SEARCH_DAYS));
+        int limit = request.getInt("limit", DEFAULT_SLOT_LIMIT, 1, MAX_SLOT_LIMIT);
+        String specializationName = request.getOptional("specialization");
+        Specialization specialization = specializationName == null ? null : new Specialization(specializationName, null);
+        if (!to.isAfter(from)) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "The end of the search must be after its start.");
+        }
+
+        List<AvailableSlot> slots = AppointmentController.findAvailableSlots(Duration.ofMinutes(minutes), from, to, specialization, limit);
+        return json -> {
+            json.beginArray();
+            for (AvailableSlot slot : slots) {
+                json.beginObject()
+                        .name("doctorId").value(slot.getDoctor().getHospitalId())
+                        .name("doctorName").value(slot.getDoctor().getName())
+                        .name("start").value(slot.getSchedule().getStartTime())
+                        .name("end").value(slot.getSchedule().getEndTime())
+                        .endObject();
+            }
+            json.endArray();
+        };
+    }
+
+    /**
+     * Looks up one inventory item, or lists all of them.
+     *
+     * @param request The request.
+     * @return The item, or every item as a JSON array.
+     */
+    private static ApiHandler.Response getInventory(ApiRequest request) {
+        String medicineId = request.getOptional("medicineId");
+        if (medicineId != null) {
+            InventoryList inventoryItem = InventoryService.getItem(medicineId);
+            return json -> writeInventoryItem(json, inventoryItem);
+        }
+        return json -> {
+            json.beginArray();
+            for (InventoryList inventoryItem : InventoryService.getItems()) {
+                writeInventoryItem(json, inventoryItem);
+            }
+            json.endArray();
+        };
+    }
+
+    /**
+     * Dispenses a prescribed medicine.
+     *
+     * @param request The request.
+     * @return The stock level left after dispensing.
+     */
+    private static ApiHandler.Response dispense(ApiRequest request) {
+        String outcomeId = request.getString("outcomeId");
+        String medicineId = request.getString("medicineId");
+        int stockLevel = PrescriptionService.dispense(outcomeId, medicineId);
+        return json -> json.beginObject()
+                .name("outcomeId").value(outcomeId)
+                .name("medicineId").value(medicineId)
+                .name("stockLevel").value(stockLevel)
+                .endObject();
+    }
+
+    /**
+     * Returns the amount due for an appointment outcome.
+     *
+     * @param request The request.
+     * @return The amount due.
+     */
+    private static ApiHandler.Response getAmountDue(ApiRequest request) {
+        String outcomeId = request.getString("outcomeId");
+        double amountDue = PaymentService.getAmountDue(outcomeId);
+        return json -> json.beginObject()
+                .name("outcomeId").value(outcomeId)
+                .name("amountDue").value(amountDue)
+                .endObject();
+    }
+
+    /**
+     * Pays the bill of an appointment outcome in cash.
+     *
+     * @param request The request.
+     * @return The change to be given back.
+     */
+    private static ApiHandler.Response payByCash(ApiRequest request) {
+        String outcomeId = request.getString("outcomeId");
+        double change = PaymentService.payByCash(outcomeId, request.getDouble("cash"));
+        return json -> json.beginObject()
+                .name("outcomeId").value(outcomeId)
+                .name("change").value(change)
+                .endObject();
+    }
+
+    /**
+     * Writes an appointment as a JSON object.
+     *
+     * @param json The writer.
+     * @param appointment The appointment.
+     * @throws IOException If the response cannot be written.
+     */
+    private static void writeAppointment(JsonWriter json, Appointment appointment) throws IOException {
+        json.beginObject()
+                .name("appointmentId").value(appointment.getAppointmentId())
+                .name("patientId").value(appointment.getPatientId())
+                .name("doctorId").value(appointment.getDoctorId())
+                .name("start").value(appointment.getAppointmentStartDate())
+                .name("end").value(appointment.getAppointmentEndDate())
+                .name("status").value(appointment.getStatus())
+                .name("outcomeId").value(appointment.getOutcomeId())
+                .endObject();
+    }
+
+    /**
+     * Writes an inventory item as a JSON object.
+     *
+     * @param json The writer.
+     * @param inventoryItem The inventory item.
+     * @throws IOException If the response cannot be written.
+     */
+    private static void writeInventoryItem(JsonWriter json, InventoryList inventoryItem) throws IOException {
+        json.beginObject()
+                .name("medicineId").value(inventoryItem.getMedicine().getMedicineId())
+                .name("medicineName").value(inventoryItem.getMedicine().getMedicineName())
+                .name("price").value((double) inventoryItem.getMedicine().getMedicinePrice())
+                .name("stockLevel").value(inventoryItem.getInitialStock())
+                .name("lowStockLevelAlert").value(inventoryItem.getLowStocklevelAlert())
+                .endObject();
+    }
+}
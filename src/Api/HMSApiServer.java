@@ -0,0 +1,100 @@
+package src.Api;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import src.Repository.FileType;
+import src.Repository.Repository;
+
+/**
+ * The starting point of the application as an HTTP/JSON API.
+ * <p>
+ * Kiosks and integration systems can book, reschedule and cancel
+ * appointments, search for free slots, look up the inventory, dispense
+ * prescriptions and take payments over HTTP instead of driving the text
+ * menus. The endpoints are listed in {@link ApiRoutes}. Requests are served
+ * concurrently by a pool of threads and all share the same in-memory
+ * {@link Repository}.
+ * </p>
+ *
+ * <p>
+ * <b>Usage:</b> {@code java src.Api.HMSApiServer [port] [bind address]}. By
+ * default the server listens on port {@value #DEFAULT_PORT} of the loopback
+ * address only.</p>
+ *
+ * @see ApiRoutes
+ * @see src.Main.HMSServer
+ */
+public class HMSApiServer {
+
+    /**
+     * The port the server listens on when none is given.
+     */
+    private static final int DEFAULT_PORT = 8080;
+
+    /**
+     * The number of requests served at the same time. Further requests wait
+     * in the queue of the pool.
+     */
+    private static final int REQUEST_THREADS = 64;
+
+    /**
+     * The maximum number of connections waiting to be accepted.
+     */
+    private static final int BACKLOG = 256;
+
+    /**
+     * How long in milliseconds changes are collected before the background
+     * writer saves them.
+     */
+    private static final long PERSISTENCE_DEBOUNCE_MILLIS = 200;
+
+    /**
+     * The maximum number of changes waiting to be saved by the background
+     * writer.
+     */
+    private static final int PERSISTENCE_QUEUE_CAPACITY = 4096;
+
+    /**
+     * Number of the last request thread that was started, used to name it.
+     */
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Main function that starts the server.
+     *
+     * @param args Optional port and bind address.
+     * @throws IOException If the server socket cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress bindAddress = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+
+        Repository.loadAll(FileType.STAFF, FileType.PATIENT, FileType.APPOINTMENT_LIST, FileType.APPOINTMENT_OUTCOME);
+        Repository.enableAsyncPersistence(PERSISTENCE_DEBOUNCE_MILLIS, PERSISTENCE_QUEUE_CAPACITY);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(bindAddress, port), BACKLOG);
+        ApiRoutes.register(server);
+        // Requests mostly wait on locks and disk, so a fixed pool of platform threads is enough
+        ExecutorService requests = Executors.newFixedThreadPool(REQUEST_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "hms-api-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(requests);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            Repository.flush();
+            Repository.saveChangedFiles();
+        }, "hms-shutdown"));
+
+        server.start();
+        System.out.println("Hospital Management System API listening on http://"
+                + bindAddress.getHostAddress() + ":" + server.getAddress().getPort() + "/api/");
+    }
+}
@@ -0,0 +1,282 @@
+package src.Api;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The JsonWriter class writes a JSON document straight to a stream.
+ * <p>
+ * Values are written as soon as they are given, so a response listing
+ * thousands of appointments or slots is never built up in memory as a whole.
+ * The writer only keeps track of nesting to place commas; it does not check
+ * that the document is well formed.
+ * </p>
+ *
+ * <p>
+ * <b>Usage:</b></p>
+ * <pre>
+ *     json.beginObject()
+ *             .name("medicineId").value("M001")
+ *             .name("stockLevel").value(100)
+ *             .endObject();
+ * </pre>
+ *
+ * @see ApiHandler
+ */
+final class JsonWriter {
+
+    /**
+     * The deepest nesting of objects and arrays supported.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * The stream the document is written to.
+     */
+    private final Writer out;
+
+    /**
+     * Whether the object or array at each nesting level already has an
+     * element, so the next one needs a comma.
+     */
+    private final boolean[] hasElement = new boolean[MAX_DEPTH];
+
+    /**
+     * The current nesting level.
+     */
+    private int depth = 0;
+
+    /**
+     * Whether a name was just written, so the next value belongs to it.
+     */
+    private boolean afterName = false;
+
+    /**
+     * Creates a writer for the given stream.
+     *
+     * @param out The stream the document is written to.
+     */
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Starts an object.
+     *
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * Starts an array.
+     *
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name The member name.
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or {@code null}.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        separate();
+        writeString(value);
+        return this;
+    }
+
+    /**
+     * Writes the string form of an object, for example an enum constant or a
+     * date, or {@code null}.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter value(Object value) throws IOException {
+        return value(value == null ? null : value.toString());
+    }
+
+    /**
+     * Writes a whole number.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a decimal number. Values that JSON cannot represent are written
+     * as {@code null}.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        separate();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes {@code null}.
+     *
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    JsonWriter nullValue() throws IOException {
+        separate();
+        out.write("null");
+        return this;
+    }
+
+    /**
+     * Opens an object or array.
+     *
+     * @param bracket The opening bracket.
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        out.write(bracket);
+        if (++depth >= MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested too deeply");
+        }
+        hasElement[depth] = false;
+        return this;
+    }
+
+    /**
+     * Closes an object or array.
+     *
+     * @param bracket The closing bracket.
+     * @return This writer.
+     * @throws IOException If the stream cannot be written.
+     */
+    private JsonWriter close(char bracket) throws IOException {
+        out.write(bracket);
+        depth--;
+        return this;
+    }
+
+    /**
+     * Writes the comma before an element if needed. A value that follows a
+     * name needs none.
+     *
+     * @throws IOException If the stream cannot be written.
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasElement[depth]) {
+            out.write(',');
+        }
+        hasElement[depth] = true;
+    }
+
+    /**
+     * Writes a quoted and escaped string.
+     *
+     * @param value The string.
+     * @throws IOException If the stream cannot be written.
+     */
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else if (c == '\n') {
+                escape = "\\n";
+            } else if (c == '\r') {
+                escape = "\\r";
+            } else if (c == '\t') {
+                escape = "\\t";
+            } else if (c < 0x20) {
+                escape = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            out.write(value, start, i - start);
+            out.write(escape);
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,125 @@
+package src.Benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The BenchmarkOptions class reads the {@code --name=value} options given to
+ * a benchmark on the command line.
+ * <p>
+ * An unknown option or a malformed value is reported with an
+ * {@link IllegalArgumentException} whose message can be shown to the user.
+ * </p>
+ *
+ * @see PersistenceBenchmark
+ */
+final class BenchmarkOptions {
+
+    /**
+     * The option values by name, without the leading dashes.
+     */
+    private final Map<String, String> values = new HashMap<>();
+
+    /**
+     * Parses the command line options.
+     *
+     * @param args The command line arguments.
+     * @param names The names of the accepted options, without the leading
+     * dashes.
+     * @throws IllegalArgumentException If an option is not accepted.
+     */
+    BenchmarkOptions(String[] args, String... names) {
+        List<String> accepted = List.of(names);
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = arg.startsWith("--") ? arg.substring(2, separator < 0 ? arg.length() : separator) : arg;
+            if (!accepted.contains(name)) {
+                throw new IllegalArgumentException("unknown option " + arg + ", use --" + String.join(", --", accepted));
+            }
+            values.put(name, separator < 0 ? "" : arg.substring(separator + 1));
+        }
+    }
+
+    /**
+     * Returns a text option.
+     *
+     * @param name The name of the option.
+     * @param defaultValue The value used if the option is not given.
+     * @return The value.
+     */
+    String getString(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Returns a whole number option.
+     *
+     * @param name The name of the option.
+     * @param defaultValue The value used if the option is not given.
+     * @param min The smallest allowed value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is malformed or out of
+     * range.
+     */
+    int getInt(String name, int defaultValue, int min) {
+        long number = getLong(name, defaultValue, min);
+        if (number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("--" + name + " must be at most " + Integer.MAX_VALUE);
+        }
+        return (int) number;
+    }
+
+    /**
+     * Returns a long whole number option.
+     *
+     * @param name The name of the option.
+     * @param defaultValue The value used if the option is not given.
+     * @param min The smallest allowed value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is malformed or too small.
+     */
+    long getLong(String name, long defaultValue, long min) {
+        String value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        long number;
+        try {
+            number = Long.parseLong(value.replace("_", ""));
+        } catch (NumberFormatException err) {
+            throw new IllegalArgumentException("--" + name + " must be a whole number");
+        }
+        if (number < min) {
+            throw new IllegalArgumentException("--" + name + " must be at least " + min);
+        }
+        return number;
+    }
+
+    /**
+     * Returns a comma separated list of whole numbers.
+     *
+     * @param name The name of the option.
+     * @param defaultValue The list used if the option is not given, in the
+     * same format.
+     * @param min The smallest allowed value.
+     * @return The numbers.
+     * @throws IllegalArgumentException If a value is malformed or too small.
+     */
+    List<Integer> getIntList(String name, String defaultValue, int min) {
+        List<Integer> numbers = new ArrayList<>();
+        for (String value : values.getOrDefault(name, defaultValue).split(",")) {
+            try {
+                int number = Integer.parseInt(value.trim().replace("_", ""));
+                if (number < min) {
+                    throw new IllegalArgumentException("--" + name + " values must be at least " + min);
+                }
+                numbers.add(number);
+            } catch (NumberFormatException err) {
+                throw new IllegalArgumentException("--" + name + " must be a comma separated list of whole numbers");
+            }
+        }
+        return numbers;
+    }
+}
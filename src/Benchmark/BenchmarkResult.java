@@ -0,0 +1,220 @@
+package src.Benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The BenchmarkResult class holds the measurements of one benchmark.
+ * <p>
+ * It keeps the latency of every measured operation, the bytes allocated by
+ * them and the size of the files involved, and derives the throughput,
+ * latency percentiles and allocation rate from them.
+ * </p>
+ *
+ * @see BenchmarkRunner
+ */
+public class BenchmarkResult {
+
+    /**
+     * The header of the console table, matching {@link #toRow()}.
+     */
+    static final String HEADER = String.format("%-40s %-12s %7s %12s %10s %10s %10s %10s %10s %10s %12s %14s",
+            "Benchmark", "Size", "Ops", "Ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+            "Alloc MB/s", "Alloc B/op", "File bytes");
+
+    /**
+     * The header of the CSV report, matching {@link #toCsv()}.
+     */
+    static final String CSV_HEADER = "benchmark,size,operations,ops_per_sec,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,"
+            + "alloc_mb_per_sec,alloc_bytes_per_op,file_bytes";
+
+    /**
+     * The name of the benchmark.
+     */
+    private final String name;
+
+    /**
+     * The parameters of the benchmark, such as the data set size.
+     */
+    private final String parameters;
+
+    /**
+     * The latency of every measured operation in nanoseconds, sorted.
+     */
+    private final long[] latencies;
+
+    /**
+     * The bytes allocated by the measured operations, or {@code -1} if
+     * allocation cannot be measured.
+     */
+    private final long allocatedBytes;
+
+    /**
+     * The size of the files involved in bytes, or {@code -1} if there are
+     * none.
+     */
+    private final long fileBytes;
+
+    /**
+     * The measured time in nanoseconds.
+     */
+    private final long totalNanos;
+
+    /**
+     * Creates a result of operations run one after another, whose measured
+     * time is the sum of their latencies.
+     *
+     * @param name The name of the benchmark.
+     * @param parameters The parameters of the benchmark.
+     * @param latencies The latency of every measured operation in
+     * nanoseconds.
+     * @param allocatedBytes The bytes allocated by the measured operations, or
+     * {@code -1} if unknown.
+     * @param fileBytes The size of the files involved, or {@code -1} if there
+     * are none.
+     */
+    BenchmarkResult(String name, String parameters, long[] latencies, long allocatedBytes, long fileBytes) {
+        this(name, parameters, latencies, allocatedBytes, fileBytes, Arrays.stream(latencies).sum());
+    }
+
+    /**
+     * Creates a result of operations run by several threads at once, whose
+     * measured time is the elapsed wall-clock time.
+     *
+     * @param name The name of the benchmark.
+     * @param parameters The parameters of the benchmark.
+     * @param latencies The latency of every measured operation in
+     * nanoseconds.
+     * @param allocatedBytes The bytes allocated by the measured operations, or
+     * {@code -1} if unknown.
+     * @param fileBytes The size of the files involved, or {@code -1} if there
+     * are none.
+     * @param elapsedNanos The elapsed time of the measurement in nanoseconds.
+     */
+    BenchmarkResult(String name, String parameters, long[] latencies, long allocatedBytes, long fileBytes, long elapsedNanos) {
+        this.name = name;
+        this.parameters = parameters;
+        this.latencies = latencies.clone();
+        Arrays.sort(this.latencies);
+        this.allocatedBytes = allocatedBytes;
+        this.fileBytes = fileBytes;
+        this.totalNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the name of the benchmark.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the parameters of the benchmark.
+     *
+     * @return The parameters, such as the data set size.
+     */
+    public String getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the number of measured operations.
+     *
+     * @return The number of operations.
+     */
+    public int getOperations() {
+        return latencies.length;
+    }
+
+    /**
+     * Returns the number of operations completed per second.
+     *
+     * @return The throughput.
+     */
+    public double getThroughput() {
+        return totalNanos == 0 ? 0 : latencies.length * 1e9 / totalNanos;
+    }
+
+    /**
+     * Returns a latency percentile using the nearest rank.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The latency in nanoseconds.
+     */
+    public long getPercentile(double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+        return latencies[Math.max(0, Math.min(latencies.length - 1, rank - 1))];
+    }
+
+    /**
+     * Returns the number of bytes allocated per second of measured time.
+     *
+     * @return The allocation rate, or {@code -1} if unknown.
+     */
+    public double getAllocationRate() {
+        return allocatedBytes < 0 || totalNanos == 0 ? -1 : allocatedBytes * 1e9 / totalNanos;
+    }
+
+    /**
+     * Returns the number of bytes allocated per operation.
+     *
+     * @return The bytes per operation, or {@code -1} if unknown.
+     */
+    public long getAllocatedBytesPerOperation() {
+        return allocatedBytes < 0 || latencies.length == 0 ? -1 : allocatedBytes / latencies.length;
+    }
+
+    /**
+     * Returns the size of the files involved.
+     *
+     * @return The size in bytes, or {@code -1} if there are none.
+     */
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    /**
+     * Formats the result as a row of the console table.
+     *
+     * @return The row.
+     */
+    String toRow() {
+        double allocationRate = getAllocationRate();
+        return String.format("%-40s %-12s %7d %12.1f %10.3f %10.3f %10.3f %10.3f %10.3f %10s %12s %14s",
+                name, parameters, getOperations(), getThroughput(), millis(50), millis(90), millis(99), millis(99.9),
+                millis(100), allocationRate < 0 ? "-" : String.format("%.1f", allocationRate / 1e6),
+                allocatedBytes < 0 ? "-" : String.format("%,d", getAllocatedBytesPerOperation()),
+                fileBytes < 0 ? "-" : String.format("%,d", fileBytes));
+    }
+
+    /**
+     * Formats the result as a line of the CSV report. Unknown values are left
+     * empty.
+     *
+     * @return The line.
+     */
+    String toCsv() {
+        double allocationRate = getAllocationRate();
+        return String.format(Locale.ROOT, "\"%s\",\"%s\",%d,%.3f,%.6f,%.6f,%.6f,%.6f,%.6f,%s,%s,%s",
+                name.replace("\"", "\"\""), parameters.replace("\"", "\"\""), getOperations(), getThroughput(),
+                millis(50), millis(90), millis(99), millis(99.9), millis(100),
+                allocationRate < 0 ? "" : String.format(Locale.ROOT, "%.3f", allocationRate / 1e6),
+                allocatedBytes < 0 ? "" : String.valueOf(getAllocatedBytesPerOperation()),
+                fileBytes < 0 ? "" : String.valueOf(fileBytes));
+    }
+
+    /**
+     * Returns a latency percentile in milliseconds.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The latency in milliseconds.
+     */
+    private double millis(double percentile) {
+        return getPercentile(percentile) / 1e6;
+    }
+}
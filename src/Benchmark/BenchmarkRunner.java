@@ -0,0 +1,273 @@
+package src.Benchmark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The BenchmarkRunner class measures operations of the hospital management
+ * system in the way a microbenchmark harness does.
+ * <p>
+ * Every benchmark runs a number of warmup iterations, so that the JIT compiler
+ * has compiled the code under test, followed by measured iterations. An
+ * iteration runs the operation a given number of times. The latency of every
+ * single operation is recorded, along with the bytes it allocated, so the
+ * results show the full latency distribution and not just an average. An
+ * optional setup step runs before every operation and is not measured.
+ * </p>
+ * <p>
+ * Allocation is counted on the thread running the benchmark, so work handed
+ * to other threads is not included.
+ * </p>
+ *
+ * <p>
+ * <b>Key Features:</b></p>
+ * <ul>
+ * <li>Warmup and measured iterations.</li>
+ * <li>Latency of every operation, with percentiles.</li>
+ * <li>Throughput and allocation rate.</li>
+ * <li>Size of the files involved.</li>
+ * <li>Console table and CSV report of all results.</li>
+ * </ul>
+ *
+ * @see BenchmarkResult
+ * @see PersistenceBenchmark
+ */
+public class BenchmarkRunner {
+
+    /**
+     * An operation that is measured, or the setup before it.
+     */
+    @FunctionalInterface
+    public interface Operation {
+
+        /**
+         * Runs the operation once.
+         *
+         * @param invocation The number of the invocation within its
+         * iteration, starting from 0.
+         * @throws Exception If the operation fails, which stops the benchmark.
+         */
+        void run(int invocation) throws Exception;
+    }
+
+    /**
+     * A console that discards everything printed to it.
+     */
+    static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    /**
+     * The thread bean used to measure allocation, or {@code null} if the JVM
+     * cannot measure it.
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = createThreadBean();
+
+    /**
+     * The number of iterations run before measuring.
+     */
+    private final int warmupIterations;
+
+    /**
+     * The number of measured iterations.
+     */
+    private final int measurementIterations;
+
+    /**
+     * The results of every benchmark run so far.
+     */
+    private final List<BenchmarkResult> results = new ArrayList<>();
+
+    /**
+     * Creates a runner.
+     *
+     * @param warmupIterations The number of iterations run before measuring.
+     * @param measurementIterations The number of measured iterations.
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = Math.max(1, measurementIterations);
+    }
+
+    /**
+     * Prints the header of the console table.
+     */
+    public void printHeader() {
+        System.out.println(BenchmarkResult.HEADER);
+    }
+
+    /**
+     * Measures an operation without setup and prints its result.
+     *
+     * @param name The name of the benchmark.
+     * @param parameters The parameters of the benchmark, such as the data set
+     * size.
+     * @param invocations The number of operations per iteration.
+     * @param operation The operation to measure.
+     * @param files The files whose total size is reported after measuring.
+     * @return The result, or {@code null} if the operation failed.
+     */
+    public BenchmarkResult measure(String name, String parameters, int invocations, Operation operation, File... files) {
+        return measure(name, parameters, invocations, null, operation, files);
+    }
+
+    /**
+     * Measures an operation and prints its result.
+     *
+     * @param name The name of the benchmark.
+     * @param parameters The parameters of the benchmark, such as the data set
+     * size.
+     * @param invocations The number of operations per iteration.
+     * @param setup The step run before every operation without being
+     * measured, or {@code null}.
+     * @param operation The operation to measure.
+     * @param files The files whose total size is reported after measuring.
+     * @return The result, or {@code null} if the operation failed.
+     */
+    public BenchmarkResult measure(String name, String parameters, int invocations, Operation setup, Operation operation,
+            File... files) {
+        long[] latencies = new long[invocations * measurementIterations];
+        long allocatedBytes = 0;
+        try {
+            for (int iteration = 0; iteration < warmupIterations; iteration++) {
+                for (int i = 0; i < invocations; i++) {
+                    if (setup != null) {
+                        setup.run(i);
+                    }
+                    operation.run(i);
+                }
+            }
+            // Start the measurement without garbage left by the warmup
+            System.gc();
+            int measured = 0;
+            for (int iteration = 0; iteration < measurementIterations; iteration++) {
+                for (int i = 0; i < invocations; i++) {
+                    if (setup != null) {
+                        setup.run(i);
+                    }
+                    long allocatedBefore = getAllocatedBytes();
+                    long started = System.nanoTime();
+                    operation.run(i);
+                    latencies[measured++] = System.nanoTime() - started;
+                    allocatedBytes += getAllocatedBytes() - allocatedBefore;
+                }
+            }
+        } catch (Exception err) {
+            System.out.println("Error running " + name + " (" + parameters + "): " + err);
+            return null;
+        }
+
+        long fileBytes = -1;
+        for (File file : files) {
+            if (file.exists()) {
+                fileBytes = Math.max(fileBytes, 0) + file.length();
+            }
+        }
+        BenchmarkResult result = new BenchmarkResult(name, parameters, latencies,
+                isAllocationMeasured() ? allocatedBytes : -1, fileBytes);
+        report(result);
+        return result;
+    }
+
+    /**
+     * Adds a result measured elsewhere, such as by several threads at once,
+     * to the results and prints it.
+     *
+     * @param result The result.
+     */
+    void report(BenchmarkResult result) {
+        results.add(result);
+        System.out.println(result.toRow());
+    }
+
+    /**
+     * Wraps an operation that prints to the console, such as a controller
+     * method, so that its messages are discarded instead of flooding the
+     * results. The messages are still formatted, so their cost is measured.
+     *
+     * @param operation The operation.
+     * @return The operation printing to a discarding console.
+     */
+    public static Operation quiet(Operation operation) {
+        return invocation -> {
+            PrintStream console = System.out;
+            System.setOut(DISCARD);
+            try {
+                operation.run(invocation);
+            } finally {
+                System.setOut(console);
+            }
+        };
+    }
+
+    /**
+     * Returns the results of every benchmark run so far.
+     *
+     * @return A read-only list of the results.
+     */
+    public List<BenchmarkResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Writes the results of every benchmark run so far as CSV.
+     *
+     * @param file The file to write.
+     * @return {@code true} if the file was written, {@code false} otherwise.
+     */
+    public boolean writeCsv(File file) {
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
+            out.println(BenchmarkResult.CSV_HEADER);
+            for (BenchmarkResult result : results) {
+                out.println(result.toCsv());
+            }
+            return true;
+        } catch (IOException err) {
+            System.out.println("Error writing " + file + ": " + err.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the JVM can measure the bytes allocated by a thread.
+     *
+     * @return {@code true} if allocation is measured.
+     */
+    static boolean isAllocationMeasured() {
+        return THREAD_BEAN != null;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread.
+     *
+     * @return The allocated bytes, or 0 if allocation cannot be measured.
+     */
+    static long getAllocatedBytes() {
+        return THREAD_BEAN == null ? 0 : THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Looks up the thread bean and enables allocation measurement on it.
+     *
+     * @return The thread bean, or {@code null} if the JVM cannot measure
+     * allocation.
+     */
+    private static com.sun.management.ThreadMXBean createThreadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+    }
+}
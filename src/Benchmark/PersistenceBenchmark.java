@@ -0,0 +1,261 @@
+package src.Benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import src.Repository.FileType;
+import src.Repository.Repository;
+import src.Repository.SyntheticDataGenerator;
+
+/**
+ * The PersistenceBenchmark class measures how fast the {@link Repository}
+ * stores and loads data as the hospital grows.
+ * <p>
+ * For every data set size a hospital is generated with the
+ * {@link SyntheticDataGenerator}, and the following operations are measured
+ * for every file type the application uses:
+ * </p>
+ * <ul>
+ * <li>{@code readData} - loading the file type from its files.</li>
+ * <li>{@code persistData} - writing a full checkpoint of the file type.</li>
+ * <li>{@code persistData(key)} - saving the change of a single entity,
+ * including the checkpoints it triggers.</li>
+ * </ul>
+ * <p>
+ * Then {@code saveAllFiles} and the startup load of the application are
+ * measured, both with {@code loadAll} as the application does and by reading
+ * the file types one after another, which also shows their allocation.
+ * </p>
+ * <p>
+ * The size of a data set is its number of appointments. It has a doctor for
+ * every thousand appointments, a patient and a replenishment request for
+ * every ten, and about seven outcomes for every ten.
+ * </p>
+ *
+ * <p>
+ * <b>Usage:</b> {@code java src.Benchmark.PersistenceBenchmark
+ * [--sizes=1000,100000,1000000] [--warmup=2] [--iterations=5] [--seed=42]
+ * [--csv=file] [--data-dir=path]}. Without a data directory, the data sets
+ * are generated in a temporary directory that is deleted afterwards. The
+ * hospital's own data files are never touched. A heap of at least 2 GB is
+ * recommended for a million appointments.</p>
+ *
+ * @see BenchmarkRunner
+ * @see SyntheticDataGenerator
+ */
+public class PersistenceBenchmark {
+
+    /**
+     * The file types the application stores data in.
+     */
+    private static final FileType[] FILE_TYPES = {FileType.STAFF, FileType.INVENTORY, FileType.REPLENISHMENT_REQUEST,
+        FileType.PATIENT, FileType.APPOINTMENT_OUTCOME, FileType.APPOINTMENT_LIST};
+
+    /**
+     * The file types the application loads at startup.
+     */
+    private static final FileType[] STARTUP_FILE_TYPES = {FileType.STAFF, FileType.PATIENT,
+        FileType.APPOINTMENT_LIST, FileType.APPOINTMENT_OUTCOME};
+
+    /**
+     * The number of single entity changes saved per iteration.
+     */
+    private static final int SINGLE_ENTITY_INVOCATIONS = 1000;
+
+    /**
+     * The date the generated data sets are centred on.
+     */
+    private static final LocalDate TODAY = LocalDate.of(2024, 11, 18);
+
+    /**
+     * Main function that runs the benchmarks.
+     *
+     * @param args The options listed in the class description.
+     */
+    public static void main(String[] args) {
+        List<Integer> sizes;
+        BenchmarkRunner runner;
+        long seed;
+        String csv;
+        String dataDirectory;
+        try {
+            BenchmarkOptions options = new BenchmarkOptions(args, "sizes", "warmup", "iterations", "seed", "csv", "data-dir");
+            sizes = options.getIntList("sizes", "1000,100000,1000000", 1);
+            runner = new BenchmarkRunner(options.getInt("warmup", 2, 0), options.getInt("iterations", 5, 1));
+            seed = options.getLong("seed", 42, Long.MIN_VALUE);
+            csv = options.getString("csv", null);
+            dataDirectory = options.getString("data-dir", null);
+        } catch (IllegalArgumentException err) {
+            System.out.println("Error: " + err.getMessage());
+            return;
+        }
+
+        Path base;
+        try {
+            base = dataDirectory != null ? Path.of(dataDirectory) : Files.createTempDirectory("hms-benchmark");
+        } catch (IOException err) {
+            System.out.println("Error creating the benchmark directory: " + err.getMessage());
+            return;
+        }
+        try {
+            for (int size : sizes) {
+                File directory = base.resolve("size-" + size).toFile();
+                generate(seed, size, directory);
+                System.out.println();
+                runner.printHeader();
+                run(runner, String.valueOf(size), directory);
+                System.out.println();
+                unloadAll();
+            }
+        } finally {
+            if (dataDirectory == null) {
+                delete(base);
+            }
+        }
+        if (csv != null && runner.writeCsv(new File(csv))) {
+            System.out.println("Results written to " + csv);
+        }
+    }
+
+    /**
+     * Generates a data set and makes it the data of the {@link Repository}.
+     *
+     * @param seed The seed of the data set.
+     * @param size The number of appointments.
+     * @param directory The directory the data set is written to.
+     */
+    static void generate(long seed, int size, File directory) {
+        generate(seed, size, Math.max(10, size / 1000), directory, TODAY);
+    }
+
+    /**
+     * Generates a data set with the given number of doctors, centred on the
+     * given date, and makes it the data of the {@link Repository}.
+     *
+     * @param seed The seed of the data set.
+     * @param size The number of appointments.
+     * @param doctors The number of doctors.
+     * @param directory The directory the data set is written to.
+     * @param today The date the past and future of the data set are split at.
+     */
+    static void generate(long seed, int size, int doctors, File directory, LocalDate today) {
+        unloadAll();
+        System.setProperty(Repository.DATA_DIRECTORY_PROPERTY, directory.getPath());
+        System.out.println("Generating " + size + " appointments into " + directory);
+        new SyntheticDataGenerator(seed, today, 28).generateAll(doctors, Math.max(100, size / 10),
+                size, Math.max(20, Math.min(2000, size / 500)), Math.max(10, size / 10));
+    }
+
+    /**
+     * Runs every benchmark on the data set in the data directory.
+     *
+     * @param runner The runner measuring the benchmarks.
+     * @param size The size of the data set, as shown in the results.
+     * @param directory The data directory.
+     */
+    private static void run(BenchmarkRunner runner, String size, File directory) {
+        for (FileType fileType : FILE_TYPES) {
+            File snapshot = new File(directory, fileType.fileName + ".dat");
+            File changeLog = new File(directory, fileType.fileName + ".log");
+
+            runner.measure("readData " + fileType, size, 1,
+                    i -> Repository.unloadData(fileType),
+                    i -> Repository.readData(fileType), snapshot, changeLog);
+            runner.measure("persistData " + fileType, size, 1,
+                    i -> Repository.persistData(fileType), snapshot);
+
+            List<String> keys = new ArrayList<>();
+            for (String key : getStore(fileType).keySet()) {
+                if (keys.size() == SINGLE_ENTITY_INVOCATIONS) {
+                    break;
+                }
+                keys.add(key);
+            }
+            if (!keys.isEmpty()) {
+                runner.measure("persistData(key) " + fileType, size, SINGLE_ENTITY_INVOCATIONS,
+                        i -> Repository.persistData(fileType, keys.get(i % keys.size())), snapshot, changeLog);
+            }
+        }
+
+        List<File> snapshots = new ArrayList<>();
+        for (FileType fileType : FILE_TYPES) {
+            snapshots.add(new File(directory, fileType.fileName + ".dat"));
+        }
+        runner.measure("saveAllFiles", size, 1, i -> Repository.saveAllFiles(), snapshots.toArray(new File[0]));
+
+        List<File> startupSnapshots = new ArrayList<>();
+        for (FileType fileType : STARTUP_FILE_TYPES) {
+            startupSnapshots.add(new File(directory, fileType.fileName + ".dat"));
+        }
+        BenchmarkRunner.Operation unloadStartup = i -> {
+            for (FileType fileType : STARTUP_FILE_TYPES) {
+                Repository.unloadData(fileType);
+            }
+        };
+        runner.measure("startup loadAll", size, 1, unloadStartup,
+                i -> Repository.loadAll(STARTUP_FILE_TYPES), startupSnapshots.toArray(new File[0]));
+        runner.measure("startup readData (sequential)", size, 1, unloadStartup, i -> {
+            for (FileType fileType : STARTUP_FILE_TYPES) {
+                Repository.readData(fileType);
+            }
+        }, startupSnapshots.toArray(new File[0]));
+    }
+
+    /**
+     * Discards all loaded data, so that the next data set is read from its
+     * own files.
+     */
+    static void unloadAll() {
+        for (FileType fileType : FileType.values()) {
+            Repository.unloadData(fileType);
+        }
+    }
+
+    /**
+     * Returns the in-memory data of a file type the application uses.
+     *
+     * @param fileType The type of file.
+     * @return The data keyed by ID.
+     */
+    private static Map<String, ?> getStore(FileType fileType) {
+        switch (fileType) {
+            case STAFF:
+                return Repository.STAFF;
+            case INVENTORY:
+                return Repository.INVENTORY;
+            case REPLENISHMENT_REQUEST:
+                return Repository.REPLENISHMENT_REQUEST;
+            case PATIENT:
+                return Repository.PATIENT;
+            case APPOINTMENT_OUTCOME:
+                return Repository.APPOINTMENT_OUTCOME;
+            case APPOINTMENT_LIST:
+                return Repository.APPOINTMENT_LIST;
+            default:
+                return Map.of();
+        }
+    }
+
+    /**
+     * Deletes a directory with everything in it.
+     *
+     * @param directory The directory.
+     */
+    static void delete(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException err) {
+            System.out.println("Error deleting " + directory + ": " + err.getMessage());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package src.Benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import src.Controller.AppointmentController;
+import src.Controller.DoctorController;
+import src.Enum.AppointmentStatus;
+import src.Enum.Gender;
+import src.Enum.ServiceError;
+import src.Model.Appointment;
+import src.Model.Doctor;
+import src.Model.Patient;
+import src.Model.Schedule;
+import src.Model.Specialization;
+import src.Repository.FileType;
+import src.Repository.Repository;
+import src.Service.AppointmentService;
+import src.Service.ServiceException;
+
+/**
+ * The SchedulingBenchmark class measures the scheduling operations patients
+ * and doctors wait on, for doctors with more and more schedules.
+ * <p>
+ * A hospital is generated with the {@code SyntheticDataGenerator}, and for
+ * every size a doctor is added with that many days of availability and that
+ * many pending appointments, one on each day. The following operations are
+ * then measured on that doctor:
+ * </p>
+ * <ul>
+ * <li>Booking into a taken slot, which is refused by the conflict check, and
+ * {@code AppointmentController.makeAppointment} into a free slot.</li>
+ * <li>{@code getAvailableSlotsForDoctor}, both from the free slot index and
+ * after the index was invalidated.</li>
+ * <li>{@code getAvailableSlotsForDoctorExcludingAppointment}.</li>
+ * <li>{@code DoctorController.addAvailability}, both refused by the overlap
+ * check and successful.</li>
+ * <li>The slots listed by {@code DisplayPatientAppointment}, grouped by date
+ * for booking and merged for rescheduling.</li>
+ * </ul>
+ *
+ * <p>
+ * <b>Usage:</b> {@code java src.Benchmark.SchedulingBenchmark
+ * [--schedules=10,100,1000,10000] [--invocations=1000] [--warmup=2]
+ * [--iterations=5] [--seed=42] [--csv=file]}. The data is generated in a
+ * temporary directory that is deleted afterwards.</p>
+ *
+ * @see BenchmarkRunner
+ * @see AppointmentController
+ * @see DoctorController
+ */
+public class SchedulingBenchmark {
+
+    /**
+     * The number of appointments of the generated hospital the doctors are
+     * added to.
+     */
+    private static final int HOSPITAL_SIZE = 10_000;
+
+    /**
+     * How many times fewer invocations are run for operations that rebuild
+     * the free slots or save the doctor.
+     */
+    private static final int SLOW_OPERATION_FACTOR = 10;
+
+    /**
+     * Main function that runs the benchmarks.
+     *
+     * @param args The options listed in the class description.
+     */
+    public static void main(String[] args) {
+        List<Integer> sizes;
+        BenchmarkRunner runner;
+        int invocations;
+        long seed;
+        String csv;
+        try {
+            BenchmarkOptions options = new BenchmarkOptions(args, "schedules", "invocations", "warmup", "iterations", "seed", "csv");
+            sizes = options.getIntList("schedules", "10,100,1000,10000", 2);
+            invocations = options.getInt("invocations", 1000, SLOW_OPERATION_FACTOR);
+            runner = new BenchmarkRunner(options.getInt("warmup", 2, 0), options.getInt("iterations", 5, 1));
+            seed = options.getLong("seed", 42, Long.MIN_VALUE);
+            csv = options.getString("csv", null);
+        } catch (IllegalArgumentException err) {
+            System.out.println("Error: " + err.getMessage());
+            return;
+        }
+
+        Path base;
+        try {
+            base = Files.createTempDirectory("hms-benchmark");
+        } catch (IOException err) {
+            System.out.println("Error creating the benchmark directory: " + err.getMessage());
+            return;
+        }
+        try {
+            PersistenceBenchmark.generate(seed, HOSPITAL_SIZE, base.toFile());
+            Repository.loadAll(FileType.STAFF, FileType.PATIENT, FileType.APPOINTMENT_LIST);
+            System.out.println();
+            runner.printHeader();
+            for (int size : sizes) {
+                run(runner, size, invocations);
+            }
+            System.out.println();
+        } finally {
+            PersistenceBenchmark.unloadAll();
+            PersistenceBenchmark.delete(base);
+        }
+        if (csv != null && runner.writeCsv(new File(csv))) {
+            System.out.println("Results written to " + csv);
+        }
+    }
+
+    /**
+     * Adds a doctor with the given number of schedules and appointments and
+     * runs every benchmark on it.
+     *
+     * @param runner The runner measuring the benchmarks.
+     * @param size The number of schedules and appointments of the doctor.
+     * @param invocations The number of fast operations per iteration.
+     */
+    private static void run(BenchmarkRunner runner, int size, int invocations) {
+        Doctor doctor = addDoctor(size);
+        Patient patient = Repository.PATIENT.values().iterator().next();
+        String parameters = size + " slots";
+        int slowInvocations = invocations / SLOW_OPERATION_FACTOR;
+
+        // Everything happens on the day in the middle of the doctor's availability
+        Schedule schedule = doctor.getAvailability().get(size / 2);
+        LocalDate day = schedule.getStartTime().toLocalDate();
+        Appointment booked = Repository.APPOINTMENT_INDEX.findConflict(doctor.getHospitalId(),
+                day.atTime(10, 0), day.atTime(10, 30), null);
+        LocalDateTime freeStart = day.atTime(14, 0);
+        LocalDateTime freeEnd = day.atTime(14, 30);
+        LocalDate nextDay = doctor.getAvailability().get(size - 1).getStartTime().toLocalDate().plusDays(1);
+
+        runner.measure("book (conflict)", parameters, invocations, i -> {
+            try {
+                AppointmentService.book(patient, doctor, schedule, booked.getAppointmentStartDate(), booked.getAppointmentEndDate());
+            } catch (ServiceException err) {
+                if (err.getError() == ServiceError.CONFLICT) {
+                    return;
+                }
+                throw err;
+            }
+            throw new IllegalStateException("the taken slot was booked again");
+        });
+        runner.measure("makeAppointment", parameters, invocations,
+                i -> removeAppointment(doctor, freeStart, freeEnd),
+                BenchmarkRunner.quiet(i -> AppointmentController.makeAppointment(patient, doctor, schedule, freeStart, freeEnd)));
+        removeAppointment(doctor, freeStart, freeEnd);
+
+        runner.measure("getAvailableSlotsForDoctor", parameters, invocations,
+                i -> AppointmentController.getAvailableSlotsForDoctor(doctor));
+        // Saving all staff invalidates the free slots of every doctor
+        runner.measure("getAvailableSlotsForDoctor (rebuilt)", parameters, slowInvocations,
+                i -> Repository.persistData(FileType.STAFF),
+                i -> AppointmentController.getAvailableSlotsForDoctor(doctor));
+        runner.measure("getAvailableSlotsForDoctorExcludingAppt", parameters, invocations,
+                i -> AppointmentController.getAvailableSlotsForDoctorExcludingAppointment(doctor, booked));
+
+        runner.measure("addAvailability (overlap)", parameters, invocations,
+                BenchmarkRunner.quiet(i -> DoctorController.addAvailability(doctor, day.atTime(8, 0), day.atTime(10, 0))));
+        runner.measure("addAvailability", parameters, slowInvocations,
+                i -> removeAvailabilityAfter(doctor, size),
+                BenchmarkRunner.quiet(i -> DoctorController.addAvailability(doctor, nextDay.atTime(9, 0), nextDay.atTime(17, 0))));
+        removeAvailabilityAfter(doctor, size);
+
+        runner.measure("slots by date (book)", parameters, invocations,
+                i -> AppointmentController.getAvailableSlotsByDate(doctor));
+        runner.measure("slots for reschedule", parameters, invocations,
+                i -> AppointmentController.getAvailableSlotsForReschedule(doctor, booked));
+    }
+
+    /**
+     * Adds a doctor available from 09:00 to 17:00 on the given number of days
+     * from tomorrow, with a pending appointment from 10:00 to 10:30 on each of
+     * them.
+     *
+     * @param size The number of days.
+     * @return The doctor, as stored in the repository.
+     */
+    private static Doctor addDoctor(int size) {
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        List<Schedule> availability = new ArrayList<>(size);
+        for (int day = 0; day < size; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            availability.add(new Schedule(date.atTime(9, 0), date.atTime(17, 0)));
+        }
+        String doctorId = "DB" + size;
+        Doctor doctor = new Doctor("Benchmark Doctor " + size, "password", Gender.FEMALE, 40, doctorId,
+                List.of(new Specialization("General Practice", "Primary care for common conditions")), null, availability);
+        Repository.STAFF.put(doctorId, doctor);
+        Repository.persistData(FileType.STAFF, doctorId);
+
+        Patient patient = Repository.PATIENT.values().iterator().next();
+        for (Schedule schedule : availability) {
+            LocalDate date = schedule.getStartTime().toLocalDate();
+            String appointmentId = AppointmentService.generateAppointmentId();
+            Repository.APPOINTMENT_LIST.put(appointmentId, new Appointment(appointmentId, patient.getPatientId(), doctorId,
+                    date.atTime(10, 0), date.atTime(10, 30), AppointmentStatus.PENDING, null));
+        }
+        Repository.persistData(FileType.APPOINTMENT_LIST);
+        return doctor;
+    }
+
+    /**
+     * Removes the appointment booked by a previous run of a benchmark.
+     *
+     * @param doctor The doctor.
+     * @param startTime The start of the booked time.
+     * @param endTime The end of the booked time.
+     */
+    private static void removeAppointment(Doctor doctor, LocalDateTime startTime, LocalDateTime endTime) {
+        Appointment appointment = Repository.APPOINTMENT_INDEX.findConflict(doctor.getHospitalId(), startTime, endTime, null);
+        if (appointment != null) {
+            Repository.APPOINTMENT_LIST.remove(appointment.getAppointmentId());
+            Repository.persistData(FileType.APPOINTMENT_LIST, appointment.getAppointmentId());
+        }
+    }
+
+    /**
+     * Removes the availability added by a previous run of a benchmark.
+     *
+     * @param doctor The doctor.
+     * @param size The number of schedules the doctor started with.
+     */
+    private static void removeAvailabilityAfter(Doctor doctor, int size) {
+        List<Schedule> availability = doctor.getAvailability();
+        if (availability.size() > size) {
+            doctor.setAvailability(availability.subList(0, size));
+            Repository.persistData(FileType.STAFF, doctor.getHospitalId());
+        }
+    }
+}
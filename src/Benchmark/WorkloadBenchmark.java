@@ -0,0 +1,741 @@
+package src.Benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import src.Controller.AppointmentController;
+import src.Controller.DoctorController;
+import src.Controller.PatientController;
+import src.Controller.PaymentController;
+import src.Controller.StaffController;
+import src.Enum.AppointmentStatus;
+import src.Enum.MedicineStatus;
+import src.Enum.PaymentStatus;
+import src.Enum.ServiceType;
+import src.Helper.Helper;
+import src.Model.Appointment;
+import src.Model.AppointmentOutcome;
+import src.Model.AvailableSlot;
+import src.Model.Diagnosis;
+import src.Model.Doctor;
+import src.Model.Medicine;
+import src.Model.Patient;
+import src.Model.Specialization;
+import src.Model.Staff;
+import src.Model.Treatment;
+import src.Repository.FileType;
+import src.Repository.Repository;
+import src.Service.AppointmentService;
+import src.Service.PaymentService;
+import src.Service.PrescriptionService;
+import src.Service.ServiceException;
+
+/**
+ * The WorkloadBenchmark class replays a day at the clinic through the
+ * controllers and services, with several users working at once, and measures
+ * how many bookings and other operations the system completes per second.
+ * <p>
+ * A hospital is generated with the {@code SyntheticDataGenerator} around the
+ * current date. Every worker thread then acts as one user session after
+ * another, picking its next operation at random from the following mix:
+ * </p>
+ * <ul>
+ * <li>login - {@code StaffController.authenticate} or
+ * {@code PatientController.authenticate}.</li>
+ * <li>search slots - {@code AppointmentController.findAvailableSlots} over the
+ * next two weeks.</li>
+ * <li>book - {@code AppointmentController.makeAppointment} into a slot of the
+ * worker's last search.</li>
+ * <li>accept and decline - a pending appointment from
+ * {@code DoctorController.getRequestedAppointments}.</li>
+ * <li>record outcome - {@code AppointmentService.recordOutcome} for a
+ * confirmed appointment, prescribing medicines.</li>
+ * <li>dispense - {@code PrescriptionService.dispense} for every pending
+ * medicine of an outcome, as the pharmacist does.</li>
+ * <li>pay - {@code PaymentController.generateReceipt} followed by
+ * {@code PaymentService.payByCash} for a dispensed outcome.</li>
+ * </ul>
+ * <p>
+ * The doctors are shared out among the workers, so that every doctor is
+ * logged in only once, while patients book with any doctor and compete for
+ * the same slots. Operations the system refuses, such as a slot taken by
+ * another patient, are measured as well and counted separately. The
+ * throughput of every operation is taken over the wall-clock time of the
+ * run, and the console output of the controllers is discarded.
+ * </p>
+ *
+ * <p>
+ * <b>Usage:</b> {@code java src.Benchmark.WorkloadBenchmark
+ * [--threads=1,2,4,8] [--duration=10] [--warmup=3] [--size=10000]
+ * [--doctors=200] [--seed=42] [--async] [--csv=file]}. The duration and
+ * warmup are in seconds. The size is the number of appointments of the
+ * generated hospital; there are more doctors than in the other benchmarks,
+ * so that patients do not run out of free slots during a run. {@code --async}
+ * writes changes in the background as the API server does. The hospital is
+ * generated again for every number of threads, in a temporary directory that
+ * is deleted afterwards.</p>
+ *
+ * @see BenchmarkRunner
+ * @see AppointmentController
+ * @see AppointmentService
+ */
+public class WorkloadBenchmark {
+
+    /**
+     * The names of the operations of the workload.
+     */
+    private static final String[] OPERATIONS = {"login", "search slots", "book", "accept", "decline",
+        "record outcome", "dispense", "pay"};
+
+    /**
+     * How often each operation is picked, relative to the others.
+     */
+    private static final int[] WEIGHTS = {15, 25, 15, 10, 2, 10, 10, 8};
+
+    /**
+     * The index of the login operation.
+     */
+    private static final int LOGIN = 0;
+
+    /**
+     * The index of the slot search operation.
+     */
+    private static final int SEARCH = 1;
+
+    /**
+     * The index of the booking operation.
+     */
+    private static final int BOOK = 2;
+
+    /**
+     * The index of the accept operation.
+     */
+    private static final int ACCEPT = 3;
+
+    /**
+     * The index of the decline operation.
+     */
+    private static final int DECLINE = 4;
+
+    /**
+     * The index of the outcome recording operation.
+     */
+    private static final int RECORD_OUTCOME = 5;
+
+    /**
+     * The index of the dispensing operation.
+     */
+    private static final int DISPENSE = 6;
+
+    /**
+     * The index of the payment operation.
+     */
+    private static final int PAY = 7;
+
+    /**
+     * The password of every generated user.
+     */
+    private static final String PASSWORD = "password";
+
+    /**
+     * The length of a booked appointment.
+     */
+    private static final Duration APPOINTMENT_LENGTH = Duration.ofMinutes(30);
+
+    /**
+     * The number of days a slot search covers.
+     */
+    private static final int SEARCH_DAYS = 14;
+
+    /**
+     * The number of slots a search returns.
+     */
+    private static final int SEARCH_LIMIT = 10;
+
+    /**
+     * How long in milliseconds the background writer waits for more changes,
+     * as in the API server.
+     */
+    private static final long PERSISTENCE_DEBOUNCE_MILLIS = 200;
+
+    /**
+     * The maximum number of changes waiting for the background writer, as in
+     * the API server.
+     */
+    private static final int PERSISTENCE_QUEUE_CAPACITY = 4096;
+
+    /**
+     * The staff members who log in.
+     */
+    private final List<Staff> staff = new ArrayList<>();
+
+    /**
+     * The patients who log in and book.
+     */
+    private final List<Patient> patients = new ArrayList<>();
+
+    /**
+     * The doctors of the hospital.
+     */
+    private final List<Doctor> doctors = new ArrayList<>();
+
+    /**
+     * The specializations patients search for.
+     */
+    private final List<Specialization> specializations = new ArrayList<>();
+
+    /**
+     * The IDs of the medicines doctors prescribe.
+     */
+    private final List<String> medicineIds = new ArrayList<>();
+
+    /**
+     * The outcomes waiting for the pharmacist.
+     */
+    private final Queue<String> toDispense = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The outcomes waiting for payment.
+     */
+    private final Queue<String> toPay = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The seed the random numbers of the workers are derived from.
+     */
+    private final long seed;
+
+    /**
+     * Whether the workers keep running.
+     */
+    private volatile boolean running;
+
+    /**
+     * Whether the operations of the workers are measured.
+     */
+    private volatile boolean recording;
+
+    /**
+     * Creates a workload on the data loaded in the {@link Repository}.
+     *
+     * @param seed The seed the random numbers of the workers are derived from.
+     */
+    private WorkloadBenchmark(long seed) {
+        this.seed = seed;
+        for (Staff member : Repository.STAFF.values()) {
+            staff.add(member);
+            if (member instanceof Doctor) {
+                doctors.add((Doctor) member);
+            }
+        }
+        patients.addAll(Repository.PATIENT.values());
+        medicineIds.addAll(Repository.INVENTORY.keySet());
+
+        LinkedHashSet<Specialization> distinct = new LinkedHashSet<>();
+        for (Doctor doctor : doctors) {
+            distinct.addAll(doctor.getDocSpecialization());
+        }
+        specializations.addAll(distinct);
+
+        // Outcomes left waiting by the generated history
+        for (AppointmentOutcome outcome : Repository.APPOINTMENT_OUTCOME.values()) {
+            if (PrescriptionService.hasPendingMedicine(outcome.getOutcomeId())) {
+                toDispense.add(outcome.getOutcomeId());
+            } else if (outcome.getPaymentStatus() != PaymentStatus.COMPLETED) {
+                toPay.add(outcome.getOutcomeId());
+            }
+        }
+    }
+
+    /**
+     * Main function that runs the workload.
+     *
+     * @param args The options listed in the class description.
+     */
+    public static void main(String[] args) {
+        List<Integer> threadCounts;
+        long durationMillis;
+        long warmupMillis;
+        int size;
+        int doctors;
+        long seed;
+        boolean async;
+        String csv;
+        try {
+            BenchmarkOptions options = new BenchmarkOptions(args, "threads", "duration", "warmup", "size", "doctors", "seed",
+                    "async", "csv");
+            threadCounts = options.getIntList("threads", "1,2,4,8", 1);
+            durationMillis = options.getLong("duration", 10, 1) * 1000;
+            warmupMillis = options.getLong("warmup", 3, 0) * 1000;
+            size = options.getInt("size", 10_000, 1);
+            doctors = options.getInt("doctors", 200, 1);
+            seed = options.getLong("seed", 42, Long.MIN_VALUE);
+            async = options.getString("async", null) != null;
+            csv = options.getString("csv", null);
+        } catch (IllegalArgumentException err) {
+            System.out.println("Error: " + err.getMessage());
+            return;
+        }
+
+        Path base;
+        try {
+            base = Files.createTempDirectory("hms-benchmark");
+        } catch (IOException err) {
+            System.out.println("Error creating the benchmark directory: " + err.getMessage());
+            return;
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(0, 1);
+        List<String> summaries = new ArrayList<>();
+        try {
+            if (async) {
+                Repository.enableAsyncPersistence(PERSISTENCE_DEBOUNCE_MILLIS, PERSISTENCE_QUEUE_CAPACITY);
+            }
+            System.out.println("Generating " + size + " appointments with " + doctors + " doctors for every run");
+            System.out.println();
+            runner.printHeader();
+            for (int threads : threadCounts) {
+                // Every run starts from the same hospital, so that the runs can be compared
+                WorkloadBenchmark workload = prepare(seed, size, doctors, base.toFile());
+                summaries.add(workload.run(runner, threads, warmupMillis, durationMillis));
+            }
+            System.out.println();
+            for (String summary : summaries) {
+                System.out.println(summary);
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            System.out.println("Error: the workload was interrupted.");
+        } finally {
+            PersistenceBenchmark.unloadAll();
+            PersistenceBenchmark.delete(base);
+        }
+        if (csv != null && runner.writeCsv(new File(csv))) {
+            System.out.println("Results written to " + csv);
+        }
+    }
+
+    /**
+     * Generates the hospital of a run around the current date, without
+     * printing the progress, and loads it.
+     *
+     * @param seed The seed of the hospital and the workload.
+     * @param size The number of appointments.
+     * @param doctors The number of doctors.
+     * @param directory The directory the hospital is written to.
+     * @return The workload on the loaded hospital.
+     */
+    private static WorkloadBenchmark prepare(long seed, int size, int doctors, File directory) {
+        PrintStream console = System.out;
+        System.setOut(BenchmarkRunner.DISCARD);
+        try {
+            PersistenceBenchmark.generate(seed, size, doctors, directory, LocalDate.now());
+            Repository.loadAll(FileType.STAFF, FileType.PATIENT, FileType.APPOINTMENT_LIST, FileType.APPOINTMENT_OUTCOME);
+            Repository.readData(FileType.INVENTORY);
+        } finally {
+            System.setOut(console);
+        }
+        return new WorkloadBenchmark(seed);
+    }
+
+    /**
+     * Runs the workload with the given number of workers and reports the
+     * results of every operation and of all of them together.
+     *
+     * @param runner The runner the results are reported to.
+     * @param threads The number of workers.
+     * @param warmupMillis How long the workers run before measuring.
+     * @param durationMillis How long the workers are measured.
+     * @return A summary of the successful bookings and refused operations.
+     * @throws InterruptedException If the calling thread is interrupted.
+     */
+    private String run(BenchmarkRunner runner, int threads, long warmupMillis, long durationMillis) throws InterruptedException {
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> workerThreads = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(i, threads);
+            workers.add(worker);
+            workerThreads.add(new Thread(worker, "workload-" + i));
+        }
+
+        // The controllers print to the shared console, so it is discarded for the whole run
+        PrintStream console = System.out;
+        System.setOut(BenchmarkRunner.DISCARD);
+        long elapsedNanos;
+        try {
+            running = true;
+            for (Thread thread : workerThreads) {
+                thread.start();
+            }
+            Thread.sleep(warmupMillis);
+            recording = true;
+            long started = System.nanoTime();
+            Thread.sleep(durationMillis);
+            recording = false;
+            elapsedNanos = System.nanoTime() - started;
+        } finally {
+            recording = false;
+            running = false;
+            for (Thread thread : workerThreads) {
+                thread.join();
+            }
+            System.setOut(console);
+        }
+
+        String parameters = threads + (threads == 1 ? " thread" : " threads");
+        List<long[]> allLatencies = new ArrayList<>();
+        long allAllocated = 0;
+        int bookings = 0;
+        StringBuilder refused = new StringBuilder();
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            long[] latencies = new long[0];
+            long allocated = 0;
+            int refusedCount = 0;
+            for (Worker worker : workers) {
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + worker.counts[op]);
+                System.arraycopy(worker.latencies[op], 0, latencies, offset, worker.counts[op]);
+                allocated += worker.allocated[op];
+                refusedCount += worker.refused[op];
+            }
+            runner.report(new BenchmarkResult(OPERATIONS[op], parameters, latencies,
+                    BenchmarkRunner.isAllocationMeasured() ? allocated : -1, -1, elapsedNanos));
+            allLatencies.add(latencies);
+            allAllocated += allocated;
+            if (op == BOOK) {
+                bookings = latencies.length - refusedCount;
+            }
+            refused.append(op == 0 ? "" : ", ").append(OPERATIONS[op]).append(' ').append(refusedCount);
+        }
+        long[] total = allLatencies.stream().flatMapToLong(Arrays::stream).toArray();
+        runner.report(new BenchmarkResult("all operations", parameters, total,
+                BenchmarkRunner.isAllocationMeasured() ? allAllocated : -1, -1, elapsedNanos));
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(parameters).append(": ")
+                .append(String.format("%.1f", bookings * 1e9 / elapsedNanos)).append(" successful bookings/s; refused: ")
+                .append(refused);
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                summary.append("\n  Error in ").append(worker.failure);
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * A user session that runs operations of the workload until it is
+     * stopped, recording them while the workload is measured.
+     */
+    private final class Worker implements Runnable {
+
+        /**
+         * The random numbers of this worker.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * The doctors only this worker acts as.
+         */
+        private final List<Doctor> ownDoctors = new ArrayList<>();
+
+        /**
+         * The measured latencies of every operation in nanoseconds.
+         */
+        private final long[][] latencies = new long[OPERATIONS.length][1024];
+
+        /**
+         * The number of measured latencies of every operation.
+         */
+        private final int[] counts = new int[OPERATIONS.length];
+
+        /**
+         * The bytes allocated by every operation while measuring.
+         */
+        private final long[] allocated = new long[OPERATIONS.length];
+
+        /**
+         * The number of measured operations the system refused.
+         */
+        private final int[] refused = new int[OPERATIONS.length];
+
+        /**
+         * The first unexpected error, or {@code null}.
+         */
+        private String failure;
+
+        /**
+         * The slots found by the last search of this worker.
+         */
+        private List<AvailableSlot> lastSlots = new ArrayList<>();
+
+        /**
+         * Creates a worker.
+         *
+         * @param index The number of the worker, starting from 0.
+         * @param threads The number of workers.
+         */
+        Worker(int index, int threads) {
+            this.random = new SplittableRandom(seed * 31 + index);
+            for (int i = index; i < doctors.size(); i += threads) {
+                ownDoctors.add(doctors.get(i));
+            }
+            if (ownDoctors.isEmpty()) {
+                // More workers than doctors, so some doctors are shared
+                ownDoctors.add(doctors.get(index % doctors.size()));
+            }
+        }
+
+        /**
+         * Runs operations until the workload is stopped.
+         */
+        @Override
+        public void run() {
+            // Sessions read from their own input, as remote terminals do
+            Helper.attachSessionInput(new ByteArrayInputStream(new byte[0]));
+            int totalWeight = Arrays.stream(WEIGHTS).sum();
+            try {
+                while (running) {
+                    int op = 0;
+                    for (int draw = random.nextInt(totalWeight); draw >= WEIGHTS[op]; op++) {
+                        draw -= WEIGHTS[op];
+                    }
+                    long allocatedBefore = BenchmarkRunner.getAllocatedBytes();
+                    long started = System.nanoTime();
+                    boolean completed;
+                    try {
+                        completed = execute(op);
+                    } catch (ServiceException err) {
+                        completed = false;
+                    } catch (RuntimeException err) {
+                        completed = false;
+                        if (failure == null) {
+                            failure = OPERATIONS[op] + ": " + err;
+                        }
+                    }
+                    long latency = System.nanoTime() - started;
+                    if (recording) {
+                        record(op, latency, BenchmarkRunner.getAllocatedBytes() - allocatedBefore, completed);
+                    }
+                }
+            } finally {
+                Helper.detachSessionInput();
+            }
+        }
+
+        /**
+         * Records a measured operation.
+         *
+         * @param op The index of the operation.
+         * @param latency The latency in nanoseconds.
+         * @param allocatedBytes The bytes allocated by the operation.
+         * @param completed Whether the system completed the operation.
+         */
+        private void record(int op, long latency, long allocatedBytes, boolean completed) {
+            if (counts[op] == latencies[op].length) {
+                latencies[op] = Arrays.copyOf(latencies[op], counts[op] * 2);
+            }
+            latencies[op][counts[op]++] = latency;
+            allocated[op] += allocatedBytes;
+            if (!completed) {
+                refused[op]++;
+            }
+        }
+
+        /**
+         * Runs an operation of the workload.
+         *
+         * @param op The index of the operation.
+         * @return {@code true} if the system completed the operation,
+         * {@code false} if it was refused or there was nothing to do.
+         */
+        private boolean execute(int op) {
+            switch (op) {
+                case LOGIN:
+                    return login();
+                case SEARCH:
+                    return search();
+                case BOOK:
+                    return book();
+                case ACCEPT:
+                case DECLINE:
+                    return respond(op == ACCEPT);
+                case RECORD_OUTCOME:
+                    return recordOutcome();
+                case DISPENSE:
+                    return dispense();
+                case PAY:
+                    return pay();
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Logs in a random staff member or patient.
+         *
+         * @return Whether the login succeeded.
+         */
+        private boolean login() {
+            if (random.nextBoolean()) {
+                Staff member = staff.get(random.nextInt(staff.size()));
+                return StaffController.authenticate(member.getHospitalId(), PASSWORD, member.getRole());
+            }
+            return PatientController.authenticate(patients.get(random.nextInt(patients.size())).getPatientId(), PASSWORD);
+        }
+
+        /**
+         * Searches for the earliest free slots from a random day of the next
+         * two weeks, for a random specialization or for any doctor.
+         *
+         * @return Whether any slot was found.
+         */
+        private boolean search() {
+            LocalDateTime from = LocalDate.now().plusDays(random.nextInt(SEARCH_DAYS)).atStartOfDay();
+            Specialization specialization = random.nextBoolean() || specializations.isEmpty() ? null
+                    : specializations.get(random.nextInt(specializations.size()));
+            lastSlots = new ArrayList<>(AppointmentController.findAvailableSlots(APPOINTMENT_LENGTH, from,
+                    from.plusDays(SEARCH_DAYS), specialization, SEARCH_LIMIT));
+            return !lastSlots.isEmpty();
+        }
+
+        /**
+         * Books a random patient into a slot of the last search, searching
+         * first if no slot is left.
+         *
+         * @return Whether the appointment was booked.
+         */
+        private boolean book() {
+            if (lastSlots.isEmpty() && !search()) {
+                return false;
+            }
+            AvailableSlot slot = lastSlots.remove(random.nextInt(lastSlots.size()));
+            LocalDateTime startTime = slot.getSchedule().getStartTime();
+            Patient patient = patients.get(random.nextInt(patients.size()));
+            return AppointmentController.makeAppointment(patient, slot.getDoctor(), slot.getSchedule(), startTime,
+                    startTime.plus(APPOINTMENT_LENGTH));
+        }
+
+        /**
+         * Accepts or declines a random pending appointment of one of the
+         * doctors of this worker.
+         *
+         * @param accept {@code true} to accept, {@code false} to decline.
+         * @return Whether an appointment was accepted or declined.
+         */
+        private boolean respond(boolean accept) {
+            Doctor doctor = ownDoctors.get(random.nextInt(ownDoctors.size()));
+            List<Appointment> requested = DoctorController.getRequestedAppointments(doctor);
+            if (requested.isEmpty()) {
+                return false;
+            }
+            Appointment appointment = requested.get(random.nextInt(requested.size()));
+            if (accept) {
+                AppointmentController.acceptAppointment(doctor, appointment);
+                return appointment.getStatus() == AppointmentStatus.CONFIRMED;
+            }
+            AppointmentController.declineAppointment(appointment);
+            return appointment.getStatus() == AppointmentStatus.CANCELLED;
+        }
+
+        /**
+         * Records the outcome of the earliest confirmed appointment of one of
+         * the doctors of this worker, with a diagnosis prescribing one or two
+         * medicines and a consultation.
+         *
+         * @return Whether an outcome was recorded.
+         */
+        private boolean recordOutcome() {
+            Doctor doctor = ownDoctors.get(random.nextInt(ownDoctors.size()));
+            List<Appointment> confirmed = AppointmentController.viewConfirmAppointments(doctor);
+            if (confirmed.isEmpty() || medicineIds.isEmpty()) {
+                return false;
+            }
+            Appointment appointment = confirmed.get(0);
+            Patient patient = appointment.getPatient();
+            if (patient == null) {
+                return false;
+            }
+
+            List<Medicine> prescribedMedicines = new ArrayList<>();
+            List<Integer> medicineAmounts = new ArrayList<>();
+            int medicines = 1 + random.nextInt(2);
+            for (int i = 0; i < medicines; i++) {
+                Medicine medicine = Repository.INVENTORY.get(medicineIds.get(random.nextInt(medicineIds.size()))).getMedicine();
+                prescribedMedicines.add(new Medicine(medicine));
+                medicineAmounts.add(1 + random.nextInt(3));
+            }
+            Diagnosis diagnosis = new Diagnosis(0, "Upper respiratory infection",
+                    "Recorded by the workload benchmark");
+            List<Medicine> treatmentMedicines = new ArrayList<>();
+            for (Medicine medicine : prescribedMedicines) {
+                treatmentMedicines.add(new Medicine(medicine));
+            }
+            diagnosis.addTreatment(new Treatment(0, treatmentMedicines, new ArrayList<>(medicineAmounts)));
+            List<Diagnosis> diagnoses = new ArrayList<>();
+            diagnoses.add(diagnosis);
+            List<ServiceType> services = new ArrayList<>();
+            services.add(ServiceType.CONSULTATION);
+
+            AppointmentOutcome outcome = AppointmentService.recordOutcome(appointment, prescribedMedicines, medicineAmounts,
+                    diagnoses, services, "Rest and fluids.");
+            toDispense.add(outcome.getOutcomeId());
+            return true;
+        }
+
+        /**
+         * Dispenses every pending medicine of the next outcome waiting for the
+         * pharmacist, and hands it on for payment.
+         *
+         * @return Whether every medicine was dispensed.
+         */
+        private boolean dispense() {
+            String outcomeId = toDispense.poll();
+            if (outcomeId == null) {
+                return false;
+            }
+            boolean dispensedAll = true;
+            for (Medicine medicine : PrescriptionService.getOutcome(outcomeId).getPrescribedMedicines()) {
+                if (medicine.getStatus() != MedicineStatus.PENDING) {
+                    continue;
+                }
+                try {
+                    PrescriptionService.dispense(outcomeId, medicine.getMedicineId());
+                } catch (ServiceException err) {
+                    dispensedAll = false;
+                }
+            }
+            if (PrescriptionService.getOutcome(outcomeId).getPaymentStatus() != PaymentStatus.COMPLETED) {
+                toPay.add(outcomeId);
+            }
+            return dispensedAll;
+        }
+
+        /**
+         * Prints the receipt of the next outcome waiting for payment and pays
+         * it in cash.
+         *
+         * @return Whether the outcome was paid.
+         */
+        private boolean pay() {
+            String outcomeId = toPay.poll();
+            if (outcomeId == null) {
+                return false;
+            }
+            double total = PaymentController.generateReceipt(outcomeId);
+            PaymentService.payByCash(outcomeId, Math.ceil(total));
+            return true;
+        }
+    }
+}
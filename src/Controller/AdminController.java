@@ -6,6 +6,7 @@ import java.util.Map;
 import src.Enum.Gender;
 import src.Enum.StaffType;
 import src.Helper.Helper;
+import src.Metrics.Metrics;
 import src.Model.Admin;
 import src.Model.Staff;
 import src.Model.Doctor;
@@ -37,21 +38,26 @@ public class AdminController {
      * @return {@code true} if display successfully. Otherwise, {@code false}
      */
     public static boolean displayStaffListByRole(StaffType role) {
-        ArrayList<Staff> staffNameList = new ArrayList<Staff>();
-        //can't just iterate through map, need to do modification to loop through, need to import packages for map.entry
-        for (Map.Entry<String, Staff> entry : Repository.STAFF.entrySet()) {
-            Staff staff = entry.getValue();
-            if (staff.getRole().equals(role)) {
-                staffNameList.add(staff);
+        long started = System.nanoTime();
+        try {
+            ArrayList<Staff> staffNameList = new ArrayList<Staff>();
+            //can't just iterate through map, need to do modification to loop through, need to import packages for map.entry
+            for (Map.Entry<String, Staff> entry : Repository.STAFF.entrySet()) {
+                Staff staff = entry.getValue();
+                if (staff.getRole().equals(role)) {
+                    staffNameList.add(staff);
+                }
             }
-        }
-        if (staffNameList.size() != 0) {
-            for (Staff staff : staffNameList) {
-                System.out.println(staff.getName());
+            if (staffNameList.size() != 0) {
+                for (Staff staff : staffNameList) {
+                    System.out.println(staff.getName());
+                }
+                return true;
             }
-            return true;
+            return false;
+        } finally {
+            Metrics.record("AdminController.displayStaffListByRole", started);
         }
-        return false;
     }
 
     /**
@@ -61,21 +67,26 @@ public class AdminController {
      * @return {@code true} if display successfully. Otherwise, {@code false}
      */
     public static boolean displayStaffListByGender(Gender gender) {
-        ArrayList<Staff> staffNameList = new ArrayList<Staff>();
-        //can't just iterate through map, need to do modification to loop through, need to import packages for map.entry
-        for (Map.Entry<String, Staff> entry : Repository.STAFF.entrySet()) {
-            Staff staff = entry.getValue();
-            if (staff.getGender().equals(gender)) {
-                staffNameList.add(staff);
+        long started = System.nanoTime();
+        try {
+            ArrayList<Staff> staffNameList = new ArrayList<Staff>();
+            //can't just iterate through map, need to do modification to loop through, need to import packages for map.entry
+            for (Map.Entry<String, Staff> entry : Repository.STAFF.entrySet()) {
+                Staff staff = entry.getValue();
+                if (staff.getGender().equals(gender)) {
+                    staffNameList.add(staff);
+                }
             }
-        }
-        if (staffNameList.size() != 0) {
-            for (Staff staff : staffNameList) {
-                System.out.println(staff.getName());
+            if (staffNameList.size() != 0) {
+                for (Staff staff : staffNameList) {
+                    System.out.println(staff.getName());
+                }
+                return true;
             }
-            return true;
+            return false;
+        } finally {
+            Metrics.record("AdminController.displayStaffListByGender", started);
         }
-        return false;
     }
 
     /**
@@ -85,21 +96,26 @@ public class AdminController {
      * @return {@code true} if display successfully. Otherwise, {@code false}
      */
     public static boolean displayStaffListByAge(int age) {
-        ArrayList<Staff> staffNameList = new ArrayList<Staff>();
-        //can't just iterate through map, need to do modification to loop through, need to import packages for map.entry
-        for (Map.Entry<String, Staff> entry : Repository.STAFF.entrySet()) {
-            Staff staff = entry.getValue();
-            if (staff.getAge() == age) {
-                staffNameList.add(staff);
+        long started = System.nanoTime();
+        try {
+            ArrayList<Staff> staffNameList = new ArrayList<Staff>();
+            //can't just iterate through map, need to do modification to loop through, need to import packages for map.entry
+            for (Map.Entry<String, Staff> entry : Repository.STAFF.entrySet()) {
+                Staff staff = entry.getValue();
+                if (staff.getAge() == age) {
+                    staffNameList.add(staff);
+                }
             }
-        }
-        if (staffNameList.size() != 0) {
-            for (Staff staff : staffNameList) {
-                System.out.println(staff.getName());
+            if (staffNameList.size() != 0) {
+                for (Staff staff : staffNameList) {
+                    System.out.println(staff.getName());
+                }
+                return true;
             }
-            return true;
+            return false;
+        } finally {
+            Metrics.record("AdminController.displayStaffListByAge", started);
         }
-        return false;
     }
 
     /**
@@ -113,17 +129,22 @@ public class AdminController {
      * @param role the role of the new staff
      */
     public static void addStaffAccount(String name, String password, Gender gender, int age, String hospitalId, StaffType role) {
-        Staff staff;
-        if (role == StaffType.DOCTOR) {
-            staff = new Doctor(name, password, gender, age, hospitalId, null, null, null);
-        } else {
-            staff = new Staff(name, password, role, gender, age, hospitalId);
+        long started = System.nanoTime();
+        try {
+            Staff staff;
+            if (role == StaffType.DOCTOR) {
+                staff = new Doctor(name, password, gender, age, hospitalId, null, null, null);
+            } else {
+                staff = new Staff(name, password, role, gender, age, hospitalId);
+            }
+            // Update Hash Map
+            Repository.STAFF.put(staff.getHospitalId(), staff);
+            // Persist data to file
+            Repository.persistData(FileType.STAFF, staff.getHospitalId());
+            System.out.println("Staff added successfully! ID: " + hospitalId);
+        } finally {
+            Metrics.record("AdminController.addStaffAccount", started);
         }
-        // Update Hash Map
-        Repository.STAFF.put(staff.getHospitalId(), staff);
-        // Persist data to file
-        Repository.persistData(FileType.STAFF);
-        System.out.println("Staff added successfully! ID: " + hospitalId);
     }
 
     /**
@@ -138,7 +159,7 @@ public class AdminController {
             // Prompt confirmation before removal
             if (Helper.promptConfirmation("remove this staff")) {
                 Repository.STAFF.remove(hospitalId);
-                Repository.persistData(FileType.STAFF); // Persist changes
+                Repository.persistData(FileType.STAFF, hospitalId); // Persist changes
                 System.out.println("Staff removed successfully.");
                 return true;
             } else {
@@ -178,26 +199,31 @@ public class AdminController {
      * {@code false}
      */
     public static boolean updateStaffAccount(String hospitalId, String name, int attributeCode) {
-        // Create a list to store Staff objects
-        ArrayList<Staff> updateList = searchStaffById(hospitalId);
-        if (updateList.isEmpty()) {
-            // Staff not found
-            return false;
-        }
+        long started = System.nanoTime();
+        try {
+            // Create a list to store Staff objects
+            ArrayList<Staff> updateList = searchStaffById(hospitalId);
+            if (updateList.isEmpty()) {
+                // Staff not found
+                return false;
+            }
 
-        // Loop through staff objects
-        for (Staff staff : updateList) {
-            Staff staffToUpdate = Repository.STAFF.get(hospitalId);
-            if (staffToUpdate != null) {
-                if (attributeCode == 1) {
-                    staffToUpdate.setName(name);
+            // Loop through staff objects
+            for (Staff staff : updateList) {
+                Staff staffToUpdate = Repository.STAFF.get(hospitalId);
+                if (staffToUpdate != null) {
+                    if (attributeCode == 1) {
+                        staffToUpdate.setName(name);
+                    }
+                    Repository.STAFF.put(hospitalId, staffToUpdate);
                 }
-                Repository.STAFF.put(hospitalId, staffToUpdate);
             }
-        }
 
-        Repository.persistData(FileType.STAFF);
-        return true;
+            Repository.persistData(FileType.STAFF, hospitalId);
+            return true;
+        } finally {
+            Metrics.record("AdminController.updateStaffAccount", started);
+        }
     }
 
     /**
@@ -211,26 +237,31 @@ public class AdminController {
      * {@code false}
      */
     public static boolean updateStaffAccount(String hospitalId, int attributeCode, Gender gender) {
-        // Create a list to store Staff objects
-        ArrayList<Staff> updateList = searchStaffById(hospitalId);
-        if (updateList.isEmpty()) {
-            // Staff not found
-            return false;
-        }
+        long started = System.nanoTime();
+        try {
+            // Create a list to store Staff objects
+            ArrayList<Staff> updateList = searchStaffById(hospitalId);
+            if (updateList.isEmpty()) {
+                // Staff not found
+                return false;
+            }
 
-        // Loop through staff objects
-        for (Staff staff : updateList) {
-            Staff staffToUpdate = Repository.STAFF.get(hospitalId);
-            if (staffToUpdate != null) {
-                if (attributeCode == 2) {
-                    staffToUpdate.setGender(gender);
+            // Loop through staff objects
+            for (Staff staff : updateList) {
+                Staff staffToUpdate = Repository.STAFF.get(hospitalId);
+                if (staffToUpdate != null) {
+                    if (attributeCode == 2) {
+                        staffToUpdate.setGender(gender);
+                    }
+                    Repository.STAFF.put(hospitalId, staffToUpdate);
                 }
-                Repository.STAFF.put(hospitalId, staffToUpdate);
             }
-        }
 
-        Repository.persistData(FileType.STAFF);
-        return true;
+            Repository.persistData(FileType.STAFF, hospitalId);
+            return true;
+        } finally {
+            Metrics.record("AdminController.updateStaffAccount", started);
+        }
     }
 
     /**
@@ -244,25 +275,30 @@ public class AdminController {
      * {@code false}
      */
     public static boolean updateStaffAccount(String hospitalId, int attributeCode, int age) {
-        // Create a list to store Staff objects
-        ArrayList<Staff> updateList = searchStaffById(hospitalId);
-        if (updateList.isEmpty()) {
-            // Staff not found
-            return false;
-        }
+        long started = System.nanoTime();
+        try {
+            // Create a list to store Staff objects
+            ArrayList<Staff> updateList = searchStaffById(hospitalId);
+            if (updateList.isEmpty()) {
+                // Staff not found
+                return false;
+            }
 
-        // Loop through staff objects
-        for (Staff staff : updateList) {
-            Staff staffToUpdate = Repository.STAFF.get(hospitalId);
-            if (staffToUpdate != null) {
-                if (attributeCode == 3) {
-                    staffToUpdate.setAge(age);
+            // Loop through staff objects
+            for (Staff staff : updateList) {
+                Staff staffToUpdate = Repository.STAFF.get(hospitalId);
+                if (staffToUpdate != null) {
+                    if (attributeCode == 3) {
+                        staffToUpdate.setAge(age);
+                    }
+                    Repository.STAFF.put(hospitalId, staffToUpdate);
                 }
-                Repository.STAFF.put(hospitalId, staffToUpdate);
             }
-        }
 
-        Repository.persistData(FileType.STAFF);
-        return true;
+            Repository.persistData(FileType.STAFF, hospitalId);
+            return true;
+        } finally {
+            Metrics.record("AdminController.updateStaffAccount", started);
+        }
     }
 }
@@ -1,17 +1,25 @@
 package src.Controller;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
 import src.Enum.AppointmentStatus;
-import src.Helper.Helper;
+import src.Metrics.Metrics;
+import src.Metrics.OperationEvent;
 import src.Model.Admin;
 import src.Model.Appointment;
+import src.Model.AvailableSlot;
 import src.Model.Doctor;
 import src.Model.Patient;
 import src.Model.Schedule;
+import src.Model.Specialization;
 import src.Repository.FileType;
+import src.Repository.FreeSlotIndex;
 import src.Repository.Repository;
+import src.Service.AppointmentService;
+import src.Service.ServiceException;
 import src.View.AdminView;
 import src.View.DisplayAppointmentDetailView;
 
@@ -65,9 +73,7 @@ public class AppointmentController {
      * @return A unique appointment ID as a string.
      */
     public static String generateAppointmentId() {
-        String prefix = "A";
-        int uniqueId = Helper.generateUniqueId(Repository.APPOINTMENT_LIST);
-        return prefix + String.format("%03d", uniqueId);
+        return AppointmentService.generateAppointmentId();
     }
 
     /**
@@ -85,52 +91,19 @@ public class AppointmentController {
      * {@code false} otherwise.
      */
     public static boolean makeAppointment(Patient patient, Doctor doctor, Schedule schedule, LocalDateTime startTime, LocalDateTime endTime) {
-        if (schedule == null || patient == null || doctor == null || startTime == null || endTime == null) {
-            System.out.println("Invalid data. One or more required fields are missing.");
-            return false;
-        }
-
-        // Check if the selected start and end time fit within the available schedule
-        if (startTime.isBefore(schedule.getStartTime()) || endTime.isAfter(schedule.getEndTime())) {
-            System.out.println("The selected times are outside the available slot: " + schedule.getStartTime() + " - " + schedule.getEndTime());
-            return false;
-        }
-
-        // Calculate the duration of the appointment
-        long duration = java.time.Duration.between(startTime, endTime).toMinutes();
-        if (duration <= 0) {
-            System.out.println("The end time must be after the start time.");
-            return false;
-        }
-
-        // Load existing appointments
-        Repository.readData(FileType.APPOINTMENT_LIST);
-
-        // Check for conflicting appointments within the selected schedule
-        for (Appointment existingAppointment : Repository.APPOINTMENT_LIST.values()) {
-            if (existingAppointment.getAttendingDoctor().equals(doctor)
-                    && existingAppointment.getStatus() != AppointmentStatus.CANCELLED) {
-                LocalDateTime existingStart = existingAppointment.getAppointmentStartDate();
-                LocalDateTime existingEnd = existingAppointment.getAppointmentEndDate();
-                // Check if the time overlaps with any existing appointment
-                if (startTime.isBefore(existingEnd) && endTime.isAfter(existingStart)) {
-                    System.out.println("\nThe selected time slot is already booked from " + existingStart + " to " + existingEnd);
-                    return false;
-                }
+        long started = System.nanoTime();
+        try {
+            try {
+                Appointment appointment = AppointmentService.book(patient, doctor, schedule, startTime, endTime);
+                System.out.println("Appointment " + appointment.getAppointmentId() + " successfully created!");
+                return true;
+            } catch (ServiceException e) {
+                System.out.println(e.getMessage());
+                return false;
             }
+        } finally {
+            Metrics.record("AppointmentController.makeAppointment", started);
         }
-
-        // Create and add the new appointment
-        Appointment appointment = new Appointment(patient, doctor, startTime, endTime);
-        appointment.setStatus(AppointmentStatus.PENDING);
-        appointment.setAppointmentId(generateAppointmentId());
-
-        Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
-
-        // Persist the updated appointment list
-        Repository.persistData(FileType.APPOINTMENT_LIST);
-        System.out.println("Appointment " + appointment.getAppointmentId() + " successfully created!");
-        return true;
     }
 
     /**
@@ -142,14 +115,13 @@ public class AppointmentController {
      * patient.
      */
     public static List<Appointment> viewPatientAppointments(Patient patient) {
-        List<Appointment> patientAppointments = new ArrayList<>();
-        Repository.readData(FileType.APPOINTMENT_LIST);
-        for (Appointment appointment : Repository.APPOINTMENT_LIST.values()) {
-            if (appointment.getPatient().equals(patient)) {
-                patientAppointments.add(appointment);
-            }
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.APPOINTMENT_LIST);
+            return Repository.APPOINTMENT_INDEX.getByPatient(patient.getPatientId());
+        } finally {
+            Metrics.record("AppointmentController.viewPatientAppointments", started);
         }
-        return patientAppointments;
     }
 
     /**
@@ -163,30 +135,23 @@ public class AppointmentController {
      * {@code false} otherwise.
      */
     public static boolean rescheduleAppointment(Appointment appointment, Schedule newSchedule) {
-        if (appointment == null || newSchedule == null) {
-            System.out.println("Invalid appointment or schedule.");
-            return false;
-        }
-
-        // Check if the appointment is pending
-        if (appointment.getStatus() != AppointmentStatus.PENDING) {
-            System.out.println("Appointment cannot be rescheduled because it is not pending.");
-            return false;
+        long started = System.nanoTime();
+        try {
+            if (newSchedule == null) {
+                System.out.println("Invalid appointment or schedule.");
+                return false;
+            }
+            try {
+                AppointmentService.reschedule(appointment, newSchedule.getStartTime(), newSchedule.getEndTime());
+                System.out.println("Appointment successfully rescheduled!");
+                return true;
+            } catch (ServiceException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        } finally {
+            Metrics.record("AppointmentController.rescheduleAppointment", started);
         }
-
-        LocalDateTime newStartTime = newSchedule.getStartTime();
-        LocalDateTime newEndTime = newSchedule.getEndTime();
-        appointment.setAppointmentStartDate(newStartTime);
-        appointment.setAppointmentEndDate(newEndTime);
-        appointment.setStatus(AppointmentStatus.PENDING);
-
-        // Update the repository with the rescheduled appointment
-        Repository.readData(FileType.APPOINTMENT_LIST);
-        Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
-        Repository.persistData(FileType.APPOINTMENT_LIST);
-
-        System.out.println("Appointment successfully rescheduled!");
-        return true;
     }
 
     /**
@@ -199,26 +164,18 @@ public class AppointmentController {
      * {@code false} otherwise.
      */
     public static boolean cancelAppointment(Appointment appointment) {
-        if (appointment == null) {
-            System.out.println("Invalid appointment.");
-            return false;
-        }
-
-        // Check if the appointment is pending
-        if (appointment.getStatus() != AppointmentStatus.PENDING) {
-            System.out.println("Appointment cannot be canceled because it is not pending.");
-            return false;
+        long started = System.nanoTime();
+        try {
+            try {
+                AppointmentService.cancel(appointment);
+                return true;
+            } catch (ServiceException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        } finally {
+            Metrics.record("AppointmentController.cancelAppointment", started);
         }
-
-        // Set the status to CANCELLED
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-
-        // Save the updated appointment
-        Repository.readData(FileType.APPOINTMENT_LIST);
-        Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
-        Repository.persistData(FileType.APPOINTMENT_LIST);
-
-        return true;
     }
 
     /**
@@ -229,19 +186,16 @@ public class AppointmentController {
      * @return A list of {@link Appointment} objects associated with the doctor.
      */
     public static List<Appointment> viewDoctorAppointments(Doctor doctor) {
-        List<Appointment> doctorAppointments = new ArrayList<>();
-
-        // Load appointments from the Repository (appointmentlist.dat)
-        Repository.readData(FileType.APPOINTMENT_LIST);
-
-        for (Appointment appointment : Repository.APPOINTMENT_LIST.values()) {
-            // Check if the appointment is for the given doctor
-            if (appointment.getAttendingDoctor().equals(doctor)) {
-                doctorAppointments.add(appointment);
-            }
+        long started = System.nanoTime();
+        try {
+            // Load appointments from the Repository (appointmentlist.dat)
+            Repository.readData(FileType.APPOINTMENT_LIST);
+
+            // Look up the appointments of the doctor in the index
+            return Repository.APPOINTMENT_INDEX.getByDoctor(doctor.getHospitalId());
+        } finally {
+            Metrics.record("AppointmentController.viewDoctorAppointments", started);
         }
-        // Return the list of appointments for the doctor
-        return doctorAppointments;
     }
 
     /**
@@ -254,31 +208,50 @@ public class AppointmentController {
      * @param appointment The {@link Appointment} to be confirmed.
      */
     public static void acceptAppointment(Doctor doctor, Appointment appointment) {
-        LocalDateTime appointmentStart = appointment.getAppointmentStartDate();
-        LocalDateTime appointmentEnd = appointment.getAppointmentEndDate();
-        // Fetch available slots for the selected doctor (with pending appointments excluded)
-        List<Schedule> availableSlots = AppointmentController.getAvailableSlotsForDoctorExcludingAppointment(doctor, appointment);
-
-        // Update the doctor's availability for the specific appointment date
-        appointment.setStatus(AppointmentStatus.CONFIRMED);
-        boolean updateSuccessful = DoctorController.updateDoctorAvailability(
-                doctor,
-                appointmentStart,
-                appointmentEnd,
-                availableSlots
-        );
-        if (!updateSuccessful) {
-            System.out.println("Update doctor availability error.");
-            return;
-        }
-        // Persist the updated appointment status and doctor's schedule
-        Repository.readData(FileType.APPOINTMENT_LIST);
-        Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
-        Repository.persistData(FileType.APPOINTMENT_LIST);
-        // Print updated doctor's availability after the appointment
-        System.out.println("\nAppointment accepted. Doctor's availability has been updated to:");
-        for (Schedule updatedSchedule : doctor.getAvailability()) {
-            System.out.println("  Available from " + updatedSchedule.getStartTime() + " to " + updatedSchedule.getEndTime());
+        long started = System.nanoTime();
+        OperationEvent event = OperationEvent.start("AppointmentController.acceptAppointment", appointment.getAppointmentId());
+        try {
+            // Hold the schedule lock of the doctor while the availability is recalculated
+            Lock scheduleLock = AppointmentService.lockSchedule(doctor.getHospitalId());
+            try {
+                LocalDateTime appointmentStart = appointment.getAppointmentStartDate();
+                LocalDateTime appointmentEnd = appointment.getAppointmentEndDate();
+                // Fetch available slots for the selected doctor (with pending appointments excluded)
+                List<Schedule> availableSlots = AppointmentController.getAvailableSlotsForDoctorExcludingAppointment(doctor, appointment);
+
+                // Persist the updated appointment status and doctor's schedule together
+                Repository.readData(FileType.APPOINTMENT_LIST);
+                boolean[] updateSuccessful = {false};
+                Repository.transaction(() -> {
+                    // Update the doctor's availability for the specific appointment date
+                    appointment.setStatus(AppointmentStatus.CONFIRMED);
+                    updateSuccessful[0] = DoctorController.updateDoctorAvailability(
+                            doctor,
+                            appointmentStart,
+                            appointmentEnd,
+                            availableSlots
+                    );
+                    if (updateSuccessful[0]) {
+                        Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
+                        Repository.persistData(FileType.APPOINTMENT_LIST, appointment.getAppointmentId());
+                    }
+                });
+                if (!updateSuccessful[0]) {
+                    System.out.println("Update doctor availability error.");
+                    return;
+                }
+                event.succeed(null);
+                // Print updated doctor's availability after the appointment
+                System.out.println("\nAppointment accepted. Doctor's availability has been updated to:");
+                for (Schedule updatedSchedule : doctor.getAvailability()) {
+                    System.out.println("  Available from " + updatedSchedule.getStartTime() + " to " + updatedSchedule.getEndTime());
+                }
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            event.finish();
+            Metrics.record("AppointmentController.acceptAppointment", started);
         }
     }
 
@@ -290,10 +263,24 @@ public class AppointmentController {
      * @param appointment The {@link Appointment} to be declined.
      */
     public static void declineAppointment(Appointment appointment) {
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-        Repository.readData(FileType.APPOINTMENT_LIST);
-        Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
-        Repository.persistData(FileType.APPOINTMENT_LIST);
+        long started = System.nanoTime();
+        OperationEvent event = OperationEvent.start("AppointmentController.declineAppointment", appointment.getAppointmentId());
+        try {
+            // Hold the schedule lock of the doctor so that the patient cannot reschedule it meanwhile
+            Lock scheduleLock = AppointmentService.lockSchedule(appointment.getDoctorId());
+            try {
+                appointment.setStatus(AppointmentStatus.CANCELLED);
+                Repository.readData(FileType.APPOINTMENT_LIST);
+                Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
+                Repository.persistData(FileType.APPOINTMENT_LIST, appointment.getAppointmentId());
+                event.succeed(null);
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            event.finish();
+            Metrics.record("AppointmentController.declineAppointment", started);
+        }
     }
 
     /**
@@ -309,20 +296,16 @@ public class AppointmentController {
      * @return A list of confirmed appointments for the specified doctor.
      */
     public static List<Appointment> viewConfirmAppointments(Doctor doctor) {
-        List<Appointment> doctorAppointments = new ArrayList<>();
-
-        // Load appointments from the Repository (appointmentlist.dat)
-        Repository.readData(FileType.APPOINTMENT_LIST);
-
-        // Get the appointments from the Repository
-        for (Appointment appointment : Repository.APPOINTMENT_LIST.values()) {
-            // Check if the appointment is for the given doctor
-            if (appointment.getAttendingDoctor().equals(doctor) && appointment.getStatus() == AppointmentStatus.CONFIRMED) {
-                doctorAppointments.add(appointment);
-            }
+        long started = System.nanoTime();
+        try {
+            // Load appointments from the Repository (appointmentlist.dat)
+            Repository.readData(FileType.APPOINTMENT_LIST);
+
+            // Look up the confirmed appointments of the doctor in the index
+            return Repository.APPOINTMENT_INDEX.getByDoctor(doctor.getHospitalId(), AppointmentStatus.CONFIRMED);
+        } finally {
+            Metrics.record("AppointmentController.viewConfirmAppointments", started);
         }
-        // Return the list of appointments for the doctor
-        return doctorAppointments;
     }
 
     /**
@@ -339,20 +322,16 @@ public class AppointmentController {
      * @return A list of available time slots as {@link Schedule} objects.
      */
     public static List<Appointment> viewCompleteAppointments(Doctor doctor) {
-        List<Appointment> doctorAppointments = new ArrayList<>();
-
-        // Load appointments from the Repository (appointmentlist.dat)
-        Repository.readData(FileType.APPOINTMENT_LIST);
-
-        // Get the appointments from the Repository
-        for (Appointment appointment : Repository.APPOINTMENT_LIST.values()) {
-            // Check if the appointment is for the given doctor
-            if (appointment.getAttendingDoctor().equals(doctor) && appointment.getStatus() == AppointmentStatus.COMPLETED) {
-                doctorAppointments.add(appointment);
-            }
+        long started = System.nanoTime();
+        try {
+            // Load appointments from the Repository (appointmentlist.dat)
+            Repository.readData(FileType.APPOINTMENT_LIST);
+
+            // Look up the completed appointments of the doctor in the index
+            return Repository.APPOINTMENT_INDEX.getByDoctor(doctor.getHospitalId(), AppointmentStatus.COMPLETED);
+        } finally {
+            Metrics.record("AppointmentController.viewCompleteAppointments", started);
         }
-        // Return the list of appointments for the doctor
-        return doctorAppointments;
     }
 
     /**
@@ -368,69 +347,102 @@ public class AppointmentController {
      * @return A list of completed appointments for the specified patient.
      */
     public static List<Appointment> viewCompleteAppointments(Patient patient) {
-        List<Appointment> patientAppointments = new ArrayList<>();
-
-        // Load appointments from the Repository (appointmentlist.dat)
-        Repository.readData(FileType.APPOINTMENT_LIST);
-
-        // Get the appointments from the Repository
-        for (Appointment appointment : Repository.APPOINTMENT_LIST.values()) {
-            // Check if the appointment is for the given doctor
-            if (appointment.getPatient().equals(patient) && appointment.getStatus() == AppointmentStatus.COMPLETED) {
-                patientAppointments.add(appointment);
-            }
+        long started = System.nanoTime();
+        try {
+            // Load appointments from the Repository (appointmentlist.dat)
+            Repository.readData(FileType.APPOINTMENT_LIST);
+
+            // Look up the completed appointments of the patient in the index
+            return Repository.APPOINTMENT_INDEX.getByPatient(patient.getPatientId(), AppointmentStatus.COMPLETED);
+        } finally {
+            Metrics.record("AppointmentController.viewCompleteAppointments", started);
         }
-        // Return the list of appointments for the doctor
-        return patientAppointments;
     }
 
     /**
-     * Retrieves a list of completed appointments for a specific patient.
+     * Retrieves the available time slots for a doctor based on their schedule
+     * and pending appointments.
      * <p>
-     * This method loads the appointments from the repository and filters them
-     * to include only those that are completed and associated with the given
-     * patient.
+     * The slots are the doctor's availability minus the time taken by pending
+     * appointments, merged and ordered by start time. They are maintained
+     * incrementally by {@link Repository#FREE_SLOT_INDEX} and not recomputed on
+     * every call.
      * </p>
      *
      * @author Jasmine Tye
-     * @param patient The patient for whom to retrieve completed appointments.
-     * @return A list of completed appointments for the specified patient.
+     * @param doctor The doctor whose available slots need to be retrieved.
+     * @return A list of available time slots as {@link Schedule} objects.
      */
     public static List<Schedule> getAvailableSlotsForDoctor(Doctor doctor) {
-        List<Schedule> availableSlots = new ArrayList<>();
-        List<Schedule> doctorSchedule = doctor.getAvailability();
-        List<Appointment> allAppointments = viewDoctorAppointments(doctor);
-        // Filter for pending and cancelled appointments
-        List<Appointment> relevantAppointments = allAppointments.stream()
-                .filter(appointment -> appointment.getStatus() == AppointmentStatus.PENDING)
-                .collect(Collectors.toList());
-
-        relevantAppointments.sort(Comparator.comparing(Appointment::getAppointmentStartDate));
-        for (Schedule schedule : doctorSchedule) {
-            LocalDateTime currentStart = schedule.getStartTime();
-            LocalDateTime currentEnd = schedule.getEndTime();
-            // Iterate through all relevant appointments and check for overlaps
-            for (Appointment appointment : relevantAppointments) {
-                LocalDateTime appointmentStart = appointment.getAppointmentStartDate();
-                LocalDateTime appointmentEnd = appointment.getAppointmentEndDate();
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.APPOINTMENT_LIST);
+            return Repository.FREE_SLOT_INDEX.getFreeSlots(doctor);
+        } finally {
+            Metrics.record("AppointmentController.getAvailableSlotsForDoctor", started);
+        }
+    }
 
-                // If the appointment overlaps with the schedule slot
-                if (appointmentStart.isBefore(currentEnd) && appointmentEnd.isAfter(currentStart)) {
-                    // If the appointment starts after the current start time, add the slot before it
-                    if (appointmentStart.isAfter(currentStart)) {
-                        availableSlots.add(new Schedule(currentStart, appointmentStart));
-                    }
-                    // Set the new start time to the end of the current appointment
-                    currentStart = appointmentEnd;
-                }
-            }
+    /**
+     * Retrieves the available time slots for a doctor grouped by date.
+     *
+     * @param doctor The doctor whose available slots need to be retrieved.
+     * @return The available slots keyed by the date they start on, in date
+     * order.
+     */
+    public static TreeMap<LocalDate, List<Schedule>> getAvailableSlotsByDate(Doctor doctor) {
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.APPOINTMENT_LIST);
+            return Repository.FREE_SLOT_INDEX.getFreeSlotsByDate(doctor);
+        } finally {
+            Metrics.record("AppointmentController.getAvailableSlotsByDate", started);
+        }
+    }
 
-            // After checking all relevant appointments, if there's remaining time, add it as an available slot
-            if (currentStart.isBefore(currentEnd)) {
-                availableSlots.add(new Schedule(currentStart, currentEnd));
-            }
+    /**
+     * Retrieves the time slots an appointment can be rescheduled to, grouped by
+     * date. The time currently taken by the appointment itself is treated as
+     * available.
+     *
+     * @param doctor The doctor attending the appointment.
+     * @param appointment The appointment being rescheduled.
+     * @return The available slots keyed by the date they start on, in date
+     * order.
+     */
+    public static TreeMap<LocalDate, List<Schedule>> getAvailableSlotsForReschedule(Doctor doctor, Appointment appointment) {
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.APPOINTMENT_LIST);
+            return FreeSlotIndex.groupByDate(Repository.FREE_SLOT_INDEX.getFreeSlots(doctor, appointment.getAppointmentId()));
+        } finally {
+            Metrics.record("AppointmentController.getAvailableSlotsForReschedule", started);
+        }
+    }
+
+    /**
+     * Searches the earliest available slots across all doctors.
+     *
+     * @param duration The minimum length of a slot, or {@code null} for any
+     * length.
+     * @param from The start of the search window, or {@code null} for no
+     * bound.
+     * @param to The end of the search window, or {@code null} for no bound.
+     * @param specialization Only doctors with this specialization are
+     * searched, or all doctors if {@code null}.
+     * @param limit The maximum number of slots to return.
+     * @return Up to {@code limit} {@link AvailableSlot} objects ordered by
+     * start time.
+     */
+    public static List<AvailableSlot> findAvailableSlots(Duration duration, LocalDateTime from, LocalDateTime to,
+            Specialization specialization, int limit) {
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.APPOINTMENT_LIST);
+            return Repository.FREE_SLOT_INDEX.findEarliestSlots(DoctorController.getAllDoctors(), duration, from, to, specialization, limit);
+        } finally {
+            Metrics.record("AppointmentController.findAvailableSlots", started);
         }
-        return availableSlots;
     }
 
     /**
@@ -445,7 +457,7 @@ public class AppointmentController {
      */
     public static List<Schedule> getAvailableSlotsForDoctorExcludingAppointment(Doctor doctor, Appointment appointmentToAccept) {
         List<Schedule> availableSlots = new ArrayList<>();
-        List<Schedule> doctorSchedule = DoctorController.getSchedule(doctor);
+        List<Schedule> doctorSchedule = new ArrayList<>(DoctorController.getSchedule(doctor));
 
         // Sort doctor’s availability for consistency
         doctorSchedule.sort(Comparator.comparing(Schedule::getStartTime));
@@ -490,19 +502,152 @@ public class AppointmentController {
      * a "not found" message if the appointment does not exist.
      */
     public static String getAppointmentDetails(String appointmentId) {
-        // Load appointments from the Repository (to ensure the latest data is used)
-        Repository.readData(FileType.APPOINTMENT_LIST);
+        long started = System.nanoTime();
+        try {
+            // Load appointments from the Repository (to ensure the latest data is used)
+            Repository.readData(FileType.APPOINTMENT_LIST);
+
+            // Search for the appointment in the APPOINTMENT_LIST map
+            Appointment appointment = Repository.APPOINTMENT_LIST.get(appointmentId);
+
+            // If found, format and return the details
+            if (appointment != null) {
+                return formatAppointmentDetails(appointment);
+            }
+
+            // If not found, return a "not found" message
+            return "Appointment with ID " + appointmentId + " not found.";
+        } finally {
+            Metrics.record("AppointmentController.getAppointmentDetails", started);
+        }
+    }
+
+    /**
+     * Retrieves the details of several appointments at once. The appointment
+     * data is loaded at most once for the whole batch, so every row is taken
+     * from the same in-memory snapshot.
+     *
+     * @param appointmentIds The IDs of the appointments, in display order.
+     * @return One formatted entry per ID, or a "not found" message for IDs
+     * that do not exist.
+     */
+    public static List<String> getAppointmentDetails(List<String> appointmentIds) {
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.APPOINTMENT_LIST);
+
+            List<String> details = new ArrayList<>(appointmentIds.size());
+            for (String appointmentId : appointmentIds) {
+                Appointment appointment = Repository.APPOINTMENT_LIST.get(appointmentId);
+                details.add(appointment != null
+                        ? formatAppointmentDetails(appointment)
+                        : "Appointment with ID " + appointmentId + " not found.");
+            }
+            return details;
+        } finally {
+            Metrics.record("AppointmentController.getAppointmentDetails", started);
+        }
+    }
+
+    /**
+     * Finds the appointments matching the given filter, ordered by start date
+     * and then by appointment ID. The lookup goes through the appointment index
+     * instead of scanning every appointment.
+     *
+     * @param date The day the appointments start on, or {@code null} for any
+     * day.
+     * @param status The status of the appointments, or {@code null} for any
+     * status.
+     * @return The matching appointments.
+     */
+    public static List<Appointment> findAppointments(LocalDate date, AppointmentStatus status) {
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.APPOINTMENT_LIST);
+
+            List<Appointment> result;
+            if (date != null) {
+                result = Repository.APPOINTMENT_INDEX.getStartingBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+                if (status != null) {
+                    result.removeIf(appointment -> appointment.getStatus() != status);
+                }
+            } else if (status != null) {
+                result = Repository.APPOINTMENT_INDEX.getByStatus(status);
+            } else {
+                result = new ArrayList<>(Repository.APPOINTMENT_LIST.values());
+            }
+            result.sort(Comparator.comparing(Appointment::getAppointmentStartDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(Appointment::getAppointmentId));
+            return result;
+        } finally {
+            Metrics.record("AppointmentController.findAppointments", started);
+        }
+    }
 
-        // Search for the appointment in the APPOINTMENT_LIST map
-        Appointment appointment = Repository.APPOINTMENT_LIST.get(appointmentId);
+    /**
+     * Formats one page of appointments as single-line summary rows.
+     *
+     * @param appointments The appointments to page through, usually returned
+     * by {@link #findAppointments(LocalDate, AppointmentStatus)}.
+     * @param page The page number, starting from 1.
+     * @param pageSize The number of rows per page.
+     * @return The summary rows of the page, empty if the page is out of range.
+     */
+    public static List<String> getAppointmentRows(List<Appointment> appointments, int page, int pageSize) {
+        int from = (page - 1) * pageSize;
+        if (page < 1 || pageSize < 1 || from >= appointments.size()) {
+            return new ArrayList<>();
+        }
+        int to = Math.min(from + pageSize, appointments.size());
 
-        // If found, format and return the details
-        if (appointment != null) {
-            return formatAppointmentDetails(appointment);
+        List<String> rows = new ArrayList<>(to - from);
+        for (Appointment appointment : appointments.subList(from, to)) {
+            rows.add(formatAppointmentRow(appointment));
         }
+        return rows;
+    }
 
-        // If not found, return a "not found" message
-        return "Appointment with ID " + appointmentId + " not found.";
+    /**
+     * Returns the name of the patient of an appointment. Appointments only
+     * store the patient ID, so the ID is returned if the patient no longer
+     * exists.
+     *
+     * @param appointment The appointment.
+     * @return The name of the patient, or the patient ID.
+     */
+    public static String getPatientName(Appointment appointment) {
+        Patient patient = appointment.getPatient();
+        return patient != null ? patient.getName() : appointment.getPatientId();
+    }
+
+    /**
+     * Returns the name of the doctor of an appointment. Appointments only store
+     * the doctor ID, so the ID is returned if the doctor no longer exists.
+     *
+     * @param appointment The appointment.
+     * @return The name of the doctor, or the doctor ID.
+     */
+    public static String getDoctorName(Appointment appointment) {
+        Doctor doctor = appointment.getAttendingDoctor();
+        return doctor != null ? doctor.getName() : appointment.getDoctorId();
+    }
+
+    /**
+     * Formats an appointment into a single summary line containing the
+     * appointment ID, patient name, doctor name, time and status.
+     *
+     * @param appointment The appointment object to format.
+     * @return The summary line of the appointment.
+     */
+    private static String formatAppointmentRow(Appointment appointment) {
+        return String.format("%-6s | %-20s | %-20s | %s - %s | %s",
+                appointment.getAppointmentId(),
+                getPatientName(appointment),
+                getDoctorName(appointment),
+                appointment.getAppointmentStartDate(),
+                appointment.getAppointmentEndDate() != null ? appointment.getAppointmentEndDate().toLocalTime() : null,
+                appointment.getStatus()
+        );
     }
 
     /**
@@ -519,8 +664,8 @@ public class AppointmentController {
         return String.format(
                 "Appointment ID: %s\nPatient Name: %s\nDoctor Name: %s\nStart Time: %s\nEnd Time: %s\nStatus: %s",
                 appointment.getAppointmentId(),
-                appointment.getPatient().getName(), // Get the patient's name
-                appointment.getAttendingDoctor().getName(), // Get the doctor's name
+                getPatientName(appointment), // Get the patient's name
+                getDoctorName(appointment), // Get the doctor's name
                 appointment.getAppointmentStartDate(),
                 appointment.getAppointmentEndDate(),
                 appointment.getStatus()
@@ -4,12 +4,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import src.Enum.MedicineStatus;
+import src.Enum.ServiceError;
 import src.Helper.Helper;
+import src.Metrics.Metrics;
 import src.Model.AppointmentOutcome;
 import src.Model.InventoryList;
 import src.Model.Medicine;
 import src.Repository.FileType;
 import src.Repository.Repository;
+import src.Service.AppointmentService;
+import src.Service.PrescriptionService;
+import src.Service.ServiceException;
 
 /**
  * The {@code AppointmentOutcomeController} class manages operations related to
@@ -28,46 +33,51 @@ public class AppointmentOutcomeController {
      * found, displays pending medicine details for each outcome.
      */
     public static void checkPendingMedicinePrescription() {
-        String pendingRequests = null;
-        AppointmentOutcomeController controller = new AppointmentOutcomeController();
+        long started = System.nanoTime();
+        try {
+            String pendingRequests = null;
+            AppointmentOutcomeController controller = new AppointmentOutcomeController();
+
+            if (Repository.APPOINTMENT_OUTCOME.isEmpty()) {
+                System.out.println("No appointment outcome with pending medicine prescription found.\n");
+                return;
+            }
 
-        if (Repository.APPOINTMENT_OUTCOME.isEmpty()) {
-            System.out.println("No appointment outcome with pending medicine prescription found.\n");
-            return;
-        }
+            boolean hasPendingPrescription = false;
 
-        boolean hasPendingPrescription = false;
+            // Loop through all requests in the repository
+            for (Map.Entry<String, AppointmentOutcome> entry : Repository.APPOINTMENT_OUTCOME.entrySet()) {
+                int i = 0;
+                AppointmentOutcome appointmentOutcome = entry.getValue();
 
-        // Loop through all requests in the repository
-        for (Map.Entry<String, AppointmentOutcome> entry : Repository.APPOINTMENT_OUTCOME.entrySet()) {
-            int i = 0;
-            AppointmentOutcome appointmentOutcome = entry.getValue();
+                // Create a list to store pending medicines for the current appointment
+                List<Medicine> pendingMedicines = new ArrayList<>();
+                List<Integer> pendingAmount = new ArrayList<>();
 
-            // Create a list to store pending medicines for the current appointment
-            List<Medicine> pendingMedicines = new ArrayList<>();
-            List<Integer> pendingAmount = new ArrayList<>();
+                // Check each medicine in the prescribed medicines list
+                for (Medicine medicine : appointmentOutcome.getPrescribedMedicines()) {
+                    if (medicine.getStatus() == MedicineStatus.PENDING) {
+                        hasPendingPrescription = true;
+                        // Add the pending medicine to the list
+                        pendingMedicines.add(medicine);
+                        pendingAmount.add(appointmentOutcome.getMedicineAmount().get(i++));
+                    }
+                }
 
-            // Check each medicine in the prescribed medicines list
-            for (Medicine medicine : appointmentOutcome.getPrescribedMedicines()) {
-                if (medicine.getStatus() == MedicineStatus.PENDING) {
-                    hasPendingPrescription = true;
-                    // Add the pending medicine to the list
-                    pendingMedicines.add(medicine);
-                    pendingAmount.add(appointmentOutcome.getMedicineAmount().get(i++));
+                // If there are any pending medicines, print them
+                if (!pendingMedicines.isEmpty()) {
+                    pendingRequests = controller.manageAppointmentOutcome(pendingMedicines, appointmentOutcome, pendingAmount, false);
+                }
+                if (pendingRequests != null) {
+                    System.out.println(pendingRequests.toString());
                 }
             }
 
-            // If there are any pending medicines, print them
-            if (!pendingMedicines.isEmpty()) {
-                pendingRequests = controller.manageAppointmentOutcome(pendingMedicines, appointmentOutcome, pendingAmount, false);
+            if (!hasPendingPrescription) {
+                System.out.println("No appointment outcome with pending medicine prescription.\n");
             }
-            if (pendingRequests != null) {
-                System.out.println(pendingRequests.toString());
-            }
-        }
-
-        if (!hasPendingPrescription) {
-            System.out.println("No appointment outcome with pending medicine prescription.\n");
+        } finally {
+            Metrics.record("AppointmentOutcomeController.checkPendingMedicinePrescription", started);
         }
     }
 
@@ -79,16 +89,18 @@ public class AppointmentOutcomeController {
      * @param outcomeId The ID of the appointment outcome to manage.
      */
     public static void managePendingMedicinePrescription(String outcomeId) {
-        int i = 0, again = 0, stockLevel = 0;
+        int i = 0, again = 0;
         String pendingRequests = null;
         boolean pending = true, dispensed = false;
         AppointmentOutcomeController controller = new AppointmentOutcomeController();
         List<Medicine> pendingMedicines = new ArrayList<>();
         List<Integer> pendingAmount = new ArrayList<>();
 
-        AppointmentOutcome outcome = Repository.APPOINTMENT_OUTCOME.get(outcomeId);
-        if (outcome == null) {
-            System.out.println("Outcome ID not found.\n");
+        AppointmentOutcome outcome;
+        try {
+            outcome = PrescriptionService.getOutcome(outcomeId);
+        } catch (ServiceException e) {
+            System.out.println(e.getMessage() + "\n");
             Helper.pressAnyKeyToContinue();
             //Helper.clearScreen();
             return;
@@ -116,52 +128,31 @@ public class AppointmentOutcomeController {
         do {
             System.out.println("\nEnter the Medicine ID to be approved: ");
             String medicineIdToApprove = Helper.readString();
-
-            boolean medicineFound = false; // Flag to track if the medicine is found and checked
-            int index = 0;
             again = 0;
-            for (Medicine medicine : outcome.getPrescribedMedicines()) {
-                if (medicine.getMedicineId().equals(medicineIdToApprove)) {
-                    medicineFound = true; // Set flag to true when a match is found
-                    if (medicine.getStatus() != MedicineStatus.PENDING) {
-                        System.out.println("Medicine ID " + medicineIdToApprove + " status is not pending.");
-                        pending = false;
-                    } else {
-                        InventoryList inventoryItem = Repository.INVENTORY.get(medicineIdToApprove);
-                        stockLevel = (inventoryItem != null) ? inventoryItem.getInitialStock() : 0;
-
-                        if (stockLevel < outcome.getMedicineAmount().get(index)) {
-                            System.out.println("Medicine ID " + medicineIdToApprove + " does not have enough stock level.");
-                            break;
-                        } else {
-                            dispensed = true;
-                            String record;
-                            medicine.setStatus(MedicineStatus.DISPENSED);
-                            int newStockLevel = stockLevel - outcome.getMedicineAmount().get(index);
-                            inventoryItem.setInitialStock(newStockLevel);
-                            Repository.INVENTORY.put(medicineIdToApprove, inventoryItem);
-
-                            System.out.println("Medicine ID " + medicine.getMedicineId() + " has been approved." + "\n");
-                            System.out.println("Printing updated appointment outcome...");
-                            record = controller.manageAppointmentOutcome(outcome.getPrescribedMedicines(), outcome, outcome.getMedicineAmount(), true);
-                            System.out.println(record + "\n");
-
-                            Repository.persistData(FileType.INVENTORY);
-                            Repository.persistData(FileType.APPOINTMENT_OUTCOME);
-                            System.out.println("(1) Continue Prescribe");
-                            System.out.println("(2) Back");
-                            again = Helper.readInt(1, 2);
-                        }
-                    }
+            try {
+                PrescriptionService.dispense(outcomeId, medicineIdToApprove);
+            } catch (ServiceException e) {
+                if (e.getError() == ServiceError.NOT_FOUND) {
+                    // No matching medicine was found in the prescription
+                    System.out.println(e.getMessage() + "\n");
                     break;
                 }
-                index++;
-            }
-            // Print message only if no matching medicine was found after checking all items
-            if (!medicineFound) {
-                System.out.println("Medicine ID " + medicineIdToApprove + " not found.\n");
-                break;
+                System.out.println(e.getMessage());
+                if (e.getError() == ServiceError.INVALID_STATE) {
+                    pending = false;
+                }
+                continue;
             }
+            dispensed = true;
+            String record;
+            System.out.println("Medicine ID " + medicineIdToApprove + " has been approved." + "\n");
+            System.out.println("Printing updated appointment outcome...");
+            record = controller.manageAppointmentOutcome(outcome.getPrescribedMedicines(), outcome, outcome.getMedicineAmount(), true);
+            System.out.println(record + "\n");
+
+            System.out.println("(1) Continue Prescribe");
+            System.out.println("(2) Back");
+            again = Helper.readInt(1, 2);
         } while (again != 2 && dispensed && pending);
         Helper.pressAnyKeyToContinue();
     }
@@ -194,6 +185,7 @@ public class AppointmentOutcomeController {
             pendingRequests.append("Prescription Amount: ").append(pendingAmount.get(i++)).append("\n");
             pendingRequests.append("Status: ").append(medicine.getStatus()).append("\n");
             if (Inventory) {
+                Repository.readData(FileType.INVENTORY);
                 InventoryList inventoryItem = Repository.INVENTORY.get(medicine.getMedicineId());
                 int stockLevel = (inventoryItem != null) ? inventoryItem.getInitialStock() : 0;
                 pendingRequests.append("Stock Level: ").append(stockLevel).append("\n");
@@ -205,9 +197,7 @@ public class AppointmentOutcomeController {
     }
 
     public static String generateApptOutcomeId() {
-        String prefix = "OUT";
-        int uniqueId = Helper.generateUniqueId(Repository.APPOINTMENT_OUTCOME);
-        return prefix + String.format("%03d", uniqueId);
+        return AppointmentService.generateOutcomeId();
     }
 
 }
@@ -2,15 +2,17 @@ package src.Controller;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
 import src.Enum.AppointmentStatus;
+import src.Metrics.Metrics;
 import src.Model.Appointment;
-import src.Model.AppointmentList;
 import src.Model.Doctor;
 import src.Model.Patient;
 import src.Model.Schedule;
 import src.Model.Specialization;
 import src.Repository.FileType;
 import src.Repository.Repository;
+import src.Service.AppointmentService;
 
 /**
  * The {@code DoctorController} class provides methods for managing
@@ -38,16 +40,21 @@ public class DoctorController {
      * @return A list of patients under the specified doctor.
      */
     public static List<Patient> getAllPatients(Doctor doctor) {
-        Doctor currentDoctor = (Doctor) Repository.STAFF.get(doctor.getHospitalId());
-        List<Appointment> docAppointments = AppointmentController.viewDoctorAppointments(currentDoctor);
-        List<Patient> patientsUnderDoctor = new ArrayList<>();
-        for (Appointment appointment : docAppointments) {
-            Patient patient = appointment.getPatient();
-            if (!patientsUnderDoctor.contains(patient)) {
-                patientsUnderDoctor.add(patient);
+        long started = System.nanoTime();
+        try {
+            Doctor currentDoctor = (Doctor) Repository.STAFF.get(doctor.getHospitalId());
+            List<Appointment> docAppointments = AppointmentController.viewDoctorAppointments(currentDoctor);
+            List<Patient> patientsUnderDoctor = new ArrayList<>();
+            for (Appointment appointment : docAppointments) {
+                Patient patient = appointment.getPatient();
+                if (patient != null && !patientsUnderDoctor.contains(patient)) {
+                    patientsUnderDoctor.add(patient);
+                }
             }
+            return patientsUnderDoctor;
+        } finally {
+            Metrics.record("DoctorController.getAllPatients", started);
         }
-        return patientsUnderDoctor;
     }
 
     /**
@@ -79,38 +86,49 @@ public class DoctorController {
      * @param to The end time of the new availability period.
      */
     public static void addAvailability(Doctor doctor, LocalDateTime from, LocalDateTime to) {
-        Schedule newSchedule = new Schedule(from, to);
-        Repository.readData(FileType.STAFF);
+        long started = System.nanoTime();
+        try {
+            Schedule newSchedule = new Schedule(from, to);
+            Repository.readData(FileType.STAFF);
 
-        if (Repository.STAFF.containsKey(doctor.getHospitalId())) {
-            Doctor existingDoctor = (Doctor) Repository.STAFF.get(doctor.getHospitalId());
-            List<Schedule> availability = existingDoctor.getAvailability();
+            if (Repository.STAFF.containsKey(doctor.getHospitalId())) {
+                // Hold the schedule lock of the doctor so that the overlap check and the change are not interleaved with another session
+                Lock scheduleLock = AppointmentService.lockSchedule(doctor.getHospitalId());
+                try {
+                    Doctor existingDoctor = (Doctor) Repository.STAFF.get(doctor.getHospitalId());
+                    List<Schedule> availability = existingDoctor.getAvailability();
 
-            List<Schedule> conflictingSchedules = new ArrayList<>();
+                    List<Schedule> conflictingSchedules = new ArrayList<>();
 
-            // Check for overlapping schedules
-            for (Schedule schedule : availability) {
-                if (from.isBefore(schedule.getEndTime()) && to.isAfter(schedule.getStartTime())) {
-                    conflictingSchedules.add(schedule);
-                }
-            }
+                    // Check for overlapping schedules
+                    for (Schedule schedule : availability) {
+                        if (from.isBefore(schedule.getEndTime()) && to.isAfter(schedule.getStartTime())) {
+                            conflictingSchedules.add(schedule);
+                        }
+                    }
 
-            if (!conflictingSchedules.isEmpty()) {
-                // Display conflicting schedules
-                System.out.println("\nConflicting time ranges found:");
-                for (Schedule conflict : conflictingSchedules) {
-                    System.out.println("From " + conflict.getStartTime() + " to " + conflict.getEndTime());
+                    if (!conflictingSchedules.isEmpty()) {
+                        // Display conflicting schedules
+                        System.out.println("\nConflicting time ranges found:");
+                        for (Schedule conflict : conflictingSchedules) {
+                            System.out.println("From " + conflict.getStartTime() + " to " + conflict.getEndTime());
+                        }
+                        System.out.println("Failed to add to schedule!\n");
+                    } else {
+                        // No conflicts; add the new schedule
+                        existingDoctor.addAvailability(newSchedule);
+                        Repository.STAFF.put(existingDoctor.getHospitalId(), existingDoctor);
+                        Repository.persistData(FileType.STAFF, existingDoctor.getHospitalId());
+                        System.out.println("Availability " + newSchedule.getStartTime() + " to " + newSchedule.getEndTime() + " added successfully to Doctor " + doctor.getName());
+                    }
+                } finally {
+                    scheduleLock.unlock();
                 }
-                System.out.println("Failed to add to schedule!\n");
             } else {
-                // No conflicts; add the new schedule
-                existingDoctor.addAvailability(newSchedule);
-                Repository.STAFF.put(existingDoctor.getHospitalId(), existingDoctor);
-                Repository.persistData(FileType.STAFF);
-                System.out.println("Availability " + newSchedule.getStartTime() + " to " + newSchedule.getEndTime() + " added successfully to Doctor " + doctor.getName());
+                System.out.println("Error: Doctor with ID " + doctor.getHospitalId() + " does not exist in the repository.");
             }
-        } else {
-            System.out.println("Error: Doctor with ID " + doctor.getHospitalId() + " does not exist in the repository.");
+        } finally {
+            Metrics.record("DoctorController.addAvailability", started);
         }
     }
 
@@ -127,15 +145,21 @@ public class DoctorController {
      * otherwise.
      */
     public static boolean updateDoctorAvailability(Doctor doctor, LocalDateTime startTime, LocalDateTime endTime, List<Schedule> filteredSchedules) {
-        List<Schedule> doctorAvailability = new ArrayList<>(doctor.getAvailability());
-        doctorAvailability.addAll(filteredSchedules);
+        // Hold the schedule lock of the doctor while the availability is replaced
+        Lock scheduleLock = AppointmentService.lockSchedule(doctor.getHospitalId());
+        try {
+            List<Schedule> doctorAvailability = new ArrayList<>(doctor.getAvailability());
+            doctorAvailability.addAll(filteredSchedules);
 
-        doctor.setAvailability(filteredSchedules);
-        // Persist the updated availability
-        Repository.readData(FileType.STAFF);
-        Repository.STAFF.put(doctor.getHospitalId(), doctor);
-        Repository.persistData(FileType.STAFF);
-        return true;
+            doctor.setAvailability(filteredSchedules);
+            // Persist the updated availability
+            Repository.readData(FileType.STAFF);
+            Repository.STAFF.put(doctor.getHospitalId(), doctor);
+            Repository.persistData(FileType.STAFF, doctor.getHospitalId());
+            return true;
+        } finally {
+            scheduleLock.unlock();
+        }
     }
 
     /**
@@ -147,15 +171,13 @@ public class DoctorController {
      * @return A list of pending appointments for the doctor.
      */
     public static List<Appointment> getRequestedAppointments(Doctor doctor) {
-        List<Appointment> appointments = new ArrayList<>();
-        for (Appointment appointment : AppointmentList.getInstance().getAppointments()) {
-            if (appointment.getAttendingDoctor().equals(doctor)
-                    && appointment.getStatus().equals(AppointmentStatus.PENDING)
-                    && doctor.getHospitalId().equals(doctor.getHospitalId())) {
-                appointments.add(appointment);
-            }
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.APPOINTMENT_LIST);
+            return Repository.APPOINTMENT_INDEX.getByDoctor(doctor.getHospitalId(), AppointmentStatus.PENDING);
+        } finally {
+            Metrics.record("DoctorController.getRequestedAppointments", started);
         }
-        return appointments;
     }
 
     /**
@@ -165,27 +187,32 @@ public class DoctorController {
      * @param loginId The login ID of the doctor.
      */
     public static void displayPersonalInformation(String loginId) {
-        Doctor doctor = (Doctor) Repository.STAFF.get(loginId);
+        long started = System.nanoTime();
+        try {
+            Doctor doctor = (Doctor) Repository.STAFF.get(loginId);
 
-        if (doctor != null) {
-            System.out.println("Doctor ID: " + doctor.getHospitalId());
-            System.out.println("Name: " + doctor.getName());
-            System.out.println("Age: " + doctor.getAge());
-            System.out.println("Gender: " + doctor.getGender());
+            if (doctor != null) {
+                System.out.println("Doctor ID: " + doctor.getHospitalId());
+                System.out.println("Name: " + doctor.getName());
+                System.out.println("Age: " + doctor.getAge());
+                System.out.println("Gender: " + doctor.getGender());
 
-            List<Specialization> specializations = doctor.getDocSpecialization();
-            System.out.println("Doctor's Specialization List: ");
-            if (specializations.isEmpty()) {
-                System.out.println("NIL");
-            } else {
-                for (Specialization specialization : specializations) {
-                    System.out.println(specialization);
+                List<Specialization> specializations = doctor.getDocSpecialization();
+                System.out.println("Doctor's Specialization List: ");
+                if (specializations.isEmpty()) {
+                    System.out.println("NIL");
+                } else {
+                    for (Specialization specialization : specializations) {
+                        System.out.println(specialization);
+                    }
                 }
+            } else {
+                System.out.println("Doctor not found.");
             }
-        } else {
-            System.out.println("Doctor not found.");
-        }
 
+        } finally {
+            Metrics.record("DoctorController.displayPersonalInformation", started);
+        }
     }
 
     /**
@@ -196,32 +223,37 @@ public class DoctorController {
      * @param specialization The specialization to be added.
      */
     public static void addSpecialization(Doctor doctor, Specialization specialization) {
-        if (doctor != null && specialization != null) {
-            Repository.readData(FileType.STAFF);
+        long started = System.nanoTime();
+        try {
+            if (doctor != null && specialization != null) {
+                Repository.readData(FileType.STAFF);
 
-            // Check if the doctor exists in the repository
-            if (Repository.STAFF.containsKey(doctor.getHospitalId())) {
-                // Retrieve the existing doctor from the HashMap
-                Doctor existingDoctor = (Doctor) Repository.STAFF.get(doctor.getHospitalId());
+                // Check if the doctor exists in the repository
+                if (Repository.STAFF.containsKey(doctor.getHospitalId())) {
+                    // Retrieve the existing doctor from the HashMap
+                    Doctor existingDoctor = (Doctor) Repository.STAFF.get(doctor.getHospitalId());
 
-                // Check if the specialization already exists for the doctor
-                if (existingDoctor.getDocSpecialization().contains(specialization)) {
-                    System.out.println("Error: Doctor already has the specialization " + specialization.getSpecializationName() + ".");
-                } else {
-                    // Add the specialization if it doesn't exist
-                    existingDoctor.addSpecialization(specialization);
+                    // Check if the specialization already exists for the doctor
+                    if (existingDoctor.getDocSpecialization().contains(specialization)) {
+                        System.out.println("Error: Doctor already has the specialization " + specialization.getSpecializationName() + ".");
+                    } else {
+                        // Add the specialization if it doesn't exist
+                        existingDoctor.addSpecialization(specialization);
 
-                    // Update the repository with the modified doctor
-                    Repository.STAFF.put(existingDoctor.getHospitalId(), existingDoctor);
-                    Repository.persistData(FileType.STAFF);
+                        // Update the repository with the modified doctor
+                        Repository.STAFF.put(existingDoctor.getHospitalId(), existingDoctor);
+                        Repository.persistData(FileType.STAFF, existingDoctor.getHospitalId());
 
-                    System.out.println("Specialization " + specialization.getSpecializationName() + " added successfully to Doctor " + existingDoctor.getName());
+                        System.out.println("Specialization " + specialization.getSpecializationName() + " added successfully to Doctor " + existingDoctor.getName());
+                    }
+                } else {
+                    System.out.println("Error: Doctor with ID " + doctor.getHospitalId() + " does not exist in the repository.");
                 }
             } else {
-                System.out.println("Error: Doctor with ID " + doctor.getHospitalId() + " does not exist in the repository.");
+                System.out.println("Error: Doctor or Specialization is null.");
             }
-        } else {
-            System.out.println("Error: Doctor or Specialization is null.");
+        } finally {
+            Metrics.record("DoctorController.addSpecialization", started);
         }
     }
 
@@ -263,13 +295,18 @@ public class DoctorController {
      * {@code false} otherwise.
      */
     public static boolean changePassword(Doctor doctor, String password, String confirmPassword) {
-        if (password.equals(confirmPassword)) {
-            doctor.setPassword(confirmPassword);
-            Repository.STAFF.put(doctor.getHospitalId(), doctor);
-            Repository.persistData(FileType.STAFF);
-            return true;
-        } else {
-            return false;
+        long started = System.nanoTime();
+        try {
+            if (password.equals(confirmPassword)) {
+                doctor.setPassword(confirmPassword);
+                Repository.STAFF.put(doctor.getHospitalId(), doctor);
+                Repository.persistData(FileType.STAFF, doctor.getHospitalId());
+                return true;
+            } else {
+                return false;
+            }
+        } finally {
+            Metrics.record("DoctorController.changePassword", started);
         }
     }
 }
@@ -1,14 +1,19 @@
 package src.Controller;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 import src.Enum.InventoryRequestStatus;
 import src.Helper.Helper;
+import src.Metrics.Metrics;
 import src.Model.Admin;
 import src.Model.InventoryList;
 import src.Model.Medicine;
 import src.Model.ReplenishmentRequest;
 import src.Repository.FileType;
 import src.Repository.Repository;
+import src.Service.InventoryService;
+import src.Service.ServiceException;
 import src.View.AdminView;
 import src.View.InventoryView;
 
@@ -43,16 +48,22 @@ public class InventoryController {
      * cine.
      */
     public static void addMedicalInventory(String medicineId, String medicineName, float medicinePrice, String medicineDescription, int medicineStock, int medicineLowStock) {
-        Medicine medicine = new Medicine(medicineId, medicineName, medicinePrice, medicineDescription);
-        InventoryList inventoryList = new InventoryList(medicine, medicineStock, medicineLowStock);
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.INVENTORY);
+            Medicine medicine = new Medicine(medicineId, medicineName, medicinePrice, medicineDescription);
+            InventoryList inventoryList = new InventoryList(medicine, medicineStock, medicineLowStock);
 
-        //Update Hash Map
-        Repository.INVENTORY.put(medicine.getMedicineId(), inventoryList);
+            //Update Hash Map
+            Repository.INVENTORY.put(medicine.getMedicineId(), inventoryList);
 
-        // Persist data to file
-        Repository.persistData(FileType.INVENTORY);
+            // Persist data to file
+            Repository.persistData(FileType.INVENTORY, medicine.getMedicineId());
 
-        System.out.println("Medical Inventory Item added successfully! ID: " + medicineId);
+            System.out.println("Medical Inventory Item added successfully! ID: " + medicineId);
+        } finally {
+            Metrics.record("InventoryController.addMedicalInventory", started);
+        }
     }
 
     /**
@@ -64,20 +75,24 @@ public class InventoryController {
      * otherwise.
      */
     public static boolean removeMedicalInventoryItem(String medicineId) {
-        if (Repository.INVENTORY.containsKey(medicineId)) {
-            // Prompt confirmation before removal
-            if (Helper.promptConfirmation("remove this medical inventory item?")) {
-                Repository.INVENTORY.remove(medicineId);
-                Repository.persistData(FileType.INVENTORY); // Persist changes
-                System.out.println("Medical Inventory Item removed successfully.");
-                return true;
-            } else {
-                return false; // Don't print the cancellation message here
-            }
-        } else {
+        try {
+            InventoryService.getItem(medicineId);
+        } catch (ServiceException e) {
             System.out.println("Medical Inventory Item not found!");
             return false;
         }
+        // Prompt confirmation before removal
+        if (!Helper.promptConfirmation("remove this medical inventory item?")) {
+            return false; // Don't print the cancellation message here
+        }
+        try {
+            InventoryService.removeItem(medicineId);
+            System.out.println("Medical Inventory Item removed successfully.");
+            return true;
+        } catch (ServiceException e) {
+            System.out.println(e.getMessage());
+            return false;
+        }
     }
 
     /**
@@ -88,13 +103,10 @@ public class InventoryController {
      * medicine ID, or {@code null} if not found.
      */
     public static InventoryList searchMedicalInventoryById(String medicineId) {
-        // Check if the INVENTORY map contains the specified medicineId
-        if (Repository.INVENTORY.containsKey(medicineId)) {
-            // Return the InventoryList item if it exists
-            return Repository.INVENTORY.get(medicineId);
-        } else {
-            // Return null or handle accordingly if the item is not found
-            System.out.println("No inventory record found for Medicine ID: " + medicineId);
+        try {
+            return InventoryService.getItem(medicineId);
+        } catch (ServiceException e) {
+            System.out.println(e.getMessage());
             return null;
         }
     }
@@ -109,23 +121,32 @@ public class InventoryController {
      * {@code false} if the medicine ID was not found.
      */
     public static boolean updateMedicalInventoryStockLevel(String medicineId, int stockLevel) {
-        // Check if the INVENTORY map contains the specified medicineId
-        if (Repository.INVENTORY.containsKey(medicineId)) {
-            // Get the InventoryList item associated with the medicineId
-            InventoryList inventoryItem = Repository.INVENTORY.get(medicineId);
-
-            // Update the initial stock level
-            inventoryItem.setInitialStock(stockLevel);
-
-            // Persist the updated inventory if necessary
-            Repository.INVENTORY.put(medicineId, inventoryItem);  // Explicitly put the updated item back into INVENTORY
-
-            // Save the changes to the data file if required
-            Repository.persistData(FileType.INVENTORY);  // Assuming persistData handles saving INVENTORY data
-
-            return true;  // Indicate success
-        } else {
-            return false;  // Indicate failure if medicineId not found
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.INVENTORY);
+            // Hold the stock while it is changed, so that a dispense or an approved
+            // replenishment in another session is not overwritten
+            Lock inventoryLock = Repository.getEntityLock(FileType.INVENTORY, medicineId);
+            inventoryLock.lock();
+            try {
+                // Get the InventoryList item associated with the medicineId, if any
+                InventoryList inventoryItem = Repository.INVENTORY.get(medicineId);
+                if (inventoryItem != null) {
+                    // Update the initial stock level
+                    inventoryItem.setInitialStock(stockLevel);
+
+                    // Save the changes to the data file if required
+                    Repository.persistData(FileType.INVENTORY, medicineId);
+
+                    return true;  // Indicate success
+                } else {
+                    return false;  // Indicate failure if medicineId not found
+                }
+            } finally {
+                inventoryLock.unlock();
+            }
+        } finally {
+            Metrics.record("InventoryController.updateMedicalInventoryStockLevel", started);
         }
     }
 
@@ -139,99 +160,121 @@ public class InventoryController {
      * {@code false} if the medicine ID was not found.
      */
     public static boolean updateMedicalInventoryLowStockAlert(String medicineId, int lowStockLevelAlert) {
-        // Check if the inventory contains the specified medicine ID
-        if (Repository.INVENTORY.containsKey(medicineId)) {
-            // Retrieve the inventory item associated with the medicine ID
-            InventoryList inventoryItem = Repository.INVENTORY.get(medicineId);
-
-            // Update the low stock level alert value
-            inventoryItem.setLowStocklevelAlert(lowStockLevelAlert);
-
-            // Persist the changes to the data file
-            Repository.persistData(FileType.INVENTORY);
-
-            return true;  // Indicate success
-        } else {
-            return false;  // Medicine ID not found
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.INVENTORY);
+            Lock inventoryLock = Repository.getEntityLock(FileType.INVENTORY, medicineId);
+            inventoryLock.lock();
+            try {
+                // Retrieve the inventory item associated with the medicine ID, if any
+                InventoryList inventoryItem = Repository.INVENTORY.get(medicineId);
+                if (inventoryItem != null) {
+                    // Update the low stock level alert value
+                    inventoryItem.setLowStocklevelAlert(lowStockLevelAlert);
+
+                    // Persist the changes to the data file
+                    Repository.persistData(FileType.INVENTORY, medicineId);
+
+                    return true;  // Indicate success
+                } else {
+                    return false;  // Medicine ID not found
+                }
+            } finally {
+                inventoryLock.unlock();
+            }
+        } finally {
+            Metrics.record("InventoryController.updateMedicalInventoryLowStockAlert", started);
         }
     }
 
     /**
      * Retrieves all replenishment requests grouped by their status (Pending,
-     * Approved, Rejected).
+     * Approved, Rejected). The requests of each status are read from
+     * {@link Repository#REPLENISHMENT_REQUEST_INDEX}, so every request is
+     * visited once.
      *
      * @return A formatted string containing all replenishment requests.
      */
     public static String findAllReplenishmentRequests() {
-        StringBuilder requests = new StringBuilder();
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.REPLENISHMENT_REQUEST);
+            StringBuilder requests = new StringBuilder();
 
-        requests.append("Replenishment Requests:\n");
-        requests.append("------------------------------------------------------------\n");
-
-        boolean hasPendingRequests = false;
-        boolean hasApprovedRequests = false;
-        boolean hasRejectedRequests = false;
-
-        // Pending Requests Section
-        requests.append("Pending Replenishment Requests:\n");
-        requests.append("------------------------------------------------------------\n");
-        for (Map.Entry<String, ReplenishmentRequest> entry : Repository.REPLENISHMENT_REQUEST.entrySet()) {
-            ReplenishmentRequest request = entry.getValue();
-
-            if (request.getStatus() == InventoryRequestStatus.PENDING) {
-                hasPendingRequests = true;
-                requests.append("Request ID: ").append(request.getRequestId()).append("\n");
-                requests.append("Medicine ID: ").append(request.getMedicineId()).append("\n");
-                requests.append("Requested Stock Level: ").append(request.getStockLevel()).append("\n");
-                requests.append("Status: ").append(request.getStatus()).append("\n");
-                requests.append("------------------------------------------------------------\n");
-            }
-        }
-        if (!hasPendingRequests) {
-            requests.append("No pending replenishment requests found.\n");
+            requests.append("Replenishment Requests:\n");
             requests.append("------------------------------------------------------------\n");
-        }
-
-        // Approved Requests Section
-        requests.append("\nApproved Replenishment Requests:\n");
-        requests.append("------------------------------------------------------------\n");
-        for (Map.Entry<String, ReplenishmentRequest> entry : Repository.REPLENISHMENT_REQUEST.entrySet()) {
-            ReplenishmentRequest request = entry.getValue();
-
-            if (request.getStatus() == InventoryRequestStatus.APPROVED) {
-                hasApprovedRequests = true;
-                requests.append("Request ID: ").append(request.getRequestId()).append("\n");
-                requests.append("Medicine ID: ").append(request.getMedicineId()).append("\n");
-                requests.append("Requested Stock Level: ").append(request.getStockLevel()).append("\n");
-                requests.append("Status: ").append(request.getStatus()).append("\n");
-                requests.append("------------------------------------------------------------\n");
+            for (InventoryRequestStatus status : InventoryRequestStatus.values()) {
+                if (status != InventoryRequestStatus.PENDING) {
+                    requests.append("\n");
+                }
+                requests.append(formatReplenishmentRequests(status, 1, Integer.MAX_VALUE));
             }
+            return requests.toString();
+        } finally {
+            Metrics.record("InventoryController.findAllReplenishmentRequests", started);
         }
-        if (!hasApprovedRequests) {
-            requests.append("No approved replenishment requests found.\n");
-            requests.append("------------------------------------------------------------\n");
+    }
+
+    /**
+     * Counts the replenishment requests that have the given status, without
+     * looking at the requests of the other statuses.
+     *
+     * @param status The status of the requests.
+     * @return The number of requests with the status.
+     */
+    public static int countReplenishmentRequests(InventoryRequestStatus status) {
+        Repository.readData(FileType.REPLENISHMENT_REQUEST);
+        return Repository.REPLENISHMENT_REQUEST_INDEX.count(status);
+    }
+
+    /**
+     * Retrieves one page of the replenishment requests that have the given
+     * status, in the order they were submitted. Only the requests of that
+     * status are visited, so listing the pending requests stays cheap however
+     * many requests have been approved or rejected.
+     *
+     * @param status The status of the requests.
+     * @param page The page number, starting from 1.
+     * @param pageSize The number of requests per page.
+     * @return A formatted string containing the requests of the page.
+     */
+    public static String findReplenishmentRequests(InventoryRequestStatus status, int page, int pageSize) {
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.REPLENISHMENT_REQUEST);
+            return formatReplenishmentRequests(status, page, pageSize);
+        } finally {
+            Metrics.record("InventoryController.findReplenishmentRequests", started);
         }
+    }
 
-        // Rejected Requests Section
-        requests.append("\nRejected Replenishment Requests:\n");
+    /**
+     * Formats one page of the replenishment requests that have the given
+     * status under a heading.
+     *
+     * @param status The status of the requests.
+     * @param page The page number, starting from 1.
+     * @param pageSize The number of requests per page.
+     * @return The formatted requests.
+     */
+    private static String formatReplenishmentRequests(InventoryRequestStatus status, int page, int pageSize) {
+        String statusName = status.name().charAt(0) + status.name().substring(1).toLowerCase();
+        StringBuilder requests = new StringBuilder();
+        requests.append(statusName).append(" Replenishment Requests:\n");
         requests.append("------------------------------------------------------------\n");
-        for (Map.Entry<String, ReplenishmentRequest> entry : Repository.REPLENISHMENT_REQUEST.entrySet()) {
-            ReplenishmentRequest request = entry.getValue();
-
-            if (request.getStatus() == InventoryRequestStatus.REJECTED) {
-                hasRejectedRequests = true;
-                requests.append("Request ID: ").append(request.getRequestId()).append("\n");
-                requests.append("Medicine ID: ").append(request.getMedicineId()).append("\n");
-                requests.append("Requested Stock Level: ").append(request.getStockLevel()).append("\n");
-                requests.append("Status: ").append(request.getStatus()).append("\n");
-                requests.append("------------------------------------------------------------\n");
-            }
+
+        List<ReplenishmentRequest> pageRequests = Repository.REPLENISHMENT_REQUEST_INDEX.getByStatus(status, page, pageSize);
+        for (ReplenishmentRequest request : pageRequests) {
+            requests.append("Request ID: ").append(request.getRequestId()).append("\n");
+            requests.append("Medicine ID: ").append(request.getMedicineId()).append("\n");
+            requests.append("Requested Stock Level: ").append(request.getStockLevel()).append("\n");
+            requests.append("Status: ").append(request.getStatus()).append("\n");
+            requests.append("------------------------------------------------------------\n");
         }
-        if (!hasRejectedRequests) {
-            requests.append("No rejected replenishment requests found.\n");
+        if (pageRequests.isEmpty()) {
+            requests.append("No ").append(statusName.toLowerCase()).append(" replenishment requests found.\n");
             requests.append("------------------------------------------------------------\n");
         }
-
         return requests.toString();
     }
 
@@ -246,36 +289,17 @@ public class InventoryController {
      * {@code false} otherwise.
      */
     public static boolean approveReplenishmentRequest(String requestId) {
-        ReplenishmentRequest request = Repository.REPLENISHMENT_REQUEST.get(requestId);
-        if (request == null) {
-            System.out.println("Request ID not found.");
-            return false;
-        }
-
-        // Deny management if the request is already approved or rejected
-        if (request.getStatus() != InventoryRequestStatus.PENDING) {
-            System.out.println("This request has already been " + request.getStatus().toString().toLowerCase() + " and cannot be managed.");
-            return false;
-        }
-
-        String medicineId = request.getMedicineId();
-        InventoryList inventoryItem = Repository.INVENTORY.get(medicineId);
-
-        if (inventoryItem != null) {
-            int updatedStock = inventoryItem.getInitialStock() + request.getStockLevel();
-            inventoryItem.setInitialStock(updatedStock);
-
-            Repository.INVENTORY.put(medicineId, inventoryItem);
-            request.setStatus(InventoryRequestStatus.APPROVED);
-            Repository.REPLENISHMENT_REQUEST.put(requestId, request);
-
-            Repository.persistData(FileType.INVENTORY);
-            Repository.persistData(FileType.REPLENISHMENT_REQUEST);
-
-            return true;
-        } else {
-            System.out.println("Medicine ID not found in inventory.");
-            return false;
+        long started = System.nanoTime();
+        try {
+            try {
+                InventoryService.approveReplenishmentRequest(requestId);
+                return true;
+            } catch (ServiceException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        } finally {
+            Metrics.record("InventoryController.approveReplenishmentRequest", started);
         }
     }
 
@@ -288,19 +312,15 @@ public class InventoryController {
      * reject.
      */
     public static void rejectReplenishmentRequest(String requestId) {
-        ReplenishmentRequest request = Repository.REPLENISHMENT_REQUEST.get(requestId);
-        if (request != null) {
-            // Deny management if the request is already approved or rejected
-            if (request.getStatus() != InventoryRequestStatus.PENDING) {
-                System.out.println("This request has already been " + request.getStatus().toString().toLowerCase() + " and cannot be managed.");
-                return;
+        long started = System.nanoTime();
+        try {
+            try {
+                InventoryService.rejectReplenishmentRequest(requestId);
+            } catch (ServiceException e) {
+                System.out.println(e.getMessage());
             }
-
-            request.setStatus(InventoryRequestStatus.REJECTED);
-            Repository.REPLENISHMENT_REQUEST.put(requestId, request);
-            Repository.persistData(FileType.REPLENISHMENT_REQUEST);
-        } else {
-            System.out.println("Request ID not found.");
+        } finally {
+            Metrics.record("InventoryController.rejectReplenishmentRequest", started);
         }
     }
 
@@ -313,6 +333,7 @@ public class InventoryController {
      * request ID, or {@code null} if not found.
      */
     public static ReplenishmentRequest getReplenishmentRequestById(String requestId) {
+        Repository.readData(FileType.REPLENISHMENT_REQUEST);
         return Repository.REPLENISHMENT_REQUEST.get(requestId);
     }
 
@@ -325,32 +346,38 @@ public class InventoryController {
      * @return A formatted string containing the inventory details.
      */
     public static String checkAllInventory(int all) {
-        StringBuilder allInventory = new StringBuilder();
-
-        // Check if the inventory is empty
-        if (Repository.INVENTORY.isEmpty()) {
-            return "No inventory found.";
-        }
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.INVENTORY);
+            StringBuilder allInventory = new StringBuilder();
+
+            // Check if the inventory is empty
+            if (Repository.INVENTORY.isEmpty()) {
+                return "No inventory found.";
+            }
 
-        allInventory.append("\nMedicine Inventory:\n");
-        allInventory.append("------------------------------------------------------------\n");
-
-        // Iterate through all inventory items in the repository
-        for (Map.Entry<String, InventoryList> entry : Repository.INVENTORY.entrySet()) {
-            InventoryList inventory = entry.getValue();
-            if (all == 1 || (all == 0) && (inventory.getInitialStock() < inventory.getLowStocklevelAlert())) {
-                allInventory.append("Medicine ID: ").append(inventory.getMedicine().getMedicineId()).append("\n");
-                allInventory.append("Medicine Name: ").append(inventory.getMedicine().getMedicineName()).append("\n");
-                allInventory.append("Stock Level: ").append(inventory.getInitialStock()).append("\n");
-                allInventory.append("Alert Threshold: ").append(inventory.getLowStocklevelAlert()).append("\n");
-                if (inventory.getInitialStock() < inventory.getLowStocklevelAlert()) {
-                    allInventory.append("[STOCK STATUS: ").append("LOW]").append("\n");
+            allInventory.append("\nMedicine Inventory:\n");
+            allInventory.append("------------------------------------------------------------\n");
+
+            // Iterate through all inventory items in the repository
+            for (Map.Entry<String, InventoryList> entry : Repository.INVENTORY.entrySet()) {
+                InventoryList inventory = entry.getValue();
+                if (all == 1 || (all == 0) && (inventory.getInitialStock() < inventory.getLowStocklevelAlert())) {
+                    allInventory.append("Medicine ID: ").append(inventory.getMedicine().getMedicineId()).append("\n");
+                    allInventory.append("Medicine Name: ").append(inventory.getMedicine().getMedicineName()).append("\n");
+                    allInventory.append("Stock Level: ").append(inventory.getInitialStock()).append("\n");
+                    allInventory.append("Alert Threshold: ").append(inventory.getLowStocklevelAlert()).append("\n");
+                    if (inventory.getInitialStock() < inventory.getLowStocklevelAlert()) {
+                        allInventory.append("[STOCK STATUS: ").append("LOW]").append("\n");
+                    }
+                    allInventory.append("------------------------------------------------------------\n");
                 }
-                allInventory.append("------------------------------------------------------------\n");
             }
-        }
 
-        return allInventory.toString();
+            return allInventory.toString();
+        } finally {
+            Metrics.record("InventoryController.checkAllInventory", started);
+        }
     }
 
     /**
@@ -360,29 +387,35 @@ public class InventoryController {
      * or "No inventory records found" if empty.
      */
     public static String getInventoryRecord() {
-        StringBuilder inventoryDetails = new StringBuilder();
+        long started = System.nanoTime();
+        try {
+            Repository.readData(FileType.INVENTORY);
+            StringBuilder inventoryDetails = new StringBuilder();
 
-        if (Repository.INVENTORY.isEmpty()) {
-            return "No inventory records found.";
-        }
+            if (Repository.INVENTORY.isEmpty()) {
+                return "No inventory records found.";
+            }
 
-        inventoryDetails.append("Medical Inventory:\n");
-        inventoryDetails.append("------------------------------------------------------------\n");
+            inventoryDetails.append("Medical Inventory:\n");
+            inventoryDetails.append("------------------------------------------------------------\n");
 
-        for (Map.Entry<String, InventoryList> entry : Repository.INVENTORY.entrySet()) {
-            InventoryList inventoryItem = entry.getValue();
-            Medicine medicine = inventoryItem.getMedicine();
+            for (Map.Entry<String, InventoryList> entry : Repository.INVENTORY.entrySet()) {
+                InventoryList inventoryItem = entry.getValue();
+                Medicine medicine = inventoryItem.getMedicine();
+
+                inventoryDetails.append("Medicine ID: ").append(medicine.getMedicineId()).append("\n");
+                inventoryDetails.append("Medicine Name: ").append(medicine.getMedicineName()).append("\n");
+                inventoryDetails.append("Medicine Price: $").append(medicine.getMedicinePrice()).append("\n");
+                inventoryDetails.append("Medicine Description: ").append(medicine.getMedicineDescription()).append("\n");
+                inventoryDetails.append("Initial Stock: ").append(inventoryItem.getInitialStock()).append("\n");
+                inventoryDetails.append("Low Stock Level Alert: ").append(inventoryItem.getLowStocklevelAlert()).append("\n");
+                inventoryDetails.append("------------------------------------------------------------\n");
+            }
 
-            inventoryDetails.append("Medicine ID: ").append(medicine.getMedicineId()).append("\n");
-            inventoryDetails.append("Medicine Name: ").append(medicine.getMedicineName()).append("\n");
-            inventoryDetails.append("Medicine Price: $").append(medicine.getMedicinePrice()).append("\n");
-            inventoryDetails.append("Medicine Description: ").append(medicine.getMedicineDescription()).append("\n");
-            inventoryDetails.append("Initial Stock: ").append(inventoryItem.getInitialStock()).append("\n");
-            inventoryDetails.append("Low Stock Level Alert: ").append(inventoryItem.getLowStocklevelAlert()).append("\n");
-            inventoryDetails.append("------------------------------------------------------------\n");
+            return inventoryDetails.toString();
+        } finally {
+            Metrics.record("InventoryController.getInventoryRecord", started);
         }
-
-        return inventoryDetails.toString();
     }
 
 }
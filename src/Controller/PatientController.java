@@ -4,6 +4,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import src.Enum.AppointmentStatus;
+import src.Metrics.Metrics;
 import src.Model.Appointment;
 import src.Model.AppointmentOutcome;
 import src.Model.Diagnosis;
@@ -48,21 +49,26 @@ public class PatientController {
      */
 
     public static boolean authenticate(String id, String password) {
-        // Retrieve the Patient object from the PATIENT map
-        Patient patient = Repository.PATIENT.get(id);
+        long started = System.nanoTime();
+        try {
+            // Retrieve the Patient object from the PATIENT map
+            Patient patient = Repository.PATIENT.get(id);
 
-        // Check if the patient exists
-        if (patient == null) {
-            return false; // Patient not found
-        }
+            // Check if the patient exists
+            if (patient == null) {
+                return false; // Patient not found
+            }
 
-        // Verify password
-        if (!patient.getPassword().equals(password)) {
-            return false; // Incorrect password
-        }
+            // Verify password
+            if (!patient.getPassword().equals(password)) {
+                return false; // Incorrect password
+            }
 
-        // Authentication successful
-        return true;
+            // Authentication successful
+            return true;
+        } finally {
+            Metrics.record("PatientController.authenticate", started);
+        }
     }
     /**
      * Changes the password of the specified patient.
@@ -74,12 +80,17 @@ public class PatientController {
      */
 
     public static boolean changePassword(Patient patient, String password, String confirmPassword) {
-        if (password.equals(confirmPassword)) {
-            patient.setPassword(confirmPassword);
-            Repository.persistData(FileType.PATIENT); // Persist the updated password
-            return true;
-        } else {
-            return false;
+        long started = System.nanoTime();
+        try {
+            if (password.equals(confirmPassword)) {
+                patient.setPassword(confirmPassword);
+                Repository.persistData(FileType.PATIENT, patient.getPatientId()); // Persist the updated password
+                return true;
+            } else {
+                return false;
+            }
+        } finally {
+            Metrics.record("PatientController.changePassword", started);
         }
     }
     /**
@@ -90,10 +101,15 @@ public class PatientController {
      */
 
     public static void updateContactInformation(Patient patient, String newContactInformation) {
-        // Update the patient's contact information
-        patient.setContactInformation(newContactInformation);
-        // Persist the updated patient details
-        Repository.persistData(FileType.PATIENT);
+        long started = System.nanoTime();
+        try {
+            // Update the patient's contact information
+            patient.setContactInformation(newContactInformation);
+            // Persist the updated patient details
+            Repository.persistData(FileType.PATIENT, patient.getPatientId());
+        } finally {
+            Metrics.record("PatientController.updateContactInformation", started);
+        }
     }
     /**
      * Displays the personal information of the patient with the given ID.
@@ -122,44 +138,50 @@ public class PatientController {
      */
 
     public static void displayPatientRecord(String loginId) {
-    	Patient patient = Repository.PATIENT.get(loginId);
+        long started = System.nanoTime();
+        try {
+        	Patient patient = Repository.PATIENT.get(loginId);
     	
-        System.out.println("Patient ID: " + patient.getPatientId());
-        System.out.println("Name: " + patient.getName());
-        System.out.println("Date of Birth: " + patient.getDateOfBirth());
-        System.out.println("Gender: " + patient.getGender());
-        System.out.println("Contact Information: " + patient.getContactInformation());
-        System.out.println("Blood Type: " + patient.getBloodType());
+            System.out.println("Patient ID: " + patient.getPatientId());
+            System.out.println("Name: " + patient.getName());
+            System.out.println("Date of Birth: " + patient.getDateOfBirth());
+            System.out.println("Gender: " + patient.getGender());
+            System.out.println("Contact Information: " + patient.getContactInformation());
+            System.out.println("Blood Type: " + patient.getBloodType());
         
-        // Display Diagnoses and Treatments
-        MedicalRecord record = patient.getMedicalRecord(); // Assuming Patient has a method to retrieve MedicalRecord
-        if (record != null) {
-            System.out.println("Diagnoses and Treatments:");
-            List<Diagnosis> diagnoses = record.getDiagnoses(); // Assuming outcome links to a list of Diagnosis
+            // Display Diagnoses and Treatments
+            MedicalRecord record = patient.getMedicalRecord(); // Assuming Patient has a method to retrieve MedicalRecord
+            if (record != null) {
+                System.out.println("Diagnoses and Treatments:");
+                List<Diagnosis> diagnoses = record.getDiagnoses(); // Assuming outcome links to a list of Diagnosis
             
-            for (Diagnosis diagnosis : diagnoses) {
-                System.out.println("  Diagnosis ID: " + diagnosis.getDiagnosisId());
-                System.out.println("  Name: " + diagnosis.getDiagnosisName());
-                System.out.println("  Description: " + diagnosis.getDescription());
+                for (Diagnosis diagnosis : diagnoses) {
+                    System.out.println("  Diagnosis ID: " + diagnosis.getDiagnosisId());
+                    System.out.println("  Name: " + diagnosis.getDiagnosisName());
+                    System.out.println("  Description: " + diagnosis.getDescription());
                 
-                for (Treatment treatment : diagnosis.getTreatments()) {
-                    System.out.println("  Treatment ID: " + treatment.getTreatmentId());
-                        
-                    for (int i = 0; i < treatment.getMedications().size(); i++) {
-                        System.out.println("   Medicine: " + treatment.getMedications().get(i).getMedicineName());
-                        System.out.println("   Description: " + treatment.getMedications().get(i).getMedicineDescription());
-                        System.out.println("   Medicine Amount: " + treatment.getMedicineAmount().get(i));
-                        System.out.println();
+                    for (Treatment treatment : diagnosis.getTreatments()) {
+                        System.out.println("  Treatment ID: " + treatment.getTreatmentId());
+                        List<Medicine> medicines = treatment.getMedications();
+
+                        for (int i = 0; i < medicines.size(); i++) {
+                            System.out.println("   Medicine: " + medicines.get(i).getMedicineName());
+                            System.out.println("   Description: " + medicines.get(i).getMedicineDescription());
+                            System.out.println("   Medicine Amount: " + treatment.getMedicineAmount().get(i));
+                            System.out.println();
+                        }
+                        System.out.println("-----------------------------------");
                     }
-                    System.out.println("-----------------------------------");
+                    System.out.println();
+                    System.out.println("===================================");
+                
                 }
                 System.out.println();
-                System.out.println("===================================");
-                
+            } else {
+                System.out.println("No medical record found for this patient.");
             }
-            System.out.println();
-        } else {
-            System.out.println("No medical record found for this patient.");
+        } finally {
+            Metrics.record("PatientController.displayPatientRecord", started);
         }
     }
     /**
@@ -169,67 +191,72 @@ public class PatientController {
      */
 
     public static void viewPastAppointmentOutcome(String patientId) {
-        Patient patient = Repository.PATIENT.get(patientId);
+        long started = System.nanoTime();
+        try {
+            Patient patient = Repository.PATIENT.get(patientId);
 
-        if (patient == null) {
-            System.out.println("Patient not found.");
-            return;
-        }
+            if (patient == null) {
+                System.out.println("Patient not found.");
+                return;
+            }
         
-        List<Appointment> appointments = AppointmentController.viewPatientAppointments(patient);
-        List<AppointmentOutcome> pastAppointments = new ArrayList<>();
+            List<Appointment> appointments = AppointmentController.viewPatientAppointments(patient);
+            List<AppointmentOutcome> pastAppointments = new ArrayList<>();
 
-        for (Appointment appointment : appointments) {
-            if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
-                pastAppointments.add(appointment.getOutcome());
+            for (Appointment appointment : appointments) {
+                if (appointment.getStatus() == AppointmentStatus.COMPLETED && appointment.getOutcome() != null) {
+                    pastAppointments.add(appointment.getOutcome());
+                }
             }
-        }
 
-        if (pastAppointments.isEmpty()) {
-            System.out.println("No past appointment outcomes found for this patient.");
-            return;
-        }
-        else {
-            System.out.println("Past Appointment Outcomes for Patient ID: " + patientId);
-            for (AppointmentOutcome outcome : pastAppointments) {
-                System.out.println("\nOutcome ID: " + outcome.getOutcomeId());
-                System.out.println("Date Diagnosed: " + outcome.getDateDiagnosed().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-                System.out.println("Doctor's Notes: " + outcome.getDoctorNotes()); // Include doctor notes here
-
-                List<Diagnosis> diagnoses = outcome.getPatientDiagnosis();
-                if (diagnoses != null && !diagnoses.isEmpty()) {
-                    System.out.println("Diagnoses:");
-                    for (Diagnosis diagnosis : diagnoses) {
-                        System.out.println("  - Diagnosis ID: " + diagnosis.getDiagnosisId());
-                        System.out.println("    Name: " + diagnosis.getDiagnosisName());
-                        System.out.println("    Description: " + diagnosis.getDescription());
-
-                        List<Treatment> treatments = diagnosis.getTreatments();
-                        if (treatments != null && !treatments.isEmpty()) {
-                            System.out.println("    Treatments:");
-                            for (Treatment treatment : treatments) {
-                                System.out.println("      Treatment ID: " + treatment.getTreatmentId());
-
-                                List<Medicine> medicines = treatment.getMedications();
-                                if (medicines != null && !medicines.isEmpty()) {
-                                    System.out.println("      Medicines:");
-                                    for (int i = 0; i < treatment.getMedications().size(); i++) {
-                                        System.out.println("        Medicine: " + treatment.getMedications().get(i).getMedicineName());
-                                        System.out.println("        Description: " + treatment.getMedications().get(i).getMedicineDescription());
-                                        System.out.println("        Medicine Amount: " + treatment.getMedicineAmount().get(i));
+            if (pastAppointments.isEmpty()) {
+                System.out.println("No past appointment outcomes found for this patient.");
+                return;
+            }
+            else {
+                System.out.println("Past Appointment Outcomes for Patient ID: " + patientId);
+                for (AppointmentOutcome outcome : pastAppointments) {
+                    System.out.println("\nOutcome ID: " + outcome.getOutcomeId());
+                    System.out.println("Date Diagnosed: " + outcome.getDateDiagnosed().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+                    System.out.println("Doctor's Notes: " + outcome.getDoctorNotes()); // Include doctor notes here
+
+                    List<Diagnosis> diagnoses = outcome.getPatientDiagnosis();
+                    if (diagnoses != null && !diagnoses.isEmpty()) {
+                        System.out.println("Diagnoses:");
+                        for (Diagnosis diagnosis : diagnoses) {
+                            System.out.println("  - Diagnosis ID: " + diagnosis.getDiagnosisId());
+                            System.out.println("    Name: " + diagnosis.getDiagnosisName());
+                            System.out.println("    Description: " + diagnosis.getDescription());
+
+                            List<Treatment> treatments = diagnosis.getTreatments();
+                            if (treatments != null && !treatments.isEmpty()) {
+                                System.out.println("    Treatments:");
+                                for (Treatment treatment : treatments) {
+                                    System.out.println("      Treatment ID: " + treatment.getTreatmentId());
+
+                                    List<Medicine> medicines = treatment.getMedications();
+                                    if (medicines != null && !medicines.isEmpty()) {
+                                        System.out.println("      Medicines:");
+                                        for (int i = 0; i < medicines.size(); i++) {
+                                            System.out.println("        Medicine: " + medicines.get(i).getMedicineName());
+                                            System.out.println("        Description: " + medicines.get(i).getMedicineDescription());
+                                            System.out.println("        Medicine Amount: " + treatment.getMedicineAmount().get(i));
+                                        }
+                                    } else {
+                                        System.out.println("        No medicines prescribed.");
                                     }
-                                } else {
-                                    System.out.println("        No medicines prescribed.");
                                 }
+                            } else {
+                                System.out.println("    No treatments available.");
                             }
-                        } else {
-                            System.out.println("    No treatments available.");
                         }
+                    } else {
+                        System.out.println("No diagnoses recorded for this outcome.");
                     }
-                } else {
-                    System.out.println("No diagnoses recorded for this outcome.");
                 }
             }
+        } finally {
+            Metrics.record("PatientController.viewPastAppointmentOutcome", started);
         }
     }
     /**
@@ -1,17 +1,16 @@
 package src.Controller;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
-import src.Enum.PaymentStatus;
+import src.Enum.ServiceError;
 import src.Enum.ServiceType;
 import src.Helper.Helper;
+import src.Metrics.Metrics;
 import src.Model.Appointment;
 import src.Model.AppointmentOutcome;
 import src.Model.Medicine;
-import src.Repository.FileType;
 import src.Repository.Repository;
+import src.Service.PaymentService;
+import src.Service.ServiceException;
 
 /**
  * The {@code PaymentController} class handles the logic for generating payment
@@ -43,72 +42,65 @@ public class PaymentController {
      * @return The total amount to be paid for the appointment.
      */
     public static double generateReceipt(String outcomeId) {
-        double total = 0;
-        boolean paid = false;
-        StringBuilder prescribedBuilder = new StringBuilder();
-
-        // Iterate through all appointment outcomes in the repository
-        for (Map.Entry<String, AppointmentOutcome> entry : Repository.APPOINTMENT_OUTCOME.entrySet()) {
-            AppointmentOutcome outcome = entry.getValue();
-            if (outcome.getOutcomeId().equals(outcomeId)) {
-                if (outcome.getPaymentStatus() == PaymentStatus.COMPLETED) {
-                    paid = true;
-                    System.out.println("Payment has been made for appointment " + outcomeId + ".");
+        long started = System.nanoTime();
+        try {
+            double total;
+            StringBuilder prescribedBuilder = new StringBuilder();
+
+            try {
+                total = PaymentService.getAmountDue(outcomeId);
+            } catch (ServiceException e) {
+                if (e.getError() == ServiceError.INVALID_STATE) {
+                    System.out.println(e.getMessage());
                     Helper.pressAnyKeyToContinue();
-                    return total;
-                }
-                Helper.clearScreen();
-                prescribedBuilder.append("                       Hospital SCSA                       ").append("\n");
-                prescribedBuilder.append("***********************************************************").append("\n");
-                prescribedBuilder.append("Receipt").append("\n");
-                prescribedBuilder.append("Appointment Outcome ID: ").append(outcome.getOutcomeId()).append("\n");
-                prescribedBuilder.append("Appointment Date: ").append(outcome.getDateDiagnosed()).append("\n\n");
-                prescribedBuilder.append("Medicines Prescribed:").append("\n");
-
-                List<Medicine> prescribedMedicines = new ArrayList<>();
-                for (Medicine medicine : outcome.getPrescribedMedicines()) {
-                    prescribedMedicines.add(medicine);
                 }
+                return 0;
+            }
 
-                for (Medicine medicine : prescribedMedicines) {
-                    prescribedBuilder.append("Medicine ID: ").append(medicine.getMedicineId()).append("\n");
-                    prescribedBuilder.append("Medicine Name: ").append(medicine.getMedicineName()).append("\n");
-                    prescribedBuilder.append("Price: $").append(String.format("%.2f", medicine.getMedicinePrice())).append("\n");
-                    prescribedBuilder.append("------------------------------------------------------------\n");
-                    total += medicine.getMedicinePrice();
-                }
+            AppointmentOutcome outcome = Repository.APPOINTMENT_OUTCOME.get(outcomeId);
+            Helper.clearScreen();
+            prescribedBuilder.append("                       Hospital SCSA                       ").append("\n");
+            prescribedBuilder.append("***********************************************************").append("\n");
+            prescribedBuilder.append("Receipt").append("\n");
+            prescribedBuilder.append("Appointment Outcome ID: ").append(outcome.getOutcomeId()).append("\n");
+            prescribedBuilder.append("Appointment Date: ").append(outcome.getDateDiagnosed()).append("\n\n");
+            prescribedBuilder.append("Medicines Prescribed:").append("\n");
+
+            for (Medicine medicine : outcome.getPrescribedMedicines()) {
+                prescribedBuilder.append("Medicine ID: ").append(medicine.getMedicineId()).append("\n");
+                prescribedBuilder.append("Medicine Name: ").append(medicine.getMedicineName()).append("\n");
+                prescribedBuilder.append("Price: $").append(String.format("%.2f", medicine.getMedicinePrice())).append("\n");
+                prescribedBuilder.append("------------------------------------------------------------\n");
+            }
 
-                if (outcome.getServices().isEmpty()) {
-                    prescribedBuilder.append("No Services to be paid");
-                } else {
-                    for (ServiceType service : outcome.getServices()) {
-                        switch (service) {
-                            case CONSULTATION:
-                                prescribedBuilder.append("Consulation fee: ").append("$25.00").append("\n\n");
-                                total += 25;
-                                break;
-                            case XRAY:
-                                prescribedBuilder.append("XRAY fee: ").append("$100.00").append("\n\n");
-                                total += 100;
-                                break;
-                            case BLOOD_TEST:
-                                prescribedBuilder.append("Blood test fee: ").append("$50.00").append("\n\n");
-                                total += 50;
-                                break;
-                            default:
-                                break;
-                        }
+            if (outcome.getServices().isEmpty()) {
+                prescribedBuilder.append("No Services to be paid");
+            } else {
+                for (ServiceType service : outcome.getServices()) {
+                    String fee = "$" + String.format("%.2f", PaymentService.getServiceFee(service));
+                    switch (service) {
+                        case CONSULTATION:
+                            prescribedBuilder.append("Consulation fee: ").append(fee).append("\n\n");
+                            break;
+                        case XRAY:
+                            prescribedBuilder.append("XRAY fee: ").append(fee).append("\n\n");
+                            break;
+                        case BLOOD_TEST:
+                            prescribedBuilder.append("Blood test fee: ").append(fee).append("\n\n");
+                            break;
+                        default:
+                            break;
                     }
                 }
             }
-        }
-        if (!paid) {
             prescribedBuilder.append("Total pending amount: $").append(String.format("%.2f", total)).append("\n");
             prescribedBuilder.append("***********************************************************").append("\n");
             System.out.println(prescribedBuilder.toString());
-        }
 
-        return total;
+            return total;
+        } finally {
+            Metrics.record("PaymentController.generateReceipt", started);
+        }
     }
 
     /**
@@ -120,7 +112,7 @@ public class PaymentController {
 
     public void checkAppointmentId(Appointment appointment) {
         boolean hasOutcome = false;
-        String outcomeId = appointment.getOutcome().getOutcomeId();
+        String outcomeId = appointment.getOutcomeId();
         for (Map.Entry<String, AppointmentOutcome> entry : Repository.APPOINTMENT_OUTCOME.entrySet()) {
             AppointmentOutcome outcome = entry.getValue();
             if (outcome.getOutcomeId().equals(outcomeId)) {
@@ -149,13 +141,9 @@ public class PaymentController {
             System.out.println();
             confirmation = Helper.promptConfirmation("make payment");
             if (confirmation) {
-                success = payByCash(total);
+                success = payByCash(outcomeId);
                 if (success) {
                     System.out.println("Payment successfully received. Thank you!\n");
-                    AppointmentOutcome outcome = Repository.APPOINTMENT_OUTCOME.get(outcomeId);
-                    outcome.setPaymentStatus(PaymentStatus.COMPLETED);
-                    Repository.APPOINTMENT_OUTCOME.put(outcomeId, outcome);
-                    Repository.persistData(FileType.APPOINTMENT_OUTCOME);
                 }
             }
             if (!confirmation || !success) {
@@ -165,34 +153,35 @@ public class PaymentController {
     }
 
     /**
-     * Handles cash payments for a specified total amount.
+     * Prompts for the cash paid for an appointment outcome and settles its
+     * bill.
      *
-     * @param total The total amount to be paid.
+     * @param outcomeId The unique identifier of the appointment outcome to be
+     * paid.
      * @return {@code true} if the payment is successful, {@code false}
      * otherwise.
      */
 
-    public boolean payByCash(double total) {
+    public boolean payByCash(String outcomeId) {
         double insert = 0;
-        boolean success = false;
-        Scanner sc = new Scanner(System.in);
         try {
             System.out.print("Enter the amount of cash paid: ");
-            String userInput = sc.nextLine();
+            String userInput = Helper.readString();
             insert = Float.parseFloat(userInput);
         } catch (NumberFormatException e) {
-            return success;
+            return false;
         }
 
-        if (insert < total) {
-            System.out.println("Not enough cash.");
-        } else {
+        try {
+            double change = PaymentService.payByCash(outcomeId, insert);
             System.out.println("\nAmount inserted: $" + (String.format("%.2f", insert)));
-            System.out.println("Change: $" + (String.format("%.2f", (insert - total))));
+            System.out.println("Change: $" + (String.format("%.2f", change)));
             System.out.println();
-            success = true;
+            return true;
+        } catch (ServiceException e) {
+            System.out.println(e.getMessage());
+            return false;
         }
-        return success;
     }
 
     /*public static void generateQR()
@@ -3,8 +3,11 @@ package src.Controller;
 import java.util.Scanner;
 import src.Enum.*;
 import src.Helper.*;
+import src.Metrics.Metrics;
 import src.Model.*;
 import src.Repository.*;
+import src.Service.InventoryService;
+import src.Service.ServiceException;
 
 /**
  * The {@code PharmacistController} class handles operations related to
@@ -34,17 +37,22 @@ public class PharmacistController {
      * otherwise.
      */
     public static boolean authenticate(String id, String password) {
-        Staff pharmacist = Repository.STAFF.get(id);
+        long started = System.nanoTime();
+        try {
+            Staff pharmacist = Repository.STAFF.get(id);
 
-        if (pharmacist == null) {
-            return false;
-        }
+            if (pharmacist == null) {
+                return false;
+            }
 
-        if (!pharmacist.getPassword().equals(password)) {
-            return false;
-        }
+            if (!pharmacist.getPassword().equals(password)) {
+                return false;
+            }
 
-        return true;
+            return true;
+        } finally {
+            Metrics.record("PharmacistController.authenticate", started);
+        }
     }
 
     /**
@@ -57,12 +65,17 @@ public class PharmacistController {
      * {@code false} otherwise.
      */
     public static boolean changePassword(Staff pharmacist, String password, String confirmPassword) {
-        if (password.equals(confirmPassword)) {
-            pharmacist.setPassword(confirmPassword);
-            Repository.persistData(FileType.STAFF);
-            return true;
-        } else {
-            return false;
+        long started = System.nanoTime();
+        try {
+            if (password.equals(confirmPassword)) {
+                pharmacist.setPassword(confirmPassword);
+                Repository.persistData(FileType.STAFF, pharmacist.getHospitalId());
+                return true;
+            } else {
+                return false;
+            }
+        } finally {
+            Metrics.record("PharmacistController.changePassword", started);
         }
     }
 
@@ -77,13 +90,15 @@ public class PharmacistController {
      */
     public static void submitReplenishmentRequest(String medicineId) {
         int opt = -1;
-        Scanner sc = new Scanner(System.in);
-        InventoryList inventoryItem = Repository.INVENTORY.get(medicineId);
-        if (inventoryItem == null) {
+        boolean lowStock;
+        try {
+            lowStock = InventoryService.isLowStock(medicineId);
+        } catch (ServiceException e) {
             System.out.println("Invalid medicine ID. Please check the ID and try again.\n");
             Helper.pressAnyKeyToContinue();
             return; // Exit the method if the ID is invalid
-        } else if (inventoryItem.getInitialStock() > inventoryItem.getLowStocklevelAlert()) {
+        }
+        if (!lowStock) {
             System.out.println("Notice: The medicine ID is not in low stock.");
             do {
                 System.out.println("(1) Continue Submit Replenishment Request");
@@ -97,21 +112,16 @@ public class PharmacistController {
 
         }
 
-        // Generate a unique ID for the replenishment request
-        int uniqueId = Helper.generateUniqueId(Repository.INVENTORY);
-        String requestId = String.format("R%03d", uniqueId);
-
         // Prompt for replenishment amount
         System.out.println("Enter the replenishment amount: ");
         int amount = Helper.readInt();
 
-        // Create a new replenishment request
-        ReplenishmentRequest replenishmentRequest = new ReplenishmentRequest(requestId, medicineId, amount, InventoryRequestStatus.PENDING);
-
-        // Add the replenishment request to the repository
-        Repository.REPLENISHMENT_REQUEST.put(replenishmentRequest.getRequestId(), replenishmentRequest);
-        Repository.persistData(FileType.REPLENISHMENT_REQUEST);
-        System.out.println("Replenishment request is sent to the admin and pending approval.\n");
+        try {
+            InventoryService.submitReplenishmentRequest(medicineId, amount);
+            System.out.println("Replenishment request is sent to the admin and pending approval.\n");
+        } catch (ServiceException e) {
+            System.out.println(e.getMessage() + "\n");
+        }
         Helper.pressAnyKeyToContinue();
     }
 
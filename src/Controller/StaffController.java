@@ -1,6 +1,7 @@
 package src.Controller;
 
 import src.Enum.StaffType;
+import src.Metrics.Metrics;
 import src.Model.Admin;
 import src.Model.Doctor;
 import src.Model.Patient;
@@ -42,26 +43,31 @@ public class StaffController {
      * otherwise.
      */
     public static boolean authenticate(String username, String password, StaffType role) {
-        // Retrieve the Staff object from the STAFF map
-        Staff staff = Repository.STAFF.get(username);
+        long started = System.nanoTime();
+        try {
+            // Retrieve the Staff object from the STAFF map
+            Staff staff = Repository.STAFF.get(username);
 
-        // Check if the staff member exists
-        if (staff == null) {
-            return false; // Staff not found
-        }
+            // Check if the staff member exists
+            if (staff == null) {
+                return false; // Staff not found
+            }
 
-        // Verify password
-        if (!staff.getPassword().equals(password)) {
-            return false; // Incorrect password
-        }
+            // Verify password
+            if (!staff.getPassword().equals(password)) {
+                return false; // Incorrect password
+            }
 
-        // Verify role
-        if (staff.getRole() != role) { // Compare staff role with expected role
-            return false; // Incorrect role
-        }
+            // Verify role
+            if (staff.getRole() != role) { // Compare staff role with expected role
+                return false; // Incorrect role
+            }
 
-        // Authentication successful
-        return true;
+            // Authentication successful
+            return true;
+        } finally {
+            Metrics.record("StaffController.authenticate", started);
+        }
     }
 
     /**
@@ -76,12 +82,17 @@ public class StaffController {
      * {@code false} otherwise.
      */
     public static boolean changePassword(Staff staff, String password, String confirmPassword) {
-        if (password.equals(confirmPassword)) {
-            staff.setPassword(confirmPassword);
-            Repository.persistData(FileType.STAFF); // Persist the updated password
-            return true;
-        } else {
-            return false;
+        long started = System.nanoTime();
+        try {
+            if (password.equals(confirmPassword)) {
+                staff.setPassword(confirmPassword);
+                Repository.persistData(FileType.STAFF, staff.getHospitalId()); // Persist the updated password
+                return true;
+            } else {
+                return false;
+            }
+        } finally {
+            Metrics.record("StaffController.changePassword", started);
         }
     }
 
@@ -0,0 +1,54 @@
+package src.Enum;
+
+/**
+ * The {@code ServiceError} enum represents the reason an operation of the
+ * service layer was refused.
+ *
+ * <p>
+ * <b>Enum Constants:</b></p>
+ * <ul>
+ * <li>{@link #NOT_FOUND} - The entity the operation refers to does not
+ * exist.</li>
+ * <li>{@link #INVALID_INPUT} - An argument is missing or out of range.</li>
+ * <li>{@link #INVALID_STATE} - The entity exists but its status does not allow
+ * the operation.</li>
+ * <li>{@link #CONFLICT} - The operation clashes with another booking.</li>
+ * <li>{@link #INSUFFICIENT_STOCK} - There is not enough stock to dispense a
+ * prescription.</li>
+ * <li>{@link #INSUFFICIENT_PAYMENT} - The amount paid does not cover the
+ * amount due.</li>
+ * </ul>
+ *
+ * @see src.Service.ServiceException
+ */
+public enum ServiceError {
+    /**
+     * The entity the operation refers to does not exist.
+     */
+    NOT_FOUND,
+
+    /**
+     * An argument is missing or out of range.
+     */
+    INVALID_INPUT,
+
+    /**
+     * The entity exists but its status does not allow the operation.
+     */
+    INVALID_STATE,
+
+    /**
+     * The operation clashes with another booking.
+     */
+    CONFLICT,
+
+    /**
+     * There is not enough stock to dispense a prescription.
+     */
+    INSUFFICIENT_STOCK,
+
+    /**
+     * The amount paid does not cover the amount due.
+     */
+    INSUFFICIENT_PAYMENT;
+}
@@ -1,5 +1,7 @@
 package src.Helper;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -27,6 +29,12 @@ public class Helper {
      */
     public static final Scanner sc = new Scanner(System.in);
 
+    /**
+     * Scanner of the remote session served by the current thread, if any.
+     * When it is not set, input is read from {@link #sc}.
+     */
+    private static final ThreadLocal<Scanner> sessionScanner = new ThreadLocal<>();
+
     /**
      * Default constructor for initializing Scanner object
      */
@@ -34,6 +42,33 @@ public class Helper {
 
     }
 
+    /**
+     * Makes the current thread read user input from the given stream instead
+     * of the console. Used by the server to give each session its own input.
+     *
+     * @param in The input stream of the session.
+     */
+    public static void attachSessionInput(InputStream in) {
+        sessionScanner.set(new Scanner(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Makes the current thread read user input from the console again.
+     */
+    public static void detachSessionInput() {
+        sessionScanner.remove();
+    }
+
+    /**
+     * Returns the scanner user input is read from on the current thread.
+     *
+     * @return The scanner of the current session, or the console scanner.
+     */
+    private static Scanner scanner() {
+        Scanner scanner = sessionScanner.get();
+        return scanner != null ? scanner : sc;
+    }
+
     /**
      * Enumeration for different time validation rules that can be combined
      */
@@ -61,11 +96,11 @@ public class Helper {
         while (true) {
             try {
                 int userInput = -1;
-                userInput = sc.nextInt();
-                sc.nextLine(); // Consume newline left-over
+                userInput = scanner().nextInt();
+                scanner().nextLine(); // Consume newline left-over
                 return userInput;
             } catch (InputMismatchException e) {
-                sc.nextLine();
+                scanner().nextLine();
                 System.out.println("Invalid Input. Enter an integer!");
             }
         }
@@ -95,15 +130,15 @@ public class Helper {
         while (true) {
             try {
                 int userInput = -1;
-                userInput = sc.nextInt();
-                sc.nextLine(); // Consume newline left-over
+                userInput = scanner().nextInt();
+                scanner().nextLine(); // Consume newline left-over
                 if (userInput < min || userInput > max) {
                     throw new OutOfRange();
                 } else {
                     return userInput;
                 }
             } catch (InputMismatchException e) {
-                sc.nextLine();
+                scanner().nextLine();
                 System.out.println("Invalid Input. Enter an integer!");
             } catch (OutOfRange e) {
                 System.out.println("Input is out of allowed range");
@@ -126,11 +161,11 @@ public class Helper {
         while (true) {
             try {
                 double userInput = -1;
-                userInput = sc.nextDouble();
-                sc.nextLine(); // Consume newline left-over
+                userInput = scanner().nextDouble();
+                scanner().nextLine(); // Consume newline left-over
                 return userInput;
             } catch (InputMismatchException e) {
-                sc.nextLine();
+                scanner().nextLine();
                 System.out.println("Invalid Input, Enter an double!!");
             }
         }
@@ -151,11 +186,11 @@ public class Helper {
         while (true) {
             try {
                 float userInput = -1;
-                userInput = sc.nextFloat();
-                sc.nextLine(); // Consume newline left-over
+                userInput = scanner().nextFloat();
+                scanner().nextLine(); // Consume newline left-over
                 return userInput;
             } catch (InputMismatchException e) {
-                sc.nextLine();
+                scanner().nextLine();
                 System.out.println("Invalid Input, Enter an float!!");
             }
         }
@@ -168,7 +203,7 @@ public class Helper {
      */
     public static String readString() {
 
-        String userInput = sc.nextLine();
+        String userInput = scanner().nextLine();
         return userInput;
     }
 
@@ -182,7 +217,7 @@ public class Helper {
     public static boolean promptConfirmation(String message) {
 
         System.out.println(String.format("Are you sure you want to %s? (yes/no)", message));
-        String userInput = sc.nextLine();
+        String userInput = scanner().nextLine();
         return userInput.equals("yes");
     }
 
@@ -193,24 +228,27 @@ public class Helper {
      * @param <V> Generic type for the value of the HashMap
      * @param database Hashmap object to reference
      * @return A unique id for the database
+     * @deprecated Scans every key of the database. Use
+     * {@link src.Repository.Repository#nextId} instead.
      */
+    @Deprecated
     public static <K, V> int generateUniqueId(HashMap<K, V> database) {
-        if (database.size() == 0) {
-            return 1;
-        }
-        String currentMax = "";
-        for (K key : database.keySet()) {
-            if (key instanceof String) {
-                String currentKey = (String) key;
-                if (currentKey.compareTo(currentMax) > 0) {
-                    currentMax = currentKey;
-                }
-            }
-        }
-        String maxId = currentMax.replaceAll("\\D", "");
-        return Integer.parseInt(maxId) + 1;
+        // Compare the numeric part of the keys so that IDs past 999 are handled
+        return generateUniqueStaffId(database);
     }
 
+    /**
+     * Method to generate unique staff id based on the largest number in the
+     * existing keys
+     *
+     * @param <K> Generic type for the key of the HashMap
+     * @param <V> Generic type for the value of the HashMap
+     * @param database Hashmap object to reference
+     * @return A unique id for the database
+     * @deprecated Scans every key of the database. Use
+     * {@link src.Repository.Repository#nextId} instead.
+     */
+    @Deprecated
     public static <K, V> int generateUniqueStaffId(HashMap<K, V> database) {
         int maxId = 0; // Initialize to 0 for the base case when the database is empty
 
@@ -517,7 +555,7 @@ public class Helper {
 
         while (true) {
             System.out.print(prompt);
-            String timeStr = sc.nextLine();
+            String timeStr = scanner().nextLine();
             String fullDateTimeStr = scheduleDate + " " + timeStr;
 
             try {
@@ -535,6 +573,10 @@ public class Helper {
      */
     public static void pressAnyKeyToContinue() {
         System.out.println("Press Enter key to continue...");
+        if (sessionScanner.get() != null) {
+            scanner().nextLine();
+            return;
+        }
         try {
             System.in.read();
         } catch (Exception e) {
@@ -548,6 +590,12 @@ public class Helper {
      * </p>
      */
     public static void clearScreen() {
+        if (sessionScanner.get() != null) {
+            // Remote terminals are cleared with ANSI escape codes instead
+            System.out.print("\033[H\033[2J");
+            System.out.flush();
+            return;
+        }
         try {
             new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
         } catch (Exception err) {
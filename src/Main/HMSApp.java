@@ -14,6 +14,18 @@ import src.View.HospitalManagementAppView;
  */
 public class HMSApp {
 
+    /**
+     * How long in milliseconds changes are collected before the background
+     * writer saves them.
+     */
+    private static final long PERSISTENCE_DEBOUNCE_MILLIS = 200;
+
+    /**
+     * The maximum number of changes waiting to be saved by the background
+     * writer.
+     */
+    private static final int PERSISTENCE_QUEUE_CAPACITY = 1024;
+
     /**
      * Main function that is the starting point of the application.
      *
@@ -22,39 +34,29 @@ public class HMSApp {
     public static void main(String[] args) {
         //Repository.clearDatabase();
 
-        // Read existing data first
-        Repository.readData(FileType.STAFF);
-        Repository.readData(FileType.PATIENT);
-        Repository.readData(FileType.INVENTORY);
-        Repository.readData(FileType.REPLENISHMENT_REQUEST);
-        Repository.readData(FileType.APPOINTMENT_OUTCOME);
-        Repository.readData(FileType.APPOINTMENT_LIST);
-        Repository.readData(FileType.MEDICINE);
-        Repository.readData(FileType.MEDICAL_RECORD);
-        Repository.readData(FileType.DIAGNOSIS);
-        Repository.readData(FileType.TREATMENT);
-
-        // Initialize dummy data if needed
-        Repository.initializeDummyPatient();
-        Repository.initializeDummyStaff();
-        Repository.initializeDummyInventory();
-        Repository.initializeDummyReplenishmentRequest();
+        // Load the data needed before login in parallel. The other file types,
+        // such as the inventory, are loaded the first time they are used, and
+        // dummy data is added and saved when a file type is first loaded empty.
+        Repository.loadAll(FileType.STAFF, FileType.PATIENT, FileType.APPOINTMENT_LIST, FileType.APPOINTMENT_OUTCOME);
+        // Save small edits in the background so that the console does not wait on disk
+        Repository.enableAsyncPersistence(PERSISTENCE_DEBOUNCE_MILLIS, PERSISTENCE_QUEUE_CAPACITY);
+        // Save the queued edits however the application ends, including Ctrl-C and uncaught exceptions
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Repository.flush();
+            Repository.saveChangedFiles();
+        }, "hms-shutdown"));
         //Repository.initializeDummyAppointmentOutcome();
 
-        // Save all data after initialization
-        Repository.saveAllFiles(); // Add this line
-
         Helper.clearScreen();
         printHMSTitle();
         HospitalManagementAppView hospitalManagementAppView = new HospitalManagementAppView();
         hospitalManagementAppView.viewApp();
-        Repository.saveAllFiles(); // Add this line
     }
 
     /**
      * Prints the HMS title.
      */
-    private static void printHMSTitle() {
+    static void printHMSTitle() {
         System.out.println();
         System.out
                 .println("╔═════════════════════════════════════════════════════════════════════════════════════════════╗");
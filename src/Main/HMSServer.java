@@ -0,0 +1,156 @@
+package src.Main;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import src.Helper.Helper;
+import src.Repository.FileType;
+import src.Repository.Repository;
+import src.View.HospitalManagementAppView;
+
+/**
+ * The starting point of the application in server mode.
+ * <p>
+ * Instead of serving a single user on the console, the server accepts
+ * telnet-style socket connections (for example from {@code nc} or
+ * {@code telnet}) and runs a separate {@link HospitalManagementAppView} for
+ * each of them on its own thread. All sessions share the same in-memory
+ * {@link Repository}, so there is only one process reading and writing the
+ * data files.
+ * </p>
+ *
+ * <p>
+ * <b>Usage:</b> {@code java src.Main.HMSServer [port] [bind address]}. By
+ * default the server listens on port {@value #DEFAULT_PORT} of the loopback
+ * address only.</p>
+ *
+ * @see HMSApp
+ * @see SessionConsole
+ */
+public class HMSServer {
+
+    /**
+     * The port the server listens on when none is given.
+     */
+    private static final int DEFAULT_PORT = 5000;
+
+    /**
+     * The maximum number of sessions served at the same time. Further
+     * connections are turned away until a session ends.
+     */
+    private static final int MAX_SESSIONS = 50;
+
+    /**
+     * How long in milliseconds changes are collected before the background
+     * writer saves them.
+     */
+    private static final long PERSISTENCE_DEBOUNCE_MILLIS = 200;
+
+    /**
+     * The maximum number of changes waiting to be saved by the background
+     * writer.
+     */
+    private static final int PERSISTENCE_QUEUE_CAPACITY = 4096;
+
+    /**
+     * Number of the last session that was started, used to name its thread.
+     */
+    private static final AtomicInteger sessionCount = new AtomicInteger();
+
+    /**
+     * Main function that starts the server.
+     *
+     * @param args Optional port and bind address.
+     * @throws IOException If the server socket cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress bindAddress = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+
+        Repository.loadAll(FileType.STAFF, FileType.PATIENT, FileType.APPOINTMENT_LIST, FileType.APPOINTMENT_OUTCOME);
+        Repository.enableAsyncPersistence(PERSISTENCE_DEBOUNCE_MILLIS, PERSISTENCE_QUEUE_CAPACITY);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Repository.flush();
+            Repository.saveChangedFiles();
+        }, "hms-shutdown"));
+
+        SessionConsole.install();
+        // One thread per session. Sessions spend nearly all their time waiting for input
+        ExecutorService sessions = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hms-session-" + sessionCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore sessionSlots = new Semaphore(MAX_SESSIONS);
+
+        try (ServerSocket serverSocket = new ServerSocket(port, MAX_SESSIONS, bindAddress)) {
+            System.out.println("Hospital Management System server listening on "
+                    + bindAddress.getHostAddress() + ":" + serverSocket.getLocalPort());
+            while (true) {
+                Socket socket = serverSocket.accept();
+                if (!sessionSlots.tryAcquire()) {
+                    rejectSession(socket);
+                    continue;
+                }
+                sessions.execute(() -> {
+                    try {
+                        serveSession(socket);
+                    } finally {
+                        sessionSlots.release();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Runs the application for a single connection until the user quits or
+     * disconnects.
+     *
+     * @param socket The connection of the session.
+     */
+    private static void serveSession(Socket socket) {
+        String client = socket.getRemoteSocketAddress().toString();
+        System.out.println("Session started: " + client);
+        try (socket) {
+            OutputStream out = socket.getOutputStream();
+            SessionConsole.attach(out);
+            Helper.attachSessionInput(socket.getInputStream());
+            HMSApp.printHMSTitle();
+            new HospitalManagementAppView().viewApp();
+        } catch (NoSuchElementException err) {
+            // The user disconnected while the application was waiting for input
+        } catch (IOException | RuntimeException err) {
+            SessionConsole.detach();
+            System.out.println("Error in session " + client + ": " + err);
+        } finally {
+            SessionConsole.detach();
+            Helper.detachSessionInput();
+            // Make sure the changes of this session are saved
+            Repository.flush();
+        }
+        System.out.println("Session ended: " + client);
+    }
+
+    /**
+     * Turns away a connection because the maximum number of sessions is
+     * reached.
+     *
+     * @param socket The rejected connection.
+     */
+    private static void rejectSession(Socket socket) {
+        try (socket) {
+            socket.getOutputStream().write("The server is busy, please try again later.\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException err) {
+            // The client is already gone
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package src.Main;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The SessionConsole class routes {@code System.out} to the terminal of the
+ * session served by the current thread.
+ * <p>
+ * The views and controllers print with {@code System.out} throughout. In
+ * server mode, {@code System.out} is replaced once by a stream that forwards
+ * everything written on a session thread to the output stream of that
+ * session. Output of any other thread still goes to the server console.
+ * </p>
+ *
+ * @see HMSServer
+ */
+final class SessionConsole extends OutputStream {
+
+    /**
+     * Output stream of the session served by the current thread, if any.
+     */
+    private static final ThreadLocal<OutputStream> sessionOutput = new ThreadLocal<>();
+
+    /**
+     * The original console, used by threads that do not serve a session.
+     */
+    private final OutputStream console;
+
+    /**
+     * Creates a console that falls back to the given stream.
+     *
+     * @param console The original console.
+     */
+    private SessionConsole(OutputStream console) {
+        this.console = console;
+    }
+
+    /**
+     * Replaces {@code System.out} with a stream that is routed per session.
+     * Must be called once before the first session starts.
+     */
+    static void install() {
+        System.setOut(new PrintStream(new SessionConsole(System.out), true, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Makes the current thread print to the given stream.
+     *
+     * @param out The output stream of the session.
+     */
+    static void attach(OutputStream out) {
+        sessionOutput.set(out);
+    }
+
+    /**
+     * Makes the current thread print to the server console again.
+     */
+    static void detach() {
+        sessionOutput.remove();
+    }
+
+    /**
+     * Returns the stream the current thread prints to.
+     *
+     * @return The output stream of the current session, or the console.
+     */
+    private OutputStream target() {
+        OutputStream out = sessionOutput.get();
+        return out != null ? out : console;
+    }
+
+    /**
+     * Writes a single byte to the stream of the current thread.
+     *
+     * @param b The byte to write.
+     * @throws IOException If the stream cannot be written.
+     */
+    @Override
+    public void write(int b) throws IOException {
+        target().write(b);
+    }
+
+    /**
+     * Writes bytes to the stream of the current thread.
+     *
+     * @param b The bytes to write.
+     * @param off The offset of the first byte.
+     * @param len The number of bytes to write.
+     * @throws IOException If the stream cannot be written.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        target().write(b, off, len);
+    }
+
+    /**
+     * Flushes the stream of the current thread.
+     *
+     * @throws IOException If the stream cannot be flushed.
+     */
+    @Override
+    public void flush() throws IOException {
+        target().flush();
+    }
+}
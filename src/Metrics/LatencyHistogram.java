@@ -0,0 +1,186 @@
+package src.Metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class counts how long an operation takes, in buckets
+ * laid out like those of HdrHistogram.
+ * <p>
+ * Every power of two is split into 32 buckets of equal width, so any latency
+ * from a nanosecond to hundreds of years is counted with a relative error of
+ * at most about 3%, in a fixed array of counters. Recording a latency only
+ * increments counters, so it never allocates and never blocks, and can be
+ * done from any number of threads at once. Percentiles are read from a copy
+ * of the counters.
+ * </p>
+ *
+ * <p>
+ * <b>Key Features:</b></p>
+ * <ul>
+ * <li>Allocation-free, lock-free recording.</li>
+ * <li>Count, mean, maximum and percentiles of the recorded latencies.</li>
+ * <li>Resetting the counters.</li>
+ * </ul>
+ *
+ * @see Metrics
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The number of buckets every power of two above the first is split into.
+     */
+    private static final int SUB_BUCKETS = 32;
+
+    /**
+     * The base-2 logarithm of {@link #SUB_BUCKETS}.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * The number of buckets, enough for every positive {@code long}.
+     */
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * The number of latencies recorded in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * The number of latencies recorded.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sum of the latencies recorded in nanoseconds.
+     */
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * The largest latency recorded in nanoseconds.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records the latency of one operation.
+     *
+     * @param nanos The latency in nanoseconds. Negative values are counted as
+     * zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(getBucket(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long largest = max.get();
+        while (value > largest && !max.compareAndSet(largest, value)) {
+            largest = max.get();
+        }
+    }
+
+    /**
+     * Returns the number of latencies recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the mean of the latencies recorded.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : (double) total.get() / recorded;
+    }
+
+    /**
+     * Returns the largest latency recorded.
+     *
+     * @return The maximum in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns latency percentiles, all read from the same copy of the
+     * counters. A percentile is the highest latency counted in the same bucket
+     * as the latency of that rank, but never more than the maximum.
+     *
+     * @param percentiles The percentiles, from 0 to 100, in ascending order.
+     * @return The latencies in nanoseconds, in the order of the percentiles.
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] copy = new long[BUCKET_COUNT];
+        long recorded = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            recorded += copy[i];
+        }
+        long largest = max.get();
+        long[] values = new long[percentiles.length];
+        if (recorded == 0) {
+            return values;
+        }
+
+        int bucket = 0;
+        long seen = copy[0];
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100 * recorded));
+            while (seen < rank && bucket < BUCKET_COUNT - 1) {
+                seen += copy[++bucket];
+            }
+            values[p] = Math.min(getHighestValue(bucket), largest);
+        }
+        return values;
+    }
+
+    /**
+     * Clears every recorded latency. Latencies recorded while resetting may be
+     * partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Returns the bucket a latency is counted in. Latencies below 64 ns have a
+     * bucket each; above that, a latency whose highest bit is bit {@code e}
+     * falls into one of the 32 buckets of width {@code 2^(e-5)}.
+     *
+     * @param value The latency in nanoseconds, not negative.
+     * @return The index of the bucket.
+     */
+    private static int getBucket(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the highest latency counted in a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The latency in nanoseconds.
+     */
+    private static long getHighestValue(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
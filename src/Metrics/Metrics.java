@@ -0,0 +1,198 @@
+package src.Metrics;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import src.Repository.FileType;
+import src.Repository.Repository;
+
+/**
+ * The Metrics class keeps a {@link LatencyHistogram} for every measured
+ * operation of the hospital management system.
+ * <p>
+ * Every menu- and service-level controller entry point that does not wait
+ * for console input, and every {@code Repository.readData} and
+ * {@code Repository.persistData} call, records how long it took under the name of the operation, such as
+ * {@code AppointmentController.viewDoctorAppointments} or
+ * {@code Repository.readData(STAFF)}. Recording looks the histogram up by
+ * name without allocating, so it can stay on in production. The
+ * administrator views the latencies from the System Metrics menu, and can
+ * append them to a CSV file to compare them over time.
+ * </p>
+ *
+ * <p>
+ * <b>Key Responsibilities:</b></p>
+ * <ul>
+ * <li>Record the latency of operations by name.</li>
+ * <li>Format the count, mean and percentiles of every operation.</li>
+ * <li>Append the latencies to a CSV file with a timestamp.</li>
+ * <li>Reset all latencies.</li>
+ * </ul>
+ *
+ * @see LatencyHistogram
+ * @see src.View.SystemMetricsView
+ */
+public final class Metrics {
+
+    /**
+     * The name of the file the latencies are appended to in the data
+     * directory.
+     */
+    public static final String DUMP_FILE_NAME = "metrics.csv";
+
+    /**
+     * The percentiles shown for every operation.
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /**
+     * The header of the CSV file, matching {@link #dump(File)}.
+     */
+    private static final String CSV_HEADER = "timestamp,since,operation,count,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+
+    /**
+     * The histograms of all operations measured so far, by name.
+     */
+    private static final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * When the latencies were last reset, or the application started.
+     */
+    private static volatile LocalDateTime since = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    /**
+     * Private constructor, as all members are static.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Records the latency of an operation that started at the given time.
+     *
+     * @param operation The name of the operation.
+     * @param startedNanos The {@link System#nanoTime()} at which the
+     * operation started.
+     */
+    public static void record(String operation, long startedNanos) {
+        histogram(operation).record(System.nanoTime() - startedNanos);
+    }
+
+    /**
+     * Returns the histogram of an operation, creating it the first time.
+     *
+     * @param operation The name of the operation.
+     * @return The histogram.
+     */
+    public static LatencyHistogram histogram(String operation) {
+        LatencyHistogram histogram = histograms.get(operation);
+        return histogram != null ? histogram : histograms.computeIfAbsent(operation, name -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns a histogram for an operation on each file type. Callers keep the
+     * map, so that recording does not build the name.
+     *
+     * @param nameFormat The name of the operation with {@code %s} where the
+     * file type goes, such as {@code Repository.readData(%s)}.
+     * @return The histograms by file type.
+     */
+    public static EnumMap<FileType, LatencyHistogram> histograms(String nameFormat) {
+        EnumMap<FileType, LatencyHistogram> byFileType = new EnumMap<>(FileType.class);
+        for (FileType fileType : FileType.values()) {
+            byFileType.put(fileType, histogram(String.format(nameFormat, fileType)));
+        }
+        return byFileType;
+    }
+
+    /**
+     * Formats the latencies of every operation that was measured since the
+     * last reset, ordered by name.
+     *
+     * @return The table of latencies.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("Latencies since ").append(since.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append("\n\n");
+        report.append(String.format("%-60s %9s %10s %10s %10s %10s %10s %10s%n",
+                "Operation", "Count", "Mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "Max ms"));
+        boolean measured = false;
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            measured = true;
+            long[] values = histogram.getPercentiles(PERCENTILES);
+            report.append(String.format("%-60s %9d %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n", entry.getKey(),
+                    histogram.getCount(), histogram.getMean() / 1e6, values[0] / 1e6, values[1] / 1e6,
+                    values[2] / 1e6, values[3] / 1e6, histogram.getMax() / 1e6));
+        }
+        if (!measured) {
+            report.append("No operations measured yet.\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Appends the latencies of every operation measured since the last reset
+     * to a CSV file, with the current time, so that dumps taken at different
+     * times can be compared. The header is written when the file is new.
+     *
+     * @param file The CSV file.
+     * @return {@code true} if the file was written, {@code false} otherwise.
+     */
+    public static boolean dump(File file) {
+        boolean exists = file.exists() && file.length() > 0;
+        String timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        String start = since.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, StandardCharsets.UTF_8, true))) {
+            if (!exists) {
+                out.println(CSV_HEADER);
+            }
+            for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                long[] values = histogram.getPercentiles(PERCENTILES);
+                out.println(String.format(Locale.ROOT, "%s,%s,\"%s\",%d,%.6f,%.6f,%.6f,%.6f,%.6f,%.6f", timestamp, start,
+                        entry.getKey(), histogram.getCount(), histogram.getMean() / 1e6, values[0] / 1e6,
+                        values[1] / 1e6, values[2] / 1e6, values[3] / 1e6, histogram.getMax() / 1e6));
+            }
+            return true;
+        } catch (IOException err) {
+            System.out.println("Error writing " + file + ": " + err.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the default file the latencies are appended to.
+     *
+     * @return {@value #DUMP_FILE_NAME} in the data directory.
+     */
+    public static File getDumpFile() {
+        return new File(Repository.getDataDirectory(), DUMP_FILE_NAME);
+    }
+
+    /**
+     * Clears the latencies of every operation, so that the next report only
+     * shows what happened afterwards.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        since = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+}
@@ -0,0 +1,126 @@
+package src.Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The OperationEvent class is a Java Flight Recorder event emitted for every
+ * booking, dispensing, payment and replenishment decision.
+ * <p>
+ * The event lasts from the start to the end of the operation, and carries the
+ * name of the operation, the ID of the entity it changed and whether it
+ * succeeded. While an operation runs, it is the current operation of its
+ * thread, so the {@link RepositoryWriteEvent} and {@link RepositoryReadEvent}
+ * it causes carry its name. With a continuous recording, such as one started
+ * with {@code -XX:StartFlightRecording:maxage=1h,filename=hms.jfr}, the
+ * recording shows which operation caused which full-file rewrite. When no
+ * recording is running, the event is not written.
+ * </p>
+ *
+ * <p>
+ * <b>Key Features:</b></p>
+ * <ul>
+ * <li>Duration, name, entity ID and outcome of an operation.</li>
+ * <li>Tracks the current operation of every thread, including nested
+ * operations.</li>
+ * </ul>
+ *
+ * @see RepositoryWriteEvent
+ * @see RepositoryReadEvent
+ */
+@Name("hms.Operation")
+@Label("Operation")
+@Category({"Hospital Management System", "Operations"})
+@Description("A booking, dispensing, payment or replenishment decision")
+@StackTrace(false)
+public final class OperationEvent extends jdk.jfr.Event {
+
+    /**
+     * The operation running on each thread, or {@code null} if there is none.
+     */
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The name of the operation, such as {@code AppointmentService.book}.
+     */
+    @Label("Operation")
+    private String operation;
+
+    /**
+     * The ID of the entity the operation changed, such as the appointment ID.
+     */
+    @Label("Entity ID")
+    private String entityId;
+
+    /**
+     * Whether the operation completed without an error.
+     */
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    /**
+     * The operation that was running on the thread before this one, restored
+     * when this one finishes. Transient fields are not recorded.
+     */
+    private transient String previous;
+
+    /**
+     * Starts timing an operation and makes it the current operation of the
+     * calling thread. Every started operation must be finished, usually in a
+     * {@code finally} block.
+     *
+     * @param operation The name of the operation.
+     * @param entityId The ID of the entity the operation changes, if known.
+     * @return The started event.
+     */
+    public static OperationEvent start(String operation, String entityId) {
+        OperationEvent event = new OperationEvent();
+        event.operation = operation;
+        event.entityId = entityId;
+        event.previous = CURRENT.get();
+        CURRENT.set(operation);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Returns the operation running on the calling thread.
+     *
+     * @return The name of the operation, or {@code null} if there is none.
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Marks the operation as completed without an error.
+     *
+     * @param entityId The ID of the entity the operation changed, or
+     * {@code null} to keep the ID given when it started.
+     */
+    public void succeed(String entityId) {
+        if (entityId != null) {
+            this.entityId = entityId;
+        }
+        succeeded = true;
+    }
+
+    /**
+     * Ends the operation, writes the event if a recording wants it, and
+     * restores the previous operation of the calling thread.
+     */
+    public void finish() {
+        end();
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package src.Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The RepositoryReadEvent class is a Java Flight Recorder event emitted every
+ * time the repository reads the data file of a file type from disk.
+ * <p>
+ * Reads served from memory, because the file has not changed since it was
+ * loaded, do not emit this event. The event carries the file type, the
+ * number of bytes read, the number of entities loaded after replaying the
+ * change log, and the {@link OperationEvent operation} that caused the read.
+ * </p>
+ *
+ * @see src.Repository.Repository
+ * @see OperationEvent
+ */
+@Name("hms.RepositoryRead")
+@Label("Repository Read")
+@Category({"Hospital Management System", "Repository"})
+@Description("A data file read by the repository")
+@StackTrace(false)
+public final class RepositoryReadEvent extends jdk.jfr.Event {
+
+    /**
+     * The file type that was read.
+     */
+    @Label("File Type")
+    public String fileType;
+
+    /**
+     * The number of entities loaded.
+     */
+    @Label("Entities")
+    public int entities;
+
+    /**
+     * The size of the file read.
+     */
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * Whether the file was read and loaded without an error.
+     */
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    /**
+     * The operation that caused the read, or {@code null} if there was none.
+     */
+    @Label("Operation")
+    public String operation;
+}
@@ -0,0 +1,60 @@
+package src.Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The RepositoryWriteEvent class is a Java Flight Recorder event emitted every
+ * time the repository rewrites the full data file of a file type.
+ * <p>
+ * Single entity changes are appended to the change log and do not emit this
+ * event; only checkpoints do. The event carries the file type, the number of
+ * entities and bytes written, the time spent encoding them, and the
+ * {@link OperationEvent operation} that caused the rewrite.
+ * </p>
+ *
+ * @see src.Repository.Repository
+ * @see OperationEvent
+ */
+@Name("hms.RepositoryWrite")
+@Label("Repository Write")
+@Category({"Hospital Management System", "Repository"})
+@Description("A full data file written by the repository")
+@StackTrace(false)
+public final class RepositoryWriteEvent extends jdk.jfr.Event {
+
+    /**
+     * The file type that was written.
+     */
+    @Label("File Type")
+    public String fileType;
+
+    /**
+     * The number of entities written.
+     */
+    @Label("Entities")
+    public int entities;
+
+    /**
+     * The size of the file written.
+     */
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * The time spent encoding the entities, in nanoseconds.
+     */
+    @Label("Encoding Time (ns)")
+    public long encodingNanos;
+
+    /**
+     * The operation that caused the write, or {@code null} if there was none.
+     */
+    @Label("Operation")
+    public String operation;
+}
@@ -1,8 +1,11 @@
 package src.Model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import src.Enum.AppointmentStatus;
+import src.Repository.Repository;
 
 /**
  * The Appointment class represents a scheduled meeting between a
@@ -12,6 +15,13 @@ import src.Enum.AppointmentStatus;
  * This class is serializable, allowing it to be saved and retrieved from
  * persistent storage.
  * </p>
+ * <p>
+ * The patient, doctor and outcome are stored by ID and looked up in
+ * {@link Repository} when accessed, so that an appointment always sees the
+ * current patient and doctor instead of a copy saved with the appointment.
+ * Appointments saved by earlier versions, which contain the full objects, are
+ * converted to IDs when they are read.
+ * </p>
  *
  * <p>
  * <b>Key Features:</b></p>
@@ -40,12 +50,12 @@ public class Appointment implements Serializable {
 
     // Attributes
     private String appointmentId;
-    private Patient patient;
-    private Doctor attendingDoctor;
+    private String patientId;
+    private String doctorId;
     private LocalDateTime appointmentStartDate;
     private LocalDateTime appointmentEndDate;
     private AppointmentStatus status;
-    private AppointmentOutcome outcome;
+    private String outcomeId;
 
     /**
      * Constructs a new Appointment object with the specified patient, doctor,
@@ -58,13 +68,37 @@ public class Appointment implements Serializable {
      */
     public Appointment(Patient patient, Doctor attendingDoctor, LocalDateTime appointmentStartDate, LocalDateTime appointmentEndDate) {
         this.appointmentId = appointmentId;
-        this.patient = patient;
-        this.attendingDoctor = attendingDoctor;
+        setPatient(patient);
+        setAttendingDoctor(attendingDoctor);
         this.appointmentStartDate = appointmentStartDate;
         this.appointmentEndDate = appointmentEndDate;
         // this.status = AppointmentStatus.PENDING;
     }
 
+    /**
+     * Constructs an Appointment object from stored IDs, for example when it is
+     * read from a data file.
+     *
+     * @param appointmentId The unique identifier of the appointment.
+     * @param patientId The ID of the patient.
+     * @param doctorId The hospital ID of the attending doctor.
+     * @param appointmentStartDate The start time of the appointment.
+     * @param appointmentEndDate The end time of the appointment.
+     * @param status The status of the appointment.
+     * @param outcomeId The ID of the outcome, or {@code null} if no outcome
+     * has been recorded.
+     */
+    public Appointment(String appointmentId, String patientId, String doctorId, LocalDateTime appointmentStartDate,
+            LocalDateTime appointmentEndDate, AppointmentStatus status, String outcomeId) {
+        this.appointmentId = appointmentId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.appointmentStartDate = appointmentStartDate;
+        this.appointmentEndDate = appointmentEndDate;
+        this.status = status;
+        this.outcomeId = outcomeId;
+    }
+
     /**
      * Retrieves the appointment ID.
      *
@@ -84,12 +118,23 @@ public class Appointment implements Serializable {
     }
 
     /**
-     * Retrieves the patient associated with the appointment.
+     * Retrieves the ID of the patient associated with the appointment.
+     *
+     * @return The ID of the patient.
+     */
+    public String getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * Retrieves the patient associated with the appointment from
+     * {@link Repository#PATIENT}.
      *
-     * @return The {@link Patient} associated with the appointment.
+     * @return The {@link Patient} associated with the appointment, or
+     * {@code null} if the patient no longer exists.
      */
     public Patient getPatient() {
-        return patient;
+        return patientId != null ? Repository.PATIENT.get(patientId) : null;
     }
 
     /**
@@ -98,16 +143,28 @@ public class Appointment implements Serializable {
      * @param patient The {@link Patient} to associate with the appointment.
      */
     public void setPatient(Patient patient) {
-        this.patient = patient;
+        this.patientId = patient != null ? patient.getPatientId() : null;
+    }
+
+    /**
+     * Retrieves the hospital ID of the doctor attending the appointment.
+     *
+     * @return The hospital ID of the doctor.
+     */
+    public String getDoctorId() {
+        return doctorId;
     }
 
     /**
-     * Retrieves the doctor attending the appointment.
+     * Retrieves the doctor attending the appointment from
+     * {@link Repository#STAFF}.
      *
-     * @return The {@link Doctor} attending the appointment.
+     * @return The {@link Doctor} attending the appointment, or {@code null} if
+     * the doctor no longer exists.
      */
     public Doctor getAttendingDoctor() {
-        return attendingDoctor;
+        Staff staff = doctorId != null ? Repository.STAFF.get(doctorId) : null;
+        return staff instanceof Doctor ? (Doctor) staff : null;
     }
 
     /**
@@ -116,7 +173,7 @@ public class Appointment implements Serializable {
      * @param attendingDoctor The {@link Doctor} attending the appointment.
      */
     public void setAttendingDoctor(Doctor attendingDoctor) {
-        this.attendingDoctor = attendingDoctor;
+        this.doctorId = attendingDoctor != null ? attendingDoctor.getHospitalId() : null;
     }
 
     /**
@@ -156,12 +213,24 @@ public class Appointment implements Serializable {
     }
 
     /**
-     * Retrieves the outcome of the appointment.
+     * Retrieves the ID of the outcome of the appointment.
+     *
+     * @return The ID of the outcome, or {@code null} if no outcome has been
+     * recorded.
+     */
+    public String getOutcomeId() {
+        return outcomeId;
+    }
+
+    /**
+     * Retrieves the outcome of the appointment from
+     * {@link Repository#APPOINTMENT_OUTCOME}.
      *
-     * @return The {@link AppointmentOutcome} of the appointment.
+     * @return The {@link AppointmentOutcome} of the appointment, or
+     * {@code null} if no outcome has been recorded.
      */
     public AppointmentOutcome getOutcome() {
-        return outcome;
+        return outcomeId != null ? Repository.APPOINTMENT_OUTCOME.get(outcomeId) : null;
     }
 
     /**
@@ -171,7 +240,7 @@ public class Appointment implements Serializable {
      */
     public void setOutcome(AppointmentOutcome outcome) {
         this.status = AppointmentStatus.COMPLETED;
-        this.outcome = outcome;
+        this.outcomeId = outcome != null ? outcome.getOutcomeId() : null;
     }
 
     /**
@@ -191,4 +260,53 @@ public class Appointment implements Serializable {
     public void setStatus(AppointmentStatus status) {
         this.status = status;
     }
+
+    /**
+     * Reads an appointment, converting the patient, doctor and outcome objects
+     * saved by earlier versions into IDs.
+     *
+     * @param in The stream to read from.
+     * @throws IOException If the appointment cannot be read.
+     * @throws ClassNotFoundException If a saved class cannot be found.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        appointmentId = (String) fields.get("appointmentId", null);
+        patientId = (String) fields.get("patientId", null);
+        doctorId = (String) fields.get("doctorId", null);
+        appointmentStartDate = (LocalDateTime) fields.get("appointmentStartDate", null);
+        appointmentEndDate = (LocalDateTime) fields.get("appointmentEndDate", null);
+        status = (AppointmentStatus) fields.get("status", null);
+        outcomeId = (String) fields.get("outcomeId", null);
+
+        Object patient = readLegacyField(fields, "patient");
+        if (patientId == null && patient instanceof Patient) {
+            patientId = ((Patient) patient).getPatientId();
+        }
+        Object attendingDoctor = readLegacyField(fields, "attendingDoctor");
+        if (doctorId == null && attendingDoctor instanceof Doctor) {
+            doctorId = ((Doctor) attendingDoctor).getHospitalId();
+        }
+        Object outcome = readLegacyField(fields, "outcome");
+        if (outcomeId == null && outcome instanceof AppointmentOutcome) {
+            outcomeId = ((AppointmentOutcome) outcome).getOutcomeId();
+        }
+    }
+
+    /**
+     * Reads a field that only exists in appointments saved by earlier
+     * versions.
+     *
+     * @param fields The fields read from the stream.
+     * @param name The name of the field.
+     * @return The value of the field, or {@code null} if it was not saved.
+     * @throws IOException If the field cannot be read.
+     */
+    private static Object readLegacyField(ObjectInputStream.GetField fields, String name) throws IOException {
+        try {
+            return fields.get(name, null);
+        } catch (IllegalArgumentException err) {
+            return null;
+        }
+    }
 }
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 import src.Enum.PaymentStatus;
 import src.Enum.ServiceType;
+import src.Repository.Repository;
 
 /**
  * The {@code AppointmentOutcome} class represents the outcome of a medical
@@ -18,6 +19,12 @@ import src.Enum.ServiceType;
  * services, as well as managing payment and diagnostic information.</p>
  *
  * <p>
+ * Diagnoses are stored by diagnosis ID and looked up in the medical record of
+ * the patient when accessed, since the same diagnoses are already saved with
+ * the patient. Outcomes saved by earlier versions, which contain copies of the
+ * diagnoses, keep using their copies.</p>
+ *
+ * <p>
  * <b>Features:</b></p>
  * <ul>
  * <li>Tracks prescribed medicines, their amounts, and statuses.</li>
@@ -54,7 +61,19 @@ public class AppointmentOutcome implements Serializable {
     private List<Integer> medicineAmount;
 
     /**
-     * List of diagnoses associated with the patient.
+     * ID of the patient the outcome belongs to.
+     */
+    private String patientId;
+
+    /**
+     * IDs of the diagnoses associated with the patient, found in the medical
+     * record of the patient.
+     */
+    private List<Integer> diagnosisIds;
+
+    /**
+     * Copies of the diagnoses, only present in outcomes saved by earlier
+     * versions.
      */
     private List<Diagnosis> patientDiagnosis;
 
@@ -83,20 +102,31 @@ public class AppointmentOutcome implements Serializable {
      * to {@code PENDING}.
      *
      * @param outcomeId Unique identifier for the outcome.
+     * @param patientId ID of the patient the outcome belongs to, or
+     * {@code null} to keep copies of the diagnoses in the outcome.
      * @param prescribedMedicines List of prescribed medicines.
      * @param medicineAmount List of amounts for the prescribed medicines.
-     * @param patientDiagnosis List of diagnoses for the patient.
+     * @param patientDiagnosis List of diagnoses for the patient, which must
+     * be part of the medical record of the patient.
      * @param services List of services provided during the appointment.
      * @param doctorNotes Notes from the doctor.
      * @param dateDiagnosed Date and time of the diagnosis.
      */
-    public AppointmentOutcome(String outcomeId, List<Medicine> prescribedMedicines, List<Integer> medicineAmount,
+    public AppointmentOutcome(String outcomeId, String patientId, List<Medicine> prescribedMedicines, List<Integer> medicineAmount,
             List<Diagnosis> patientDiagnosis, List<ServiceType> services, String doctorNotes,
             LocalDateTime dateDiagnosed) {
         this.outcomeId = outcomeId;
+        this.patientId = patientId;
         this.prescribedMedicines = new ArrayList<>(prescribedMedicines);
         this.medicineAmount = new ArrayList<>(medicineAmount);
-        this.patientDiagnosis = new ArrayList<>(patientDiagnosis);
+        if (patientId != null) {
+            this.diagnosisIds = new ArrayList<>();
+        } else {
+            this.patientDiagnosis = new ArrayList<>();
+        }
+        for (Diagnosis diagnosis : patientDiagnosis) {
+            addPatientDiagnosis(diagnosis);
+        }
         this.services = new ArrayList<>(services);
         this.doctorNotes = doctorNotes;
         this.dateDiagnosed = dateDiagnosed;
@@ -107,18 +137,21 @@ public class AppointmentOutcome implements Serializable {
      * Constructs an {@code AppointmentOutcome} with a specified payment status.
      *
      * @param outcomeId Unique identifier for the outcome.
+     * @param patientId ID of the patient the outcome belongs to, or
+     * {@code null} to keep copies of the diagnoses in the outcome.
      * @param prescribedMedicines List of prescribed medicines.
      * @param medicineAmount List of amounts for the prescribed medicines.
-     * @param patientDiagnosis List of diagnoses for the patient.
+     * @param patientDiagnosis List of diagnoses for the patient, which must
+     * be part of the medical record of the patient.
      * @param services List of services provided during the appointment.
      * @param doctorNotes Notes from the doctor.
      * @param dateDiagnosed Date and time of the diagnosis.
      * @param paymentStatus Payment status for the appointment.
      */
-    public AppointmentOutcome(String outcomeId, List<Medicine> prescribedMedicines, List<Integer> medicineAmount,
+    public AppointmentOutcome(String outcomeId, String patientId, List<Medicine> prescribedMedicines, List<Integer> medicineAmount,
             List<Diagnosis> patientDiagnosis, List<ServiceType> services, String doctorNotes,
             LocalDateTime dateDiagnosed, PaymentStatus paymentStatus) {
-        this(outcomeId, prescribedMedicines, medicineAmount, patientDiagnosis, services, doctorNotes, dateDiagnosed);
+        this(outcomeId, patientId, prescribedMedicines, medicineAmount, patientDiagnosis, services, doctorNotes, dateDiagnosed);
         this.paymentStatus = paymentStatus;
     }
 
@@ -196,15 +229,64 @@ public class AppointmentOutcome implements Serializable {
         this.prescribedMedicines.remove(medicine);
     }
 
+    /**
+     * Retrieves the ID of the patient the outcome belongs to.
+     *
+     * @return The patient ID, or {@code null} for outcomes saved by earlier
+     * versions.
+     */
+    public String getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * Retrieves the IDs of the patient diagnoses associated with the
+     * appointment outcome.
+     *
+     * @return The diagnosis IDs, or {@code null} if the outcome keeps copies
+     * of its diagnoses.
+     */
+    public List<Integer> getDiagnosisIds() {
+        return diagnosisIds;
+    }
+
+    /**
+     * Sets the IDs of the patient diagnoses associated with the appointment
+     * outcome. The diagnoses are looked up in the medical record of the
+     * patient.
+     *
+     * @param diagnosisIds The new diagnosis IDs.
+     */
+    public void setDiagnosisIds(List<Integer> diagnosisIds) {
+        this.diagnosisIds = new ArrayList<>(diagnosisIds);
+        this.patientDiagnosis = null;
+    }
+
     /**
      * Retrieves the list of patient diagnoses associated with the appointment
-     * outcome.
+     * outcome, looked up in the medical record of the patient.
      *
      * @return A list of {@link Diagnosis} objects representing the patient's
      * diagnoses.
      */
     public List<Diagnosis> getPatientDiagnosis() {
-        return patientDiagnosis;
+        if (diagnosisIds == null) {
+            return patientDiagnosis;
+        }
+        List<Diagnosis> diagnoses = new ArrayList<>(diagnosisIds.size());
+        Patient patient = patientId != null ? Repository.PATIENT.get(patientId) : null;
+        if (patient == null || patient.getMedicalRecord() == null) {
+            return diagnoses;
+        }
+        for (Integer diagnosisId : diagnosisIds) {
+            for (Diagnosis diagnosis : patient.getMedicalRecord().getDiagnoses()) {
+                if (diagnosis.getDiagnosisId() == diagnosisId) {
+                    diagnoses.add(diagnosis);
+                    break;
+                }
+            }
+        }
+        return diagnoses;
     }
 
     /**
@@ -214,7 +296,12 @@ public class AppointmentOutcome implements Serializable {
      * added.
      */
     public void addPatientDiagnosis(Diagnosis diagnosis) {
-        if (diagnosis != null) {
+        if (diagnosis == null) {
+            return;
+        }
+        if (diagnosisIds != null) {
+            this.diagnosisIds.add(diagnosis.getDiagnosisId());
+        } else {
             this.patientDiagnosis.add(diagnosis);
         }
     }
@@ -226,7 +313,14 @@ public class AppointmentOutcome implements Serializable {
      * is taken.
      */
     public void removePatientDiagnosis(Diagnosis diagnosis) {
-        this.patientDiagnosis.remove(diagnosis);
+        if (diagnosis == null) {
+            return;
+        }
+        if (diagnosisIds != null) {
+            this.diagnosisIds.remove(Integer.valueOf(diagnosis.getDiagnosisId()));
+        } else {
+            this.patientDiagnosis.remove(diagnosis);
+        }
     }
 
     /**
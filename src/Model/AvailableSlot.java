@@ -0,0 +1,55 @@
+package src.Model;
+
+/**
+ * Represents a free appointment slot of a specific doctor.
+ *
+ * <p>
+ * The {@code AvailableSlot} class is returned by the slot search across
+ * doctors, pairing each free {@link Schedule} with the {@link Doctor} it
+ * belongs to.</p>
+ */
+public class AvailableSlot {
+
+    // Attributes
+    /**
+     * The doctor the slot belongs to.
+     */
+    private final Doctor doctor;
+
+    /**
+     * The free time of the slot.
+     */
+    private final Schedule schedule;
+
+    // Constructors
+    /**
+     * Constructs a new {@code AvailableSlot} for the specified doctor and
+     * time.
+     *
+     * @param doctor The doctor the slot belongs to.
+     * @param schedule The free time of the slot.
+     */
+    public AvailableSlot(Doctor doctor, Schedule schedule) {
+        this.doctor = doctor;
+        this.schedule = schedule;
+    }
+
+    // Getters
+    /**
+     * Returns the doctor the slot belongs to.
+     *
+     * @return The doctor.
+     */
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    /**
+     * Returns the free time of the slot.
+     *
+     * @return The schedule of the slot.
+     */
+    public Schedule getSchedule() {
+        return schedule;
+    }
+}
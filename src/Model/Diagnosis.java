@@ -66,6 +66,15 @@ public class Diagnosis implements Serializable {
         return diagnosisId;
     }
 
+    /**
+     * Sets the unique identifier for this diagnosis.
+     *
+     * @param diagnosisId The diagnosis ID.
+     */
+    public void setDiagnosisId(int diagnosisId) {
+        this.diagnosisId = diagnosisId;
+    }
+
     /**
      * Returns the name of the diagnosis.
      *
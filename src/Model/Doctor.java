@@ -1,6 +1,7 @@
 package src.Model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import src.Enum.Gender;
 import src.Enum.StaffType;
@@ -15,7 +16,8 @@ import src.Enum.StaffType;
  *
  * <p>
  * This class ensures the use of a singleton instance of {@link AppointmentList}
- * to manage appointments across the system.</p>
+ * to manage appointments across the system. The appointment list is not saved
+ * with the doctor.</p>
  *
  * @author Jasmine Tye Jia Wen, Bryan
  * @version 1.0
@@ -34,15 +36,12 @@ public class Doctor extends Staff {
     private List<Specialization> docSpecialization;
 
     /**
-     * The list of appointments assigned to the doctor. This uses a singleton
-     * {@link AppointmentList}.
+     * The list of schedules representing the doctor's availability. The list
+     * is never changed in place; every change replaces it with a new list, so
+     * sessions reading the availability are not affected by concurrent
+     * changes.
      */
-    private AppointmentList appointList;
-
-    /**
-     * The list of schedules representing the doctor's availability.
-     */
-    private List<Schedule> availability;
+    private volatile List<Schedule> availability = new ArrayList<>();
 
     /**
      * Default constructor for {@code Doctor}.
@@ -53,7 +52,6 @@ public class Doctor extends Staff {
     public Doctor() {
         super();
         this.role = StaffType.DOCTOR;
-        this.appointList = AppointmentList.getInstance(); // Use singleton instance
     }
 
     /**
@@ -74,7 +72,6 @@ public class Doctor extends Staff {
             List<Specialization> docSpecialization, AppointmentList appointList, List<Schedule> availability) {
         super(name, password, StaffType.DOCTOR, gender, age, hospitalId);
         this.docSpecialization = docSpecialization != null ? new ArrayList<>(docSpecialization) : new ArrayList<>();
-        this.appointList = AppointmentList.getInstance(); // Use singleton instance
         this.availability = availability != null ? new ArrayList<>(availability) : new ArrayList<>();
     }
 
@@ -104,7 +101,7 @@ public class Doctor extends Staff {
      * @return The appointment list.
      */
     public AppointmentList getAppointList() {
-        return appointList;
+        return AppointmentList.getInstance();
     }
 
     /**
@@ -114,17 +111,19 @@ public class Doctor extends Staff {
      */
     public void addAppointment(Appointment appointment) {
         if (appointment != null) {
-            this.appointList.addAppointment(appointment);
+            getAppointList().addAppointment(appointment);
         }
     }
 
     /**
-     * Returns the doctor's availability schedule.
+     * Returns the doctor's availability schedule. The returned list cannot be
+     * modified and does not change when the availability is changed later.
      *
      * @return A list of {@link Schedule} objects.
      */
     public List<Schedule> getAvailability() {
-        return availability;
+        List<Schedule> current = availability;
+        return current != null ? Collections.unmodifiableList(current) : null;
     }
 
     /**
@@ -132,8 +131,8 @@ public class Doctor extends Staff {
      *
      * @param availability A list of {@link Schedule} objects.
      */
-    public void setAvailability(List<Schedule> availability) {
-        this.availability = availability;
+    public synchronized void setAvailability(List<Schedule> availability) {
+        this.availability = availability != null ? new ArrayList<>(availability) : new ArrayList<>();
     }
 
     /**
@@ -141,9 +140,11 @@ public class Doctor extends Staff {
      *
      * @param schedule The schedule to add.
      */
-    public void addAvailability(Schedule schedule) {
+    public synchronized void addAvailability(Schedule schedule) {
         if (schedule != null) {
-            this.availability.add(schedule);
+            List<Schedule> updated = availability != null ? new ArrayList<>(availability) : new ArrayList<>();
+            updated.add(schedule);
+            this.availability = updated;
         }
     }
 
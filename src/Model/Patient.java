@@ -73,9 +73,10 @@ public class Patient implements Serializable {
     private MedicalRecord medicalRecord;
 
     /**
-     * The list of the patient's appointments.
+     * The list of the patient's appointments. It is not saved with the
+     * patient; appointments are kept in {@code Repository.APPOINTMENT_LIST}.
      */
-    private AppointmentList appointList;
+    private transient AppointmentList appointList;
 
     // Constructors
     /**
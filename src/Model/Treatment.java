@@ -1,5 +1,7 @@
 package src.Model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +14,13 @@ import java.util.List;
  * for a specific treatment and the associated quantities.</p>
  *
  * <p>
+ * Each medication is stored as a snapshot of its ID, name, price and
+ * description at the time it was prescribed, so the medical history does not
+ * change when the medicine is later renamed, repriced or removed from the
+ * inventory. Treatments saved by earlier versions, which contain full copies
+ * of the medicines, are converted to snapshots when they are read.</p>
+ *
+ * <p>
  * This class implements {@link Serializable} to allow instances of
  * {@code Treatment} to be serialized and stored persistently.</p>
  *
@@ -19,7 +28,8 @@ import java.util.List;
  * <b>Key Features:</b></p>
  * <ul>
  * <li>Stores the treatment ID to identify the treatment uniquely.</li>
- * <li>Maintains a list of medications associated with the treatment.</li>
+ * <li>Keeps a snapshot of the medications associated with the
+ * treatment.</li>
  * <li>Tracks the quantities of the prescribed medications.</li>
  * </ul>
  *
@@ -41,9 +51,10 @@ public class Treatment implements Serializable {
     private int treatmentId;
 
     /**
-     * The list of medications prescribed as part of the treatment.
+     * The medications prescribed as part of the treatment, as they were when
+     * prescribed.
      */
-    private List<Medicine> medications;
+    private List<PrescribedMedicine> prescribedMedicines;
 
     /**
      * The list of quantities corresponding to the prescribed medications.
@@ -62,7 +73,10 @@ public class Treatment implements Serializable {
      */
     public Treatment(int treatmentId, List<Medicine> medications, List<Integer> medicineAmount) {
         this.treatmentId = treatmentId;
-        this.medications = new ArrayList<>(medications); // Initialize with a copy of the medications
+        this.prescribedMedicines = new ArrayList<>();
+        for (Medicine medicine : medications) {
+            addMedication(medicine);
+        }
         this.medicineAmount = medicineAmount;
     }
 
@@ -86,11 +100,17 @@ public class Treatment implements Serializable {
     }
 
     /**
-     * Returns the list of medications associated with the treatment.
+     * Returns the list of medications associated with the treatment, as they
+     * were when prescribed. The returned medicines are new copies, so changing
+     * them does not change the treatment.
      *
      * @return The list of medications.
      */
     public List<Medicine> getMedications() {
+        List<Medicine> medications = new ArrayList<>(prescribedMedicines.size());
+        for (PrescribedMedicine prescribed : prescribedMedicines) {
+            medications.add(prescribed.toMedicine());
+        }
         return medications;
     }
 
@@ -101,7 +121,7 @@ public class Treatment implements Serializable {
      */
     public void addMedication(Medicine medicine) {
         if (medicine != null) {
-            this.medications.add(medicine);
+            this.prescribedMedicines.add(new PrescribedMedicine(medicine));
         }
     }
 
@@ -111,7 +131,9 @@ public class Treatment implements Serializable {
      * @param medicine The medication to remove.
      */
     public void removeMedication(Medicine medicine) {
-        this.medications.remove(medicine);
+        if (medicine != null) {
+            this.prescribedMedicines.removeIf(prescribed -> prescribed.medicineId.equals(medicine.getMedicineId()));
+        }
     }
 
     /**
@@ -131,4 +153,62 @@ public class Treatment implements Serializable {
     public void setMedicineAmount(List<Integer> medicineAmount) {
         this.medicineAmount = medicineAmount;
     }
+
+    /**
+     * Reads a treatment, converting the medicine copies saved by earlier
+     * versions into snapshots.
+     *
+     * @param in The stream to read from.
+     * @throws IOException If the treatment cannot be read.
+     * @throws ClassNotFoundException If a saved class cannot be found.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        treatmentId = fields.get("treatmentId", 0);
+        prescribedMedicines = (List<PrescribedMedicine>) fields.get("prescribedMedicines", null);
+        medicineAmount = (List<Integer>) fields.get("medicineAmount", null);
+        if (prescribedMedicines == null) {
+            prescribedMedicines = new ArrayList<>();
+            List<Medicine> medications;
+            try {
+                medications = (List<Medicine>) fields.get("medications", null);
+            } catch (IllegalArgumentException err) {
+                medications = null;
+            }
+            if (medications != null) {
+                for (Medicine medicine : medications) {
+                    addMedication(medicine);
+                }
+            }
+        }
+    }
+
+    /**
+     * The ID, name, price and description of a prescribed medication at the
+     * time it was prescribed. Snapshots never change once taken.
+     */
+    private static final class PrescribedMedicine implements Serializable {
+
+        /**
+         * For Java Serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        private final String medicineId;
+        private final String medicineName;
+        private final float medicinePrice;
+        private final String medicineDescription;
+
+        private PrescribedMedicine(Medicine medicine) {
+            this.medicineId = medicine.getMedicineId();
+            this.medicineName = medicine.getMedicineName();
+            this.medicinePrice = medicine.getMedicinePrice();
+            this.medicineDescription = medicine.getMedicineDescription();
+        }
+
+        private Medicine toMedicine() {
+            return new Medicine(medicineId, medicineName, medicinePrice, medicineDescription);
+        }
+    }
 }
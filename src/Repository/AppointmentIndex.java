@@ -0,0 +1,391 @@
+package src.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import src.Enum.AppointmentStatus;
+import src.Model.Appointment;
+
+/**
+ * The AppointmentIndex class maintains secondary indexes over
+ * {@link Repository#APPOINTMENT_LIST}.
+ * <p>
+ * Appointments can be looked up by doctor ID, patient ID and
+ * {@link AppointmentStatus} in constant time, and by start date in logarithmic
+ * time, instead of scanning every appointment in the system. The index is
+ * updated by the {@link Repository} whenever an appointment is persisted and
+ * rebuilt whenever the appointment list is reloaded.
+ * </p>
+ * <p>
+ * For every doctor, the booked (not cancelled) appointments are also kept
+ * ordered by start time, together with the durations of those bookings. A
+ * booking conflict check then only looks at the appointments starting within
+ * one longest booking before the requested end time, instead of at every
+ * appointment of the doctor. Bookings may overlap in data saved by earlier
+ * versions, and are still found. The longest booking shrinks again when it is
+ * cancelled or rescheduled.
+ * </p>
+ *
+ * <p>
+ * <b>Key Responsibilities:</b></p>
+ * <ul>
+ * <li>Indexing appointments by doctor, patient, status and start date.</li>
+ * <li>Detecting overlapping bookings of a doctor.</li>
+ * <li>Keeping the indexes consistent when an appointment is added, updated
+ * or removed.</li>
+ * <li>Resolving indexed appointment IDs against the appointment list.</li>
+ * </ul>
+ *
+ * @see Repository
+ * @see Appointment
+ */
+public class AppointmentIndex {
+
+    /**
+     * The indexed attributes of an appointment at the time it was indexed,
+     * used to find and remove its old positions after it changes.
+     */
+    private static final class Entry {
+
+        private final String doctorId;
+        private final String patientId;
+        private final AppointmentStatus status;
+        private final LocalDateTime startDate;
+        private final LocalDateTime endDate;
+
+        private Entry(Appointment appointment) {
+            this.doctorId = appointment.getDoctorId();
+            this.patientId = appointment.getPatientId();
+            this.status = appointment.getStatus();
+            this.startDate = appointment.getAppointmentStartDate();
+            this.endDate = appointment.getAppointmentEndDate();
+        }
+
+        private boolean isBooked() {
+            return doctorId != null && startDate != null && endDate != null && status != AppointmentStatus.CANCELLED;
+        }
+    }
+
+    /**
+     * Indexed attributes of each appointment, keyed by appointment ID.
+     */
+    private final HashMap<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Appointment IDs grouped by the hospital ID of the attending doctor.
+     */
+    private final HashMap<String, Set<String>> byDoctor = new HashMap<>();
+
+    /**
+     * Appointment IDs grouped by patient ID.
+     */
+    private final HashMap<String, Set<String>> byPatient = new HashMap<>();
+
+    /**
+     * Appointment IDs grouped by appointment status.
+     */
+    private final EnumMap<AppointmentStatus, Set<String>> byStatus = new EnumMap<>(AppointmentStatus.class);
+
+    /**
+     * Appointment IDs ordered by appointment start date.
+     */
+    private final TreeMap<LocalDateTime, Set<String>> byStartDate = new TreeMap<>();
+
+    /**
+     * IDs of the booked appointments of each doctor, ordered by start date.
+     */
+    private final HashMap<String, TreeMap<LocalDateTime, Set<String>>> bookedByDoctor = new HashMap<>();
+
+    /**
+     * The number of booked appointments of each doctor by duration, so that
+     * the longest booking is known after any booking is removed.
+     */
+    private final HashMap<String, TreeMap<Duration, Integer>> bookingDurationsByDoctor = new HashMap<>();
+
+    /**
+     * Constructs an empty index. Only the {@link Repository} creates the
+     * index.
+     */
+    AppointmentIndex() {
+    }
+
+    /**
+     * Discards the index and rebuilds it from the given appointments.
+     *
+     * @param appointments The appointments to index, keyed by appointment ID.
+     */
+    synchronized void rebuild(Map<String, Appointment> appointments) {
+        entries.clear();
+        byDoctor.clear();
+        byPatient.clear();
+        byStatus.clear();
+        byStartDate.clear();
+        bookedByDoctor.clear();
+        bookingDurationsByDoctor.clear();
+        for (Map.Entry<String, Appointment> appointment : appointments.entrySet()) {
+            add(appointment.getKey(), appointment.getValue());
+        }
+    }
+
+    /**
+     * Updates the index after an appointment was added, updated or removed.
+     *
+     * @param appointmentId The ID of the appointment.
+     * @param appointment The current appointment, or {@code null} if it was
+     * removed.
+     */
+    synchronized void update(String appointmentId, Appointment appointment) {
+        Entry previous = entries.remove(appointmentId);
+        if (previous != null) {
+            removeFrom(byDoctor, previous.doctorId, appointmentId);
+            removeFrom(byPatient, previous.patientId, appointmentId);
+            removeFrom(byStatus, previous.status, appointmentId);
+            removeFrom(byStartDate, previous.startDate, appointmentId);
+            if (previous.isBooked()) {
+                TreeMap<LocalDateTime, Set<String>> booked = bookedByDoctor.get(previous.doctorId);
+                removeFrom(booked, previous.startDate, appointmentId);
+                if (booked != null && booked.isEmpty()) {
+                    bookedByDoctor.remove(previous.doctorId);
+                }
+                TreeMap<Duration, Integer> durations = bookingDurationsByDoctor.get(previous.doctorId);
+                if (durations != null) {
+                    durations.computeIfPresent(Duration.between(previous.startDate, previous.endDate), (k, count) -> count > 1 ? count - 1 : null);
+                    if (durations.isEmpty()) {
+                        bookingDurationsByDoctor.remove(previous.doctorId);
+                    }
+                }
+            }
+        }
+        if (appointment != null) {
+            add(appointmentId, appointment);
+        }
+    }
+
+    /**
+     * Returns all appointments of a doctor.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @return The appointments attended by the doctor.
+     */
+    public synchronized List<Appointment> getByDoctor(String doctorId) {
+        return resolve(byDoctor.get(doctorId), null);
+    }
+
+    /**
+     * Returns the appointments of a doctor that have the given status.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @param status The status of the appointments.
+     * @return The matching appointments attended by the doctor.
+     */
+    public synchronized List<Appointment> getByDoctor(String doctorId, AppointmentStatus status) {
+        return resolve(byDoctor.get(doctorId), status);
+    }
+
+    /**
+     * Returns all appointments of a patient.
+     *
+     * @param patientId The ID of the patient.
+     * @return The appointments of the patient.
+     */
+    public synchronized List<Appointment> getByPatient(String patientId) {
+        return resolve(byPatient.get(patientId), null);
+    }
+
+    /**
+     * Returns the appointments of a patient that have the given status.
+     *
+     * @param patientId The ID of the patient.
+     * @param status The status of the appointments.
+     * @return The matching appointments of the patient.
+     */
+    public synchronized List<Appointment> getByPatient(String patientId, AppointmentStatus status) {
+        return resolve(byPatient.get(patientId), status);
+    }
+
+    /**
+     * Returns all appointments that have the given status.
+     *
+     * @param status The status of the appointments.
+     * @return The appointments with the status.
+     */
+    public synchronized List<Appointment> getByStatus(AppointmentStatus status) {
+        return resolve(byStatus.get(status), status);
+    }
+
+    /**
+     * Returns the appointments starting within the given range, ordered by
+     * start date.
+     *
+     * @param from The earliest start date, inclusive.
+     * @param to The latest start date, exclusive.
+     * @return The appointments starting within the range.
+     */
+    public synchronized List<Appointment> getStartingBetween(LocalDateTime from, LocalDateTime to) {
+        List<Appointment> appointments = new ArrayList<>();
+        for (Set<String> appointmentIds : byStartDate.subMap(from, true, to, false).values()) {
+            appointments.addAll(resolve(appointmentIds, null));
+        }
+        return appointments;
+    }
+
+    /**
+     * Finds a booked appointment of a doctor that overlaps with the given time
+     * range. Cancelled appointments never conflict.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @param startTime The start of the time range.
+     * @param endTime The end of the time range.
+     * @param excludedAppointmentId The ID of an appointment to ignore, such as
+     * the appointment being rescheduled, or {@code null}.
+     * @return An overlapping appointment, or {@code null} if the time range is
+     * free.
+     */
+    public synchronized Appointment findConflict(String doctorId, LocalDateTime startTime, LocalDateTime endTime, String excludedAppointmentId) {
+        for (String appointmentId : findBooked(doctorId, startTime, endTime)) {
+            Appointment appointment = Repository.APPOINTMENT_LIST.get(appointmentId);
+            if (appointment != null && !appointmentId.equals(excludedAppointmentId)) {
+                return appointment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the booked appointments of a doctor that overlap with the given
+     * time range, ordered by start date.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @param startTime The start of the time range.
+     * @param endTime The end of the time range.
+     * @return The overlapping appointments that are not cancelled.
+     */
+    public synchronized List<Appointment> getBookedBetween(String doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+        List<Appointment> appointments = new ArrayList<>();
+        for (String appointmentId : findBooked(doctorId, startTime, endTime)) {
+            Appointment appointment = Repository.APPOINTMENT_LIST.get(appointmentId);
+            if (appointment != null) {
+                appointments.add(appointment);
+            }
+        }
+        return appointments;
+    }
+
+    /**
+     * Finds the IDs of the booked appointments of a doctor that overlap with
+     * the given time range.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @param startTime The start of the time range.
+     * @param endTime The end of the time range.
+     * @return The IDs of the overlapping appointments, ordered by start date.
+     */
+    private List<String> findBooked(String doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+        List<String> appointmentIds = new ArrayList<>();
+        TreeMap<LocalDateTime, Set<String>> booked = bookedByDoctor.get(doctorId);
+        if (booked == null) {
+            return appointmentIds;
+        }
+        // No booking that starts earlier than this can still be running at startTime
+        LocalDateTime earliestStart = startTime.minus(bookingDurationsByDoctor.get(doctorId).lastKey());
+        for (Set<String> startingIds : booked.subMap(earliestStart, false, endTime, false).values()) {
+            for (String appointmentId : startingIds) {
+                if (entries.get(appointmentId).endDate.isAfter(startTime)) {
+                    appointmentIds.add(appointmentId);
+                }
+            }
+        }
+        return appointmentIds;
+    }
+
+    /**
+     * Returns the number of indexed appointments.
+     *
+     * @return The number of appointments in the index.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Adds an appointment to every index.
+     *
+     * @param appointmentId The ID of the appointment.
+     * @param appointment The appointment to add.
+     */
+    private void add(String appointmentId, Appointment appointment) {
+        Entry entry = new Entry(appointment);
+        entries.put(appointmentId, entry);
+        addTo(byDoctor, entry.doctorId, appointmentId);
+        addTo(byPatient, entry.patientId, appointmentId);
+        addTo(byStatus, entry.status, appointmentId);
+        addTo(byStartDate, entry.startDate, appointmentId);
+        if (entry.isBooked()) {
+            addTo(bookedByDoctor.computeIfAbsent(entry.doctorId, k -> new TreeMap<>()), entry.startDate, appointmentId);
+            bookingDurationsByDoctor.computeIfAbsent(entry.doctorId, k -> new TreeMap<>())
+                    .merge(Duration.between(entry.startDate, entry.endDate), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Adds an appointment ID to the group of the given key.
+     *
+     * @param <K> The type of the key.
+     * @param index The index to add to.
+     * @param key The key of the group, ignored if {@code null}.
+     * @param appointmentId The ID of the appointment.
+     */
+    private static <K> void addTo(Map<K, Set<String>> index, K key, String appointmentId) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(appointmentId);
+        }
+    }
+
+    /**
+     * Removes an appointment ID from the group of the given key, dropping the
+     * group once it is empty.
+     *
+     * @param <K> The type of the key.
+     * @param index The index to remove from.
+     * @param key The key of the group, ignored if {@code null}.
+     * @param appointmentId The ID of the appointment.
+     */
+    private static <K> void removeFrom(Map<K, Set<String>> index, K key, String appointmentId) {
+        if (index == null || key == null) {
+            return;
+        }
+        Set<String> appointmentIds = index.get(key);
+        if (appointmentIds != null && appointmentIds.remove(appointmentId) && appointmentIds.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Resolves appointment IDs against the appointment list.
+     *
+     * @param appointmentIds The IDs to resolve, may be {@code null}.
+     * @param status Only appointments with this status are returned, or all if
+     * {@code null}.
+     * @return The resolved appointments.
+     */
+    private static List<Appointment> resolve(Set<String> appointmentIds, AppointmentStatus status) {
+        if (appointmentIds == null) {
+            return new ArrayList<>();
+        }
+        List<Appointment> appointments = new ArrayList<>(appointmentIds.size());
+        for (String appointmentId : appointmentIds) {
+            Appointment appointment = Repository.APPOINTMENT_LIST.get(appointmentId);
+            if (appointment != null && (status == null || appointment.getStatus() == status)) {
+                appointments.add(appointment);
+            }
+        }
+        return appointments;
+    }
+}
@@ -0,0 +1,1087 @@
+package src.Repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import src.Enum.*;
+import src.Model.*;
+
+/**
+ * The BinaryCodec class encodes the data of every {@link FileType} in a
+ * compact, versioned binary format.
+ * <p>
+ * Compared to Java serialization, no class descriptors are written and values
+ * are packed tightly: numbers are written as variable-length integers, dates
+ * as epoch days, timestamps as epoch minutes, enums as ordinals, and every
+ * distinct string is written once in a string table and referenced by index
+ * afterwards.
+ * </p>
+ *
+ * <p>
+ * <b>File layout:</b></p>
+ * <ul>
+ * <li>The magic bytes {@code HMSB} and a format version byte.</li>
+ * <li>The string table: the number of strings followed by each string as a
+ * length-prefixed UTF-8 byte sequence.</li>
+ * <li>The body: for a whole file, the number of entries followed by each key
+ * and value; for a single entity, just the value.</li>
+ * </ul>
+ * Files written with Java serialization start with {@code 0xACED} instead and
+ * are recognised by {@link #isLegacy(byte[])} so that they can be migrated.
+ * <p>
+ * Enum ordinals are part of the format, so new enum constants must be added at
+ * the end, and any other change to the layout must increase {@link #VERSION}.
+ * </p>
+ *
+ * @see Repository
+ * @see ChangeLog
+ * @see FileType
+ */
+final class BinaryCodec {
+
+    /**
+     * Magic bytes at the start of every encoded file or entity.
+     */
+    private static final byte[] MAGIC = {'H', 'M', 'S', 'B'};
+
+    /**
+     * Current version of the format.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Tags identifying the class of a staff member.
+     */
+    private static final int STAFF = 0, DOCTOR = 1, ADMIN = 2, PHARMACIST = 3;
+
+    /**
+     * Tags identifying how a timestamp is stored: missing, as whole minutes,
+     * or as minutes followed by the nanoseconds within the minute.
+     */
+    private static final int NO_TIME = 0, MINUTES = 1, MINUTES_AND_NANOS = 2;
+
+    /**
+     * Prevents instantiation.
+     */
+    private BinaryCodec() {
+    }
+
+    /**
+     * Checks whether the given bytes were written with Java serialization.
+     *
+     * @param bytes The bytes of a file or entity.
+     * @return {@code true} if the bytes start with the Java serialization
+     * stream magic.
+     */
+    static boolean isLegacy(byte[] bytes) {
+        return bytes.length >= 2 && (bytes[0] & 0xFF) == 0xAC && (bytes[1] & 0xFF) == 0xED;
+    }
+
+    /**
+     * Encodes all data of a file type.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @param data The in-memory data of the file type.
+     * @return The encoded bytes.
+     * @throws IOException If a value cannot be encoded.
+     */
+    static byte[] encodeMap(FileType fileType, Map<String, ?> data) throws IOException {
+        // Copy the entries first so that the count matches even if the map changes meanwhile
+        List<Map.Entry<String, ?>> entries = new ArrayList<>(data.entrySet());
+        Writer writer = new Writer();
+        writer.writeVarInt(entries.size());
+        for (Map.Entry<String, ?> entry : entries) {
+            writer.writeString(entry.getKey());
+            writeValue(writer, fileType, entry.getValue());
+        }
+        return writer.finish();
+    }
+
+    /**
+     * Decodes all data of a file type.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @param bytes The encoded bytes.
+     * @return The decoded data.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    static ConcurrentHashMap<String, Object> decodeMap(FileType fileType, byte[] bytes) throws IOException {
+        Reader reader = new Reader(bytes);
+        int size = reader.readVarInt();
+        ConcurrentHashMap<String, Object> data = new ConcurrentHashMap<>(Math.max(16, size));
+        for (int i = 0; i < size; i++) {
+            String key = reader.readString();
+            Object value = readValue(reader, fileType);
+            if (key != null && value != null) {
+                data.put(key, value);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Encodes a single entity of a file type, for a change log record. The
+     * time spent is counted in {@link PersistenceStatistics}.
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param value The entity.
+     * @return The encoded bytes.
+     * @throws IOException If the entity cannot be encoded.
+     */
+    static byte[] encodeEntity(FileType fileType, Object value) throws IOException {
+        long started = System.nanoTime();
+        Writer writer = new Writer();
+        writeValue(writer, fileType, value);
+        byte[] bytes = writer.finish();
+        PersistenceStatistics.recordEntityEncode(fileType, System.nanoTime() - started);
+        return bytes;
+    }
+
+    /**
+     * Decodes a single entity of a file type.
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param bytes The encoded bytes.
+     * @return The decoded entity.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    static Object decodeEntity(FileType fileType, byte[] bytes) throws IOException {
+        return readValue(new Reader(bytes), fileType);
+    }
+
+    /**
+     * Writes an entity of the given file type.
+     *
+     * @param writer The writer.
+     * @param fileType The type of file the entity belongs to.
+     * @param value The entity, which may be {@code null}.
+     * @throws IOException If the entity is not of the expected class.
+     */
+    private static void writeValue(Writer writer, FileType fileType, Object value) throws IOException {
+        writer.writeBoolean(value != null);
+        if (value == null) {
+            return;
+        }
+        try {
+            switch (fileType) {
+                case STAFF:
+                    writeStaff(writer, (Staff) value);
+                    break;
+                case PATIENT:
+                    writePatient(writer, (Patient) value);
+                    break;
+                case INVENTORY:
+                    writeInventoryList(writer, (InventoryList) value);
+                    break;
+                case REPLENISHMENT_REQUEST:
+                    writeReplenishmentRequest(writer, (ReplenishmentRequest) value);
+                    break;
+                case APPOINTMENT_OUTCOME:
+                    writeAppointmentOutcome(writer, (AppointmentOutcome) value);
+                    break;
+                case APPOINTMENT_LIST:
+                    writeAppointment(writer, (Appointment) value);
+                    break;
+                case MEDICINE:
+                    writeMedicine(writer, (Medicine) value);
+                    break;
+                case MEDICAL_RECORD:
+                    writeMedicalRecord(writer, (MedicalRecord) value);
+                    break;
+                case DIAGNOSIS:
+                    writeDiagnosis(writer, (Diagnosis) value);
+                    break;
+                case TREATMENT:
+                    writeTreatment(writer, (Treatment) value);
+                    break;
+                default:
+                    throw new IOException("Unsupported file type: " + fileType);
+            }
+        } catch (ClassCastException err) {
+            throw new IOException("Unexpected " + value.getClass().getSimpleName() + " in " + fileType.fileName, err);
+        }
+    }
+
+    /**
+     * Reads an entity of the given file type.
+     *
+     * @param reader The reader.
+     * @param fileType The type of file the entity belongs to.
+     * @return The entity, which may be {@code null}.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static Object readValue(Reader reader, FileType fileType) throws IOException {
+        if (!reader.readBoolean()) {
+            return null;
+        }
+        switch (fileType) {
+            case STAFF:
+                return readStaff(reader);
+            case PATIENT:
+                return readPatient(reader);
+            case INVENTORY:
+                return readInventoryList(reader);
+            case REPLENISHMENT_REQUEST:
+                return readReplenishmentRequest(reader);
+            case APPOINTMENT_OUTCOME:
+                return readAppointmentOutcome(reader);
+            case APPOINTMENT_LIST:
+                return readAppointment(reader);
+            case MEDICINE:
+                return readMedicine(reader);
+            case MEDICAL_RECORD:
+                return readMedicalRecord(reader);
+            case DIAGNOSIS:
+                return readDiagnosis(reader);
+            case TREATMENT:
+                return readTreatment(reader);
+            default:
+                throw new IOException("Unsupported file type: " + fileType);
+        }
+    }
+
+    /**
+     * Writes a staff member.
+     *
+     * @param writer The writer.
+     * @param staff The staff member to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeStaff(Writer writer, Staff staff) throws IOException {
+        int tag;
+        if (staff.getClass() == Doctor.class) {
+            tag = DOCTOR;
+        } else if (staff.getClass() == Admin.class) {
+            tag = ADMIN;
+        } else if (staff.getClass() == Pharmacist.class) {
+            tag = PHARMACIST;
+        } else if (staff.getClass() == Staff.class) {
+            tag = STAFF;
+        } else {
+            throw new IOException("Unsupported staff class: " + staff.getClass().getName());
+        }
+        writer.writeVarInt(tag);
+        writer.writeString(staff.getHospitalId());
+        writer.writeString(staff.getName());
+        writer.writeString(staff.getPassword());
+        writer.writeSignedVarInt(staff.getAge());
+        writer.writeEnum(staff.getRole());
+        writer.writeEnum(staff.getGender());
+        if (tag == DOCTOR) {
+            Doctor doctor = (Doctor) staff;
+            List<Specialization> specializations = doctor.getDocSpecialization();
+            writer.writeListSize(specializations);
+            if (specializations != null) {
+                for (Specialization specialization : specializations) {
+                    writer.writeString(specialization.getSpecializationName());
+                    writer.writeString(specialization.getSpecializationDescription());
+                }
+            }
+            List<Schedule> availability = doctor.getAvailability();
+            writer.writeListSize(availability);
+            if (availability != null) {
+                for (Schedule schedule : availability) {
+                    writer.writeDateTime(schedule.getStartTime());
+                    writer.writeDateTime(schedule.getEndTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a staff member.
+     *
+     * @param reader The reader.
+     * @return The staff member.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static Staff readStaff(Reader reader) throws IOException {
+        int tag = reader.readVarInt();
+        String hospitalId = reader.readString();
+        String name = reader.readString();
+        String password = reader.readString();
+        int age = reader.readSignedVarInt();
+        StaffType role = reader.readEnum(StaffType.values());
+        Gender gender = reader.readEnum(Gender.values());
+        Staff staff;
+        switch (tag) {
+            case DOCTOR:
+                int specializationCount = reader.readListSize();
+                List<Specialization> specializations = new ArrayList<>(Math.max(specializationCount, 0));
+                for (int i = 0; i < specializationCount; i++) {
+                    specializations.add(new Specialization(reader.readString(), reader.readString()));
+                }
+                int scheduleCount = reader.readListSize();
+                List<Schedule> availability = new ArrayList<>(Math.max(scheduleCount, 0));
+                for (int i = 0; i < scheduleCount; i++) {
+                    availability.add(new Schedule(reader.readDateTime(), reader.readDateTime()));
+                }
+                staff = new Doctor(name, password, gender, age, hospitalId, specializations, null, availability);
+                break;
+            case ADMIN:
+                staff = new Admin(name, password, gender, age, hospitalId);
+                break;
+            case PHARMACIST:
+                staff = new Pharmacist(name, password, gender, age, hospitalId);
+                break;
+            case STAFF:
+                staff = new Staff(name, password, role, gender, age, hospitalId);
+                break;
+            default:
+                throw new IOException("Unknown staff class tag " + tag);
+        }
+        staff.setRole(role);
+        return staff;
+    }
+
+    /**
+     * Writes a patient.
+     *
+     * @param writer The writer.
+     * @param patient The patient to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writePatient(Writer writer, Patient patient) throws IOException {
+        writer.writeString(patient.getPatientId());
+        writer.writeString(patient.getName());
+        writer.writeString(patient.getPassword());
+        writer.writeSignedVarInt(patient.getAge());
+        writer.writeDate(patient.getDateOfBirth());
+        writer.writeEnum(patient.getGender());
+        writer.writeString(patient.getContactInformation());
+        writer.writeString(patient.getBloodType());
+        writer.writeBoolean(patient.getMedicalRecord() != null);
+        if (patient.getMedicalRecord() != null) {
+            writeMedicalRecord(writer, patient.getMedicalRecord());
+        }
+    }
+
+    /**
+     * Reads a patient.
+     *
+     * @param reader The reader.
+     * @return The patient.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static Patient readPatient(Reader reader) throws IOException {
+        Patient patient = new Patient(reader.readString(), reader.readString(), reader.readString(),
+                reader.readSignedVarInt(), reader.readDate(), reader.readEnum(Gender.values()),
+                reader.readString(), reader.readString());
+        if (reader.readBoolean()) {
+            patient.setMedicalRecord(readMedicalRecord(reader));
+        }
+        return patient;
+    }
+
+    /**
+     * Writes a medical record.
+     *
+     * @param writer The writer.
+     * @param medicalRecord The medical record to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeMedicalRecord(Writer writer, MedicalRecord medicalRecord) throws IOException {
+        writer.writeString(medicalRecord.getRecordID());
+        writeDiagnoses(writer, medicalRecord.getDiagnoses());
+    }
+
+    /**
+     * Reads a medical record.
+     *
+     * @param reader The reader.
+     * @return The medical record.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static MedicalRecord readMedicalRecord(Reader reader) throws IOException {
+        MedicalRecord medicalRecord = new MedicalRecord(reader.readString());
+        for (Diagnosis diagnosis : readDiagnoses(reader)) {
+            medicalRecord.addDiagnosis(diagnosis);
+        }
+        return medicalRecord;
+    }
+
+    /**
+     * Writes a list of diagnoses.
+     *
+     * @param writer The writer.
+     * @param diagnoses The list of diagnoses to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeDiagnoses(Writer writer, List<Diagnosis> diagnoses) throws IOException {
+        writer.writeListSize(diagnoses);
+        if (diagnoses != null) {
+            for (Diagnosis diagnosis : diagnoses) {
+                writeDiagnosis(writer, diagnosis);
+            }
+        }
+    }
+
+    /**
+     * Reads a list of diagnoses.
+     *
+     * @param reader The reader.
+     * @return The list of diagnoses.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static List<Diagnosis> readDiagnoses(Reader reader) throws IOException {
+        int count = reader.readListSize();
+        List<Diagnosis> diagnoses = new ArrayList<>(Math.max(count, 0));
+        for (int i = 0; i < count; i++) {
+            diagnoses.add(readDiagnosis(reader));
+        }
+        return diagnoses;
+    }
+
+    /**
+     * Writes a diagnosis.
+     *
+     * @param writer The writer.
+     * @param diagnosis The diagnosis to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeDiagnosis(Writer writer, Diagnosis diagnosis) throws IOException {
+        writer.writeSignedVarInt(diagnosis.getDiagnosisId());
+        writer.writeString(diagnosis.getDiagnosisName());
+        writer.writeString(diagnosis.getDescription());
+        List<Treatment> treatments = diagnosis.getTreatments();
+        writer.writeListSize(treatments);
+        if (treatments != null) {
+            for (Treatment treatment : treatments) {
+                writeTreatment(writer, treatment);
+            }
+        }
+    }
+
+    /**
+     * Reads a diagnosis.
+     *
+     * @param reader The reader.
+     * @return The diagnosis.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static Diagnosis readDiagnosis(Reader reader) throws IOException {
+        Diagnosis diagnosis = new Diagnosis(reader.readSignedVarInt(), reader.readString(), reader.readString());
+        int count = reader.readListSize();
+        for (int i = 0; i < count; i++) {
+            diagnosis.addTreatment(readTreatment(reader));
+        }
+        return diagnosis;
+    }
+
+    /**
+     * Writes a treatment.
+     *
+     * @param writer The writer.
+     * @param treatment The treatment to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeTreatment(Writer writer, Treatment treatment) throws IOException {
+        writer.writeSignedVarInt(treatment.getTreatmentId());
+        List<Medicine> medications = treatment.getMedications();
+        writer.writeListSize(medications);
+        for (Medicine medicine : medications) {
+            writer.writeString(medicine.getMedicineId());
+            writer.writeString(medicine.getMedicineName());
+            writer.writeFloat(medicine.getMedicinePrice());
+            writer.writeString(medicine.getMedicineDescription());
+        }
+        writer.writeIntList(treatment.getMedicineAmount());
+    }
+
+    /**
+     * Reads a treatment. Version 1 only stored the IDs of the medicines, which
+     * are read as medicines named after their ID.
+     *
+     * @param reader The reader.
+     * @return The treatment.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static Treatment readTreatment(Reader reader) throws IOException {
+        int treatmentId = reader.readSignedVarInt();
+        List<Medicine> medications = new ArrayList<>();
+        if (reader.version < 2) {
+            List<String> medicineIds = reader.readStringList();
+            if (medicineIds != null) {
+                for (String medicineId : medicineIds) {
+                    medications.add(new Medicine(medicineId, medicineId, 0, ""));
+                }
+            }
+        } else {
+            int count = reader.readListSize();
+            for (int i = 0; i < count; i++) {
+                medications.add(new Medicine(reader.readString(), reader.readString(), reader.readFloat(), reader.readString()));
+            }
+        }
+        return new Treatment(treatmentId, medications, reader.readIntList());
+    }
+
+    /**
+     * Writes a medicine.
+     *
+     * @param writer The writer.
+     * @param medicine The medicine to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeMedicine(Writer writer, Medicine medicine) throws IOException {
+        writer.writeString(medicine.getMedicineId());
+        writer.writeString(medicine.getMedicineName());
+        writer.writeFloat(medicine.getMedicinePrice());
+        writer.writeString(medicine.getMedicineDescription());
+        writer.writeEnum(medicine.getStatus());
+    }
+
+    /**
+     * Reads a medicine.
+     *
+     * @param reader The reader.
+     * @return The medicine.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static Medicine readMedicine(Reader reader) throws IOException {
+        Medicine medicine = new Medicine(reader.readString(), reader.readString(), reader.readFloat(), reader.readString());
+        medicine.setStatus(reader.readEnum(MedicineStatus.values()));
+        return medicine;
+    }
+
+    /**
+     * Writes an inventory item.
+     *
+     * @param writer The writer.
+     * @param inventoryList The inventory item to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeInventoryList(Writer writer, InventoryList inventoryList) throws IOException {
+        writer.writeBoolean(inventoryList.getMedicine() != null);
+        if (inventoryList.getMedicine() != null) {
+            writeMedicine(writer, inventoryList.getMedicine());
+        }
+        writer.writeSignedVarInt(inventoryList.getInitialStock());
+        writer.writeSignedVarInt(inventoryList.getLowStocklevelAlert());
+    }
+
+    /**
+     * Reads an inventory item.
+     *
+     * @param reader The reader.
+     * @return The inventory item.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static InventoryList readInventoryList(Reader reader) throws IOException {
+        Medicine medicine = reader.readBoolean() ? readMedicine(reader) : null;
+        return new InventoryList(medicine, reader.readSignedVarInt(), reader.readSignedVarInt());
+    }
+
+    /**
+     * Writes a replenishment request.
+     *
+     * @param writer The writer.
+     * @param request The replenishment request to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeReplenishmentRequest(Writer writer, ReplenishmentRequest request) throws IOException {
+        writer.writeString(request.getRequestId());
+        writer.writeString(request.getMedicineId());
+        writer.writeSignedVarInt(request.getStockLevel());
+        writer.writeEnum(request.getStatus());
+    }
+
+    /**
+     * Reads a replenishment request.
+     *
+     * @param reader The reader.
+     * @return The replenishment request.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static ReplenishmentRequest readReplenishmentRequest(Reader reader) throws IOException {
+        return new ReplenishmentRequest(reader.readString(), reader.readString(), reader.readSignedVarInt(),
+                reader.readEnum(InventoryRequestStatus.values()));
+    }
+
+    /**
+     * Writes an appointment.
+     *
+     * @param writer The writer.
+     * @param appointment The appointment to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeAppointment(Writer writer, Appointment appointment) throws IOException {
+        writer.writeString(appointment.getAppointmentId());
+        writer.writeString(appointment.getPatientId());
+        writer.writeString(appointment.getDoctorId());
+        writer.writeDateTime(appointment.getAppointmentStartDate());
+        writer.writeDateTime(appointment.getAppointmentEndDate());
+        writer.writeEnum(appointment.getStatus());
+        writer.writeString(appointment.getOutcomeId());
+    }
+
+    /**
+     * Reads an appointment.
+     *
+     * @param reader The reader.
+     * @return The appointment.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static Appointment readAppointment(Reader reader) throws IOException {
+        return new Appointment(reader.readString(), reader.readString(), reader.readString(), reader.readDateTime(),
+                reader.readDateTime(), reader.readEnum(AppointmentStatus.values()), reader.readString());
+    }
+
+    /**
+     * Writes an appointment outcome.
+     *
+     * @param writer The writer.
+     * @param outcome The appointment outcome to write.
+     * @throws IOException If the value cannot be encoded.
+     */
+    private static void writeAppointmentOutcome(Writer writer, AppointmentOutcome outcome) throws IOException {
+        writer.writeString(outcome.getOutcomeId());
+        writer.writeString(outcome.getPatientId());
+        List<Medicine> medicines = outcome.getPrescribedMedicines();
+        writer.writeListSize(medicines);
+        if (medicines != null) {
+            for (Medicine medicine : medicines) {
+                writeMedicine(writer, medicine);
+            }
+        }
+        writer.writeIntList(outcome.getMedicineAmount());
+        // Either the diagnosis IDs, or the copies kept by outcomes without a patient
+        writer.writeIntList(outcome.getDiagnosisIds());
+        if (outcome.getDiagnosisIds() == null) {
+            writeDiagnoses(writer, outcome.getPatientDiagnosis());
+        }
+        List<ServiceType> services = outcome.getServices();
+        writer.writeListSize(services);
+        if (services != null) {
+            for (ServiceType service : services) {
+                writer.writeEnum(service);
+            }
+        }
+        writer.writeString(outcome.getDoctorNotes());
+        writer.writeDateTime(outcome.getDateDiagnosed());
+        writer.writeEnum(outcome.getPaymentStatus());
+    }
+
+    /**
+     * Reads an appointment outcome.
+     *
+     * @param reader The reader.
+     * @return The appointment outcome.
+     * @throws IOException If the bytes are not a valid encoding.
+     */
+    private static AppointmentOutcome readAppointmentOutcome(Reader reader) throws IOException {
+        String outcomeId = reader.readString();
+        String patientId = reader.readString();
+        int medicineCount = reader.readListSize();
+        List<Medicine> medicines = new ArrayList<>(Math.max(medicineCount, 0));
+        for (int i = 0; i < medicineCount; i++) {
+            medicines.add(readMedicine(reader));
+        }
+        List<Integer> medicineAmount = reader.readIntList();
+        List<Integer> diagnosisIds = reader.readIntList();
+        List<Diagnosis> diagnoses = diagnosisIds == null ? readDiagnoses(reader) : new ArrayList<>();
+        int serviceCount = reader.readListSize();
+        List<ServiceType> services = new ArrayList<>(Math.max(serviceCount, 0));
+        for (int i = 0; i < serviceCount; i++) {
+            services.add(reader.readEnum(ServiceType.values()));
+        }
+        AppointmentOutcome outcome = new AppointmentOutcome(outcomeId, diagnosisIds != null ? patientId : null, medicines,
+                medicineAmount != null ? medicineAmount : new ArrayList<>(), diagnoses, services, reader.readString(),
+                reader.readDateTime(), reader.readEnum(PaymentStatus.values()));
+        if (diagnosisIds != null) {
+            outcome.setDiagnosisIds(diagnosisIds);
+        }
+        return outcome;
+    }
+
+    /**
+     * Collects the body of an encoding together with its string table.
+     */
+    private static final class Writer {
+
+        /**
+         * The encoded body.
+         */
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+        /**
+         * Index of every string written so far.
+         */
+        private final LinkedHashMap<String, Integer> strings = new LinkedHashMap<>();
+
+        /**
+         * Returns the complete encoding: header, string table and body.
+         *
+         * @return The encoded bytes.
+         */
+        byte[] finish() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + strings.size() * 8 + 16);
+            out.write(MAGIC, 0, MAGIC.length);
+            out.write(VERSION);
+            writeVarLong(out, strings.size());
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+            byte[] bodyBytes = body.toByteArray();
+            out.write(bodyBytes, 0, bodyBytes.length);
+            return out.toByteArray();
+        }
+
+        /**
+         * Writes a boolean as a single byte.
+         */
+        void writeBoolean(boolean value) {
+            body.write(value ? 1 : 0);
+        }
+
+        /**
+         * Writes an unsigned variable-length integer.
+         */
+        void writeVarInt(int value) {
+            writeVarLong(body, value & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Writes a signed variable-length integer, zigzag encoded so that small
+         * negative numbers stay short.
+         */
+        void writeSignedVarInt(int value) {
+            writeVarLong(body, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Writes a signed variable-length long, zigzag encoded.
+         */
+        void writeSignedVarLong(long value) {
+            writeVarLong(body, (value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes a float as its 4 IEEE 754 bytes.
+         */
+        void writeFloat(float value) {
+            int bits = Float.floatToIntBits(value);
+            body.write(bits >>> 24);
+            body.write(bits >>> 16);
+            body.write(bits >>> 8);
+            body.write(bits);
+        }
+
+        /**
+         * Writes a string as a reference into the string table; 0 stands for
+         * {@code null}.
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.put(value, index);
+            }
+            writeVarInt(index + 1);
+        }
+
+        /**
+         * Writes an enum as its ordinal plus one; 0 stands for {@code null}.
+         */
+        void writeEnum(Enum<?> value) {
+            writeVarInt(value == null ? 0 : value.ordinal() + 1);
+        }
+
+        /**
+         * Writes a list size plus one; 0 stands for a {@code null} list.
+         */
+        void writeListSize(List<?> list) {
+            writeVarInt(list == null ? 0 : list.size() + 1);
+        }
+
+        /**
+         * Writes a list of strings.
+         */
+        void writeStringList(List<String> list) {
+            writeListSize(list);
+            if (list != null) {
+                for (String value : list) {
+                    writeString(value);
+                }
+            }
+        }
+
+        /**
+         * Writes a list of integers; {@code null} elements are written as 0.
+         */
+        void writeIntList(List<Integer> list) {
+            writeListSize(list);
+            if (list != null) {
+                for (Integer value : list) {
+                    writeSignedVarInt(value != null ? value : 0);
+                }
+            }
+        }
+
+        /**
+         * Writes a date as its epoch day.
+         */
+        void writeDate(LocalDate value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeSignedVarLong(value.toEpochDay());
+            }
+        }
+
+        /**
+         * Writes a timestamp as epoch minutes. Seconds and nanoseconds are only
+         * written if the timestamp is not on a whole minute.
+         */
+        void writeDateTime(LocalDateTime value) {
+            if (value == null) {
+                writeVarInt(NO_TIME);
+                return;
+            }
+            long minutes = Math.floorDiv(value.toEpochSecond(ZoneOffset.UTC), 60);
+            long nanosOfMinute = value.getSecond() * 1_000_000_000L + value.getNano();
+            writeVarInt(nanosOfMinute == 0 ? MINUTES : MINUTES_AND_NANOS);
+            writeSignedVarLong(minutes);
+            if (nanosOfMinute != 0) {
+                writeVarLong(body, nanosOfMinute);
+            }
+        }
+
+        /**
+         * Writes an unsigned variable-length integer, 7 bits per byte.
+         */
+        private static void writeVarLong(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+    /**
+     * Reads an encoding produced by {@link Writer}.
+     */
+    private static final class Reader {
+
+        /**
+         * The encoded bytes.
+         */
+        private final byte[] bytes;
+
+        /**
+         * Position of the next byte to read.
+         */
+        private int position;
+
+        /**
+         * The string table.
+         */
+        private final String[] strings;
+
+        /**
+         * The format version the bytes were written with.
+         */
+        private final int version;
+
+        /**
+         * Reads the header and string table of the given bytes.
+         *
+         * @param bytes The encoded bytes.
+         * @throws IOException If the header is invalid or the version is not
+         * supported.
+         */
+        Reader(byte[] bytes) throws IOException {
+            this.bytes = bytes;
+            for (byte magic : MAGIC) {
+                if (position >= bytes.length || bytes[position++] != magic) {
+                    throw new IOException("Not a binary data file");
+                }
+            }
+            version = readByte();
+            if (version > VERSION) {
+                throw new IOException("Unsupported data format version " + version);
+            }
+            strings = new String[checkCount(readVarLong())];
+            for (int i = 0; i < strings.length; i++) {
+                int length = checkCount(readVarLong());
+                if (length > bytes.length - position) {
+                    throw new IOException("Truncated string table");
+                }
+                strings[i] = new String(bytes, position, length, StandardCharsets.UTF_8);
+                position += length;
+            }
+        }
+
+        /**
+         * Reads a single unsigned byte.
+         */
+        private int readByte() throws IOException {
+            if (position >= bytes.length) {
+                throw new IOException("Unexpected end of data");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        /**
+         * Reads an unsigned variable-length integer.
+         */
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer");
+        }
+
+        /**
+         * Checks that a count or length read from the data is plausible.
+         */
+        private int checkCount(long count) throws IOException {
+            if (count < 0 || count > bytes.length) {
+                throw new IOException("Invalid length " + count);
+            }
+            return (int) count;
+        }
+
+        /**
+         * Reads a boolean.
+         */
+        boolean readBoolean() throws IOException {
+            return readByte() != 0;
+        }
+
+        /**
+         * Reads an unsigned variable-length integer.
+         */
+        int readVarInt() throws IOException {
+            return (int) readVarLong();
+        }
+
+        /**
+         * Reads a zigzag encoded variable-length integer.
+         */
+        int readSignedVarInt() throws IOException {
+            int value = (int) readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads a zigzag encoded variable-length long.
+         */
+        long readSignedVarLong() throws IOException {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads a float.
+         */
+        float readFloat() throws IOException {
+            int bits = (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+            return Float.intBitsToFloat(bits);
+        }
+
+        /**
+         * Reads a string reference and looks it up in the string table.
+         */
+        String readString() throws IOException {
+            int index = readVarInt();
+            if (index == 0) {
+                return null;
+            }
+            if (index > strings.length) {
+                throw new IOException("Invalid string reference " + index);
+            }
+            return strings[index - 1];
+        }
+
+        /**
+         * Reads an enum ordinal and returns the matching constant.
+         */
+        <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+            int ordinal = readVarInt();
+            if (ordinal == 0) {
+                return null;
+            }
+            if (ordinal > values.length) {
+                throw new IOException("Invalid enum ordinal " + (ordinal - 1));
+            }
+            return values[ordinal - 1];
+        }
+
+        /**
+         * Reads a list size; -1 stands for a {@code null} list.
+         */
+        int readListSize() throws IOException {
+            return checkCount(readVarLong()) - 1;
+        }
+
+        /**
+         * Reads a list of strings.
+         */
+        List<String> readStringList() throws IOException {
+            int size = readListSize();
+            if (size < 0) {
+                return null;
+            }
+            List<String> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readString());
+            }
+            return list;
+        }
+
+        /**
+         * Reads a list of integers.
+         */
+        List<Integer> readIntList() throws IOException {
+            int size = readListSize();
+            if (size < 0) {
+                return null;
+            }
+            List<Integer> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readSignedVarInt());
+            }
+            return list;
+        }
+
+        /**
+         * Reads a date.
+         */
+        LocalDate readDate() throws IOException {
+            return readBoolean() ? LocalDate.ofEpochDay(readSignedVarLong()) : null;
+        }
+
+        /**
+         * Reads a timestamp.
+         */
+        LocalDateTime readDateTime() throws IOException {
+            int tag = readVarInt();
+            if (tag == NO_TIME) {
+                return null;
+            }
+            long seconds = readSignedVarLong() * 60;
+            long nanosOfMinute = tag == MINUTES_AND_NANOS ? readVarLong() : 0;
+            return LocalDateTime.ofEpochSecond(seconds + nanosOfMinute / 1_000_000_000L,
+                    (int) (nanosOfMinute % 1_000_000_000L), ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package src.Repository;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The ChangeLog class maintains an append-only log of changes for each
+ * {@link FileType}.
+ * <p>
+ * Instead of rewriting the whole serialized file after every small edit, the
+ * {@link Repository} appends a single put or remove record to the log of the
+ * affected file type. When the data is read back, the records are replayed in
+ * order on top of the last full snapshot. A full snapshot (checkpoint) is only
+ * written when the log grows past {@link #CHECKPOINT_THRESHOLD} records or
+ * when all files are saved.
+ * </p>
+ *
+ * <p>
+ * <b>Record format:</b></p>
+ * <ul>
+ * <li>1 byte operation ({@code PUT} or {@code REMOVE}).</li>
+ * <li>The key of the entity, written as modified UTF-8.</li>
+ * <li>For {@code PUT} only: the length of the entity encoded with
+ * {@link BinaryCodec} followed by its bytes.</li>
+ * </ul>
+ * A partially written record at the end of the log (for example after a
+ * crash) is ignored during replay. Entities logged with Java serialization by
+ * earlier versions are still replayed.
+ *
+ * @see Repository
+ * @see FileType
+ */
+class ChangeLog {
+
+    /**
+     * Number of records after which the log is folded into a new snapshot.
+     */
+    static final int CHECKPOINT_THRESHOLD = 500;
+
+    /**
+     * Operation code for an inserted or updated entity.
+     */
+    private static final byte PUT = 1;
+
+    /**
+     * Operation code for a removed entity.
+     */
+    private static final byte REMOVE = 2;
+
+    /**
+     * Number of records currently in the log of each file type.
+     */
+    private static final EnumMap<FileType, Integer> entryCount = new EnumMap<>(FileType.class);
+
+    /**
+     * Returns the log file of the given file type.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @return The log file next to the snapshot of the file type.
+     */
+    static File getLogFile(FileType fileType) {
+        return new File(Repository.getDataDirectory(), fileType.fileName + ".log");
+    }
+
+    /**
+     * Appends a change of a single entity to the log of the given file type.
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param key The key of the entity in the repository.
+     * @param value The current value of the entity, or {@code null} if the
+     * entity was removed.
+     * @return {@code true} if the record was appended, {@code false}
+     * otherwise.
+     */
+    static boolean append(FileType fileType, String key, Object value) {
+        try {
+            byte[] valueBytes = value == null ? null : BinaryCodec.encodeEntity(fileType, value);
+            return appendRecord(fileType, encodeRecord(key, valueBytes));
+        } catch (IOException err) {
+            System.out.println("Error appending to " + fileType.fileName + " change log: " + err.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Appends an already encoded record to the log of the given file type.
+     *
+     * @param fileType The type of file the record belongs to.
+     * @param record The record, as returned by
+     * {@link #encodeRecord(String, byte[])}.
+     * @return {@code true} if the record was appended, {@code false}
+     * otherwise.
+     */
+    static synchronized boolean appendRecord(FileType fileType, byte[] record) {
+        File logFile = getLogFile(fileType);
+        logFile.getParentFile().mkdirs();
+        long started = System.nanoTime();
+        try (FileOutputStream fileOutputStream = new FileOutputStream(logFile, true)) {
+            fileOutputStream.write(record);
+        } catch (IOException err) {
+            System.out.println("Error appending to " + fileType.fileName + " change log: " + err.getMessage());
+            return false;
+        }
+        PersistenceStatistics.recordLogAppend(fileType, record.length, System.nanoTime() - started);
+        entryCount.merge(fileType, 1, Integer::sum);
+        return true;
+    }
+
+    /**
+     * Appends several already encoded records to the log of the given file
+     * type in one write and syncs the log, so the records are on disk when
+     * this method returns.
+     *
+     * @param fileType The type of file the records belong to.
+     * @param records The records, as returned by
+     * {@link #encodeRecord(String, byte[])}.
+     * @return {@code true} if all records were appended and synced,
+     * {@code false} otherwise.
+     */
+    static synchronized boolean appendRecords(FileType fileType, byte[][] records) {
+        File logFile = getLogFile(fileType);
+        logFile.getParentFile().mkdirs();
+        long started = System.nanoTime();
+        try (FileOutputStream fileOutputStream = new FileOutputStream(logFile, true)) {
+            BufferedOutputStream out = new BufferedOutputStream(fileOutputStream);
+            for (byte[] record : records) {
+                out.write(record);
+            }
+            out.flush();
+            fileOutputStream.getFD().sync();
+        } catch (IOException err) {
+            System.out.println("Error appending to " + fileType.fileName + " change log: " + err.getMessage());
+            return false;
+        }
+        long writeNanos = System.nanoTime() - started;
+        for (byte[] record : records) {
+            PersistenceStatistics.recordLogAppend(fileType, record.length, writeNanos);
+            writeNanos = 0;
+        }
+        entryCount.merge(fileType, records.length, Integer::sum);
+        return true;
+    }
+
+    /**
+     * Replays all records in the log of the given file type on top of the
+     * provided map.
+     *
+     * @param fileType The type of file whose log is replayed.
+     * @param target The in-memory map to apply the changes to.
+     * @return The number of records that were replayed.
+     */
+    static synchronized int replay(FileType fileType, Map<String, Object> target) {
+        File logFile = getLogFile(fileType);
+        int replayed = 0;
+        if (logFile.exists()) {
+            try {
+                long readingStarted = System.nanoTime();
+                byte[] log = Files.readAllBytes(logFile.toPath());
+                long decodingStarted = System.nanoTime();
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(log));
+                int validLength = 0;
+                try {
+                    while (in.available() > 0) {
+                        byte operation = in.readByte();
+                        String key = in.readUTF();
+                        if (operation == PUT) {
+                            byte[] bytes = new byte[in.readInt()];
+                            in.readFully(bytes);
+                            Object value = decodeValue(fileType, bytes);
+                            if (value != null) {
+                                target.put(key, value);
+                            }
+                        } else if (operation == REMOVE) {
+                            target.remove(key);
+                        } else {
+                            System.out.println("Error: " + fileType.fileName + " change log is corrupted, ignoring the rest.");
+                            break;
+                        }
+                        validLength = log.length - in.available();
+                        replayed++;
+                    }
+                } catch (EOFException err) {
+                    // A record was only partially written, everything before it is still valid
+                }
+                PersistenceStatistics.recordLogRead(fileType, log.length,
+                        decodingStarted - readingStarted, System.nanoTime() - decodingStarted);
+                if (validLength < log.length) {
+                    // Drop the damaged tail so that new records are not appended after it
+                    try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+                        file.setLength(validLength);
+                    }
+                }
+            } catch (IOException | ClassNotFoundException err) {
+                System.out.println("Error replaying " + fileType.fileName + " change log: " + err.getMessage());
+            }
+        }
+        entryCount.put(fileType, replayed);
+        return replayed;
+    }
+
+    /**
+     * Removes all records from the log of the given file type. Called after a
+     * full snapshot of the file type has been written.
+     *
+     * @param fileType The type of file whose log is cleared.
+     */
+    static synchronized void truncate(FileType fileType) {
+        File logFile = getLogFile(fileType);
+        if (logFile.exists() && !logFile.delete()) {
+            System.out.println("Error clearing " + fileType.fileName + " change log.");
+            return;
+        }
+        entryCount.put(fileType, 0);
+    }
+
+    /**
+     * Returns the number of records in the log of the given file type.
+     *
+     * @param fileType The type of file.
+     * @return The number of records since the last snapshot.
+     */
+    static synchronized int getEntryCount(FileType fileType) {
+        return entryCount.getOrDefault(fileType, 0);
+    }
+
+    /**
+     * Encodes a single log record.
+     *
+     * @param key The key of the entity.
+     * @param valueBytes The entity encoded with {@link BinaryCodec}, or
+     * {@code null} for a removal.
+     * @return The bytes of the record.
+     * @throws IOException If the record cannot be written.
+     */
+    static byte[] encodeRecord(String key, byte[] valueBytes) throws IOException {
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(recordBytes));
+        if (valueBytes == null) {
+            out.writeByte(REMOVE);
+            out.writeUTF(key);
+        } else {
+            out.writeByte(PUT);
+            out.writeUTF(key);
+            out.writeInt(valueBytes.length);
+            out.write(valueBytes);
+        }
+        out.flush();
+        return recordBytes.toByteArray();
+    }
+
+    /**
+     * Decodes a single entity, which may have been logged with Java
+     * serialization by an earlier version.
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param bytes The encoded bytes.
+     * @return The decoded entity.
+     * @throws IOException If the bytes cannot be read.
+     * @throws ClassNotFoundException If the class of a legacy entity is
+     * unknown.
+     */
+    private static Object decodeValue(FileType fileType, byte[] bytes) throws IOException, ClassNotFoundException {
+        if (!BinaryCodec.isLegacy(bytes)) {
+            return BinaryCodec.decodeEntity(fileType, bytes);
+        }
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return objectInputStream.readObject();
+        }
+    }
+}
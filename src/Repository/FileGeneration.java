@@ -0,0 +1,98 @@
+package src.Repository;
+
+import java.io.File;
+
+/**
+ * The FileGeneration class is a stamp of the on-disk state of a
+ * {@link FileType}.
+ * <p>
+ * It records the length and last modified time of both the serialized
+ * snapshot and its {@link ChangeLog}. The {@link Repository} keeps the stamp of
+ * the data it has loaded into memory, and only reads a file again when the
+ * stamp on disk no longer matches, so that repeated reads of unchanged data
+ * are served from memory.
+ * </p>
+ *
+ * @see Repository
+ * @see ChangeLog
+ */
+final class FileGeneration {
+
+    /**
+     * Length of the serialized snapshot in bytes.
+     */
+    private final long snapshotLength;
+
+    /**
+     * Last modified time of the serialized snapshot.
+     */
+    private final long snapshotModified;
+
+    /**
+     * Length of the change log in bytes.
+     */
+    private final long logLength;
+
+    /**
+     * Last modified time of the change log.
+     */
+    private final long logModified;
+
+    /**
+     * Constructs a new stamp.
+     *
+     * @param snapshot The serialized snapshot file.
+     * @param log The change log file.
+     */
+    private FileGeneration(File snapshot, File log) {
+        // File.length() and File.lastModified() return 0 for missing files
+        this.snapshotLength = snapshot.length();
+        this.snapshotModified = snapshot.lastModified();
+        this.logLength = log.length();
+        this.logModified = log.lastModified();
+    }
+
+    /**
+     * Returns the current on-disk stamp of the given file type.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @return The stamp of the snapshot and change log of the file type.
+     */
+    static FileGeneration of(FileType fileType) {
+        return new FileGeneration(Repository.getSnapshotFile(fileType), ChangeLog.getLogFile(fileType));
+    }
+
+    /**
+     * Compares this stamp with another object.
+     *
+     * @param obj The object to compare with.
+     * @return {@code true} if both stamps describe the same on-disk state.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FileGeneration)) {
+            return false;
+        }
+        FileGeneration other = (FileGeneration) obj;
+        return snapshotLength == other.snapshotLength
+                && snapshotModified == other.snapshotModified
+                && logLength == other.logLength
+                && logModified == other.logModified;
+    }
+
+    /**
+     * Returns the hash code of this stamp.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(snapshotLength) * 31 * 31 * 31
+                + Long.hashCode(snapshotModified) * 31 * 31
+                + Long.hashCode(logLength) * 31
+                + Long.hashCode(logModified);
+    }
+}
@@ -0,0 +1,531 @@
+package src.Repository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import src.Enum.AppointmentStatus;
+import src.Model.Appointment;
+import src.Model.AvailableSlot;
+import src.Model.Doctor;
+import src.Model.Schedule;
+import src.Model.Specialization;
+import src.Model.Staff;
+
+/**
+ * The FreeSlotIndex class keeps the free appointment slots of each doctor.
+ * <p>
+ * The free slots of a doctor are the doctor's availability minus the time
+ * taken by pending appointments. Both are kept as merged, non-overlapping
+ * intervals ordered by start time. They are built the first time the slots of
+ * a doctor are read, and then updated incrementally by the {@link Repository}
+ * whenever an appointment is booked, rescheduled, cancelled or accepted, or the
+ * doctor's availability is extended. Reading the free slots therefore does not
+ * recompute anything.
+ * </p>
+ *
+ * <p>
+ * <b>Key Responsibilities:</b></p>
+ * <ul>
+ * <li>Maintaining the merged availability and free slots of each doctor.</li>
+ * <li>Applying booked and released appointments to the free slots.</li>
+ * <li>Returning the free slots of a doctor, optionally grouped by date.</li>
+ * <li>Searching the earliest free slots across doctors.</li>
+ * </ul>
+ *
+ * @see Repository
+ * @see AppointmentIndex
+ * @see Schedule
+ */
+public class FreeSlotIndex {
+
+    /**
+     * The availability and free slots of a single doctor.
+     */
+    private static final class DoctorSlots {
+
+        /**
+         * Copy of the availability list the slots were built from, used to
+         * detect schedules that were appended to it.
+         */
+        private final List<Schedule> availabilitySnapshot = new ArrayList<>();
+
+        /**
+         * Merged availability of the doctor, start time to end time.
+         */
+        private final TreeMap<LocalDateTime, LocalDateTime> availability = new TreeMap<>();
+
+        /**
+         * Merged free slots of the doctor, start time to end time.
+         */
+        private final TreeMap<LocalDateTime, LocalDateTime> free = new TreeMap<>();
+    }
+
+    /**
+     * The time taken by a pending appointment.
+     */
+    private static final class PendingSlot {
+
+        private final String doctorId;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        private PendingSlot(String doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+            this.doctorId = doctorId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        private boolean sameAs(PendingSlot other) {
+            return other != null && doctorId.equals(other.doctorId)
+                    && startTime.equals(other.startTime) && endTime.equals(other.endTime);
+        }
+    }
+
+    /**
+     * Walks the free slots of one doctor in start time order during a search
+     * across doctors.
+     */
+    private static final class SlotCursor {
+
+        private final Doctor doctor;
+        private final Iterator<Map.Entry<LocalDateTime, LocalDateTime>> intervals;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+
+        private SlotCursor(Doctor doctor, Iterator<Map.Entry<LocalDateTime, LocalDateTime>> intervals, LocalDateTime from, LocalDateTime to) {
+            this.doctor = doctor;
+            this.intervals = intervals;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Moves to the next free slot of the doctor, clipped to the search
+         * window.
+         *
+         * @return {@code false} if the doctor has no more free slots.
+         */
+        private boolean advance() {
+            if (!intervals.hasNext()) {
+                return false;
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> interval = intervals.next();
+            startTime = from != null && from.isAfter(interval.getKey()) ? from : interval.getKey();
+            endTime = to != null && to.isBefore(interval.getValue()) ? to : interval.getValue();
+            return true;
+        }
+    }
+
+    /**
+     * Slots of the doctors that have been read so far, keyed by hospital ID.
+     */
+    private final HashMap<String, DoctorSlots> slotsByDoctor = new HashMap<>();
+
+    /**
+     * Time taken by every pending appointment, keyed by appointment ID.
+     */
+    private final HashMap<String, PendingSlot> pendingSlots = new HashMap<>();
+
+    /**
+     * Constructs an empty index. Only the {@link Repository} creates the
+     * index.
+     */
+    FreeSlotIndex() {
+    }
+
+    /**
+     * Discards all slots and rebuilds the pending appointments from the given
+     * appointments. The slots of each doctor are rebuilt when next read.
+     *
+     * @param appointments The appointments, keyed by appointment ID.
+     */
+    synchronized void rebuild(Map<String, Appointment> appointments) {
+        slotsByDoctor.clear();
+        pendingSlots.clear();
+        for (Map.Entry<String, Appointment> appointment : appointments.entrySet()) {
+            PendingSlot slot = toPendingSlot(appointment.getValue());
+            if (slot != null) {
+                pendingSlots.put(appointment.getKey(), slot);
+            }
+        }
+    }
+
+    /**
+     * Discards the slots of all doctors. They are rebuilt when next read.
+     */
+    synchronized void invalidateDoctors() {
+        slotsByDoctor.clear();
+    }
+
+    /**
+     * Updates the free slots after an appointment was added, updated or
+     * removed. Must be called after the {@link AppointmentIndex} was updated.
+     *
+     * @param appointmentId The ID of the appointment.
+     * @param appointment The current appointment, or {@code null} if it was
+     * removed.
+     */
+    synchronized void updateAppointment(String appointmentId, Appointment appointment) {
+        PendingSlot previous = pendingSlots.remove(appointmentId);
+        PendingSlot current = appointment != null ? toPendingSlot(appointment) : null;
+        if (current != null) {
+            pendingSlots.put(appointmentId, current);
+        }
+        if (current != null && current.sameAs(previous)) {
+            return;
+        }
+        if (previous != null) {
+            release(previous);
+        }
+        if (current != null) {
+            DoctorSlots slots = slotsByDoctor.get(current.doctorId);
+            if (slots != null) {
+                subtract(slots.free, current.startTime, current.endTime);
+            }
+        }
+    }
+
+    /**
+     * Updates the availability after a staff member was added, updated or
+     * removed. Schedules appended to the availability of a doctor are applied
+     * incrementally; any other change causes the slots of the doctor to be
+     * rebuilt when next read.
+     *
+     * @param hospitalId The hospital ID of the staff member.
+     * @param staff The current staff member, or {@code null} if removed.
+     */
+    synchronized void updateDoctor(String hospitalId, Staff staff) {
+        DoctorSlots slots = slotsByDoctor.get(hospitalId);
+        if (slots == null) {
+            return;
+        }
+        List<Schedule> availability = staff instanceof Doctor ? ((Doctor) staff).getAvailability() : null;
+        if (availability == null || availability.size() < slots.availabilitySnapshot.size()) {
+            slotsByDoctor.remove(hospitalId);
+            return;
+        }
+        for (int i = 0; i < slots.availabilitySnapshot.size(); i++) {
+            Schedule known = slots.availabilitySnapshot.get(i);
+            Schedule schedule = availability.get(i);
+            if (!known.getStartTime().equals(schedule.getStartTime()) || !known.getEndTime().equals(schedule.getEndTime())) {
+                slotsByDoctor.remove(hospitalId);
+                return;
+            }
+        }
+        for (int i = slots.availabilitySnapshot.size(); i < availability.size(); i++) {
+            addAvailability(hospitalId, slots, availability.get(i));
+        }
+    }
+
+    /**
+     * Returns the free slots of a doctor ordered by start time.
+     *
+     * @param doctor The doctor.
+     * @return The merged free slots of the doctor.
+     */
+    public synchronized List<Schedule> getFreeSlots(Doctor doctor) {
+        return toSchedules(getSlots(doctor).free);
+    }
+
+    /**
+     * Returns the free slots of a doctor as if the given appointment was not
+     * booked, such as when the appointment is being rescheduled.
+     *
+     * @param doctor The doctor.
+     * @param appointmentId The ID of the appointment to ignore.
+     * @return The merged free slots of the doctor ordered by start time.
+     */
+    public synchronized List<Schedule> getFreeSlots(Doctor doctor, String appointmentId) {
+        DoctorSlots slots = getSlots(doctor);
+        PendingSlot ignored = pendingSlots.get(appointmentId);
+        if (ignored == null || !ignored.doctorId.equals(doctor.getHospitalId())) {
+            return toSchedules(slots.free);
+        }
+        TreeMap<LocalDateTime, LocalDateTime> free = new TreeMap<>(slots.free);
+        addWithin(free, slots.availability, ignored.startTime, ignored.endTime);
+        return toSchedules(free);
+    }
+
+    /**
+     * Returns the free slots of a doctor grouped by date.
+     *
+     * @param doctor The doctor.
+     * @return The free slots of the doctor keyed by the date they start on, in
+     * date order.
+     */
+    public synchronized TreeMap<LocalDate, List<Schedule>> getFreeSlotsByDate(Doctor doctor) {
+        return groupByDate(getFreeSlots(doctor));
+    }
+
+    /**
+     * Finds the earliest free slots across the given doctors.
+     * <p>
+     * The free slots of every matching doctor are already ordered by start
+     * time, so they are merged with a priority queue holding one cursor per
+     * doctor. The search stops as soon as enough slots are found instead of
+     * collecting every slot of every doctor.
+     * </p>
+     *
+     * @param doctors The doctors to search.
+     * @param duration The minimum length of a slot, or {@code null} for any
+     * length.
+     * @param from The start of the search window, or {@code null} for no
+     * bound.
+     * @param to The end of the search window, or {@code null} for no bound.
+     * @param specialization Only doctors with this specialization are
+     * searched, or all doctors if {@code null}.
+     * @param limit The maximum number of slots to return.
+     * @return Up to {@code limit} slots ordered by start time, clipped to the
+     * search window.
+     */
+    public synchronized List<AvailableSlot> findEarliestSlots(List<Doctor> doctors, Duration duration, LocalDateTime from,
+            LocalDateTime to, Specialization specialization, int limit) {
+        PriorityQueue<SlotCursor> cursors = new PriorityQueue<>(
+                Comparator.comparing((SlotCursor cursor) -> cursor.startTime)
+                        .thenComparing(cursor -> cursor.doctor.getHospitalId()));
+        for (Doctor doctor : doctors) {
+            if (specialization != null && (doctor.getDocSpecialization() == null
+                    || !doctor.getDocSpecialization().contains(specialization))) {
+                continue;
+            }
+            NavigableMap<LocalDateTime, LocalDateTime> free = getSlots(doctor).free;
+            if (from != null) {
+                // Include the slot that is already running at the start of the window
+                Map.Entry<LocalDateTime, LocalDateTime> running = free.lowerEntry(from);
+                free = free.tailMap(running != null && running.getValue().isAfter(from) ? running.getKey() : from, true);
+            }
+            if (to != null) {
+                free = free.headMap(to, false);
+            }
+            SlotCursor cursor = new SlotCursor(doctor, free.entrySet().iterator(), from, to);
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+
+        List<AvailableSlot> slots = new ArrayList<>();
+        while (!cursors.isEmpty() && slots.size() < limit) {
+            SlotCursor cursor = cursors.poll();
+            if (duration == null || Duration.between(cursor.startTime, cursor.endTime).compareTo(duration) >= 0) {
+                slots.add(new AvailableSlot(cursor.doctor, new Schedule(cursor.startTime, cursor.endTime)));
+            }
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Groups slots by the date they start on.
+     *
+     * @param slots The slots ordered by start time.
+     * @return The slots keyed by date, in date order.
+     */
+    public static TreeMap<LocalDate, List<Schedule>> groupByDate(List<Schedule> slots) {
+        TreeMap<LocalDate, List<Schedule>> slotsByDate = new TreeMap<>();
+        for (Schedule slot : slots) {
+            slotsByDate.computeIfAbsent(slot.getStartTime().toLocalDate(), k -> new ArrayList<>()).add(slot);
+        }
+        return slotsByDate;
+    }
+
+    /**
+     * Returns the slots of a doctor, building them if needed.
+     *
+     * @param doctor The doctor.
+     * @return The slots of the doctor.
+     */
+    private DoctorSlots getSlots(Doctor doctor) {
+        String doctorId = doctor.getHospitalId();
+        DoctorSlots slots = slotsByDoctor.get(doctorId);
+        if (slots != null) {
+            return slots;
+        }
+        slots = new DoctorSlots();
+        Staff stored = Repository.STAFF.get(doctorId);
+        Doctor source = stored instanceof Doctor ? (Doctor) stored : doctor;
+        List<Schedule> availability = source.getAvailability();
+        if (availability != null) {
+            for (Schedule schedule : availability) {
+                slots.availabilitySnapshot.add(new Schedule(schedule.getStartTime(), schedule.getEndTime()));
+                add(slots.availability, schedule.getStartTime(), schedule.getEndTime());
+            }
+        }
+        slots.free.putAll(slots.availability);
+        for (Appointment appointment : Repository.APPOINTMENT_INDEX.getByDoctor(doctorId)) {
+            PendingSlot pending = pendingSlots.get(appointment.getAppointmentId());
+            if (pending != null) {
+                subtract(slots.free, pending.startTime, pending.endTime);
+            }
+        }
+        slotsByDoctor.put(doctorId, slots);
+        return slots;
+    }
+
+    /**
+     * Adds a schedule to the availability and free slots of a doctor.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @param slots The slots of the doctor.
+     * @param schedule The schedule that was added.
+     */
+    private void addAvailability(String doctorId, DoctorSlots slots, Schedule schedule) {
+        slots.availabilitySnapshot.add(new Schedule(schedule.getStartTime(), schedule.getEndTime()));
+        add(slots.availability, schedule.getStartTime(), schedule.getEndTime());
+        add(slots.free, schedule.getStartTime(), schedule.getEndTime());
+        subtractPending(doctorId, slots, schedule.getStartTime(), schedule.getEndTime());
+    }
+
+    /**
+     * Returns the time of a released pending appointment to the free slots of
+     * its doctor, as far as the doctor is still available then.
+     *
+     * @param released The released appointment time.
+     */
+    private void release(PendingSlot released) {
+        DoctorSlots slots = slotsByDoctor.get(released.doctorId);
+        if (slots == null) {
+            return;
+        }
+        addWithin(slots.free, slots.availability, released.startTime, released.endTime);
+        subtractPending(released.doctorId, slots, released.startTime, released.endTime);
+    }
+
+    /**
+     * Removes the time of the pending appointments of a doctor within the
+     * given range from the free slots of the doctor.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @param slots The slots of the doctor.
+     * @param startTime The start of the range.
+     * @param endTime The end of the range.
+     */
+    private void subtractPending(String doctorId, DoctorSlots slots, LocalDateTime startTime, LocalDateTime endTime) {
+        for (Appointment appointment : Repository.APPOINTMENT_INDEX.getBookedBetween(doctorId, startTime, endTime)) {
+            PendingSlot pending = pendingSlots.get(appointment.getAppointmentId());
+            if (pending != null) {
+                subtract(slots.free, pending.startTime, pending.endTime);
+            }
+        }
+    }
+
+    /**
+     * Returns the time taken by an appointment if it is pending.
+     *
+     * @param appointment The appointment.
+     * @return The time taken by the appointment, or {@code null} if it is not
+     * pending.
+     */
+    private static PendingSlot toPendingSlot(Appointment appointment) {
+        if (appointment.getStatus() != AppointmentStatus.PENDING || appointment.getDoctorId() == null
+                || appointment.getAppointmentStartDate() == null || appointment.getAppointmentEndDate() == null) {
+            return null;
+        }
+        return new PendingSlot(appointment.getDoctorId(),
+                appointment.getAppointmentStartDate(), appointment.getAppointmentEndDate());
+    }
+
+    /**
+     * Adds the part of a range that lies within the given bounds to a set of
+     * intervals.
+     *
+     * @param intervals The intervals to add to.
+     * @param bounds The intervals bounding the range.
+     * @param startTime The start of the range.
+     * @param endTime The end of the range.
+     */
+    private static void addWithin(TreeMap<LocalDateTime, LocalDateTime> intervals, TreeMap<LocalDateTime, LocalDateTime> bounds,
+            LocalDateTime startTime, LocalDateTime endTime) {
+        Map.Entry<LocalDateTime, LocalDateTime> first = bounds.lowerEntry(startTime);
+        LocalDateTime from = first != null && first.getValue().isAfter(startTime) ? first.getKey() : startTime;
+        for (Map.Entry<LocalDateTime, LocalDateTime> bound : bounds.subMap(from, true, endTime, false).entrySet()) {
+            LocalDateTime start = bound.getKey().isAfter(startTime) ? bound.getKey() : startTime;
+            LocalDateTime end = bound.getValue().isBefore(endTime) ? bound.getValue() : endTime;
+            add(intervals, start, end);
+        }
+    }
+
+    /**
+     * Adds a range to a set of intervals, merging it with the intervals it
+     * overlaps or touches.
+     *
+     * @param intervals The intervals, start time to end time.
+     * @param startTime The start of the range.
+     * @param endTime The end of the range.
+     */
+    private static void add(TreeMap<LocalDateTime, LocalDateTime> intervals, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            return;
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> before = intervals.floorEntry(startTime);
+        if (before != null && !before.getValue().isBefore(startTime)) {
+            startTime = before.getKey();
+            endTime = before.getValue().isAfter(endTime) ? before.getValue() : endTime;
+            intervals.remove(before.getKey());
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> after = intervals.ceilingEntry(startTime);
+        while (after != null && !after.getKey().isAfter(endTime)) {
+            endTime = after.getValue().isAfter(endTime) ? after.getValue() : endTime;
+            intervals.remove(after.getKey());
+            after = intervals.ceilingEntry(startTime);
+        }
+        intervals.put(startTime, endTime);
+    }
+
+    /**
+     * Removes a range from a set of intervals, splitting the intervals it
+     * partly overlaps.
+     *
+     * @param intervals The intervals, start time to end time.
+     * @param startTime The start of the range.
+     * @param endTime The end of the range.
+     */
+    private static void subtract(TreeMap<LocalDateTime, LocalDateTime> intervals, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            return;
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> before = intervals.lowerEntry(startTime);
+        if (before != null && before.getValue().isAfter(startTime)) {
+            intervals.put(before.getKey(), startTime);
+            if (before.getValue().isAfter(endTime)) {
+                intervals.put(endTime, before.getValue());
+                return;
+            }
+        }
+        Map<LocalDateTime, LocalDateTime> covered = intervals.subMap(startTime, true, endTime, false);
+        LocalDateTime lastEnd = null;
+        for (LocalDateTime end : covered.values()) {
+            lastEnd = end;
+        }
+        covered.clear();
+        if (lastEnd != null && lastEnd.isAfter(endTime)) {
+            intervals.put(endTime, lastEnd);
+        }
+    }
+
+    /**
+     * Copies a set of intervals into schedules.
+     *
+     * @param intervals The intervals, start time to end time.
+     * @return The intervals as schedules ordered by start time.
+     */
+    private static List<Schedule> toSchedules(TreeMap<LocalDateTime, LocalDateTime> intervals) {
+        List<Schedule> schedules = new ArrayList<>(intervals.size());
+        for (Map.Entry<LocalDateTime, LocalDateTime> interval : intervals.entrySet()) {
+            schedules.add(new Schedule(interval.getKey(), interval.getValue()));
+        }
+        return schedules;
+    }
+}
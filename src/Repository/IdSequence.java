@@ -0,0 +1,281 @@
+package src.Repository;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The IdSequence class allocates the numeric part of new IDs for each
+ * {@link FileType}.
+ * <p>
+ * Each file type has an {@link AtomicLong} holding the last allocated number,
+ * so allocating an ID is a single atomic increment instead of a scan over all
+ * existing keys. Numbers are reserved in blocks of {@value #BLOCK_SIZE}: only
+ * the end of the reserved block, the high-water mark, is saved to
+ * {@code Sequence.dat} next to the data files, and only when an allocation
+ * crosses it. After a restart, numbering continues after the saved mark, so
+ * numbers are never reused, although up to one block of numbers may be
+ * skipped. A sequence that has never been saved is seeded once from the
+ * largest number found in the existing keys, compared numerically so that IDs
+ * keep growing past 999.
+ * </p>
+ * <p>
+ * The sequences belong to the data directory they were loaded from. When the
+ * data directory is moved, the sequences of the new directory are loaded.
+ * </p>
+ *
+ * @see Repository
+ * @see FileType
+ */
+final class IdSequence {
+
+    /**
+     * Name of the file the sequences are saved to.
+     */
+    private static final String FILE_NAME = "Sequence.dat";
+
+    /**
+     * Number of numbers reserved every time the high-water mark is saved.
+     */
+    static final int BLOCK_SIZE = 64;
+
+    /**
+     * The sequences of the data directory in use, or {@code null} before the
+     * first allocation.
+     */
+    private static volatile Sequences current;
+
+    /**
+     * Prevents instantiation.
+     */
+    private IdSequence() {
+    }
+
+    /**
+     * Allocates the next number of the given file type.
+     *
+     * @param fileType The type of file the ID is for.
+     * @param store The in-memory data of the file type, only scanned if the
+     * sequence has never been saved.
+     * @return The allocated number, starting from 1.
+     */
+    static long next(FileType fileType, Map<String, ?> store) {
+        Sequences sequences = getSequences();
+        Sequence sequence = sequences.get(fileType, store);
+        long id = sequence.last.incrementAndGet();
+        if (id > sequence.reserved) {
+            sequences.reserve(sequence, id);
+        }
+        return id;
+    }
+
+    /**
+     * Discards all sequences of the data directory in use, for example after
+     * the database was cleared.
+     */
+    static synchronized void reset() {
+        Sequences sequences = new Sequences(Repository.getDataDirectory());
+        File file = sequences.getFile();
+        if (file.exists() && !file.delete()) {
+            System.out.println("Error clearing " + FILE_NAME + ".");
+        }
+        current = sequences;
+    }
+
+    /**
+     * Returns the sequences of the data directory in use, reading them the
+     * first time they are needed and whenever the data directory moved.
+     *
+     * @return The sequences.
+     */
+    private static Sequences getSequences() {
+        Sequences sequences = current;
+        File directory = Repository.getDataDirectory();
+        if (sequences != null && sequences.directory.equals(directory)) {
+            return sequences;
+        }
+        synchronized (IdSequence.class) {
+            if (current == null || !current.directory.equals(directory)) {
+                current = Sequences.load(directory);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Finds the largest number contained in the keys of the given data.
+     *
+     * @param store The data to scan.
+     * @return The largest number, or 0 if no key contains a number.
+     */
+    private static long findLargestNumber(Map<String, ?> store) {
+        long largest = 0;
+        for (String key : store.keySet()) {
+            long number = 0;
+            boolean hasDigit = false;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    number = number * 10 + (c - '0');
+                    hasDigit = true;
+                }
+            }
+            if (hasDigit && number > largest) {
+                largest = number;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * The sequence of a single file type.
+     */
+    private static final class Sequence {
+
+        /**
+         * The last allocated number.
+         */
+        private final AtomicLong last;
+
+        /**
+         * The largest number that may be allocated before the high-water mark
+         * has to be raised and saved.
+         */
+        private volatile long reserved;
+
+        /**
+         * Creates a sequence that continues after the given number.
+         *
+         * @param last The last allocated or reserved number.
+         */
+        private Sequence(long last) {
+            this.last = new AtomicLong(last);
+            this.reserved = last;
+        }
+    }
+
+    /**
+     * The sequences of all file types of one data directory.
+     */
+    private static final class Sequences {
+
+        /**
+         * The data directory the sequences belong to.
+         */
+        private final File directory;
+
+        /**
+         * The sequence of each file type.
+         */
+        private final ConcurrentHashMap<FileType, Sequence> byFileType = new ConcurrentHashMap<>();
+
+        /**
+         * Creates empty sequences for a data directory.
+         *
+         * @param directory The data directory.
+         */
+        private Sequences(File directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Reads the saved sequences of a data directory.
+         *
+         * @param directory The data directory.
+         * @return The sequences, empty if none were saved.
+         */
+        @SuppressWarnings("unchecked")
+        private static Sequences load(File directory) {
+            Sequences sequences = new Sequences(directory);
+            File file = sequences.getFile();
+            if (!file.exists()) {
+                return sequences;
+            }
+            try (ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(file))) {
+                Map<String, Long> saved = (Map<String, Long>) objectInputStream.readObject();
+                for (Map.Entry<String, Long> entry : saved.entrySet()) {
+                    try {
+                        sequences.byFileType.put(FileType.valueOf(entry.getKey()), new Sequence(entry.getValue()));
+                    } catch (IllegalArgumentException err) {
+                        // The file type no longer exists
+                    }
+                }
+            } catch (IOException | ClassNotFoundException | ClassCastException err) {
+                System.out.println("Error reading " + FILE_NAME + ", sequences will be rebuilt: " + err.getMessage());
+            }
+            return sequences;
+        }
+
+        /**
+         * Returns the sequence of a file type, seeding it from the existing
+         * keys if it has never been saved.
+         *
+         * @param fileType The type of file.
+         * @param store The in-memory data of the file type.
+         * @return The sequence.
+         */
+        private Sequence get(FileType fileType, Map<String, ?> store) {
+            Sequence sequence = byFileType.get(fileType);
+            return sequence != null ? sequence : byFileType.computeIfAbsent(fileType, type -> new Sequence(findLargestNumber(store)));
+        }
+
+        /**
+         * Raises the high-water mark of a sequence past an allocated number
+         * and saves it before the number is handed out.
+         *
+         * @param sequence The sequence.
+         * @param id The allocated number that is not reserved yet.
+         */
+        private synchronized void reserve(Sequence sequence, long id) {
+            if (id <= sequence.reserved) {
+                return;
+            }
+            long reserved = sequence.reserved;
+            while (reserved < id) {
+                reserved += BLOCK_SIZE;
+            }
+            sequence.reserved = reserved;
+            save();
+        }
+
+        /**
+         * Saves the high-water mark of every sequence. The file is replaced
+         * atomically so that a crash never leaves it half written.
+         */
+        private void save() {
+            HashMap<String, Long> values = new HashMap<>();
+            for (Map.Entry<FileType, Sequence> entry : byFileType.entrySet()) {
+                values.put(entry.getKey().name(), entry.getValue().reserved);
+            }
+            File file = getFile();
+            File tempFile = new File(file.getPath() + ".tmp");
+            try {
+                file.getParentFile().mkdirs();
+                try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(tempFile))) {
+                    objectOutputStream.writeObject(values);
+                }
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException err) {
+                System.out.println("Error writing " + FILE_NAME + ": " + err.getMessage());
+            }
+        }
+
+        /**
+         * Returns the file the sequences are saved to.
+         *
+         * @return The sequence file.
+         */
+        private File getFile() {
+            return new File(directory, FILE_NAME);
+        }
+    }
+}
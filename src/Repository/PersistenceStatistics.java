@@ -0,0 +1,521 @@
+package src.Repository;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The PersistenceStatistics class counts the disk I/O of the repository and
+ * tracks how the data files grow, for every {@link FileType}.
+ * <p>
+ * The repository reports every full data file it writes or reads, every
+ * record appended to or replayed from a {@link ChangeLog}, and the time spent
+ * encoding and decoding entities separately from the time spent on the file
+ * itself. The report shows these totals next to the current number of
+ * entities and file sizes, and compares the file sizes with the earliest
+ * sample known: either the first row saved to the CSV file, or the first time
+ * the file was read or written since the application started.
+ * </p>
+ * <p>
+ * The bytes per entity deserve the most attention. A file whose number of
+ * entities stays flat while its bytes per entity keep rising, such as
+ * {@code Patient.dat} with the medical history embedded in every patient,
+ * costs more to checkpoint with every visit, and is listed at the end of the
+ * report.
+ * </p>
+ *
+ * <p>
+ * <b>Key Responsibilities:</b></p>
+ * <ul>
+ * <li>Count the bytes, writes and reads of the data files and change
+ * logs.</li>
+ * <li>Separate the time spent encoding and decoding from the time spent on
+ * file I/O.</li>
+ * <li>Compare the entity counts and file sizes with the earliest known
+ * sample.</li>
+ * <li>Append the statistics to a CSV file with a timestamp, building a
+ * history of the file sizes.</li>
+ * </ul>
+ *
+ * @see Repository
+ * @see ChangeLog
+ * @see src.View.SystemMetricsView
+ */
+public final class PersistenceStatistics {
+
+    /**
+     * The name of the file the statistics are appended to in the data
+     * directory.
+     */
+    public static final String DUMP_FILE_NAME = "persistence.csv";
+
+    /**
+     * The header of the CSV file, matching {@link #dump(File)}.
+     */
+    private static final String CSV_HEADER = "timestamp,file_type,entities,file_bytes,log_bytes,file_writes,"
+            + "file_bytes_written,log_appends,log_bytes_written,reads,bytes_read,encode_ms,write_ms,decode_ms,read_ms";
+
+    /**
+     * The relative growth of the bytes per entity from which a file type is
+     * listed as growing per entity.
+     */
+    private static final double PER_ENTITY_GROWTH_WARNING = 0.10;
+
+    /**
+     * The shortest time between two samples over which a growth rate per day
+     * is shown.
+     */
+    private static final Duration MIN_TREND_PERIOD = Duration.ofHours(1);
+
+    /**
+     * The statistics of each file type.
+     */
+    private static final EnumMap<FileType, FileStatistics> statistics = new EnumMap<>(FileType.class);
+
+    static {
+        for (FileType fileType : FileType.values()) {
+            statistics.put(fileType, new FileStatistics());
+        }
+    }
+
+    /**
+     * When the application started counting.
+     */
+    private static final LocalDateTime since = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    /**
+     * Private constructor, as all members are static.
+     */
+    private PersistenceStatistics() {
+    }
+
+    /**
+     * Records a full data file that was written.
+     *
+     * @param fileType The file type that was written.
+     * @param entities The number of entities written.
+     * @param bytes The size of the file.
+     * @param encodeNanos The time spent encoding the entities.
+     * @param writeNanos The time spent writing and replacing the file.
+     */
+    static void recordFileWrite(FileType fileType, int entities, long bytes, long encodeNanos, long writeNanos) {
+        FileStatistics fileStatistics = statistics.get(fileType);
+        fileStatistics.fileWrites.incrementAndGet();
+        fileStatistics.fileBytesWritten.addAndGet(bytes);
+        fileStatistics.encodeNanos.addAndGet(encodeNanos);
+        fileStatistics.writeNanos.addAndGet(writeNanos);
+        fileStatistics.firstSample.compareAndSet(null, new Sample(LocalDateTime.now(), entities, bytes));
+    }
+
+    /**
+     * Records a full data file that was read.
+     *
+     * @param fileType The file type that was read.
+     * @param entities The number of entities in the file.
+     * @param bytes The size of the file.
+     * @param readNanos The time spent reading the file.
+     * @param decodeNanos The time spent decoding the entities.
+     */
+    static void recordFileRead(FileType fileType, int entities, long bytes, long readNanos, long decodeNanos) {
+        FileStatistics fileStatistics = statistics.get(fileType);
+        fileStatistics.reads.incrementAndGet();
+        fileStatistics.bytesRead.addAndGet(bytes);
+        fileStatistics.readNanos.addAndGet(readNanos);
+        fileStatistics.decodeNanos.addAndGet(decodeNanos);
+        fileStatistics.firstSample.compareAndSet(null, new Sample(LocalDateTime.now(), entities, bytes));
+    }
+
+    /**
+     * Records a record that was appended to a change log.
+     *
+     * @param fileType The file type of the change log.
+     * @param bytes The size of the record.
+     * @param writeNanos The time spent appending it.
+     */
+    static void recordLogAppend(FileType fileType, long bytes, long writeNanos) {
+        FileStatistics fileStatistics = statistics.get(fileType);
+        fileStatistics.logAppends.incrementAndGet();
+        fileStatistics.logBytesWritten.addAndGet(bytes);
+        fileStatistics.writeNanos.addAndGet(writeNanos);
+    }
+
+    /**
+     * Records the time spent encoding a single entity for a change log.
+     *
+     * @param fileType The file type of the entity.
+     * @param encodeNanos The time spent encoding it.
+     */
+    static void recordEntityEncode(FileType fileType, long encodeNanos) {
+        statistics.get(fileType).encodeNanos.addAndGet(encodeNanos);
+    }
+
+    /**
+     * Records a change log that was read and replayed.
+     *
+     * @param fileType The file type of the change log.
+     * @param bytes The size of the change log.
+     * @param readNanos The time spent reading it.
+     * @param decodeNanos The time spent decoding and applying its records.
+     */
+    static void recordLogRead(FileType fileType, long bytes, long readNanos, long decodeNanos) {
+        FileStatistics fileStatistics = statistics.get(fileType);
+        fileStatistics.reads.incrementAndGet();
+        fileStatistics.bytesRead.addAndGet(bytes);
+        fileStatistics.readNanos.addAndGet(readNanos);
+        fileStatistics.decodeNanos.addAndGet(decodeNanos);
+    }
+
+    /**
+     * Formats the I/O of every file type since the application started, and
+     * the growth of every data file since the earliest known sample.
+     *
+     * @return The report.
+     */
+    public static String report() {
+        Map<FileType, Sample> savedSamples = readFirstSamples(getDumpFile());
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder report = new StringBuilder();
+
+        report.append("Persistence I/O since ").append(format(since)).append("\n\n");
+        report.append(String.format("%-22s %8s %14s %9s %14s %7s %14s %10s %10s %10s %10s%n",
+                "File type", "Writes", "Bytes written", "Appends", "Log bytes", "Reads", "Bytes read",
+                "Encode ms", "Write ms", "Decode ms", "Read ms"));
+        for (FileType fileType : FileType.values()) {
+            FileStatistics fileStatistics = statistics.get(fileType);
+            report.append(String.format("%-22s %8d %,14d %9d %,14d %7d %,14d %10.1f %10.1f %10.1f %10.1f%n",
+                    fileType, fileStatistics.fileWrites.get(), fileStatistics.fileBytesWritten.get(),
+                    fileStatistics.logAppends.get(), fileStatistics.logBytesWritten.get(), fileStatistics.reads.get(),
+                    fileStatistics.bytesRead.get(), fileStatistics.encodeNanos.get() / 1e6,
+                    fileStatistics.writeNanos.get() / 1e6, fileStatistics.decodeNanos.get() / 1e6,
+                    fileStatistics.readNanos.get() / 1e6));
+        }
+
+        report.append("\nData file growth\n\n");
+        report.append(String.format("%-22s %-19s %10s %10s %14s %14s %12s %12s %14s%n",
+                "File type", "Since", "Entities", "Change", "File bytes", "Change", "Bytes/entity", "Change",
+                "Bytes/day"));
+        List<String> growingPerEntity = new ArrayList<>();
+        for (FileType fileType : FileType.values()) {
+            Sample current = getCurrentSample(fileType, now);
+            Sample first = earliest(savedSamples.get(fileType), statistics.get(fileType).firstSample.get());
+            if (first == null) {
+                first = current;
+            }
+            // The entities of a file type that was never loaded are not known
+            boolean entitiesKnown = first.hasEntities() && current.hasEntities();
+            double perEntityChange = entitiesKnown ? relativeChange(first.getBytesPerEntity(), current.getBytesPerEntity()) : 0;
+            Duration period = Duration.between(first.time, current.time);
+            report.append(String.format("%-22s %-19s %10s %10s %,14d %14s %12s %12s %14s%n",
+                    fileType, format(first.time),
+                    current.hasEntities() ? String.format("%,d", current.entities) : "-",
+                    entitiesKnown ? formatChange(first.entities, current.entities) : "-",
+                    current.bytes, formatChange(first.bytes, current.bytes),
+                    current.hasEntities() ? String.format("%,.0f", current.getBytesPerEntity()) : "-",
+                    entitiesKnown ? formatPercent(perEntityChange) : "-",
+                    period.compareTo(MIN_TREND_PERIOD) < 0 ? "-"
+                    : String.format("%,.0f", (current.bytes - first.bytes) * 86400.0 / period.getSeconds())));
+            if (entitiesKnown && perEntityChange >= PER_ENTITY_GROWTH_WARNING) {
+                growingPerEntity.add(String.format("%s: %.0f bytes per entity, up %.1f%% since %s.",
+                        fileType, current.getBytesPerEntity(), perEntityChange * 100, format(first.time)));
+            }
+        }
+        if (!growingPerEntity.isEmpty()) {
+            report.append("\nEntities growing in size (every checkpoint rewrites them in full):\n");
+            for (String line : growingPerEntity) {
+                report.append("  ").append(line).append("\n");
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Appends the statistics of every file type to a CSV file, with the
+     * current time. Dumps taken at different times form a history of the
+     * file sizes, from which {@link #report()} computes the growth. The
+     * header is written when the file is new. The number of entities is left
+     * empty for file types that have not been loaded.
+     *
+     * @param file The CSV file.
+     * @return {@code true} if the file was written, {@code false} otherwise.
+     */
+    public static boolean dump(File file) {
+        boolean exists = file.exists() && file.length() > 0;
+        LocalDateTime now = LocalDateTime.now();
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, StandardCharsets.UTF_8, true))) {
+            if (!exists) {
+                out.println(CSV_HEADER);
+            }
+            for (FileType fileType : FileType.values()) {
+                FileStatistics fileStatistics = statistics.get(fileType);
+                Sample current = getCurrentSample(fileType, now);
+                out.println(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%d,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f",
+                        format(now), fileType, current.hasEntities() ? String.valueOf(current.entities) : "",
+                        current.bytes,
+                        ChangeLog.getLogFile(fileType).length(), fileStatistics.fileWrites.get(),
+                        fileStatistics.fileBytesWritten.get(), fileStatistics.logAppends.get(),
+                        fileStatistics.logBytesWritten.get(), fileStatistics.reads.get(),
+                        fileStatistics.bytesRead.get(), fileStatistics.encodeNanos.get() / 1e6,
+                        fileStatistics.writeNanos.get() / 1e6, fileStatistics.decodeNanos.get() / 1e6,
+                        fileStatistics.readNanos.get() / 1e6));
+            }
+            return true;
+        } catch (IOException err) {
+            System.out.println("Error writing " + file + ": " + err.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the default file the statistics are appended to.
+     *
+     * @return {@value #DUMP_FILE_NAME} in the data directory.
+     */
+    public static File getDumpFile() {
+        return new File(Repository.getDataDirectory(), DUMP_FILE_NAME);
+    }
+
+    /**
+     * Returns the current number of entities in memory and the current size
+     * of the data file of a file type. The number of entities is unknown if
+     * the file type has not been loaded.
+     *
+     * @param fileType The file type.
+     * @param now The time of the sample.
+     * @return The sample.
+     */
+    private static Sample getCurrentSample(FileType fileType, LocalDateTime now) {
+        Map<String, Object> store = Repository.getStore(fileType);
+        long entities = Repository.isLoaded(fileType) && store != null ? store.size() : Sample.UNKNOWN;
+        return new Sample(now, entities, Repository.getSnapshotFile(fileType).length());
+    }
+
+    /**
+     * Reads the first sample of every file type from a CSV file written by
+     * {@link #dump(File)}. Rows that cannot be read are skipped.
+     *
+     * @param file The CSV file.
+     * @return The first sample of every file type found in the file.
+     */
+    private static Map<FileType, Sample> readFirstSamples(File file) {
+        Map<FileType, Sample> samples = new EnumMap<>(FileType.class);
+        if (!file.exists()) {
+            return samples;
+        }
+        try (BufferedReader in = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] columns = line.split(",");
+                if (columns.length < 4 || columns[0].equals("timestamp")) {
+                    continue;
+                }
+                try {
+                    FileType fileType = FileType.valueOf(columns[1]);
+                    if (!samples.containsKey(fileType)) {
+                        samples.put(fileType, new Sample(LocalDateTime.parse(columns[0]),
+                                columns[2].isEmpty() ? Sample.UNKNOWN : Long.parseLong(columns[2]),
+                                Long.parseLong(columns[3])));
+                    }
+                } catch (IllegalArgumentException | DateTimeParseException err) {
+                    // Not a row of this version, skip it
+                }
+            }
+        } catch (IOException err) {
+            System.out.println("Error reading " + file + ": " + err.getMessage());
+        }
+        return samples;
+    }
+
+    /**
+     * Returns the earlier of two samples.
+     *
+     * @param first A sample, or {@code null}.
+     * @param second Another sample, or {@code null}.
+     * @return The earlier sample, or {@code null} if both are {@code null}.
+     */
+    private static Sample earliest(Sample first, Sample second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return first.time.isAfter(second.time) ? second : first;
+    }
+
+    /**
+     * Returns the relative change between two values.
+     *
+     * @param from The earlier value.
+     * @param to The later value.
+     * @return The change as a fraction of the earlier value, or 0 if the
+     * earlier value is 0.
+     */
+    private static double relativeChange(double from, double to) {
+        return from == 0 ? 0 : (to - from) / from;
+    }
+
+    /**
+     * Formats the change between two values as a percentage.
+     *
+     * @param from The earlier value.
+     * @param to The later value.
+     * @return The signed percentage, or {@code -} if the earlier value is 0.
+     */
+    private static String formatChange(long from, long to) {
+        return from == 0 ? "-" : formatPercent(relativeChange(from, to));
+    }
+
+    /**
+     * Formats a relative change as a signed percentage.
+     *
+     * @param change The change as a fraction.
+     * @return The percentage.
+     */
+    private static String formatPercent(double change) {
+        return String.format("%+.1f%%", change * 100);
+    }
+
+    /**
+     * Formats a time in ISO format, to the second.
+     *
+     * @param time The time.
+     * @return The formatted time.
+     */
+    private static String format(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    /**
+     * The counters of a single file type.
+     */
+    private static final class FileStatistics {
+
+        /**
+         * The number of full data files written.
+         */
+        private final AtomicLong fileWrites = new AtomicLong();
+
+        /**
+         * The bytes of the full data files written.
+         */
+        private final AtomicLong fileBytesWritten = new AtomicLong();
+
+        /**
+         * The number of records appended to the change log.
+         */
+        private final AtomicLong logAppends = new AtomicLong();
+
+        /**
+         * The bytes of the records appended to the change log.
+         */
+        private final AtomicLong logBytesWritten = new AtomicLong();
+
+        /**
+         * The number of data files and change logs read.
+         */
+        private final AtomicLong reads = new AtomicLong();
+
+        /**
+         * The bytes of the data files and change logs read.
+         */
+        private final AtomicLong bytesRead = new AtomicLong();
+
+        /**
+         * The time spent encoding entities, in nanoseconds.
+         */
+        private final AtomicLong encodeNanos = new AtomicLong();
+
+        /**
+         * The time spent writing data files and change logs, in nanoseconds.
+         */
+        private final AtomicLong writeNanos = new AtomicLong();
+
+        /**
+         * The time spent decoding entities, in nanoseconds.
+         */
+        private final AtomicLong decodeNanos = new AtomicLong();
+
+        /**
+         * The time spent reading data files and change logs, in nanoseconds.
+         */
+        private final AtomicLong readNanos = new AtomicLong();
+
+        /**
+         * The first time the data file was read or written since the
+         * application started.
+         */
+        private final AtomicReference<Sample> firstSample = new AtomicReference<>();
+    }
+
+    /**
+     * The number of entities and size of a data file at a point in time.
+     */
+    private static final class Sample {
+
+        /**
+         * The number of entities of a file type that was not loaded.
+         */
+        private static final long UNKNOWN = -1;
+
+        /**
+         * When the sample was taken.
+         */
+        private final LocalDateTime time;
+
+        /**
+         * The number of entities, or {@link #UNKNOWN}.
+         */
+        private final long entities;
+
+        /**
+         * The size of the data file in bytes.
+         */
+        private final long bytes;
+
+        /**
+         * Creates a sample.
+         *
+         * @param time When the sample was taken.
+         * @param entities The number of entities, or {@link #UNKNOWN}.
+         * @param bytes The size of the data file in bytes.
+         */
+        private Sample(LocalDateTime time, long entities, long bytes) {
+            this.time = time;
+            this.entities = entities;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Returns whether the number of entities is known.
+         *
+         * @return {@code true} if the file type was loaded when the sample
+         * was taken.
+         */
+        private boolean hasEntities() {
+            return entities != UNKNOWN;
+        }
+
+        /**
+         * Returns the average size of an entity in the data file.
+         *
+         * @return The bytes per entity, or 0 if there are no entities or
+         * their number is unknown.
+         */
+        private double getBytesPerEntity() {
+            return entities <= 0 ? 0 : (double) bytes / entities;
+        }
+    }
+}
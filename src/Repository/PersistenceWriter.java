@@ -0,0 +1,257 @@
+package src.Repository;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PersistenceWriter class writes single entity changes to the
+ * {@link ChangeLog} on a background thread.
+ * <p>
+ * When asynchronous persistence is enabled, {@link Repository} encodes each
+ * changed entity on the calling thread and hands the record to this writer
+ * instead of appending it to the log itself, so the console never waits on
+ * disk. The writer waits for a debounce window after the first pending
+ * record, then writes everything that arrived in the meantime in one batch,
+ * keeping only the latest record of each entity.
+ * </p>
+ *
+ * <p>
+ * <b>Key Features:</b></p>
+ * <ul>
+ * <li>A single daemon writer thread, so records are written in order.</li>
+ * <li>A configurable debounce window to batch bursts of edits.</li>
+ * <li>A bounded queue. When it is full, the record is written on the calling
+ * thread instead.</li>
+ * <li>{@link #flush()} to wait until everything submitted so far is on
+ * disk.</li>
+ * </ul>
+ *
+ * @see Repository
+ * @see ChangeLog
+ */
+final class PersistenceWriter {
+
+    /**
+     * A change log record waiting to be written.
+     */
+    private static final class Entry {
+
+        /**
+         * Position of the record in submission order.
+         */
+        private final long sequence;
+
+        /**
+         * The type of file the record belongs to.
+         */
+        private final FileType fileType;
+
+        /**
+         * The key of the changed entity.
+         */
+        private final String key;
+
+        /**
+         * The encoded change log record.
+         */
+        private final byte[] record;
+
+        /**
+         * Creates a pending record.
+         *
+         * @param sequence Position of the record in submission order.
+         * @param fileType The type of file the record belongs to.
+         * @param key The key of the changed entity.
+         * @param record The encoded change log record.
+         */
+        private Entry(long sequence, FileType fileType, String key, byte[] record) {
+            this.sequence = sequence;
+            this.fileType = fileType;
+            this.key = key;
+            this.record = record;
+        }
+    }
+
+    /**
+     * Guards the sequence numbers and wakes up the writer and flushing threads.
+     */
+    private static final Object lock = new Object();
+
+    /**
+     * Records waiting to be written.
+     */
+    private static ArrayBlockingQueue<Entry> queue;
+
+    /**
+     * The writer thread, or {@code null} if asynchronous persistence is off.
+     */
+    private static Thread writerThread;
+
+    /**
+     * How long the writer waits for more records before writing a batch.
+     */
+    private static long debounceMillis;
+
+    /**
+     * Sequence number of the last submitted record.
+     */
+    private static long submitted = 0;
+
+    /**
+     * Sequence number of the last record written to disk.
+     */
+    private static long written = 0;
+
+    /**
+     * Number of threads waiting in {@link #flush()}. While it is not zero the
+     * writer skips the rest of the debounce window.
+     */
+    private static int flushRequests = 0;
+
+    /**
+     * Prevents instantiation.
+     */
+    private PersistenceWriter() {
+    }
+
+    /**
+     * Starts the writer thread. Does nothing if it is already running.
+     *
+     * @param debounce How long in milliseconds to wait for more records
+     * before writing a batch.
+     * @param queueCapacity The maximum number of records waiting to be
+     * written.
+     */
+    static void start(long debounce, int queueCapacity) {
+        synchronized (lock) {
+            if (writerThread != null) {
+                return;
+            }
+            debounceMillis = Math.max(0, debounce);
+            queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+            writerThread = new Thread(PersistenceWriter::run, "repository-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    /**
+     * Returns whether asynchronous persistence is on.
+     *
+     * @return {@code true} if the writer thread is running.
+     */
+    static boolean isRunning() {
+        synchronized (lock) {
+            return writerThread != null;
+        }
+    }
+
+    /**
+     * Hands a change log record to the writer thread.
+     *
+     * @param fileType The type of file the record belongs to.
+     * @param key The key of the changed entity.
+     * @param record The encoded change log record.
+     * @return {@code true} if the record was queued, {@code false} if the
+     * writer is not running or the queue is full and the caller has to write
+     * the record itself.
+     */
+    static boolean submit(FileType fileType, String key, byte[] record) {
+        synchronized (lock) {
+            if (writerThread == null || Thread.currentThread() == writerThread) {
+                return false;
+            }
+            if (!queue.offer(new Entry(submitted + 1, fileType, key, record))) {
+                return false;
+            }
+            submitted++;
+            lock.notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Waits until every record submitted before this call has been written to
+     * disk. Returns at once if the writer is not running or when called from
+     * the writer thread itself.
+     */
+    static void flush() {
+        synchronized (lock) {
+            if (writerThread == null || Thread.currentThread() == writerThread) {
+                return;
+            }
+            long target = submitted;
+            flushRequests++;
+            lock.notifyAll();
+            try {
+                while (written < target) {
+                    lock.wait();
+                }
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+            } finally {
+                flushRequests--;
+            }
+        }
+    }
+
+    /**
+     * Main loop of the writer thread.
+     */
+    private static void run() {
+        try {
+            while (true) {
+                Entry first = queue.take();
+                waitForDebounce();
+                List<Entry> batch = new ArrayList<>();
+                batch.add(first);
+                queue.drainTo(batch);
+                write(batch);
+                synchronized (lock) {
+                    written = batch.get(batch.size() - 1).sequence;
+                    lock.notifyAll();
+                }
+            }
+        } catch (InterruptedException err) {
+            // The writer is a daemon thread and is only interrupted when the application exits
+        }
+    }
+
+    /**
+     * Waits until the debounce window has passed or a thread asks for a flush.
+     *
+     * @throws InterruptedException If the writer is stopped while waiting.
+     */
+    private static void waitForDebounce() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        synchronized (lock) {
+            long remaining;
+            while (flushRequests == 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of records, keeping only the latest record of each
+     * entity.
+     *
+     * @param batch The records in submission order.
+     */
+    private static void write(List<Entry> batch) {
+        EnumMap<FileType, LinkedHashMap<String, byte[]>> latest = new EnumMap<>(FileType.class);
+        for (Entry entry : batch) {
+            LinkedHashMap<String, byte[]> records = latest.computeIfAbsent(entry.fileType, type -> new LinkedHashMap<>());
+            records.remove(entry.key);
+            records.put(entry.key, entry.record);
+        }
+        for (Map.Entry<FileType, LinkedHashMap<String, byte[]>> entry : latest.entrySet()) {
+            Repository.appendRecords(entry.getKey(), entry.getValue().values());
+        }
+    }
+}
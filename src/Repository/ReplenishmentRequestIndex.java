@@ -0,0 +1,153 @@
+package src.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import src.Enum.InventoryRequestStatus;
+import src.Model.ReplenishmentRequest;
+
+/**
+ * The ReplenishmentRequestIndex class groups the requests in
+ * {@link Repository#REPLENISHMENT_REQUEST} by {@link InventoryRequestStatus}.
+ * <p>
+ * The requests of each status are kept ordered by request ID, which is the
+ * order they were submitted in, so a page of pending requests is read without
+ * looking at the approved and rejected requests that pile up over the years.
+ * The index is updated by the {@link Repository} whenever a request is
+ * persisted, which includes approving and rejecting it, and rebuilt whenever
+ * the requests are reloaded.
+ * </p>
+ *
+ * <p>
+ * <b>Key Responsibilities:</b></p>
+ * <ul>
+ * <li>Indexing replenishment requests by status.</li>
+ * <li>Counting the requests of a status.</li>
+ * <li>Returning one page of the requests of a status, in submission
+ * order.</li>
+ * <li>Keeping the index consistent when a request is added, updated or
+ * removed.</li>
+ * </ul>
+ *
+ * @see Repository
+ * @see ReplenishmentRequest
+ */
+public class ReplenishmentRequestIndex {
+
+    /**
+     * Orders request IDs such as {@code R999} before {@code R1000}: shorter
+     * IDs first, then alphabetically.
+     */
+    private static final Comparator<String> ID_ORDER = Comparator.comparingInt(String::length)
+            .thenComparing(Comparator.naturalOrder());
+
+    /**
+     * The indexed status of each request, keyed by request ID, used to find
+     * and remove its old position after it changes.
+     */
+    private final HashMap<String, InventoryRequestStatus> statuses = new HashMap<>();
+
+    /**
+     * Request IDs grouped by status, ordered by request ID.
+     */
+    private final EnumMap<InventoryRequestStatus, TreeSet<String>> byStatus = new EnumMap<>(InventoryRequestStatus.class);
+
+    /**
+     * Constructs an empty index. Only the {@link Repository} creates the
+     * index.
+     */
+    ReplenishmentRequestIndex() {
+        for (InventoryRequestStatus status : InventoryRequestStatus.values()) {
+            byStatus.put(status, new TreeSet<>(ID_ORDER));
+        }
+    }
+
+    /**
+     * Discards the index and rebuilds it from the given requests.
+     *
+     * @param requests The requests to index, keyed by request ID.
+     */
+    synchronized void rebuild(Map<String, ReplenishmentRequest> requests) {
+        statuses.clear();
+        for (TreeSet<String> requestIds : byStatus.values()) {
+            requestIds.clear();
+        }
+        for (Map.Entry<String, ReplenishmentRequest> request : requests.entrySet()) {
+            add(request.getKey(), request.getValue());
+        }
+    }
+
+    /**
+     * Updates the index after a request was added, updated or removed.
+     *
+     * @param requestId The ID of the request.
+     * @param request The current request, or {@code null} if it was removed.
+     */
+    synchronized void update(String requestId, ReplenishmentRequest request) {
+        InventoryRequestStatus previous = statuses.remove(requestId);
+        if (previous != null) {
+            byStatus.get(previous).remove(requestId);
+        }
+        if (request != null) {
+            add(requestId, request);
+        }
+    }
+
+    /**
+     * Returns the number of requests that have the given status.
+     *
+     * @param status The status of the requests.
+     * @return The number of requests with the status.
+     */
+    public synchronized int count(InventoryRequestStatus status) {
+        return byStatus.get(status).size();
+    }
+
+    /**
+     * Returns one page of the requests that have the given status, in the
+     * order they were submitted.
+     *
+     * @param status The status of the requests.
+     * @param page The page number, starting from 1.
+     * @param pageSize The number of requests per page.
+     * @return The requests of the page, empty if the page is out of range.
+     */
+    public synchronized List<ReplenishmentRequest> getByStatus(InventoryRequestStatus status, int page, int pageSize) {
+        List<ReplenishmentRequest> requests = new ArrayList<>();
+        TreeSet<String> requestIds = byStatus.get(status);
+        long from = (long) (page - 1) * pageSize;
+        if (page < 1 || pageSize < 1 || from >= requestIds.size()) {
+            return requests;
+        }
+        Iterator<String> iterator = requestIds.iterator();
+        for (long skipped = 0; skipped < from; skipped++) {
+            iterator.next();
+        }
+        while (iterator.hasNext() && requests.size() < pageSize) {
+            ReplenishmentRequest request = Repository.REPLENISHMENT_REQUEST.get(iterator.next());
+            if (request != null && request.getStatus() == status) {
+                requests.add(request);
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * Adds a request to the group of its status.
+     *
+     * @param requestId The ID of the request.
+     * @param request The request to add.
+     */
+    private void add(String requestId, ReplenishmentRequest request) {
+        InventoryRequestStatus status = request.getStatus();
+        if (status != null) {
+            statuses.put(requestId, status);
+            byStatus.get(status).add(requestId);
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package src.Repository;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
 import src.Enum.*;
+import src.Metrics.LatencyHistogram;
+import src.Metrics.Metrics;
+import src.Metrics.OperationEvent;
+import src.Metrics.RepositoryReadEvent;
+import src.Metrics.RepositoryWriteEvent;
 import src.Model.*;
 
 /**
@@ -24,13 +42,49 @@ import src.Model.*;
  * This class also provides functionality to initialize dummy data for testing
  * and manages serialized file storage for persistent data.
  * </p>
+ * <p>
+ * Data files are encoded with {@link BinaryCodec}. Changes to single entities
+ * are appended to a per file type {@link ChangeLog} rather than rewriting the
+ * whole file. The full serialized
+ * file is only rewritten as a checkpoint, after which the log is cleared.
+ * </p>
+ * <p>
+ * The repository remembers the {@link FileGeneration} of the data it has
+ * loaded. Reading a file type whose files have not changed on disk since then
+ * is served from memory. File types are loaded the first time they are read,
+ * so that file types which are rarely used, such as the inventory, are not
+ * loaded at startup. The file types needed at startup can be loaded in
+ * parallel with {@link #loadAll(FileType...)}.
+ * </p>
+ * <p>
+ * Appointments are additionally indexed in {@link #APPOINTMENT_INDEX}, the
+ * free slots of each doctor are kept in {@link #FREE_SLOT_INDEX}, and
+ * replenishment requests are grouped by status in
+ * {@link #REPLENISHMENT_REQUEST_INDEX}. All of them are kept up to date
+ * whenever an appointment, staff member or request is persisted or the
+ * corresponding file is read.
+ * </p>
  *
  * <p>
  * <b>Key Responsibilities:</b></p>
  * <ul>
- * <li>Persisting data to serialized files.</li>
- * <li>Reading data from serialized files.</li>
+ * <li>Persisting data to binary data files and migrating files written with
+ * Java serialization.</li>
+ * <li>Appending single entity changes to the change log of a file type.</li>
+ * <li>Committing changes to several file types together in one
+ * transaction.</li>
+ * <li>Optionally writing changes on a background thread.</li>
+ * <li>Reading data from serialized files and replaying their change logs.</li>
+ * <li>Counting the disk I/O of every file type in
+ * {@link PersistenceStatistics}.</li>
+ * <li>Skipping reads of files that have not changed since they were
+ * loaded.</li>
+ * <li>Loading several file types in parallel at startup.</li>
  * <li>Managing in-memory data structures for different entities.</li>
+ * <li>Providing locks for read-modify-write changes to single entities, so
+ * that several sessions can share the same data.</li>
+ * <li>Maintaining secondary indexes over the in-memory data.</li>
+ * <li>Allocating new IDs from persistent sequences.</li>
  * <li>Initializing dummy data for testing purposes.</li>
  * </ul>
  *
@@ -53,173 +107,721 @@ public class Repository {
     private static final String folder = "Data";
 
     /**
-     * HashMap to store staff data.
+     * System property that moves the data directory, so that generated or
+     * benchmark data sets can be kept apart from the hospital's own data.
+     */
+    public static final String DATA_DIRECTORY_PROPERTY = "hms.data.dir";
+
+    /**
+     * The on-disk generation of each file type that is currently loaded in
+     * memory.
+     */
+    private static final Map<FileType, FileGeneration> loadedGeneration = Collections.synchronizedMap(new EnumMap<>(FileType.class));
+
+    /**
+     * Locks that prevent the same file type from being read by two threads at
+     * once.
+     */
+    private static final EnumMap<FileType, Object> readLocks = new EnumMap<>(FileType.class);
+
+    static {
+        for (FileType fileType : FileType.values()) {
+            readLocks.put(fileType, new Object());
+        }
+    }
+
+    /**
+     * The latencies of {@link #readData} by file type.
+     */
+    private static final EnumMap<FileType, LatencyHistogram> readLatencies = Metrics.histograms("Repository.readData(%s)");
+
+    /**
+     * The latencies of full checkpoints written by {@link #persistData(FileType)}.
+     */
+    private static final EnumMap<FileType, LatencyHistogram> persistLatencies = Metrics.histograms("Repository.persistData(%s)");
+
+    /**
+     * The latencies of single entity changes saved by
+     * {@link #persistData(FileType, String)}.
+     */
+    private static final EnumMap<FileType, LatencyHistogram> persistEntityLatencies = Metrics.histograms("Repository.persistData(%s, key)");
+
+    /**
+     * ConcurrentHashMap to store staff data.
+     */
+    public static volatile ConcurrentHashMap<String, Staff> STAFF = new ConcurrentHashMap<>();
+    /**
+     * ConcurrentHashMap to store inventory data.
+     */
+    public static volatile ConcurrentHashMap<String, InventoryList> INVENTORY = new ConcurrentHashMap<>();
+    /**
+     * ConcurrentHashMap to store patient data.
+     */
+    public static volatile ConcurrentHashMap<String, Patient> PATIENT = new ConcurrentHashMap<>();
+    /**
+     * ConcurrentHashMap to store replenishment request data.
      */
-    public static HashMap<String, Staff> STAFF = new HashMap<>();
+    public static volatile ConcurrentHashMap<String, ReplenishmentRequest> REPLENISHMENT_REQUEST = new ConcurrentHashMap<>();
     /**
-     * HashMap to store inventory data.
+     * ConcurrentHashMap to store appointment outcome data.
      */
-    public static HashMap<String, InventoryList> INVENTORY = new HashMap<>();
+    public static volatile ConcurrentHashMap<String, AppointmentOutcome> APPOINTMENT_OUTCOME = new ConcurrentHashMap<>();
     /**
-     * HashMap to store patient data.
+     * ConcurrentHashMap to store appointment list data.
      */
-    public static HashMap<String, Patient> PATIENT = new HashMap<>();
+    public static volatile ConcurrentHashMap<String, Appointment> APPOINTMENT_LIST = new ConcurrentHashMap<>();
     /**
-     * HashMap to store replenishment request data.
+     * ConcurrentHashMap to store medicine data.
      */
-    public static HashMap<String, ReplenishmentRequest> REPLENISHMENT_REQUEST = new HashMap<>();
+    public static volatile ConcurrentHashMap<String, MedicalRecord> MEDICAL_RECORD = new ConcurrentHashMap<>();
     /**
-     * HashMap to store appointment outcome data.
+     * ConcurrentHashMap to store diagnosis data.
      */
-    public static HashMap<String, AppointmentOutcome> APPOINTMENT_OUTCOME = new HashMap<>();
+    public static volatile ConcurrentHashMap<String, Diagnosis> DIAGNOSIS = new ConcurrentHashMap<>();
     /**
-     * HashMap to store appointment list data.
+     * ConcurrentHashMap to store treatment data.
      */
-    public static HashMap<String, Appointment> APPOINTMENT_LIST = new HashMap<>();
+    public static volatile ConcurrentHashMap<String, Treatment> TREATMENT = new ConcurrentHashMap<>();
     /**
-     * HashMap to store medicine data.
+     * ConcurrentHashMap to store medicine data.
      */
-    public static HashMap<String, MedicalRecord> MEDICAL_RECORD = new HashMap<>();
+    public static volatile ConcurrentHashMap<String, Medicine> MEDICINE = new ConcurrentHashMap<>();
+
     /**
-     * HashMap to store diagnosis data.
+     * Secondary indexes over {@link #APPOINTMENT_LIST}.
      */
-    public static HashMap<String, Diagnosis> DIAGNOSIS = new HashMap<>();
+    public static final AppointmentIndex APPOINTMENT_INDEX = new AppointmentIndex();
+
     /**
-     * HashMap to store treatment data.
+     * Replenishment requests grouped by status, derived from
+     * {@link #REPLENISHMENT_REQUEST}.
      */
-    public static HashMap<String, Treatment> TREATMENT = new HashMap<>();
+    public static final ReplenishmentRequestIndex REPLENISHMENT_REQUEST_INDEX = new ReplenishmentRequestIndex();
+
     /**
-     * HashMap to store medicine data.
+     * Free appointment slots of each doctor, derived from {@link #STAFF} and
+     * {@link #APPOINTMENT_LIST}.
      */
-    public static HashMap<String, Medicine> MEDICINE = new HashMap<>();
+    public static final FreeSlotIndex FREE_SLOT_INDEX = new FreeSlotIndex();
 
     /**
      * Persists the data of a given file type by writing it to a serialized
-     * file.
+     * file. This writes a full checkpoint of the file type and clears its
+     * change log.
      *
      * @param fileType The type of file to persist, defined in {@link FileType}.
      */
     public static void persistData(FileType fileType) {
-        writeSerializedObject(fileType);
+        long started = System.nanoTime();
+        try {
+            rebuildIndexes(fileType);
+            Transaction transaction = Transaction.current();
+            if (transaction != null) {
+                transaction.markFull(fileType);
+                return;
+            }
+            checkpoint(fileType);
+        } finally {
+            persistLatencies.get(fileType).record(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Writes a full checkpoint of a file type and clears its change log.
+     *
+     * @param fileType The type of file to write, defined in {@link FileType}.
+     * @return {@code true} if the checkpoint was written, {@code false}
+     * otherwise.
+     */
+    private static boolean checkpoint(FileType fileType) {
+        // Queued records are older than the checkpoint and must not be written after it
+        PersistenceWriter.flush();
+        // Readers must not see the new checkpoint together with the old change log
+        synchronized (readLocks.get(fileType)) {
+            boolean written = writeSerializedObject(fileType);
+            if (written) {
+                ChangeLog.truncate(fileType);
+            }
+            markLoaded(fileType);
+            return written;
+        }
+    }
+
+    /**
+     * Persists the change of a single entity of a given file type by appending
+     * it to the change log of the file type. If the entity is no longer present
+     * in the corresponding in-memory HashMap, a removal is recorded.
+     * <p>
+     * Once the log grows past {@link ChangeLog#CHECKPOINT_THRESHOLD} records, a
+     * full checkpoint is written instead. Inside a {@link #transaction} the
+     * change is only written when the transaction commits. When asynchronous
+     * persistence is enabled, the change is written by a background thread.
+     * </p>
+     *
+     * @param fileType The type of file to persist, defined in {@link FileType}.
+     * @param key The key of the entity that was added, updated or removed.
+     */
+    public static void persistData(FileType fileType, String key) {
+        long started = System.nanoTime();
+        try {
+            ConcurrentHashMap<String, Object> store = getStore(fileType);
+            if (store == null || key == null) {
+                persistData(fileType);
+                return;
+            }
+            updateIndexes(fileType, key);
+            Transaction transaction = Transaction.current();
+            if (transaction != null) {
+                transaction.markDirty(fileType, key);
+                return;
+            }
+            if (PersistenceWriter.isRunning() && submitChange(fileType, key, store.get(key))) {
+                if (ChangeLog.getEntryCount(fileType) >= ChangeLog.CHECKPOINT_THRESHOLD) {
+                    persistData(fileType);
+                }
+                return;
+            }
+            if (!ChangeLog.append(fileType, key, store.get(key))
+                    || ChangeLog.getEntryCount(fileType) >= ChangeLog.CHECKPOINT_THRESHOLD) {
+                persistData(fileType);
+                return;
+            }
+            markLoaded(fileType);
+        } finally {
+            persistEntityLatencies.get(fileType).record(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Returns the lock guarding a single entity. Hold it across a
+     * read-modify-write sequence, such as checking and decrementing a stock
+     * level, so that concurrent sessions do not overwrite each other's
+     * changes.
+     * <p>
+     * When locks of several file types are needed, they must be taken in the
+     * order the file types are declared in {@link FileType}.
+     * </p>
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param key The key of the entity.
+     * @return The lock of the entity.
+     */
+    public static Lock getEntityLock(FileType fileType, String key) {
+        return StripedLock.get(fileType, key);
+    }
+
+    /**
+     * Hands the change of a single entity to the background writer. If the
+     * queue of the writer is full, everything queued so far is written first
+     * so that the caller can write the change itself in order.
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param key The key of the entity.
+     * @param value The current value of the entity, or {@code null} if it
+     * was removed.
+     * @return {@code true} if the change was queued, {@code false} if the
+     * caller has to write it.
+     */
+    private static boolean submitChange(FileType fileType, String key, Object value) {
+        try {
+            byte[] valueBytes = value == null ? null : BinaryCodec.encodeEntity(fileType, value);
+            if (PersistenceWriter.submit(fileType, key, ChangeLog.encodeRecord(key, valueBytes))) {
+                return true;
+            }
+        } catch (IOException err) {
+            System.out.println("Error encoding " + fileType.fileName + " change: " + err.getMessage());
+        }
+        PersistenceWriter.flush();
+        return false;
+    }
+
+    /**
+     * Appends records written by the background writer to the change log of a
+     * file type. If the in-memory data matched the files before, it is still
+     * considered up to date afterwards, since the records came from it.
+     *
+     * @param fileType The type of file the records belong to.
+     * @param records The encoded change log records, in order.
+     */
+    static void appendRecords(FileType fileType, Collection<byte[]> records) {
+        synchronized (readLocks.get(fileType)) {
+            boolean upToDate = FileGeneration.of(fileType).equals(loadedGeneration.get(fileType));
+            for (byte[] record : records) {
+                ChangeLog.appendRecord(fileType, record);
+            }
+            if (upToDate) {
+                markLoaded(fileType);
+            }
+        }
+    }
+
+    /**
+     * Turns on asynchronous persistence. Afterwards, changes of single
+     * entities are written to disk by a background thread so that callers do
+     * not wait for the disk. Checkpoints and transactions are still written
+     * on the calling thread.
+     *
+     * @param debounceMillis How long in milliseconds the writer waits for more
+     * changes before writing a batch.
+     * @param queueCapacity The maximum number of changes waiting to be
+     * written. When the queue is full, callers write their change
+     * themselves.
+     */
+    public static void enableAsyncPersistence(long debounceMillis, int queueCapacity) {
+        PersistenceWriter.start(debounceMillis, queueCapacity);
+    }
+
+    /**
+     * Waits until every change handed to the background writer has been
+     * written to disk. Does nothing if asynchronous persistence is off.
+     */
+    public static void flush() {
+        PersistenceWriter.flush();
+    }
+
+    /**
+     * Runs the given work as a single unit of work. All entities persisted by
+     * the work, across any number of file types, are written together in one
+     * group commit when the work finishes: first to a journal with a single
+     * sync, then to the change log of each file type, which is synced before
+     * the journal is deleted. If the application stops part way, either all
+     * of the changes are saved or none of them are. If a change log cannot be
+     * appended to, the changed file types are written as checkpoints instead.
+     * <p>
+     * If the work throws an exception, nothing is written and the entities it
+     * persisted are put back as they were last saved before the exception is
+     * rethrown. A
+     * transaction started inside another one joins the outer transaction.
+     * </p>
+     *
+     * @param work The changes to make.
+     */
+    public static void transaction(Runnable work) {
+        if (Transaction.current() != null) {
+            work.run();
+            return;
+        }
+        Transaction transaction = Transaction.begin();
+        try {
+            work.run();
+        } catch (RuntimeException err) {
+            Transaction.end();
+            rollback(transaction);
+            throw err;
+        }
+        Transaction.end();
+        PersistenceWriter.flush();
+        boolean committed = transaction.commit();
+        boolean checkpointed = true;
+        for (FileType fileType : transaction.getDirtyFileTypes()) {
+            if (!committed || transaction.getFullFileTypes().contains(fileType)
+                    || ChangeLog.getEntryCount(fileType) >= ChangeLog.CHECKPOINT_THRESHOLD) {
+                checkpointed &= checkpoint(fileType);
+            } else {
+                markLoaded(fileType);
+            }
+        }
+        // A journal kept by a failed commit is only obsolete once every checkpoint is written
+        if (!committed && checkpointed) {
+            transaction.clearJournal();
+        }
+    }
+
+    /**
+     * Puts the entities persisted in a failed transaction back as they were
+     * last saved. Only those entities are replaced, so the in-memory maps
+     * stay in place and the changes of other sessions are kept. The work has
+     * already changed the entities in memory before persisting them, so their
+     * saved copies are their state before the transaction.
+     * <p>
+     * For a file type persisted as a whole, every entity that differs from
+     * its saved copy is put back.
+     * </p>
+     *
+     * @param transaction The failed transaction.
+     */
+    private static void rollback(Transaction transaction) {
+        PersistenceWriter.flush();
+        for (FileType fileType : transaction.getDirtyFileTypes()) {
+            ConcurrentHashMap<String, Object> store = getStore(fileType);
+            ConcurrentHashMap<String, Object> saved = readSavedData(fileType);
+            if (store == null || saved == null) {
+                continue;
+            }
+            Collection<String> keys = transaction.getDirtyKeys(fileType);
+            if (transaction.getFullFileTypes().contains(fileType)) {
+                keys = new ArrayList<>(store.keySet());
+                for (String key : saved.keySet()) {
+                    if (!store.containsKey(key)) {
+                        keys.add(key);
+                    }
+                }
+            }
+            for (String key : keys) {
+                Object value = saved.get(key);
+                if (value == null) {
+                    store.remove(key);
+                } else if (!isSaved(fileType, store.get(key), value)) {
+                    store.put(key, value);
+                }
+                updateIndexes(fileType, key);
+            }
+        }
+    }
+
+    /**
+     * Checks whether an in-memory entity is the same as its saved copy.
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param value The in-memory entity, or {@code null}.
+     * @param saved The saved copy of the entity.
+     * @return {@code true} if both encode to the same bytes.
+     */
+    private static boolean isSaved(FileType fileType, Object value, Object saved) {
+        if (value == null) {
+            return false;
+        }
+        try {
+            return Arrays.equals(BinaryCodec.encodeEntity(fileType, value), BinaryCodec.encodeEntity(fileType, saved));
+        } catch (IOException err) {
+            return false;
+        }
     }
 
     /**
      * Reads data from a serialized file and populates the corresponding
-     * in-memory HashMap.
+     * in-memory HashMap. Nothing is read if the file has not changed on disk
+     * since it was last loaded or written by this repository.
+     * <p>
+     * The first time a file type is loaded, its dummy data is added if it has
+     * none.
+     * </p>
      *
      * @param fileType The type of file to read, defined in {@link FileType}.
      */
     public static void readData(FileType fileType) {
-        readSerializedObject(fileType);
+        long started = System.nanoTime();
+        try {
+            Transaction.recover();
+            synchronized (readLocks.get(fileType)) {
+                FileGeneration loaded = loadedGeneration.get(fileType);
+                if (FileGeneration.of(fileType).equals(loaded)) {
+                    return;
+                }
+                if (readSerializedObject(fileType)) {
+                    markLoaded(fileType);
+                    if (loaded == null) {
+                        initializeDummyData(fileType);
+                    }
+                }
+            }
+        } finally {
+            readLatencies.get(fileType).record(System.nanoTime() - started);
+        }
     }
 
     /**
-     * Saves all data to their respective files.
+     * Reads the given file types in parallel and waits until all of them are
+     * loaded. File types that are not listed are left to be loaded the first
+     * time they are read.
+     *
+     * @param fileTypes The types of file to read, defined in {@link FileType}.
      */
-    public static void saveAllFiles() {
-        persistData(FileType.STAFF);
-        persistData(FileType.PATIENT);
-        persistData(FileType.INVENTORY);
-        persistData(FileType.REPLENISHMENT_REQUEST);
-        persistData(FileType.APPOINTMENT_OUTCOME);
-        persistData(FileType.APPOINTMENT_LIST);
-        persistData(FileType.MEDICINE);
-        persistData(FileType.MEDICAL_RECORD);
-        persistData(FileType.DIAGNOSIS);
-        persistData(FileType.TREATMENT);
+    public static void loadAll(FileType... fileTypes) {
+        if (fileTypes.length == 0) {
+            return;
+        }
+        int threads = Math.min(fileTypes.length, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "repository-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (FileType fileType : fileTypes) {
+                tasks.add(() -> {
+                    readData(fileType);
+                    return null;
+                });
+            }
+            List<Future<Void>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException err) {
+                    System.out.println("Error loading " + fileTypes[i].fileName + ": " + err.getCause());
+                }
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
     }
-        /**
-     * A method to clear out all the data in database.
-     * @return {@code true} if data is cleared successfully.
+
+    /**
+     * Adds the dummy data of a file type if it has no data, and saves it.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
      */
-    public static boolean clearDatabase() {
-        // Initialize empty data
-        STAFF = new HashMap<>();
-        writeSerializedObject(FileType.STAFF);
+    private static void initializeDummyData(FileType fileType) {
+        boolean initialized;
+        switch (fileType) {
+            case STAFF:
+                initialized = initializeDummyStaff();
+                break;
+            case PATIENT:
+                initialized = initializeDummyPatient();
+                break;
+            case INVENTORY:
+                initialized = initializeDummyInventory();
+                break;
+            case REPLENISHMENT_REQUEST:
+                initialized = initializeDummyReplenishmentRequest();
+                break;
+            default:
+                initialized = false;
+                break;
+        }
+        if (initialized) {
+            persistData(fileType);
+        }
+    }
 
-        PATIENT = new HashMap<>();
-        writeSerializedObject(FileType.PATIENT);
+    /**
+     * Reads data from a serialized file even if it has not changed since it
+     * was last loaded, discarding any in-memory changes that were not
+     * persisted.
+     *
+     * @param fileType The type of file to read, defined in {@link FileType}.
+     */
+    public static void reloadData(FileType fileType) {
+        PersistenceWriter.flush();
+        loadedGeneration.remove(fileType);
+        readData(fileType);
+    }
 
-        INVENTORY = new HashMap<>();
-        writeSerializedObject(FileType.INVENTORY);
+    /**
+     * Discards the in-memory data of a file type without saving it, so that
+     * it is read from its files again the next time it is needed. Unlike
+     * {@link #reloadData(FileType)}, the old data is released before the
+     * files are read, so large data sets are never held twice.
+     *
+     * @param fileType The type of file to discard, defined in {@link FileType}.
+     */
+    public static void unloadData(FileType fileType) {
+        PersistenceWriter.flush();
+        synchronized (readLocks.get(fileType)) {
+            loadedGeneration.remove(fileType);
+            if (setStore(fileType, new ConcurrentHashMap<>())) {
+                rebuildIndexes(fileType);
+            }
+        }
+    }
+
+    /**
+     * Updates the secondary indexes of a file type after a single entity was
+     * added, updated or removed.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @param key The key of the entity that changed.
+     */
+    private static void updateIndexes(FileType fileType, String key) {
+        if (fileType == FileType.APPOINTMENT_LIST) {
+            APPOINTMENT_INDEX.update(key, APPOINTMENT_LIST.get(key));
+            FREE_SLOT_INDEX.updateAppointment(key, APPOINTMENT_LIST.get(key));
+        } else if (fileType == FileType.STAFF) {
+            FREE_SLOT_INDEX.updateDoctor(key, STAFF.get(key));
+        } else if (fileType == FileType.REPLENISHMENT_REQUEST) {
+            REPLENISHMENT_REQUEST_INDEX.update(key, REPLENISHMENT_REQUEST.get(key));
+        }
+    }
 
-        REPLENISHMENT_REQUEST = new HashMap<>();
-        writeSerializedObject(FileType.REPLENISHMENT_REQUEST);
+    /**
+     * Rebuilds the secondary indexes of a file type from its in-memory data.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     */
+    private static void rebuildIndexes(FileType fileType) {
+        if (fileType == FileType.APPOINTMENT_LIST) {
+            APPOINTMENT_INDEX.rebuild(APPOINTMENT_LIST);
+            FREE_SLOT_INDEX.rebuild(APPOINTMENT_LIST);
+        } else if (fileType == FileType.STAFF) {
+            FREE_SLOT_INDEX.invalidateDoctors();
+        } else if (fileType == FileType.REPLENISHMENT_REQUEST) {
+            REPLENISHMENT_REQUEST_INDEX.rebuild(REPLENISHMENT_REQUEST);
+        }
+    }
+
+    /**
+     * Records that the in-memory data of a file type matches its files on
+     * disk.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     */
+    private static void markLoaded(FileType fileType) {
+        loadedGeneration.put(fileType, FileGeneration.of(fileType));
+    }
 
-        MEDICINE = new HashMap<>();
-        writeSerializedObject(FileType.MEDICINE);
+    /**
+     * Allocates the number for a new ID of the given file type, such as the
+     * {@code 12} in {@code A012}. Allocation is a single atomic increment of a
+     * sequence that is saved with the repository, so numbers are never reused.
+     *
+     * @param fileType The type of file the ID is for, defined in
+     * {@link FileType}.
+     * @return The allocated number, starting from 1.
+     */
+    public static long nextId(FileType fileType) {
+        readData(fileType);
+        return IdSequence.next(fileType, getStore(fileType));
+    }
 
-        APPOINTMENT_LIST = new HashMap<>();
-        writeSerializedObject(FileType.APPOINTMENT_LIST);
+    /**
+     * Returns the directory where the serialized data files and their change
+     * logs are stored. It can be moved with the {@value #DATA_DIRECTORY_PROPERTY}
+     * system property.
+     *
+     * @return The data directory.
+     */
+    public static File getDataDirectory() {
+        String directory = System.getProperty(DATA_DIRECTORY_PROPERTY);
+        return directory != null && !directory.isEmpty() ? new File(directory) : new File("./src/Repository/" + folder);
+    }
 
-        APPOINTMENT_OUTCOME = new HashMap<>();
-        writeSerializedObject(FileType.APPOINTMENT_OUTCOME);
+    /**
+     * Returns the serialized snapshot file of the given file type.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @return The snapshot file of the file type.
+     */
+    static File getSnapshotFile(FileType fileType) {
+        return new File(getDataDirectory(), fileType.fileName + ".dat");
+    }
 
-        MEDICAL_RECORD = new HashMap<>();
-        writeSerializedObject(FileType.MEDICAL_RECORD);
+    /**
+     * Returns whether a file type has been loaded into memory.
+     *
+     * @param fileType The file type.
+     * @return {@code true} if the file type is loaded.
+     */
+    static boolean isLoaded(FileType fileType) {
+        return loadedGeneration.containsKey(fileType);
+    }
 
-        DIAGNOSIS = new HashMap<>();
-        writeSerializedObject(FileType.DIAGNOSIS);
+    /**
+     * Saves all loaded data to their respective files. File types that were
+     * never loaded are skipped, so that their files are not overwritten with
+     * empty data.
+     */
+    public static void saveAllFiles() {
+        for (FileType fileType : FileType.values()) {
+            if (loadedGeneration.containsKey(fileType)) {
+                persistData(fileType);
+            }
+        }
+    }
 
-        TREATMENT = new HashMap<>();
-        writeSerializedObject(FileType.TREATMENT);
-        
-        return true;
+    /**
+     * Saves the loaded file types that have changes in their change log,
+     * folding the changes into a new checkpoint. File types without changes
+     * are not rewritten.
+     */
+    public static void saveChangedFiles() {
+        for (FileType fileType : FileType.values()) {
+            if (loadedGeneration.containsKey(fileType) && ChangeLog.getEntryCount(fileType) > 0) {
+                persistData(fileType);
+            }
+        }
     }
-     /**
-     * Writes the data of a specific file type to a serialized file.
+        /**
+     * A method to clear out all the data in database.
+     * @return {@code true} if data is cleared successfully.
+     */
+    public static boolean clearDatabase() {
+        // Queued records are older than the empty snapshots and must not be replayed onto them
+        PersistenceWriter.flush();
+        boolean cleared = true;
+        for (FileType fileType : FileType.values()) {
+            // Readers must not see an empty snapshot together with the old change log
+            synchronized (readLocks.get(fileType)) {
+                setStore(fileType, new ConcurrentHashMap<>());
+                if (writeSerializedObject(fileType)) {
+                    ChangeLog.truncate(fileType);
+                } else {
+                    cleared = false;
+                }
+                rebuildIndexes(fileType);
+                markLoaded(fileType);
+            }
+        }
+        IdSequence.reset();
+
+        return cleared;
+    }
+    /**
+     * Writes the data of a specific file type to a data file, encoded with
+     * {@link BinaryCodec}.
      *
      * @param fileType The type of file to write, defined in {@link FileType}.
      * @return {@code true} if the data was successfully written, {@code false}
      * otherwise.
      */
     private static boolean writeSerializedObject(FileType fileType) {
-        String fileExtension = ".dat";
-        String filePath = "./src/Repository/" + folder + "/" + fileType.fileName + fileExtension;
+        ConcurrentHashMap<String, Object> store = getStore(fileType);
+        if (store == null) {
+            System.out.println("Unsupported file type: " + fileType);
+            return false;
+        }
+        return writeSnapshot(fileType, store);
+    }
+
+    /**
+     * Writes the given data to the data file of a file type, encoded with
+     * {@link BinaryCodec}. The data is written to a temporary file first and
+     * then moved over the data file, so that readers never see a partly
+     * written file. The in-memory data and the change log of the file type
+     * are left untouched. Every successful write emits a
+     * {@link RepositoryWriteEvent} to Java Flight Recorder.
+     *
+     * @param fileType The type of file to write, defined in {@link FileType}.
+     * @param data The data to write, keyed by ID.
+     * @return {@code true} if the data was successfully written, {@code false}
+     * otherwise.
+     */
+    static boolean writeSnapshot(FileType fileType, Map<String, ?> data) {
+        RepositoryWriteEvent event = new RepositoryWriteEvent();
+        event.begin();
         try {
             // Create the directory if it doesn't exist
-            new File("./src/Repository/" + folder).mkdirs();
-
-            FileOutputStream fileOutputStream = new FileOutputStream(filePath);
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream);
-
-            switch (fileType) {
-                case STAFF:
-                    objectOutputStream.writeObject(STAFF);
-                    break;
-                case PATIENT:
-                    objectOutputStream.writeObject(PATIENT);
-                    break;
-                case INVENTORY:
-                    objectOutputStream.writeObject(INVENTORY);
-                    break;
-                case REPLENISHMENT_REQUEST:
-                    objectOutputStream.writeObject(REPLENISHMENT_REQUEST);
-                    break;
-                case APPOINTMENT_OUTCOME:
-                    objectOutputStream.writeObject(APPOINTMENT_OUTCOME);
-                    break;
-                case APPOINTMENT_LIST:
-                    objectOutputStream.writeObject(APPOINTMENT_LIST);
-                    break;
-                case MEDICINE:
-                    objectOutputStream.writeObject(MEDICINE);
-                    break;
-                case MEDICAL_RECORD:
-                    objectOutputStream.writeObject(MEDICAL_RECORD);
-                    break;
-                case DIAGNOSIS:
-                    objectOutputStream.writeObject(DIAGNOSIS);
-                    break;
-                case TREATMENT:
-                    objectOutputStream.writeObject(TREATMENT);
-                    break;
-                default:
-                    System.out.println("Unsupported file type: " + fileType);
-                    return false;
+            getDataDirectory().mkdirs();
+
+            long encodingStarted = System.nanoTime();
+            byte[] bytes = BinaryCodec.encodeMap(fileType, data);
+            long writingStarted = System.nanoTime();
+            File file = getSnapshotFile(fileType);
+            File temporaryFile = new File(file.getPath() + ".tmp");
+            try (FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile)) {
+                fileOutputStream.write(bytes);
+            }
+            try {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException err) {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            long finished = System.nanoTime();
+            PersistenceStatistics.recordFileWrite(fileType, data.size(), bytes.length,
+                    writingStarted - encodingStarted, finished - writingStarted);
+            event.end();
+            if (event.shouldCommit()) {
+                event.fileType = fileType.name();
+                event.entities = data.size();
+                event.bytes = bytes.length;
+                event.encodingNanos = writingStarted - encodingStarted;
+                event.operation = OperationEvent.current();
+                event.commit();
             }
-            objectOutputStream.close();
-            fileOutputStream.close();
             return true;
         } catch (Exception err) {
             System.out.println("Error writing " + fileType.fileName + ": " + err.getMessage());
@@ -229,125 +831,231 @@ public class Repository {
     }
 
     /**
-     * Reads data from a serialized file and populates the corresponding
-     * in-memory HashMap.
+     * Reads data from a data file and populates the corresponding in-memory
+     * HashMap.
+     * <p>
+     * Files written by earlier versions with Java serialization are still
+     * read, and are rewritten in the binary format straight away. Every read
+     * of an existing file emits a {@link RepositoryReadEvent} to Java Flight
+     * Recorder.
+     * </p>
      *
      * @param fileType The type of file to read, defined in {@link FileType}.
      * @return {@code true} if the data was successfully read, {@code false}
      * otherwise.
      */
+    @SuppressWarnings("unchecked")
     private static boolean readSerializedObject(FileType fileType) {
-        String fileExtension = ".dat";
-        String filePath = "./src/Repository/" + folder + "/" + fileType.fileName + fileExtension;
-
         // Check if Data directory exists, create it if necessary
-        File dataDir = new File("./src/Repository/" + folder);
+        File dataDir = getDataDirectory();
         if (!dataDir.exists()) {
             dataDir.mkdirs(); // Create the directory if it doesn't exist
         }
 
-        File file = new File(filePath);
+        File file = getSnapshotFile(fileType);
 
         // Check if the file exists
         if (!file.exists()) {
             System.out.println(fileType.fileName + ".dat does not exist. Creating a new file.");
 
-            // If the file does not exist, create an empty HashMap and save it
-            switch (fileType) {
-                case STAFF:
-                    STAFF = new HashMap<>();
-                    break;
-                case PATIENT:
-                    PATIENT = new HashMap<>();
-                    break;
-                case INVENTORY:  // Initialize INVENTORY if file is missing
-                    INVENTORY = new HashMap<>();
-                    break;
-                case REPLENISHMENT_REQUEST:
-                    REPLENISHMENT_REQUEST = new HashMap<>();
-                    break;
-                case APPOINTMENT_OUTCOME:
-                    APPOINTMENT_OUTCOME = new HashMap<>();
-                    break;
-                case APPOINTMENT_LIST:
-                    APPOINTMENT_LIST = new HashMap<>();
-                    break;
-                case MEDICINE:
-                    MEDICINE = new HashMap<>();
-                case MEDICAL_RECORD:
-                    MEDICAL_RECORD = new HashMap<>();
-                    break;
-                case DIAGNOSIS:
-                    DIAGNOSIS = new HashMap<>();
-                    break;
-                case TREATMENT:
-                    TREATMENT = new HashMap<>();
-                    break;
-                default:
-                    System.out.println("Unsupported file type: " + fileType);
-                    return false;
+            // If the file does not exist, start from an empty map and apply any
+            // changes logged before the file was lost, then save a new file
+            ConcurrentHashMap<String, Object> data = new ConcurrentHashMap<>();
+            ChangeLog.replay(fileType, data);
+            if (!setStore(fileType, data)) {
+                return false;
             }
-            writeSerializedObject(fileType); // Save the empty HashMap to a new file
+            persistData(fileType);
             return true;
         }
 
+        RepositoryReadEvent event = new RepositoryReadEvent();
+        event.begin();
+        boolean legacy;
         try {
-            FileInputStream fileInputStream = new FileInputStream(filePath);
-            ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream);
-            Object object = objectInputStream.readObject();
+            long readingStarted = System.nanoTime();
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            long decodingStarted = System.nanoTime();
+            event.bytes = bytes.length;
+            legacy = BinaryCodec.isLegacy(bytes);
+            ConcurrentHashMap<String, Object> data = decodeSnapshot(fileType, bytes);
+            if (data == null) {
+                return false;
+            }
+            PersistenceStatistics.recordFileRead(fileType, data.size(), bytes.length,
+                    decodingStarted - readingStarted, System.nanoTime() - decodingStarted);
+            // Apply the changes made since the last checkpoint before publishing the map
+            ChangeLog.replay(fileType, data);
+            if (!setStore(fileType, data)) {
+                return false;
+            }
+            event.entities = data.size();
+            event.succeeded = true;
+        } catch (IOException | ClassNotFoundException err) {
+            System.out.println("Error reading " + fileType.fileName + ": " + err.getMessage());
+            err.printStackTrace();
+            return false;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.fileType = fileType.name();
+                event.operation = OperationEvent.current();
+                event.commit();
+            }
+        }
 
+        if (legacy) {
+            // Migrate the file to the binary format
+            persistData(fileType);
+        } else {
+            rebuildIndexes(fileType);
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the data file of a file type, in either the binary format or
+     * the Java serialization format of earlier versions.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @param bytes The contents of the data file.
+     * @return The decoded data, or {@code null} if the file is not valid.
+     * @throws IOException If the file cannot be decoded.
+     * @throws ClassNotFoundException If a serialized class cannot be found.
+     */
+    @SuppressWarnings("unchecked")
+    private static ConcurrentHashMap<String, Object> decodeSnapshot(FileType fileType, byte[] bytes)
+            throws IOException, ClassNotFoundException {
+        if (!BinaryCodec.isLegacy(bytes)) {
+            return BinaryCodec.decodeMap(fileType, bytes);
+        }
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            Object object = objectInputStream.readObject();
             if (!(object instanceof HashMap)) {
                 System.out.println("Error: " + fileType.fileName + " is not a valid HashMap.");
-                objectInputStream.close();
-                return false;
+                return null;
             }
+            ConcurrentHashMap<String, Object> data = new ConcurrentHashMap<>();
+            for (Map.Entry<String, Object> entry : ((HashMap<String, Object>) object).entrySet()) {
+                if (entry.getValue() != null) {
+                    data.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return data;
+        }
+    }
 
-            // Deserialize data into the appropriate HashMap
-            switch (fileType) {
-                case STAFF:
-                    STAFF = (HashMap<String, Staff>) object;
-                    break;
-                case PATIENT:
-                    PATIENT = (HashMap<String, Patient>) object;
-                    break;
-                case INVENTORY:  // Deserialize inventory
-                    INVENTORY = (HashMap<String, InventoryList>) object;
-                    break;
-                case REPLENISHMENT_REQUEST:  // Deserialize inventory
-                    REPLENISHMENT_REQUEST = (HashMap<String, ReplenishmentRequest>) object;
-                    break;
-                case APPOINTMENT_OUTCOME:
-                    APPOINTMENT_OUTCOME = (HashMap<String, AppointmentOutcome>) object;
-                    break;
-                case APPOINTMENT_LIST:
-                    APPOINTMENT_LIST = (HashMap<String, Appointment>) object;
-                    break;
-                case MEDICINE:
-                    MEDICINE = (HashMap<String, Medicine>) object;
-                    break;
-                case MEDICAL_RECORD:
-                    MEDICAL_RECORD = (HashMap<String, MedicalRecord>) object;
-                    break;
-                case DIAGNOSIS:
-                    DIAGNOSIS = (HashMap<String, Diagnosis>) object;
-                    break;
-                case TREATMENT:
-                    TREATMENT = (HashMap<String, Treatment>) object;
-                    break;
-                default:
-                    System.out.println("Unsupported file type: " + fileType);
-                    return false;
+    /**
+     * Reads the saved data of a file type, its data file with its change log
+     * applied, without replacing the in-memory map.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @return The saved data, or {@code null} if it cannot be read.
+     */
+    private static ConcurrentHashMap<String, Object> readSavedData(FileType fileType) {
+        // The snapshot and the change log must come from the same checkpoint
+        synchronized (readLocks.get(fileType)) {
+            try {
+                File file = getSnapshotFile(fileType);
+                ConcurrentHashMap<String, Object> data = file.exists()
+                        ? decodeSnapshot(fileType, Files.readAllBytes(file.toPath()))
+                        : new ConcurrentHashMap<>();
+                if (data != null) {
+                    ChangeLog.replay(fileType, data);
+                }
+                return data;
+            } catch (IOException | ClassNotFoundException err) {
+                System.out.println("Error reading " + fileType.fileName + ": " + err.getMessage());
+                return null;
             }
+        }
+    }
 
-            objectInputStream.close();
-            fileInputStream.close();
-        } catch (IOException | ClassNotFoundException err) {
-            err.printStackTrace();
-            return false;
+    /**
+     * Replaces the in-memory map of a given file type. The map is fully
+     * populated before it is published, so other threads never see a
+     * partially loaded map.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @param data The new data of the file type.
+     * @return {@code true} if the file type is supported, {@code false}
+     * otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean setStore(FileType fileType, ConcurrentHashMap<String, ?> data) {
+        switch (fileType) {
+            case STAFF:
+                STAFF = (ConcurrentHashMap<String, Staff>) data;
+                break;
+            case PATIENT:
+                PATIENT = (ConcurrentHashMap<String, Patient>) data;
+                break;
+            case INVENTORY:
+                INVENTORY = (ConcurrentHashMap<String, InventoryList>) data;
+                break;
+            case REPLENISHMENT_REQUEST:
+                REPLENISHMENT_REQUEST = (ConcurrentHashMap<String, ReplenishmentRequest>) data;
+                break;
+            case APPOINTMENT_OUTCOME:
+                APPOINTMENT_OUTCOME = (ConcurrentHashMap<String, AppointmentOutcome>) data;
+                break;
+            case APPOINTMENT_LIST:
+                APPOINTMENT_LIST = (ConcurrentHashMap<String, Appointment>) data;
+                break;
+            case MEDICINE:
+                MEDICINE = (ConcurrentHashMap<String, Medicine>) data;
+                break;
+            case MEDICAL_RECORD:
+                MEDICAL_RECORD = (ConcurrentHashMap<String, MedicalRecord>) data;
+                break;
+            case DIAGNOSIS:
+                DIAGNOSIS = (ConcurrentHashMap<String, Diagnosis>) data;
+                break;
+            case TREATMENT:
+                TREATMENT = (ConcurrentHashMap<String, Treatment>) data;
+                break;
+            default:
+                System.out.println("Unsupported file type: " + fileType);
+                return false;
         }
         return true;
     }
 
+    /**
+     * Returns the in-memory map of a given file type.
+     *
+     * @param fileType The type of file, defined in {@link FileType}.
+     * @return The map holding the data of the file type, or {@code null}
+     * if the file type is not supported.
+     */
+    @SuppressWarnings("unchecked")
+    static ConcurrentHashMap<String, Object> getStore(FileType fileType) {
+        switch (fileType) {
+            case STAFF:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) STAFF;
+            case PATIENT:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) PATIENT;
+            case INVENTORY:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) INVENTORY;
+            case REPLENISHMENT_REQUEST:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) REPLENISHMENT_REQUEST;
+            case APPOINTMENT_OUTCOME:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) APPOINTMENT_OUTCOME;
+            case APPOINTMENT_LIST:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) APPOINTMENT_LIST;
+            case MEDICINE:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) MEDICINE;
+            case MEDICAL_RECORD:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) MEDICAL_RECORD;
+            case DIAGNOSIS:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) DIAGNOSIS;
+            case TREATMENT:
+                return (ConcurrentHashMap<String, Object>) (ConcurrentHashMap<String, ?>) TREATMENT;
+            default:
+                return null;
+        }
+    }
+
     /**
      * Initializes dummy data for staff and adds it to the STAFF HashMap.
      *
@@ -0,0 +1,66 @@
+package src.Repository;
+
+import java.util.EnumMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The StripedLock class hands out locks for single entities of each
+ * {@link FileType}.
+ * <p>
+ * Instead of one lock per entity, each file type has a fixed number of
+ * stripes and every key is mapped to one of them, so the number of locks stays
+ * constant no matter how much data is loaded. Two entities may share a stripe,
+ * which only means they are occasionally serialized with each other.
+ * </p>
+ * <p>
+ * Every file type has its own stripes. A thread that needs the locks of
+ * entities of several file types takes them in the order the file types are
+ * declared in {@link FileType}, which rules out deadlocks between threads.
+ * </p>
+ *
+ * @see Repository
+ * @see FileType
+ */
+final class StripedLock {
+
+    /**
+     * Number of stripes per file type. Must be a power of two.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * The stripes of each file type.
+     */
+    private static final EnumMap<FileType, ReentrantLock[]> stripes = new EnumMap<>(FileType.class);
+
+    static {
+        for (FileType fileType : FileType.values()) {
+            ReentrantLock[] locks = new ReentrantLock[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                locks[i] = new ReentrantLock();
+            }
+            stripes.put(fileType, locks);
+        }
+    }
+
+    /**
+     * Prevents instantiation.
+     */
+    private StripedLock() {
+    }
+
+    /**
+     * Returns the lock guarding an entity.
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param key The key of the entity.
+     * @return The lock of the stripe the key maps to.
+     */
+    static Lock get(FileType fileType, String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // Spread the high bits so that keys differing only there use different stripes
+        hash ^= hash >>> 16;
+        return stripes.get(fileType)[hash & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,814 @@
+package src.Repository;
+
+import java.io.File;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import src.Enum.AppointmentStatus;
+import src.Enum.Gender;
+import src.Enum.InventoryRequestStatus;
+import src.Enum.MedicineStatus;
+import src.Enum.PaymentStatus;
+import src.Enum.ServiceType;
+import src.Model.Admin;
+import src.Model.Appointment;
+import src.Model.AppointmentOutcome;
+import src.Model.Diagnosis;
+import src.Model.Doctor;
+import src.Model.InventoryList;
+import src.Model.MedicalRecord;
+import src.Model.Medicine;
+import src.Model.Patient;
+import src.Model.Pharmacist;
+import src.Model.ReplenishmentRequest;
+import src.Model.Schedule;
+import src.Model.Specialization;
+import src.Model.Staff;
+import src.Model.Treatment;
+
+/**
+ * The SyntheticDataGenerator class generates large, realistic data sets for
+ * the hospital management system and writes them straight to the data files of
+ * the {@link Repository}.
+ * <p>
+ * The dummy data created by the repository only holds a handful of records, so
+ * scaling problems never show up with it. This generator creates any number of
+ * doctors with availability and specializations, patients with medical record
+ * histories, appointments with their outcomes and prescriptions, and an
+ * inventory with a history of replenishment requests.
+ * </p>
+ * <p>
+ * Generation is deterministic: every entity is drawn from its own random
+ * stream derived from the seed, its file type and its number. The same seed
+ * therefore always produces the same data, and an entity does not change when
+ * only the number of other entities is changed. Appointments never overlap for
+ * the same doctor, future appointments lie within the availability of their
+ * doctor, and outcomes only refer to diagnoses in the medical record of their
+ * patient and to medicines in the inventory.
+ * </p>
+ *
+ * <p>
+ * <b>Usage:</b> {@code java src.Repository.SyntheticDataGenerator
+ * [--seed=42] [--doctors=100] [--patients=10000] [--appointments=100000]
+ * [--medicines=200] [--requests=1000] [--availability-days=28]
+ * [--today=2024-11-18] [--data-dir=path]}. The data files of the generated
+ * file types are replaced.</p>
+ *
+ * <p>
+ * <b>Key Features:</b></p>
+ * <ul>
+ * <li>Generating doctors, pharmacists and administrators.</li>
+ * <li>Generating patients with diagnoses and treatments.</li>
+ * <li>Generating the inventory and replenishment requests.</li>
+ * <li>Generating appointments and their outcomes.</li>
+ * <li>Writing generated data as checkpoints of the repository.</li>
+ * </ul>
+ *
+ * @see Repository
+ * @see BinaryCodec
+ */
+public final class SyntheticDataGenerator {
+
+    /**
+     * The length of an appointment in minutes.
+     */
+    private static final int APPOINTMENT_MINUTES = 30;
+
+    /**
+     * The working hours of a day, as pairs of start and end hours.
+     */
+    private static final int[][] WORKING_HOURS = {{9, 12}, {14, 17}};
+
+    /**
+     * The share of appointments that are still to come.
+     */
+    private static final double FUTURE_SHARE = 0.2;
+
+    /**
+     * The chance that a slot is left free between two appointments.
+     */
+    private static final double FREE_SLOT_CHANCE = 0.3;
+
+    /**
+     * How many days after an appointment its prescriptions and bill may still
+     * be pending.
+     */
+    private static final int PENDING_DAYS = 7;
+
+    /**
+     * The password of every generated user.
+     */
+    private static final String PASSWORD = "password";
+
+    /**
+     * First names of generated people.
+     */
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Charlie", "Diana", "Ethan", "Fiona", "George",
+        "Hannah", "Ivan", "Julia", "Kevin", "Laura", "Marcus", "Nina", "Oliver", "Priya", "Quentin", "Rachel",
+        "Samuel", "Tara", "Umar", "Vivian", "Wei Ming", "Xin Yi", "Yusuf", "Zara"};
+
+    /**
+     * Last names of generated people.
+     */
+    private static final String[] LAST_NAMES = {"Brown", "Stone", "White", "Tan", "Lim", "Lee", "Ng", "Wong",
+        "Kumar", "Singh", "Clarke", "Doe", "Garcia", "Müller", "Rossi", "Chen", "Goh", "Ong", "Nair", "Rahman"};
+
+    /**
+     * Blood types of generated patients.
+     */
+    private static final String[] BLOOD_TYPES = {"O+", "O-", "A+", "A-", "B+", "B-", "AB+", "AB-"};
+
+    /**
+     * Names and descriptions of the specializations of generated doctors.
+     */
+    private static final String[][] SPECIALIZATIONS = {
+        {"Cardiology", "Diseases of the heart and blood vessels"},
+        {"Dermatology", "Conditions of the skin, hair and nails"},
+        {"Neurology", "Disorders of the nervous system"},
+        {"Orthopaedics", "Injuries and diseases of bones and joints"},
+        {"Paediatrics", "Medical care of infants and children"},
+        {"Oncology", "Diagnosis and treatment of cancer"},
+        {"Psychiatry", "Mental health disorders"},
+        {"Radiology", "Medical imaging"},
+        {"General Practice", "Primary care for common conditions"},
+        {"Ophthalmology", "Disorders of the eye"}};
+
+    /**
+     * Names and descriptions of generated diagnoses.
+     */
+    private static final String[][] DIAGNOSES = {
+        {"Hypertension", "High blood pressure requiring regular monitoring"},
+        {"Diabetes Type 2", "Chronic condition affecting blood sugar regulation"},
+        {"Asthma", "Inflammation of the airways causing shortness of breath"},
+        {"Influenza", "Viral infection with fever and body aches"},
+        {"Migraine", "Recurring headaches with sensitivity to light"},
+        {"Bronchitis", "Inflammation of the bronchial tubes"},
+        {"Gastritis", "Inflammation of the stomach lining"},
+        {"Eczema", "Itchy and inflamed patches of skin"},
+        {"Anaemia", "Low level of red blood cells"},
+        {"Osteoarthritis", "Wear of the cartilage in the joints"}};
+
+    /**
+     * Names and descriptions of the medicines in a generated inventory.
+     */
+    private static final String[][] MEDICINES = {
+        {"Paracetamol", "Relieves mild to moderate pain and reduces fever"},
+        {"Ibuprofen", "Eases inflammation, pain, and fever."},
+        {"Amoxicillin", "An antibiotic used to treat bacterial infections."},
+        {"Cetirizine", "Relieves allergy symptoms."},
+        {"Metformin", "Lowers blood sugar in type 2 diabetes."},
+        {"Amlodipine", "Treats high blood pressure."},
+        {"Omeprazole", "Reduces stomach acid."},
+        {"Salbutamol", "Opens the airways during an asthma attack."},
+        {"Atorvastatin", "Lowers cholesterol."},
+        {"Loratadine", "Relieves hay fever and hives."},
+        {"Azithromycin", "An antibiotic for respiratory infections."},
+        {"Prednisolone", "A steroid that reduces inflammation."}};
+
+    /**
+     * Notes of generated appointment outcomes.
+     */
+    private static final String[] DOCTOR_NOTES = {"Patient needs rest and fluids.",
+        "Prescribed light medication and rest.", "Follow up in two weeks.", "Condition is stable.",
+        "Refer to specialist if symptoms persist.", "Review test results at next visit."};
+
+    /**
+     * The seed all random streams are derived from.
+     */
+    private final long seed;
+
+    /**
+     * The date separating past appointments from future ones.
+     */
+    private final LocalDate today;
+
+    /**
+     * The number of days of availability generated for each doctor, starting
+     * today.
+     */
+    private final int availabilityDays;
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed The seed all generated data is derived from.
+     * @param today The date separating past appointments from future ones.
+     * @param availabilityDays The number of days of availability generated for
+     * each doctor, starting today.
+     */
+    public SyntheticDataGenerator(long seed, LocalDate today, int availabilityDays) {
+        this.seed = seed;
+        this.today = today;
+        this.availabilityDays = availabilityDays;
+    }
+
+    /**
+     * Main function that generates a data set and writes it to the data
+     * directory.
+     *
+     * @param args The options listed in the class description.
+     */
+    public static void main(String[] args) {
+        long seed = 42;
+        int doctors = 100, patients = 10_000, appointments = 100_000, medicines = 200, requests = 1000;
+        int availabilityDays = 28;
+        LocalDate today = LocalDate.of(2024, 11, 18);
+        try {
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                String name = separator < 0 ? arg : arg.substring(0, separator);
+                String value = separator < 0 ? "" : arg.substring(separator + 1);
+                switch (name) {
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--doctors":
+                        doctors = Integer.parseInt(value);
+                        break;
+                    case "--patients":
+                        patients = Integer.parseInt(value);
+                        break;
+                    case "--appointments":
+                        appointments = Integer.parseInt(value);
+                        break;
+                    case "--medicines":
+                        medicines = Integer.parseInt(value);
+                        break;
+                    case "--requests":
+                        requests = Integer.parseInt(value);
+                        break;
+                    case "--availability-days":
+                        availabilityDays = Integer.parseInt(value);
+                        break;
+                    case "--today":
+                        today = LocalDate.parse(value);
+                        break;
+                    case "--data-dir":
+                        System.setProperty(Repository.DATA_DIRECTORY_PROPERTY, value);
+                        break;
+                    default:
+                        System.out.println("Error: unknown option " + arg);
+                        return;
+                }
+            }
+        } catch (NumberFormatException | DateTimeParseException err) {
+            System.out.println("Error: invalid option value: " + err.getMessage());
+            return;
+        }
+        if (doctors < 1 || patients < 1 || medicines < 1 || appointments < 0 || requests < 0 || availabilityDays < 0) {
+            System.out.println("Error: at least one doctor, patient and medicine is needed and counts cannot be negative.");
+            return;
+        }
+
+        System.out.println("Generating data with seed " + seed + " into " + Repository.getDataDirectory().getAbsolutePath());
+        new SyntheticDataGenerator(seed, today, availabilityDays)
+                .generateAll(doctors, patients, appointments, medicines, requests);
+    }
+
+    /**
+     * Generates a complete data set and writes every generated file type.
+     * Confirmed appointments are taken out of the availability of the
+     * doctors before the staff is written. Appointments are written before
+     * their outcomes are generated, so that both never have to be encoded at
+     * the same time.
+     *
+     * @param doctorCount The number of doctors.
+     * @param patientCount The number of patients.
+     * @param appointmentCount The number of appointments.
+     * @param medicineCount The number of medicines in the inventory.
+     * @param requestCount The number of replenishment requests.
+     * @return {@code true} if every file was written, {@code false} otherwise.
+     */
+    public boolean generateAll(int doctorCount, int patientCount, int appointmentCount, int medicineCount, int requestCount) {
+        boolean written = report(FileType.PATIENT, generatePatients(patientCount, medicineCount));
+        written &= report(FileType.INVENTORY, generateInventory(medicineCount));
+        written &= report(FileType.REPLENISHMENT_REQUEST, generateReplenishmentRequests(requestCount, medicineCount));
+
+        ConcurrentHashMap<String, Appointment> appointments = generateAppointments(appointmentCount, doctorCount, patientCount);
+        ConcurrentHashMap<String, Staff> staff = generateStaff(doctorCount);
+        removeConfirmedAppointments(staff, appointments);
+        written &= report(FileType.STAFF, staff);
+        staff = null;
+        written &= report(FileType.APPOINTMENT_LIST, appointments);
+        List<Appointment> completed = new ArrayList<>();
+        for (Appointment appointment : appointments.values()) {
+            if (appointment.getOutcomeId() != null) {
+                completed.add(appointment);
+            }
+        }
+        appointments = null;
+        written &= report(FileType.APPOINTMENT_OUTCOME, generateOutcomes(completed, medicineCount));
+
+        // New IDs continue after the largest generated ones
+        IdSequence.reset();
+        return written;
+    }
+
+    /**
+     * Writes generated data and prints how long it took.
+     *
+     * @param fileType The file type of the data.
+     * @param data The generated data.
+     * @return {@code true} if the data was written, {@code false} otherwise.
+     */
+    private static boolean report(FileType fileType, Map<String, ?> data) {
+        long started = System.nanoTime();
+        boolean written = write(fileType, data);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        File file = Repository.getSnapshotFile(fileType);
+        System.out.printf("%-22s %,10d records %,14d bytes  written in %.2f s (%,.0f records/s)%n",
+                fileType.fileName, data.size(), file.length(), seconds, data.size() / Math.max(seconds, 1e-9));
+        return written;
+    }
+
+    /**
+     * Writes generated data as the checkpoint of a file type, replacing its
+     * data file and discarding its change log. Data already loaded by the
+     * {@link Repository} is read again the next time it is needed.
+     *
+     * @param fileType The file type of the data.
+     * @param data The generated data, keyed by ID.
+     * @return {@code true} if the data was written, {@code false} otherwise.
+     */
+    public static boolean write(FileType fileType, Map<String, ?> data) {
+        if (!Repository.writeSnapshot(fileType, data)) {
+            return false;
+        }
+        ChangeLog.truncate(fileType);
+        return true;
+    }
+
+    /**
+     * Generates doctors with specializations and availability, and a
+     * pharmacist for every ten doctors and an administrator for every fifty.
+     *
+     * @param doctorCount The number of doctors.
+     * @return The staff keyed by hospital ID.
+     */
+    public ConcurrentHashMap<String, Staff> generateStaff(int doctorCount) {
+        int pharmacistCount = Math.max(1, doctorCount / 10);
+        int adminCount = Math.max(1, doctorCount / 50);
+        ConcurrentHashMap<String, Staff> staff = new ConcurrentHashMap<>(doctorCount + pharmacistCount + adminCount);
+        for (int i = 0; i < doctorCount; i++) {
+            Doctor doctor = createDoctor(i);
+            staff.put(doctor.getHospitalId(), doctor);
+        }
+        for (int i = 0; i < pharmacistCount; i++) {
+            SplittableRandom random = random(FileType.STAFF, doctorCount + i);
+            Pharmacist pharmacist = new Pharmacist(createName(random), PASSWORD, createGender(random),
+                    22 + random.nextInt(40), String.format("P%03d", i + 1));
+            staff.put(pharmacist.getHospitalId(), pharmacist);
+        }
+        for (int i = 0; i < adminCount; i++) {
+            SplittableRandom random = random(FileType.STAFF, doctorCount + pharmacistCount + i);
+            Admin admin = new Admin(createName(random), PASSWORD, createGender(random),
+                    25 + random.nextInt(40), String.format("A%03d", i + 1));
+            staff.put(admin.getHospitalId(), admin);
+        }
+        return staff;
+    }
+
+    /**
+     * Generates patients with medical records. A record holds up to four
+     * diagnoses, each with up to two treatments using medicines of the
+     * inventory.
+     *
+     * @param patientCount The number of patients.
+     * @param medicineCount The number of medicines in the inventory.
+     * @return The patients keyed by patient ID.
+     */
+    public ConcurrentHashMap<String, Patient> generatePatients(int patientCount, int medicineCount) {
+        Medicine[] catalog = createCatalog(medicineCount);
+        ConcurrentHashMap<String, Patient> patients = new ConcurrentHashMap<>(patientCount);
+        for (int i = 0; i < patientCount; i++) {
+            SplittableRandom random = random(FileType.PATIENT, i);
+            // The number of diagnoses is drawn first, so outcomes can look it up again
+            int diagnosisCount = drawDiagnosisCount(random);
+            String patientId = getPatientId(i);
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            LocalDate dateOfBirth = LocalDate.of(1940, 1, 1).plusDays(random.nextInt(75 * 365));
+            int age = Period.between(dateOfBirth, today).getYears();
+            String contact = (firstName + "." + lastName).toLowerCase().replace(' ', '.') + (i + 1) + "@example.com";
+            Patient patient = new Patient(patientId, firstName + " " + lastName, PASSWORD, age, dateOfBirth,
+                    createGender(random), contact, BLOOD_TYPES[random.nextInt(BLOOD_TYPES.length)]);
+
+            MedicalRecord medicalRecord = new MedicalRecord("MR" + patientId);
+            for (int d = 1; d <= diagnosisCount; d++) {
+                String[] name = DIAGNOSES[random.nextInt(DIAGNOSES.length)];
+                Diagnosis diagnosis = new Diagnosis(d, name[0], name[1]);
+                int treatmentCount = random.nextInt(3);
+                for (int t = 1; t <= treatmentCount; t++) {
+                    List<Medicine> medicines = new ArrayList<>();
+                    List<Integer> amounts = new ArrayList<>();
+                    pickMedicines(random, catalog, 1 + random.nextInt(2), medicines, amounts, false);
+                    diagnosis.addTreatment(new Treatment(t, medicines, amounts));
+                }
+                medicalRecord.addDiagnosis(diagnosis);
+            }
+            patient.setMedicalRecord(medicalRecord);
+            patients.put(patientId, patient);
+        }
+        return patients;
+    }
+
+    /**
+     * Generates the inventory. About one in ten medicines is at or below its
+     * low stock level alert.
+     *
+     * @param medicineCount The number of medicines.
+     * @return The inventory items keyed by medicine ID.
+     */
+    public ConcurrentHashMap<String, InventoryList> generateInventory(int medicineCount) {
+        Medicine[] catalog = createCatalog(medicineCount);
+        ConcurrentHashMap<String, InventoryList> inventory = new ConcurrentHashMap<>(medicineCount);
+        for (int i = 0; i < medicineCount; i++) {
+            SplittableRandom random = random(FileType.INVENTORY, i);
+            int lowStockLevelAlert = 10 + random.nextInt(41);
+            int stock = random.nextDouble() < 0.1 ? random.nextInt(lowStockLevelAlert + 1)
+                    : lowStockLevelAlert + 1 + random.nextInt(500);
+            inventory.put(catalog[i].getMedicineId(), new InventoryList(catalog[i], stock, lowStockLevelAlert));
+        }
+        return inventory;
+    }
+
+    /**
+     * Generates a history of replenishment requests. Most requests are
+     * approved, some rejected and the rest still pending.
+     *
+     * @param requestCount The number of requests.
+     * @param medicineCount The number of medicines in the inventory.
+     * @return The requests keyed by request ID.
+     */
+    public ConcurrentHashMap<String, ReplenishmentRequest> generateReplenishmentRequests(int requestCount, int medicineCount) {
+        ConcurrentHashMap<String, ReplenishmentRequest> requests = new ConcurrentHashMap<>(requestCount);
+        for (int i = 0; i < requestCount; i++) {
+            SplittableRandom random = random(FileType.REPLENISHMENT_REQUEST, i);
+            double draw = random.nextDouble();
+            InventoryRequestStatus status = draw < 0.7 ? InventoryRequestStatus.APPROVED
+                    : draw < 0.8 ? InventoryRequestStatus.REJECTED : InventoryRequestStatus.PENDING;
+            String requestId = String.format("R%03d", i + 1);
+            requests.put(requestId, new ReplenishmentRequest(requestId, getMedicineId(random.nextInt(medicineCount)),
+                    10 * (1 + random.nextInt(50)), status));
+        }
+        return requests;
+    }
+
+    /**
+     * Generates appointments, spread evenly over the doctors. The future
+     * appointments of a doctor are booked into the doctor's availability and
+     * the rest are laid out on the working days before today. Past
+     * appointments are completed or cancelled; completed ones are given the ID
+     * of the outcome generated by {@link #generateOutcomes}.
+     *
+     * @param appointmentCount The number of appointments.
+     * @param doctorCount The number of doctors.
+     * @param patientCount The number of patients.
+     * @return The appointments keyed by appointment ID.
+     */
+    public ConcurrentHashMap<String, Appointment> generateAppointments(int appointmentCount, int doctorCount, int patientCount) {
+        ConcurrentHashMap<String, Appointment> appointments = new ConcurrentHashMap<>(appointmentCount);
+        int appointmentNumber = 0;
+        int outcomeNumber = 0;
+        for (int d = 0; d < doctorCount; d++) {
+            int count = appointmentCount / doctorCount + (d < appointmentCount % doctorCount ? 1 : 0);
+            SplittableRandom random = random(FileType.APPOINTMENT_LIST, d);
+            String doctorId = getDoctorId(d);
+
+            // Future appointments, booked into the availability of the doctor
+            List<LocalDateTime> starts = new ArrayList<>(count);
+            int futureCount = (int) Math.round(count * FUTURE_SHARE);
+            for (Schedule schedule : createAvailability(d)) {
+                LocalDateTime start = schedule.getStartTime();
+                while (starts.size() < futureCount && !start.plusMinutes(APPOINTMENT_MINUTES).isAfter(schedule.getEndTime())) {
+                    if (random.nextDouble() >= FREE_SLOT_CHANCE) {
+                        starts.add(start);
+                    }
+                    start = start.plusMinutes(APPOINTMENT_MINUTES);
+                }
+            }
+            // Past appointments, going back one working day at a time
+            LocalDate date = today;
+            while (starts.size() < count) {
+                date = date.minusDays(1);
+                if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    continue;
+                }
+                for (int[] hours : WORKING_HOURS) {
+                    for (LocalDateTime start = date.atTime(hours[0], 0); starts.size() < count
+                            && start.getHour() < hours[1]; start = start.plusMinutes(APPOINTMENT_MINUTES)) {
+                        if (random.nextDouble() >= FREE_SLOT_CHANCE) {
+                            starts.add(start);
+                        }
+                    }
+                }
+            }
+
+            for (LocalDateTime start : starts) {
+                String appointmentId = String.format("A%03d", ++appointmentNumber);
+                String patientId = getPatientId(random.nextInt(patientCount));
+                double draw = random.nextDouble();
+                AppointmentStatus status;
+                String outcomeId = null;
+                if (start.toLocalDate().isBefore(today)) {
+                    status = draw < 0.85 ? AppointmentStatus.COMPLETED : AppointmentStatus.CANCELLED;
+                    if (status == AppointmentStatus.COMPLETED) {
+                        outcomeId = String.format("OUT%03d", ++outcomeNumber);
+                    }
+                } else {
+                    status = draw < 0.4 ? AppointmentStatus.PENDING
+                            : draw < 0.95 ? AppointmentStatus.CONFIRMED : AppointmentStatus.CANCELLED;
+                }
+                appointments.put(appointmentId, new Appointment(appointmentId, patientId, doctorId, start,
+                        start.plusMinutes(APPOINTMENT_MINUTES), status, outcomeId));
+            }
+        }
+        return appointments;
+    }
+
+    /**
+     * Takes the time of every confirmed appointment out of the availability
+     * of its doctor, as accepting an appointment does, so that only the time
+     * of pending appointments is still part of the availability.
+     *
+     * @param staff The generated staff keyed by hospital ID.
+     * @param appointments The generated appointments.
+     */
+    public static void removeConfirmedAppointments(Map<String, Staff> staff, Map<String, Appointment> appointments) {
+        for (Appointment appointment : appointments.values()) {
+            Staff member = staff.get(appointment.getDoctorId());
+            if (appointment.getStatus() != AppointmentStatus.CONFIRMED || !(member instanceof Doctor)) {
+                continue;
+            }
+            LocalDateTime start = appointment.getAppointmentStartDate();
+            LocalDateTime end = appointment.getAppointmentEndDate();
+            List<Schedule> availability = new ArrayList<>(((Doctor) member).getAvailability());
+            for (int i = 0; i < availability.size(); i++) {
+                Schedule schedule = availability.get(i);
+                if (start.isBefore(schedule.getStartTime()) || end.isAfter(schedule.getEndTime())) {
+                    continue;
+                }
+                // Split the schedule around the appointment, keeping the start time order
+                availability.remove(i);
+                if (end.isBefore(schedule.getEndTime())) {
+                    availability.add(i, new Schedule(end, schedule.getEndTime()));
+                }
+                if (start.isAfter(schedule.getStartTime())) {
+                    availability.add(i, new Schedule(schedule.getStartTime(), start));
+                }
+                ((Doctor) member).setAvailability(availability);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Generates the outcomes of completed appointments. An outcome always
+     * includes a consultation, and may include an X-ray, a blood test, a
+     * diagnosis from the patient's medical record and up to three prescribed
+     * medicines. Prescriptions and bills are only left pending for recent
+     * appointments.
+     *
+     * @param appointments The appointments, of which those with an outcome ID
+     * are used.
+     * @param medicineCount The number of medicines in the inventory.
+     * @return The outcomes keyed by outcome ID.
+     */
+    public ConcurrentHashMap<String, AppointmentOutcome> generateOutcomes(Collection<Appointment> appointments, int medicineCount) {
+        Medicine[] catalog = createCatalog(medicineCount);
+        ConcurrentHashMap<String, AppointmentOutcome> outcomes = new ConcurrentHashMap<>(appointments.size());
+        LocalDateTime pendingSince = today.minusDays(PENDING_DAYS).atStartOfDay();
+        for (Appointment appointment : appointments) {
+            String outcomeId = appointment.getOutcomeId();
+            if (outcomeId == null) {
+                continue;
+            }
+            SplittableRandom random = random(FileType.APPOINTMENT_OUTCOME, parseNumber(outcomeId));
+            boolean recent = appointment.getAppointmentEndDate().isAfter(pendingSince);
+
+            List<Medicine> medicines = new ArrayList<>();
+            List<Integer> amounts = new ArrayList<>();
+            double draw = random.nextDouble();
+            int medicineTotal = draw < 0.2 ? 0 : draw < 0.6 ? 1 : draw < 0.9 ? 2 : 3;
+            pickMedicines(random, catalog, medicineTotal, medicines, amounts, true);
+            for (Medicine medicine : medicines) {
+                medicine.setStatus(recent && random.nextDouble() < 0.6 ? MedicineStatus.PENDING : MedicineStatus.DISPENSED);
+            }
+
+            List<ServiceType> services = new ArrayList<>();
+            services.add(ServiceType.CONSULTATION);
+            if (random.nextDouble() < 0.1) {
+                services.add(ServiceType.XRAY);
+            }
+            if (random.nextDouble() < 0.2) {
+                services.add(ServiceType.BLOOD_TEST);
+            }
+
+            String patientId = appointment.getPatientId();
+            AppointmentOutcome outcome = new AppointmentOutcome(outcomeId, patientId, medicines, amounts,
+                    Collections.emptyList(), services, DOCTOR_NOTES[random.nextInt(DOCTOR_NOTES.length)],
+                    appointment.getAppointmentEndDate(),
+                    recent && random.nextDouble() < 0.5 ? PaymentStatus.PENDING : PaymentStatus.COMPLETED);
+            int diagnosisCount = drawDiagnosisCount(random(FileType.PATIENT, parseNumber(patientId) - 1));
+            if (diagnosisCount > 0 && random.nextDouble() < 0.6) {
+                List<Integer> diagnosisIds = new ArrayList<>();
+                diagnosisIds.add(1 + random.nextInt(diagnosisCount));
+                outcome.setDiagnosisIds(diagnosisIds);
+            }
+            outcomes.put(outcomeId, outcome);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Creates a doctor with one or two specializations and availability.
+     *
+     * @param index The number of the doctor, starting from 0.
+     * @return The doctor.
+     */
+    private Doctor createDoctor(int index) {
+        SplittableRandom random = random(FileType.STAFF, index);
+        List<Specialization> specializations = new ArrayList<>();
+        int first = random.nextInt(SPECIALIZATIONS.length);
+        specializations.add(new Specialization(SPECIALIZATIONS[first][0], SPECIALIZATIONS[first][1]));
+        if (random.nextDouble() < 0.3) {
+            int second = (first + 1 + random.nextInt(SPECIALIZATIONS.length - 1)) % SPECIALIZATIONS.length;
+            specializations.add(new Specialization(SPECIALIZATIONS[second][0], SPECIALIZATIONS[second][1]));
+        }
+        return new Doctor(createName(random), PASSWORD, createGender(random), 28 + random.nextInt(38),
+                getDoctorId(index), specializations, null, createAvailability(index));
+    }
+
+    /**
+     * Creates the availability of a doctor for the configured number of days
+     * from today. Doctors do not work on Sundays, and most work the morning
+     * and the afternoon of the other days.
+     *
+     * @param index The number of the doctor, starting from 0.
+     * @return The availability ordered by start time.
+     */
+    private List<Schedule> createAvailability(int index) {
+        // A stream apart from the doctor's own, so appointments can look the availability up again
+        SplittableRandom random = random(FileType.STAFF, -1 - index);
+        List<Schedule> availability = new ArrayList<>();
+        for (int day = 0; day < availabilityDays; day++) {
+            LocalDate date = today.plusDays(day);
+            if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            for (int[] hours : WORKING_HOURS) {
+                if (random.nextDouble() < 0.85) {
+                    availability.add(new Schedule(date.atTime(LocalTime.of(hours[0], 0)), date.atTime(LocalTime.of(hours[1], 0))));
+                }
+            }
+        }
+        return availability;
+    }
+
+    /**
+     * Creates the medicines of an inventory.
+     *
+     * @param medicineCount The number of medicines.
+     * @return The medicines, indexed by their number.
+     */
+    private Medicine[] createCatalog(int medicineCount) {
+        Medicine[] catalog = new Medicine[medicineCount];
+        for (int i = 0; i < medicineCount; i++) {
+            SplittableRandom random = random(FileType.INVENTORY, -1 - i);
+            String[] medicine = MEDICINES[i % MEDICINES.length];
+            String name = i < MEDICINES.length ? medicine[0] : medicine[0] + " " + (i / MEDICINES.length + 1) * 100 + "mg";
+            float price = (2 + random.nextInt(97)) / 2f;
+            catalog[i] = new Medicine(getMedicineId(i), name, price, medicine[1]);
+        }
+        return catalog;
+    }
+
+    /**
+     * Picks distinct medicines of the inventory with the amount to take.
+     *
+     * @param random The random stream.
+     * @param catalog The medicines of the inventory.
+     * @param count The number of medicines to pick, limited to the size of
+     * the inventory.
+     * @param medicines The list the medicines are added to.
+     * @param amounts The list the amounts are added to.
+     * @param copy Whether to add copies of the medicines, so that each can
+     * have its own status.
+     */
+    private static void pickMedicines(SplittableRandom random, Medicine[] catalog, int count, List<Medicine> medicines,
+            List<Integer> amounts, boolean copy) {
+        count = Math.min(count, catalog.length);
+        while (medicines.size() < count) {
+            Medicine medicine = catalog[random.nextInt(catalog.length)];
+            boolean picked = false;
+            for (Medicine other : medicines) {
+                picked |= other.getMedicineId().equals(medicine.getMedicineId());
+            }
+            if (!picked) {
+                medicines.add(copy ? new Medicine(medicine) : medicine);
+                amounts.add(1 + random.nextInt(3));
+            }
+        }
+    }
+
+    /**
+     * Draws the number of diagnoses in the medical record of a patient.
+     *
+     * @param random The random stream of the patient.
+     * @return The number of diagnoses, from 0 to 4.
+     */
+    private static int drawDiagnosisCount(SplittableRandom random) {
+        double draw = random.nextDouble();
+        return draw < 0.3 ? 0 : draw < 0.6 ? 1 : draw < 0.8 ? 2 : draw < 0.93 ? 3 : 4;
+    }
+
+    /**
+     * Creates the full name of a person.
+     *
+     * @param random The random stream of the person.
+     * @return The name.
+     */
+    private static String createName(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    /**
+     * Draws the gender of a person.
+     *
+     * @param random The random stream of the person.
+     * @return The gender.
+     */
+    private static Gender createGender(SplittableRandom random) {
+        return random.nextBoolean() ? Gender.MALE : Gender.FEMALE;
+    }
+
+    /**
+     * Returns the random stream of a single entity.
+     *
+     * @param fileType The file type the entity belongs to.
+     * @param index The number of the entity.
+     * @return A random stream that only depends on the seed, the file type and
+     * the number.
+     */
+    private SplittableRandom random(FileType fileType, long index) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L
+                + (fileType.ordinal() + 1) * 0xBF58476D1CE4E5B9L + index * 0x94D049BB133111EBL);
+    }
+
+    /**
+     * Returns the hospital ID of a generated doctor.
+     *
+     * @param index The number of the doctor, starting from 0.
+     * @return The hospital ID, such as {@code D001}.
+     */
+    private static String getDoctorId(int index) {
+        return String.format("D%03d", index + 1);
+    }
+
+    /**
+     * Returns the ID of a generated patient.
+     *
+     * @param index The number of the patient, starting from 0.
+     * @return The patient ID, such as {@code P001}.
+     */
+    private static String getPatientId(int index) {
+        return String.format("P%03d", index + 1);
+    }
+
+    /**
+     * Returns the ID of a generated medicine.
+     *
+     * @param index The number of the medicine, starting from 0.
+     * @return The medicine ID, such as {@code 001}.
+     */
+    private static String getMedicineId(int index) {
+        return String.format("%03d", index + 1);
+    }
+
+    /**
+     * Extracts the number from a generated ID.
+     *
+     * @param id The ID, such as {@code OUT012}.
+     * @return The number, such as {@code 12}.
+     */
+    private static int parseNumber(String id) {
+        int number = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c >= '0' && c <= '9') {
+                number = number * 10 + (c - '0');
+            }
+        }
+        return number;
+    }
+}
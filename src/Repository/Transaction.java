@@ -0,0 +1,344 @@
+package src.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * The Transaction class is a unit of work that groups the changes of several
+ * {@link FileType}s into a single commit.
+ * <p>
+ * While a transaction is open on the current thread, {@link Repository}
+ * records which entities were persisted instead of writing them right away.
+ * On commit, all changed entities are written to a journal file in one write
+ * followed by a single sync. Only after the journal is durable are the
+ * changes appended to the {@link ChangeLog} of each file type, and the
+ * journal is then deleted once those appends are synced. If an append fails,
+ * the journal is kept and the caller writes a checkpoint instead.
+ * </p>
+ * <p>
+ * If the application stops before the journal is complete, none of the
+ * changes are applied. If it stops after the journal is complete but before it
+ * is deleted, {@link #recover()} applies it again the next time data is read.
+ * Applying a journal twice is harmless because log records overwrite or
+ * remove whole entities.
+ * </p>
+ *
+ * <p>
+ * <b>Journal format:</b></p>
+ * <ul>
+ * <li>The number of records.</li>
+ * <li>For each record: the ordinal of the {@link FileType}, the length of the
+ * change log record and the record itself.</li>
+ * <li>A CRC32 checksum of everything before it.</li>
+ * </ul>
+ *
+ * @see Repository
+ * @see ChangeLog
+ */
+final class Transaction {
+
+    /**
+     * Name of the journal file.
+     */
+    private static final String FILE_NAME = "Transaction.log";
+
+    /**
+     * The transaction open on each thread, if any.
+     */
+    private static final ThreadLocal<Transaction> current = new ThreadLocal<>();
+
+    /**
+     * Whether a journal left behind by a previous run has been checked.
+     */
+    private static boolean recovered = false;
+
+    /**
+     * Keys of the entities persisted in this transaction, by file type.
+     */
+    private final EnumMap<FileType, LinkedHashSet<String>> dirtyKeys = new EnumMap<>(FileType.class);
+
+    /**
+     * File types that were persisted as a whole in this transaction.
+     */
+    private final EnumSet<FileType> fullFileTypes = EnumSet.noneOf(FileType.class);
+
+    /**
+     * The journal written by a commit whose change log appends failed, kept
+     * on disk until the changes are checkpointed, or {@code null}.
+     */
+    private byte[] keptJournal;
+
+    /**
+     * Creates an empty transaction. Use {@link #begin()} instead.
+     */
+    private Transaction() {
+    }
+
+    /**
+     * Returns the transaction open on the current thread.
+     *
+     * @return The open transaction, or {@code null} if there is none.
+     */
+    static Transaction current() {
+        return current.get();
+    }
+
+    /**
+     * Opens a new transaction on the current thread.
+     *
+     * @return The new transaction.
+     */
+    static Transaction begin() {
+        Transaction transaction = new Transaction();
+        current.set(transaction);
+        return transaction;
+    }
+
+    /**
+     * Detaches the open transaction from the current thread, so that later
+     * persists are written right away again.
+     */
+    static void end() {
+        current.remove();
+    }
+
+    /**
+     * Records that a single entity was added, updated or removed.
+     *
+     * @param fileType The type of file the entity belongs to.
+     * @param key The key of the entity.
+     */
+    void markDirty(FileType fileType, String key) {
+        dirtyKeys.computeIfAbsent(fileType, type -> new LinkedHashSet<>()).add(key);
+    }
+
+    /**
+     * Records that a whole file type has to be written as a checkpoint.
+     *
+     * @param fileType The type of file.
+     */
+    void markFull(FileType fileType) {
+        fullFileTypes.add(fileType);
+    }
+
+    /**
+     * Returns every file type changed in this transaction.
+     *
+     * @return The changed file types.
+     */
+    Set<FileType> getDirtyFileTypes() {
+        EnumSet<FileType> fileTypes = EnumSet.copyOf(fullFileTypes);
+        fileTypes.addAll(dirtyKeys.keySet());
+        return fileTypes;
+    }
+
+    /**
+     * Returns the keys of the entities of a file type changed in this
+     * transaction.
+     *
+     * @param fileType The type of file.
+     * @return The changed keys, in the order they were first changed.
+     */
+    Set<String> getDirtyKeys(FileType fileType) {
+        LinkedHashSet<String> keys = dirtyKeys.get(fileType);
+        return keys == null ? Collections.emptySet() : keys;
+    }
+
+    /**
+     * Returns the file types that have to be written as a checkpoint instead
+     * of through their change log.
+     *
+     * @return The file types persisted as a whole.
+     */
+    Set<FileType> getFullFileTypes() {
+        return fullFileTypes;
+    }
+
+    /**
+     * Writes the entities changed in this transaction to the journal, syncs it
+     * once and then appends them to the change log of each file type. File
+     * types persisted as a whole are left to the caller.
+     *
+     * @return {@code true} if the changes were committed, {@code false} if
+     * they could not be written to the journal or appended to a change log.
+     * After a failed append the journal is kept until
+     * {@link #clearJournal()} is called.
+     */
+    boolean commit() {
+        ByteArrayOutputStream journalBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(journalBytes);
+        EnumMap<FileType, byte[][]> records = new EnumMap<>(FileType.class);
+        int recordCount = 0;
+        try {
+            for (Map.Entry<FileType, LinkedHashSet<String>> entry : dirtyKeys.entrySet()) {
+                FileType fileType = entry.getKey();
+                if (fullFileTypes.contains(fileType)) {
+                    continue;
+                }
+                Map<String, Object> store = Repository.getStore(fileType);
+                byte[][] encoded = new byte[entry.getValue().size()][];
+                int i = 0;
+                for (String key : entry.getValue()) {
+                    Object value = store.get(key);
+                    encoded[i++] = ChangeLog.encodeRecord(key, value == null ? null : BinaryCodec.encodeEntity(fileType, value));
+                }
+                records.put(fileType, encoded);
+                recordCount += encoded.length;
+            }
+            if (recordCount == 0) {
+                return true;
+            }
+            out.writeInt(recordCount);
+            for (Map.Entry<FileType, byte[][]> entry : records.entrySet()) {
+                for (byte[] record : entry.getValue()) {
+                    out.writeByte(entry.getKey().ordinal());
+                    out.writeInt(record.length);
+                    out.write(record);
+                }
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(journalBytes.toByteArray());
+            out.writeLong(checksum.getValue());
+            out.flush();
+        } catch (IOException err) {
+            System.out.println("Error preparing transaction: " + err.getMessage());
+            return false;
+        }
+
+        synchronized (Transaction.class) {
+            File journal = getFile();
+            journal.getParentFile().mkdirs();
+            try (FileOutputStream fileOutputStream = new FileOutputStream(journal)) {
+                fileOutputStream.write(journalBytes.toByteArray());
+                fileOutputStream.getFD().sync();
+            } catch (IOException err) {
+                System.out.println("Error writing " + FILE_NAME + ": " + err.getMessage());
+                journal.delete();
+                return false;
+            }
+            // The journal is only deleted once every change log append is synced
+            for (Map.Entry<FileType, byte[][]> entry : records.entrySet()) {
+                if (!ChangeLog.appendRecords(entry.getKey(), entry.getValue())) {
+                    keptJournal = journalBytes.toByteArray();
+                    return false;
+                }
+            }
+            if (!journal.delete()) {
+                System.out.println("Error clearing " + FILE_NAME + ".");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deletes the journal kept by a failed {@link #commit()}, once the caller
+     * has written a checkpoint of every changed file type. The journal is
+     * left alone if another transaction has replaced it since.
+     */
+    void clearJournal() {
+        if (keptJournal == null) {
+            return;
+        }
+        synchronized (Transaction.class) {
+            File journal = getFile();
+            try {
+                if (journal.exists() && Arrays.equals(Files.readAllBytes(journal.toPath()), keptJournal) && !journal.delete()) {
+                    System.out.println("Error clearing " + FILE_NAME + ".");
+                }
+            } catch (IOException err) {
+                System.out.println("Error clearing " + FILE_NAME + ": " + err.getMessage());
+            }
+            keptJournal = null;
+        }
+    }
+
+    /**
+     * Applies a complete journal left behind by a previous run to the change
+     * logs and deletes it. An incomplete journal belongs to a transaction that
+     * never committed and is discarded. Only the first call does any work.
+     */
+    static synchronized void recover() {
+        if (recovered) {
+            return;
+        }
+        recovered = true;
+        File journal = getFile();
+        if (!journal.exists()) {
+            return;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(journal.toPath());
+            if (isComplete(bytes)) {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - Long.BYTES));
+                int recordCount = in.readInt();
+                FileType[] fileTypes = FileType.values();
+                EnumMap<FileType, List<byte[]>> records = new EnumMap<>(FileType.class);
+                for (int i = 0; i < recordCount; i++) {
+                    FileType fileType = fileTypes[in.readUnsignedByte()];
+                    byte[] record = new byte[in.readInt()];
+                    in.readFully(record);
+                    records.computeIfAbsent(fileType, key -> new ArrayList<>()).add(record);
+                }
+                for (Map.Entry<FileType, List<byte[]>> entry : records.entrySet()) {
+                    if (!ChangeLog.appendRecords(entry.getKey(), entry.getValue().toArray(new byte[0][]))) {
+                        // Keep the journal so that the next run applies it again
+                        return;
+                    }
+                }
+            } else {
+                System.out.println("Discarding incomplete transaction in " + FILE_NAME + ".");
+            }
+        } catch (IOException | ArrayIndexOutOfBoundsException err) {
+            System.out.println("Error recovering " + FILE_NAME + ": " + err.getMessage());
+        }
+        if (!journal.delete()) {
+            System.out.println("Error clearing " + FILE_NAME + ".");
+        }
+    }
+
+    /**
+     * Checks whether a journal was written completely by comparing its
+     * checksum.
+     *
+     * @param bytes The contents of the journal.
+     * @return {@code true} if the checksum matches.
+     */
+    private static boolean isComplete(byte[] bytes) {
+        if (bytes.length < Integer.BYTES + Long.BYTES) {
+            return false;
+        }
+        int bodyLength = bytes.length - Long.BYTES;
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bodyLength);
+        long expected = 0;
+        for (int i = bodyLength; i < bytes.length; i++) {
+            expected = (expected << 8) | (bytes[i] & 0xFF);
+        }
+        return checksum.getValue() == expected;
+    }
+
+    /**
+     * Returns the journal file.
+     *
+     * @return The journal file next to the data files.
+     */
+    private static File getFile() {
+        return new File(Repository.getDataDirectory(), FILE_NAME);
+    }
+}
@@ -0,0 +1,423 @@
+package src.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import src.Enum.AppointmentStatus;
+import src.Enum.ServiceError;
+import src.Enum.ServiceType;
+import src.Metrics.OperationEvent;
+import src.Model.Appointment;
+import src.Model.AppointmentOutcome;
+import src.Model.Diagnosis;
+import src.Model.Doctor;
+import src.Model.MedicalRecord;
+import src.Model.Medicine;
+import src.Model.Patient;
+import src.Model.Schedule;
+import src.Model.Staff;
+import src.Repository.FileType;
+import src.Repository.Repository;
+
+/**
+ * The AppointmentService class books, reschedules and cancels appointments
+ * without any console input or output.
+ * <p>
+ * Every method either returns the affected {@link Appointment} or throws a
+ * {@link ServiceException} describing why the operation was refused.
+ * Operations on the appointments of a doctor hold the schedule lock of that
+ * doctor, so concurrent callers cannot book overlapping slots.
+ * {@link src.Controller.AppointmentController} prints the results for the
+ * console views.
+ * </p>
+ *
+ * <p>
+ * <b>Key Responsibilities:</b></p>
+ * <ul>
+ * <li>Book appointments within the availability of a doctor.</li>
+ * <li>Reschedule pending appointments to a free time slot.</li>
+ * <li>Cancel pending appointments.</li>
+ * <li>Record the outcome of confirmed appointments.</li>
+ * </ul>
+ *
+ * @see ServiceException
+ * @see src.Controller.AppointmentController
+ */
+public class AppointmentService {
+
+    /**
+     * Generates a unique appointment ID for a new appointment.
+     *
+     * @return A unique appointment ID as a string.
+     */
+    public static String generateAppointmentId() {
+        return "A" + String.format("%03d", Repository.nextId(FileType.APPOINTMENT_LIST));
+    }
+
+    /**
+     * Generates a unique appointment outcome ID for a new outcome.
+     *
+     * @return A unique appointment outcome ID as a string.
+     */
+    public static String generateOutcomeId() {
+        return "OUT" + String.format("%03d", Repository.nextId(FileType.APPOINTMENT_OUTCOME));
+    }
+
+    /**
+     * Locks the schedule of a doctor. Booking, rescheduling, cancelling,
+     * accepting and declining appointments of the same doctor hold this lock,
+     * so that concurrent sessions cannot book overlapping slots.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @return The lock, already held by the calling thread.
+     */
+    public static Lock lockSchedule(String doctorId) {
+        Lock scheduleLock = Repository.getEntityLock(FileType.STAFF, doctorId);
+        scheduleLock.lock();
+        return scheduleLock;
+    }
+
+    /**
+     * Retrieves an appointment.
+     *
+     * @param appointmentId The unique identifier of the appointment.
+     * @return The appointment.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such
+     * appointment.
+     */
+    public static Appointment getAppointment(String appointmentId) {
+        Repository.readData(FileType.APPOINTMENT_LIST);
+        Appointment appointment = appointmentId == null ? null : Repository.APPOINTMENT_LIST.get(appointmentId);
+        if (appointment == null) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "Appointment " + appointmentId + " not found.");
+        }
+        return appointment;
+    }
+
+    /**
+     * Books an appointment for a patient with a doctor. The time slot has to
+     * lie within one of the available slots of the doctor.
+     *
+     * @param patientId The ID of the patient.
+     * @param doctorId The hospital ID of the doctor.
+     * @param startTime The start time of the appointment.
+     * @param endTime The end time of the appointment.
+     * @return The new appointment, pending confirmation by the doctor.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such patient
+     * or doctor, {@code INVALID_INPUT} if the times are invalid,
+     * {@code CONFLICT} if the slot is not available.
+     */
+    public static Appointment book(String patientId, String doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+        Patient patient = patientId == null ? null : Repository.PATIENT.get(patientId);
+        if (patient == null) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "Patient " + patientId + " not found.");
+        }
+        Staff staff = doctorId == null ? null : Repository.STAFF.get(doctorId);
+        if (!(staff instanceof Doctor)) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "Doctor " + doctorId + " not found.");
+        }
+        Doctor doctor = (Doctor) staff;
+        checkTimes(startTime, endTime);
+
+        return book(patient, doctor, checkAvailability(doctor, startTime, endTime), startTime, endTime);
+    }
+
+    /**
+     * Books an appointment for a patient with a doctor within the given
+     * available slot of the doctor.
+     *
+     * @param patient The {@link Patient} associated with the appointment.
+     * @param doctor The {@link Doctor} attending the appointment.
+     * @param schedule The available slot of the doctor.
+     * @param startTime The start time of the appointment.
+     * @param endTime The end time of the appointment.
+     * @return The new appointment, pending confirmation by the doctor.
+     * @throws ServiceException {@code INVALID_INPUT} if a field is missing or
+     * the times are invalid, {@code CONFLICT} if the slot is not available.
+     */
+    public static Appointment book(Patient patient, Doctor doctor, Schedule schedule, LocalDateTime startTime, LocalDateTime endTime) {
+        OperationEvent event = OperationEvent.start("AppointmentService.book", null);
+        try {
+            if (schedule == null || patient == null || doctor == null || startTime == null || endTime == null) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Invalid data. One or more required fields are missing.");
+            }
+
+            // Check if the selected start and end time fit within the available schedule
+            if (startTime.isBefore(schedule.getStartTime()) || endTime.isAfter(schedule.getEndTime())) {
+                throw new ServiceException(ServiceError.CONFLICT, "The selected times are outside the available slot: "
+                        + schedule.getStartTime() + " - " + schedule.getEndTime());
+            }
+            checkTimes(startTime, endTime);
+
+            // Hold the schedule lock of the doctor so that two sessions cannot book the same slot
+            Lock scheduleLock = lockSchedule(doctor.getHospitalId());
+            try {
+                Repository.readData(FileType.APPOINTMENT_LIST);
+                checkConflict(doctor.getHospitalId(), startTime, endTime, null);
+
+                Appointment appointment = new Appointment(patient, doctor, startTime, endTime);
+                appointment.setStatus(AppointmentStatus.PENDING);
+                appointment.setAppointmentId(generateAppointmentId());
+
+                Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
+                Repository.persistData(FileType.APPOINTMENT_LIST, appointment.getAppointmentId());
+                event.succeed(appointment.getAppointmentId());
+                return appointment;
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Reschedules a pending appointment to a new time slot.
+     *
+     * @param appointmentId The unique identifier of the appointment.
+     * @param startTime The new start time.
+     * @param endTime The new end time.
+     * @return The rescheduled appointment.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such
+     * appointment, {@code INVALID_INPUT} if the times are invalid,
+     * {@code INVALID_STATE} if it is not pending, {@code CONFLICT} if the
+     * new slot is outside the availability of the doctor or already booked.
+     */
+    public static Appointment reschedule(String appointmentId, LocalDateTime startTime, LocalDateTime endTime) {
+        return reschedule(getAppointment(appointmentId), startTime, endTime);
+    }
+
+    /**
+     * Reschedules a pending appointment to a new time slot.
+     *
+     * @param appointment The {@link Appointment} to be rescheduled.
+     * @param startTime The new start time.
+     * @param endTime The new end time.
+     * @return The rescheduled appointment.
+     * @throws ServiceException {@code INVALID_INPUT} if the appointment is
+     * missing or the times are invalid, {@code INVALID_STATE} if it is not
+     * pending, {@code NOT_FOUND} if the doctor no longer exists,
+     * {@code CONFLICT} if the new slot is outside the availability of the
+     * doctor or already booked.
+     */
+    public static Appointment reschedule(Appointment appointment, LocalDateTime startTime, LocalDateTime endTime) {
+        OperationEvent event = OperationEvent.start("AppointmentService.reschedule", appointment == null ? null : appointment.getAppointmentId());
+        try {
+            if (appointment == null) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Invalid appointment or schedule.");
+            }
+            checkTimes(startTime, endTime);
+
+            // Hold the schedule lock of the doctor while checking for conflicts
+            Lock scheduleLock = lockSchedule(appointment.getDoctorId());
+            try {
+                if (appointment.getStatus() != AppointmentStatus.PENDING) {
+                    throw new ServiceException(ServiceError.INVALID_STATE, "Appointment cannot be rescheduled because it is not pending.");
+                }
+
+                // Check that the new time lies within the availability of the doctor
+                Staff staff = Repository.STAFF.get(appointment.getDoctorId());
+                if (!(staff instanceof Doctor)) {
+                    throw new ServiceException(ServiceError.NOT_FOUND, "Doctor " + appointment.getDoctorId() + " not found.");
+                }
+                checkAvailability((Doctor) staff, startTime, endTime);
+
+                // Check that the new time does not overlap with another booking of the doctor
+                Repository.readData(FileType.APPOINTMENT_LIST);
+                checkConflict(appointment.getDoctorId(), startTime, endTime, appointment.getAppointmentId());
+
+                appointment.setAppointmentStartDate(startTime);
+                appointment.setAppointmentEndDate(endTime);
+                appointment.setStatus(AppointmentStatus.PENDING);
+
+                Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
+                Repository.persistData(FileType.APPOINTMENT_LIST, appointment.getAppointmentId());
+                event.succeed(appointment.getAppointmentId());
+                return appointment;
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Cancels a pending appointment.
+     *
+     * @param appointmentId The unique identifier of the appointment.
+     * @return The cancelled appointment.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such
+     * appointment, {@code INVALID_STATE} if it is not pending.
+     */
+    public static Appointment cancel(String appointmentId) {
+        return cancel(getAppointment(appointmentId));
+    }
+
+    /**
+     * Cancels a pending appointment.
+     *
+     * @param appointment The {@link Appointment} to be cancelled.
+     * @return The cancelled appointment.
+     * @throws ServiceException {@code INVALID_INPUT} if the appointment is
+     * missing, {@code INVALID_STATE} if it is not pending.
+     */
+    public static Appointment cancel(Appointment appointment) {
+        OperationEvent event = OperationEvent.start("AppointmentService.cancel", appointment == null ? null : appointment.getAppointmentId());
+        try {
+            if (appointment == null) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Invalid appointment.");
+            }
+
+            // Hold the schedule lock of the doctor so that the doctor cannot accept it meanwhile
+            Lock scheduleLock = lockSchedule(appointment.getDoctorId());
+            try {
+                if (appointment.getStatus() != AppointmentStatus.PENDING) {
+                    throw new ServiceException(ServiceError.INVALID_STATE, "Appointment cannot be canceled because it is not pending.");
+                }
+
+                appointment.setStatus(AppointmentStatus.CANCELLED);
+                Repository.readData(FileType.APPOINTMENT_LIST);
+                Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
+                Repository.persistData(FileType.APPOINTMENT_LIST, appointment.getAppointmentId());
+                event.succeed(appointment.getAppointmentId());
+                return appointment;
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Records the outcome of a confirmed appointment and completes it. The
+     * diagnoses are numbered and added to the medical record of the patient
+     * under its entity lock, and the
+     * outcome, the appointment and the patient are saved together.
+     *
+     * @param appointment The confirmed {@link Appointment}.
+     * @param prescribedMedicines The medicines prescribed, pending dispensing.
+     * @param medicineAmounts The amount of each prescribed medicine.
+     * @param diagnoses The diagnoses made, with their treatments. Their IDs
+     * are assigned by this method.
+     * @param services The services provided.
+     * @param doctorNotes The notes of the doctor.
+     * @return The recorded outcome.
+     * @throws ServiceException {@code INVALID_INPUT} if a field is missing or
+     * the medicines and amounts do not match, {@code INVALID_STATE} if the
+     * appointment is not confirmed.
+     */
+    public static AppointmentOutcome recordOutcome(Appointment appointment, List<Medicine> prescribedMedicines,
+            List<Integer> medicineAmounts, List<Diagnosis> diagnoses, List<ServiceType> services, String doctorNotes) {
+        OperationEvent event = OperationEvent.start("AppointmentService.recordOutcome", appointment == null ? null : appointment.getAppointmentId());
+        try {
+            if (appointment == null || prescribedMedicines == null || medicineAmounts == null || diagnoses == null || services == null) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Invalid data. One or more required fields are missing.");
+            }
+            if (prescribedMedicines.size() != medicineAmounts.size()) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Every prescribed medicine needs an amount.");
+            }
+            Patient patient = appointment.getPatient();
+            if (patient == null) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Patient " + appointment.getPatientId() + " not found.");
+            }
+
+            // Lock the schedule, then the patient (FileType order), so that the outcome
+            // is recorded once and concurrent outcomes of the patient keep every diagnosis
+            Lock scheduleLock = lockSchedule(appointment.getDoctorId());
+            Lock patientLock = Repository.getEntityLock(FileType.PATIENT, patient.getPatientId());
+            patientLock.lock();
+            try {
+                if (appointment.getStatus() != AppointmentStatus.CONFIRMED) {
+                    throw new ServiceException(ServiceError.INVALID_STATE, "Outcome cannot be recorded because the appointment is not confirmed.");
+                }
+                // Number the diagnoses before the outcome refers to them by ID
+                MedicalRecordService.attachDiagnoses(patient, diagnoses);
+                AppointmentOutcome outcome = new AppointmentOutcome(
+                        generateOutcomeId(),
+                        patient.getPatientId(),
+                        prescribedMedicines,
+                        medicineAmounts,
+                        diagnoses,
+                        services,
+                        doctorNotes,
+                        LocalDateTime.now()
+                );
+
+                // Save the outcome, the appointment and the patient together
+                Repository.readData(FileType.APPOINTMENT_LIST);
+                Repository.transaction(() -> {
+                    appointment.setOutcome(outcome);
+                    Repository.APPOINTMENT_OUTCOME.put(outcome.getOutcomeId(), outcome);
+                    Repository.persistData(FileType.APPOINTMENT_OUTCOME, outcome.getOutcomeId());
+                    Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
+                    Repository.persistData(FileType.APPOINTMENT_LIST, appointment.getAppointmentId());
+                    Repository.PATIENT.put(patient.getPatientId(), patient);
+                    Repository.persistData(FileType.PATIENT, patient.getPatientId());
+                });
+                event.succeed(null);
+                return outcome;
+            } finally {
+                patientLock.unlock();
+                scheduleLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Checks that a time slot is given and ends after it starts.
+     *
+     * @param startTime The start time of the slot.
+     * @param endTime The end time of the slot.
+     * @throws ServiceException {@code INVALID_INPUT} if the slot is invalid.
+     */
+    private static void checkTimes(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "Invalid appointment or schedule.");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "The end time must be after the start time.");
+        }
+    }
+
+    /**
+     * Finds the available slot of the doctor that contains a time slot.
+     *
+     * @param doctor The {@link Doctor} attending the appointment.
+     * @param startTime The start time of the slot.
+     * @param endTime The end time of the slot.
+     * @return The available slot containing the time slot.
+     * @throws ServiceException {@code CONFLICT} if the time slot is outside
+     * the available slots of the doctor.
+     */
+    private static Schedule checkAvailability(Doctor doctor, LocalDateTime startTime, LocalDateTime endTime) {
+        for (Schedule schedule : doctor.getAvailability()) {
+            if (!startTime.isBefore(schedule.getStartTime()) && !endTime.isAfter(schedule.getEndTime())) {
+                return schedule;
+            }
+        }
+        throw new ServiceException(ServiceError.CONFLICT, "The selected times are outside the available slots of the doctor.");
+    }
+
+    /**
+     * Checks that a time slot does not overlap with another booking of the
+     * doctor. The caller holds the schedule lock of the doctor.
+     *
+     * @param doctorId The hospital ID of the doctor.
+     * @param startTime The start time of the slot.
+     * @param endTime The end time of the slot.
+     * @param excludedAppointmentId The appointment being rescheduled, or
+     * {@code null}.
+     * @throws ServiceException {@code CONFLICT} if the slot is already booked.
+     */
+    private static void checkConflict(String doctorId, LocalDateTime startTime, LocalDateTime endTime, String excludedAppointmentId) {
+        Appointment existingAppointment = Repository.APPOINTMENT_INDEX.findConflict(doctorId, startTime, endTime, excludedAppointmentId);
+        if (existingAppointment != null) {
+            throw new ServiceException(ServiceError.CONFLICT, "The selected time slot is already booked from "
+                    + existingAppointment.getAppointmentStartDate() + " to " + existingAppointment.getAppointmentEndDate());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package src.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.locks.Lock;
+import src.Enum.InventoryRequestStatus;
+import src.Enum.ServiceError;
+import src.Metrics.OperationEvent;
+import src.Model.InventoryList;
+import src.Model.ReplenishmentRequest;
+import src.Repository.FileType;
+import src.Repository.Repository;
+
+/**
+ * The InventoryService class contains the inventory operations of the
+ * hospital without any console input or output.
+ * <p>
+ * Every method either returns its result or throws a {@link ServiceException}
+ * describing why the operation was refused, so batch jobs and load tests can
+ * call it directly. {@link src.Controller.InventoryController} and
+ * {@link src.Controller.PharmacistController} print the results for the
+ * console views.
+ * </p>
+ *
+ * <p>
+ * <b>Key Responsibilities:</b></p>
+ * <ul>
+ * <li>Look up and remove medical inventory items.</li>
+ * <li>Submit replenishment requests for medicines.</li>
+ * <li>Approve or reject pending replenishment requests.</li>
+ * </ul>
+ *
+ * @see ServiceException
+ * @see src.Controller.InventoryController
+ */
+public class InventoryService {
+
+    /**
+     * Retrieves a medical inventory item.
+     *
+     * @param medicineId The unique identifier of the medicine.
+     * @return The {@link InventoryList} item of the medicine.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such item.
+     */
+    public static InventoryList getItem(String medicineId) {
+        Repository.readData(FileType.INVENTORY);
+        InventoryList inventoryItem = medicineId == null ? null : Repository.INVENTORY.get(medicineId);
+        if (inventoryItem == null) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "No inventory record found for Medicine ID: " + medicineId);
+        }
+        return inventoryItem;
+    }
+
+    /**
+     * Retrieves every medical inventory item.
+     *
+     * @return A read-only view of the inventory items.
+     */
+    public static Collection<InventoryList> getItems() {
+        Repository.readData(FileType.INVENTORY);
+        return Collections.unmodifiableCollection(Repository.INVENTORY.values());
+    }
+
+    /**
+     * Checks whether the stock of a medicine is at or below its low stock
+     * level alert.
+     *
+     * @param medicineId The unique identifier of the medicine.
+     * @return {@code true} if the medicine is in low stock.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such item.
+     */
+    public static boolean isLowStock(String medicineId) {
+        InventoryList inventoryItem = getItem(medicineId);
+        return inventoryItem.getInitialStock() <= inventoryItem.getLowStocklevelAlert();
+    }
+
+    /**
+     * Removes a medical inventory item and persists the change.
+     *
+     * @param medicineId The unique identifier of the medicine to be removed.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such item.
+     */
+    public static void removeItem(String medicineId) {
+        Repository.readData(FileType.INVENTORY);
+        if (medicineId == null) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "Medical Inventory Item not found!");
+        }
+        // Do not remove the item while another session is changing its stock
+        Lock inventoryLock = Repository.getEntityLock(FileType.INVENTORY, medicineId);
+        inventoryLock.lock();
+        try {
+            if (Repository.INVENTORY.remove(medicineId) == null) {
+                throw new ServiceException(ServiceError.NOT_FOUND, "Medical Inventory Item not found!");
+            }
+            Repository.persistData(FileType.INVENTORY, medicineId);
+        } finally {
+            inventoryLock.unlock();
+        }
+    }
+
+    /**
+     * Submits a replenishment request for a medicine. The request is pending
+     * until an administrator approves or rejects it.
+     *
+     * @param medicineId The unique identifier of the medicine to replenish.
+     * @param amount The amount of stock requested.
+     * @return The new {@link ReplenishmentRequest}.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such medicine,
+     * {@code INVALID_INPUT} if the amount is not positive.
+     */
+    public static ReplenishmentRequest submitReplenishmentRequest(String medicineId, int amount) {
+        Repository.readData(FileType.INVENTORY);
+        Repository.readData(FileType.REPLENISHMENT_REQUEST);
+        if (medicineId == null || !Repository.INVENTORY.containsKey(medicineId)) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "Invalid medicine ID. Please check the ID and try again.");
+        }
+        if (amount <= 0) {
+            throw new ServiceException(ServiceError.INVALID_INPUT, "The replenishment amount must be greater than 0.");
+        }
+
+        // Generate a unique ID for the replenishment request
+        String requestId = String.format("R%03d", Repository.nextId(FileType.REPLENISHMENT_REQUEST));
+        ReplenishmentRequest replenishmentRequest = new ReplenishmentRequest(requestId, medicineId, amount, InventoryRequestStatus.PENDING);
+
+        Repository.REPLENISHMENT_REQUEST.put(requestId, replenishmentRequest);
+        Repository.persistData(FileType.REPLENISHMENT_REQUEST, requestId);
+        return replenishmentRequest;
+    }
+
+    /**
+     * Approves a pending replenishment request and adds the requested amount
+     * to the stock of the medicine. Both changes are committed together.
+     *
+     * @param requestId The unique identifier of the replenishment request.
+     * @return The updated {@link InventoryList} item of the medicine.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such request
+     * or medicine, {@code INVALID_STATE} if the request is not pending.
+     */
+    public static InventoryList approveReplenishmentRequest(String requestId) {
+        OperationEvent event = OperationEvent.start("InventoryService.approveReplenishmentRequest", requestId);
+        try {
+            Repository.readData(FileType.INVENTORY);
+            Repository.readData(FileType.REPLENISHMENT_REQUEST);
+            ReplenishmentRequest request = getPendingRequest(requestId);
+
+            String medicineId = request.getMedicineId();
+            // Lock the stock and the request, in FileType order, so that two sessions
+            // cannot approve the same request or lose each other's stock changes
+            Lock inventoryLock = Repository.getEntityLock(FileType.INVENTORY, medicineId);
+            Lock requestLock = Repository.getEntityLock(FileType.REPLENISHMENT_REQUEST, requestId);
+            inventoryLock.lock();
+            requestLock.lock();
+            try {
+                checkPending(request);
+                InventoryList inventoryItem = Repository.INVENTORY.get(medicineId);
+                if (inventoryItem == null) {
+                    throw new ServiceException(ServiceError.NOT_FOUND, "Medicine ID not found in inventory.");
+                }
+
+                inventoryItem.setInitialStock(inventoryItem.getInitialStock() + request.getStockLevel());
+                Repository.transaction(() -> {
+                    Repository.INVENTORY.put(medicineId, inventoryItem);
+                    request.setStatus(InventoryRequestStatus.APPROVED);
+                    Repository.REPLENISHMENT_REQUEST.put(requestId, request);
+
+                    Repository.persistData(FileType.INVENTORY, medicineId);
+                    Repository.persistData(FileType.REPLENISHMENT_REQUEST, requestId);
+                });
+                event.succeed(null);
+                return inventoryItem;
+            } finally {
+                requestLock.unlock();
+                inventoryLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Rejects a pending replenishment request.
+     *
+     * @param requestId The unique identifier of the replenishment request.
+     * @return The rejected {@link ReplenishmentRequest}.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such request,
+     * {@code INVALID_STATE} if the request is not pending.
+     */
+    public static ReplenishmentRequest rejectReplenishmentRequest(String requestId) {
+        OperationEvent event = OperationEvent.start("InventoryService.rejectReplenishmentRequest", requestId);
+        try {
+            Repository.readData(FileType.REPLENISHMENT_REQUEST);
+            ReplenishmentRequest request = getPendingRequest(requestId);
+            Lock requestLock = Repository.getEntityLock(FileType.REPLENISHMENT_REQUEST, requestId);
+            requestLock.lock();
+            try {
+                checkPending(request);
+                request.setStatus(InventoryRequestStatus.REJECTED);
+                Repository.REPLENISHMENT_REQUEST.put(requestId, request);
+                Repository.persistData(FileType.REPLENISHMENT_REQUEST, requestId);
+                event.succeed(null);
+                return request;
+            } finally {
+                requestLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Retrieves a replenishment request that is still pending.
+     *
+     * @param requestId The unique identifier of the replenishment request.
+     * @return The pending request.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such request,
+     * {@code INVALID_STATE} if the request is not pending.
+     */
+    private static ReplenishmentRequest getPendingRequest(String requestId) {
+        ReplenishmentRequest request = requestId == null ? null : Repository.REPLENISHMENT_REQUEST.get(requestId);
+        if (request == null) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "Request ID not found.");
+        }
+        checkPending(request);
+        return request;
+    }
+
+    /**
+     * Denies management of a request that is already approved or rejected.
+     *
+     * @param request The replenishment request.
+     * @throws ServiceException {@code INVALID_STATE} if the request is not
+     * pending.
+     */
+    private static void checkPending(ReplenishmentRequest request) {
+        if (request.getStatus() != InventoryRequestStatus.PENDING) {
+            throw new ServiceException(ServiceError.INVALID_STATE, "This request has already been "
+                    + request.getStatus().toString().toLowerCase() + " and cannot be managed.");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package src.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import src.Enum.ServiceError;
+import src.Metrics.OperationEvent;
+import src.Model.Diagnosis;
+import src.Model.MedicalRecord;
+import src.Model.Patient;
+import src.Repository.FileType;
+import src.Repository.Repository;
+
+/**
+ * The MedicalRecordService class adds diagnoses to the medical records of
+ * patients without any console input or output.
+ * <p>
+ * Diagnoses are numbered and added to the medical record while the entity
+ * lock of the patient is held, so two doctors writing to the record of the
+ * same patient at the same time never give two diagnoses the same ID or lose
+ * one of them. Appointment outcomes refer to diagnoses by these IDs.
+ * </p>
+ *
+ * @see ServiceException
+ * @see AppointmentService#recordOutcome
+ */
+public class MedicalRecordService {
+
+    /**
+     * Adds diagnoses to the medical record of a patient and saves the
+     * patient.
+     *
+     * @param patientId The ID of the patient.
+     * @param diagnoses The diagnoses to add, with their treatments. Their IDs
+     * are assigned by this method.
+     * @return The medical record of the patient.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such patient,
+     * {@code INVALID_INPUT} if the diagnoses are missing.
+     */
+    public static MedicalRecord addDiagnoses(String patientId, List<Diagnosis> diagnoses) {
+        OperationEvent event = OperationEvent.start("MedicalRecordService.addDiagnoses", patientId);
+        try {
+            if (diagnoses == null || diagnoses.isEmpty()) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Invalid data. One or more required fields are missing.");
+            }
+            Lock patientLock = Repository.getEntityLock(FileType.PATIENT, patientId);
+            patientLock.lock();
+            try {
+                Patient patient = patientId == null ? null : Repository.PATIENT.get(patientId);
+                if (patient == null) {
+                    throw new ServiceException(ServiceError.NOT_FOUND, "Patient " + patientId + " not found.");
+                }
+                MedicalRecord medicalRecord = attachDiagnoses(patient, diagnoses);
+                Repository.PATIENT.put(patient.getPatientId(), patient);
+                Repository.persistData(FileType.PATIENT, patient.getPatientId());
+                event.succeed(null);
+                return medicalRecord;
+            } finally {
+                patientLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Numbers diagnoses after the last diagnosis of the medical record of a
+     * patient and adds them to it, creating the record if the patient has
+     * none. The caller holds the entity lock of the patient.
+     *
+     * @param patient The patient.
+     * @param diagnoses The diagnoses to add.
+     * @return The medical record of the patient.
+     */
+    static MedicalRecord attachDiagnoses(Patient patient, List<Diagnosis> diagnoses) {
+        MedicalRecord medicalRecord = patient.getMedicalRecord();
+        if (medicalRecord == null) {
+            medicalRecord = new MedicalRecord("MR" + patient.getPatientId());
+            patient.setMedicalRecord(medicalRecord);
+        }
+        int diagnosisId = 0;
+        for (Diagnosis existing : medicalRecord.getDiagnoses()) {
+            diagnosisId = Math.max(diagnosisId, existing.getDiagnosisId());
+        }
+        for (Diagnosis diagnosis : diagnoses) {
+            diagnosis.setDiagnosisId(++diagnosisId);
+            medicalRecord.addDiagnosis(diagnosis);
+        }
+        return medicalRecord;
+    }
+}
@@ -0,0 +1,144 @@
+package src.Service;
+
+import java.util.concurrent.locks.Lock;
+import src.Enum.PaymentStatus;
+import src.Enum.ServiceError;
+import src.Enum.ServiceType;
+import src.Metrics.OperationEvent;
+import src.Model.AppointmentOutcome;
+import src.Model.Medicine;
+import src.Repository.FileType;
+import src.Repository.Repository;
+
+/**
+ * The PaymentService class calculates and settles the bills of appointment
+ * outcomes without any console input or output.
+ * <p>
+ * A bill is the price of every prescribed medicine plus the fee of every
+ * service provided. {@link src.Controller.PaymentController} prints the
+ * receipt and prompts the patient for the cash paid.
+ * </p>
+ *
+ * <p>
+ * <b>Key Responsibilities:</b></p>
+ * <ul>
+ * <li>Provide the fee of each {@link ServiceType}.</li>
+ * <li>Calculate the amount due for an appointment outcome.</li>
+ * <li>Settle a bill paid in cash and mark it as paid.</li>
+ * </ul>
+ *
+ * @see ServiceException
+ * @see src.Controller.PaymentController
+ */
+public class PaymentService {
+
+    /**
+     * Returns the fee charged for a service.
+     *
+     * @param service The service provided.
+     * @return The fee of the service.
+     */
+    public static double getServiceFee(ServiceType service) {
+        switch (service) {
+            case CONSULTATION:
+                return 25;
+            case XRAY:
+                return 100;
+            case BLOOD_TEST:
+                return 50;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Calculates the amount due for an appointment outcome that has not been
+     * paid yet.
+     *
+     * @param outcomeId The unique identifier of the appointment outcome.
+     * @return The total amount to be paid.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such outcome,
+     * {@code INVALID_STATE} if it has already been paid.
+     */
+    public static double getAmountDue(String outcomeId) {
+        return calculateTotal(getUnpaidOutcome(outcomeId));
+    }
+
+    /**
+     * Settles the bill of an appointment outcome paid in cash and marks it as
+     * paid.
+     *
+     * @param outcomeId The unique identifier of the appointment outcome.
+     * @param cashPaid The amount of cash paid.
+     * @return The change to be given back.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such outcome,
+     * {@code INVALID_STATE} if it has already been paid,
+     * {@code INVALID_INPUT} if the amount is not a valid number,
+     * {@code INSUFFICIENT_PAYMENT} if it does not cover the amount due.
+     */
+    public static double payByCash(String outcomeId, double cashPaid) {
+        OperationEvent event = OperationEvent.start("PaymentService.payByCash", outcomeId);
+        try {
+            if (Double.isNaN(cashPaid) || Double.isInfinite(cashPaid) || cashPaid < 0) {
+                throw new ServiceException(ServiceError.INVALID_INPUT, "Invalid amount of cash.");
+            }
+            getUnpaidOutcome(outcomeId);
+            // Hold the lock of the outcome so that the same bill cannot be paid twice
+            Lock outcomeLock = Repository.getEntityLock(FileType.APPOINTMENT_OUTCOME, outcomeId);
+            outcomeLock.lock();
+            try {
+                AppointmentOutcome outcome = getUnpaidOutcome(outcomeId);
+                double total = calculateTotal(outcome);
+                if (cashPaid < total) {
+                    throw new ServiceException(ServiceError.INSUFFICIENT_PAYMENT, "Not enough cash.");
+                }
+                outcome.setPaymentStatus(PaymentStatus.COMPLETED);
+                Repository.APPOINTMENT_OUTCOME.put(outcomeId, outcome);
+                Repository.persistData(FileType.APPOINTMENT_OUTCOME, outcomeId);
+                event.succeed(null);
+                return cashPaid - total;
+            } finally {
+                outcomeLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Retrieves an appointment outcome that has not been paid yet.
+     *
+     * @param outcomeId The unique identifier of the appointment outcome.
+     * @return The unpaid appointment outcome.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such outcome,
+     * {@code INVALID_STATE} if it has already been paid.
+     */
+    private static AppointmentOutcome getUnpaidOutcome(String outcomeId) {
+        AppointmentOutcome outcome = outcomeId == null ? null : Repository.APPOINTMENT_OUTCOME.get(outcomeId);
+        if (outcome == null) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "No appointment " + outcomeId + " found.");
+        }
+        if (outcome.getPaymentStatus() == PaymentStatus.COMPLETED) {
+            throw new ServiceException(ServiceError.INVALID_STATE, "Payment has been made for appointment " + outcomeId + ".");
+        }
+        return outcome;
+    }
+
+    /**
+     * Adds up the prices of the prescribed medicines and the fees of the
+     * services of an appointment outcome.
+     *
+     * @param outcome The appointment outcome.
+     * @return The total amount.
+     */
+    private static double calculateTotal(AppointmentOutcome outcome) {
+        double total = 0;
+        for (Medicine medicine : outcome.getPrescribedMedicines()) {
+            total += medicine.getMedicinePrice();
+        }
+        for (ServiceType service : outcome.getServices()) {
+            total += getServiceFee(service);
+        }
+        return total;
+    }
+}
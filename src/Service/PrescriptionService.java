@@ -0,0 +1,126 @@
+package src.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import src.Enum.MedicineStatus;
+import src.Enum.ServiceError;
+import src.Metrics.OperationEvent;
+import src.Model.AppointmentOutcome;
+import src.Model.InventoryList;
+import src.Model.Medicine;
+import src.Repository.FileType;
+import src.Repository.Repository;
+
+/**
+ * The PrescriptionService class dispenses the medicines prescribed in
+ * appointment outcomes without any console input or output.
+ * <p>
+ * Dispensing a medicine takes its amount out of the inventory and marks the
+ * prescription as dispensed in a single transaction. Refusals are reported
+ * with a {@link ServiceException}.
+ * {@link src.Controller.AppointmentOutcomeController} prompts the pharmacist
+ * and prints the results for the console views.
+ * </p>
+ *
+ * @see ServiceException
+ * @see src.Controller.AppointmentOutcomeController
+ */
+public class PrescriptionService {
+
+    /**
+     * Retrieves an appointment outcome.
+     *
+     * @param outcomeId The unique identifier of the appointment outcome.
+     * @return The appointment outcome.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such outcome.
+     */
+    public static AppointmentOutcome getOutcome(String outcomeId) {
+        AppointmentOutcome outcome = outcomeId == null ? null : Repository.APPOINTMENT_OUTCOME.get(outcomeId);
+        if (outcome == null) {
+            throw new ServiceException(ServiceError.NOT_FOUND, "Outcome ID not found.");
+        }
+        return outcome;
+    }
+
+    /**
+     * Checks whether an appointment outcome still has medicines waiting to be
+     * dispensed.
+     *
+     * @param outcomeId The unique identifier of the appointment outcome.
+     * @return {@code true} if at least one prescribed medicine is pending.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such outcome.
+     */
+    public static boolean hasPendingMedicine(String outcomeId) {
+        for (Medicine medicine : getOutcome(outcomeId).getPrescribedMedicines()) {
+            if (medicine.getStatus() == MedicineStatus.PENDING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dispenses a prescribed medicine of an appointment outcome. The
+     * prescribed amount is taken out of the inventory and the medicine is
+     * marked as dispensed.
+     *
+     * @param outcomeId The unique identifier of the appointment outcome.
+     * @param medicineId The unique identifier of the prescribed medicine.
+     * @return The stock level of the medicine left after dispensing.
+     * @throws ServiceException {@code NOT_FOUND} if there is no such outcome
+     * or the medicine is not prescribed in it, {@code INVALID_STATE} if the
+     * medicine is not pending, {@code INSUFFICIENT_STOCK} if there is not
+     * enough stock.
+     */
+    public static int dispense(String outcomeId, String medicineId) {
+        OperationEvent event = OperationEvent.start("PrescriptionService.dispense", outcomeId);
+        try {
+            Repository.readData(FileType.INVENTORY);
+            AppointmentOutcome outcome = getOutcome(outcomeId);
+
+            List<Medicine> prescribedMedicines = outcome.getPrescribedMedicines();
+            int index = 0;
+            while (index < prescribedMedicines.size() && !prescribedMedicines.get(index).getMedicineId().equals(medicineId)) {
+                index++;
+            }
+            if (index == prescribedMedicines.size()) {
+                throw new ServiceException(ServiceError.NOT_FOUND, "Medicine ID " + medicineId + " not found.");
+            }
+            Medicine medicine = prescribedMedicines.get(index);
+            int amount = outcome.getMedicineAmount().get(index);
+
+            // Lock the stock, then the outcome (FileType order), so that two sessions
+            // cannot dispense the same prescription or the same stock twice
+            Lock inventoryLock = Repository.getEntityLock(FileType.INVENTORY, medicineId);
+            Lock outcomeLock = Repository.getEntityLock(FileType.APPOINTMENT_OUTCOME, outcomeId);
+            inventoryLock.lock();
+            outcomeLock.lock();
+            try {
+                if (medicine.getStatus() != MedicineStatus.PENDING) {
+                    throw new ServiceException(ServiceError.INVALID_STATE, "Medicine ID " + medicineId + " status is not pending.");
+                }
+                InventoryList inventoryItem = Repository.INVENTORY.get(medicineId);
+                int stockLevel = (inventoryItem != null) ? inventoryItem.getInitialStock() : 0;
+                if (stockLevel < amount) {
+                    throw new ServiceException(ServiceError.INSUFFICIENT_STOCK, "Medicine ID " + medicineId + " does not have enough stock level.");
+                }
+
+                int newStockLevel = stockLevel - amount;
+                medicine.setStatus(MedicineStatus.DISPENSED);
+                inventoryItem.setInitialStock(newStockLevel);
+                Repository.INVENTORY.put(medicineId, inventoryItem);
+                Repository.transaction(() -> {
+                    Repository.persistData(FileType.INVENTORY, medicineId);
+                    Repository.persistData(FileType.APPOINTMENT_OUTCOME, outcomeId);
+                });
+                event.succeed(null);
+                return newStockLevel;
+            } finally {
+                outcomeLock.unlock();
+                inventoryLock.unlock();
+            }
+        } finally {
+            event.finish();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package src.Service;
+
+import src.Enum.ServiceError;
+
+/**
+ * The {@code ServiceException} is thrown by the service layer when an
+ * operation is refused.
+ *
+ * <p>
+ * The services never print or prompt. Instead, every refusal carries a
+ * {@link ServiceError} that callers can act on and a message that the console
+ * views print as it is.</p>
+ *
+ * <p>
+ * <b>Usage:</b></p>
+ * <pre>
+ *     try {
+ *         InventoryService.removeItem(medicineId);
+ *     } catch (ServiceException e) {
+ *         System.out.println(e.getMessage());
+ *     }
+ * </pre>
+ *
+ * @see ServiceError
+ */
+public class ServiceException extends RuntimeException {
+
+    /**
+     * For Java Serializable.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The reason the operation was refused.
+     */
+    private final ServiceError error;
+
+    /**
+     * Constructs a {@code ServiceException} with a reason and a message.
+     *
+     * @param error The reason the operation was refused.
+     * @param message The message to be displayed.
+     */
+    public ServiceException(ServiceError error, String message) {
+        super(message);
+        this.error = error;
+    }
+
+    /**
+     * Returns the reason the operation was refused.
+     *
+     * @return The reason the operation was refused.
+     */
+    public ServiceError getError() {
+        return error;
+    }
+}
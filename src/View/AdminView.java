@@ -23,6 +23,7 @@ import src.Repository.Repository;
  * <li>View and manage appointments.</li>
  * <li>View and manage medication inventory.</li>
  * <li>Approve replenishment requests.</li>
+ * <li>View the latencies of system operations.</li>
  * <li>Change administrator password.</li>
  * <li>Logout functionality.</li>
  * </ul>
@@ -33,6 +34,7 @@ import src.Repository.Repository;
  * @see DisplayMedicationInventory
  * @see ManageMedicalInventory
  * @see ManageReplenishmentRequestView
+ * @see SystemMetricsView
  * @see StaffController
  * @see AdminController
  * @author Keng Jia Chi
@@ -71,6 +73,11 @@ public class AdminView extends MainView {
      */
     private ManageReplenishmentRequestView manageReplenishmentRequestView = new ManageReplenishmentRequestView();
 
+    /**
+     * View for the latencies of system operations.
+     */
+    private SystemMetricsView systemMetricsView = new SystemMetricsView();
+
     /**
      * Displays the actions available to the administrator.
      */
@@ -85,8 +92,9 @@ public class AdminView extends MainView {
         System.out.println("(4) View Medication Inventory");
         System.out.println("(5) Add/Remove/Update Medication Inventory");
         System.out.println("(6) Approve Replenishment Requests");
-        System.out.println("(7) Change Password");
-        System.out.println("(8) Logout");
+        System.out.println("(7) System Metrics");
+        System.out.println("(8) Change Password");
+        System.out.println("(9) Logout");
     }
 
     /**
@@ -98,7 +106,7 @@ public class AdminView extends MainView {
         int opt = -1;
         do {
             printActions();
-            opt = Helper.readInt(1, 8);
+            opt = Helper.readInt(1, 9);
             switch (opt) {
                 case 1:
                     Helper.clearScreen();
@@ -125,19 +133,23 @@ public class AdminView extends MainView {
                     manageReplenishmentRequestView.viewApp();
                     break;
                 case 7:
+                    Helper.clearScreen();
+                    systemMetricsView.viewApp();
+                    break;
+                case 8:
                     printBreadCrumbs("Hospital Management App View > Login View > Admin View > Password Change View");
                     promptChangePassword();
                     break;
-                case 8:
+                case 9:
                     break;
                 default:
                     System.out.println("Invalid option");
                     break;
             }
-            if (opt != 8) {
+            if (opt != 9) {
                 Helper.pressAnyKeyToContinue();
             }
-        } while (opt != 8);
+        } while (opt != 9);
     }
 
     /**
@@ -1,9 +1,13 @@
 package src.View;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import src.Controller.AdminController;
 import src.Controller.AppointmentController;
+import src.Enum.AppointmentStatus;
 import src.Helper.Helper;
+import src.Model.Appointment;
 
 /**
  * The DisplayAppointmentDetailView class provides an interface for
@@ -14,7 +18,9 @@ import src.Helper.Helper;
  * </p>
  * <ul>
  * <li>View a list of available appointment IDs.</li>
- * <li>Enter an appointment ID to view the corresponding details.</li>
+ * <li>Enter one or more appointment IDs to view the corresponding
+ * details.</li>
+ * <li>Browse appointments page by page, filtered by date and status.</li>
  * <li>Navigate back to the previous menu.</li>
  * </ul>
  *
@@ -36,6 +42,11 @@ import src.Helper.Helper;
  */
 public class DisplayAppointmentDetailView extends MainView {
 
+    /**
+     * Number of appointments shown on each page when browsing.
+     */
+    private static final int PAGE_SIZE = 20;
+
     /**
      * Prints the actions available in the Appointment Details View.
      * <p>
@@ -43,7 +54,8 @@ public class DisplayAppointmentDetailView extends MainView {
      * </p>
      * <ul>
      * <li>(1) View appointment details by appointment ID.</li>
-     * <li>(2) Navigate back to the previous menu.</li>
+     * <li>(2) Browse appointments by date and status.</li>
+     * <li>(3) Navigate back to the previous menu.</li>
      * </ul>
      */
     @Override
@@ -51,7 +63,8 @@ public class DisplayAppointmentDetailView extends MainView {
         Helper.clearScreen();
         printBreadCrumbs("Hospital Management App View > Login View > Admin View > Appointment Details View");
         System.out.println("(1) View Appointment Details by Appointment Id");
-        System.out.println("(2) Back");
+        System.out.println("(2) Browse Appointments by Date and Status");
+        System.out.println("(3) Back");
     }
 
     /**
@@ -66,7 +79,7 @@ public class DisplayAppointmentDetailView extends MainView {
         int opt = -1;
         do {
             printActions();
-            opt = Helper.readInt(1, 2);
+            opt = Helper.readInt(1, 3);
             switch (opt) {
                 case 1:
                     Helper.clearScreen();
@@ -75,23 +88,28 @@ public class DisplayAppointmentDetailView extends MainView {
                     Helper.pressAnyKeyToContinue();
                     break;
                 case 2:
+                    Helper.clearScreen();
+                    printBreadCrumbs("Hospital Management App View > Login View > Admin View > Browse Appointments View");
+                    browseAppointments();
+                    break;
+                case 3:
                     Helper.pressAnyKeyToContinue();
                     break;
                 default:
                     System.out.println("Invalid option");
                     break;
             }
-        } while (opt != 2);
+        } while (opt != 3);
     }
 
     /**
-     * Prompts the administrator to enter an appointment ID and displays the
-     * corresponding appointment details.
+     * Prompts the administrator to enter one or more appointment IDs and
+     * displays the corresponding appointment details.
      * <p>
      * This method first fetches and displays a list of available appointment
      * IDs using {@link AppointmentController#getAllAppointmentIds()}. It then
-     * prompts the user to enter an appointment ID and displays the details of
-     * the selected appointment. If no appointments are available, it displays a
+     * prompts the user to enter appointment IDs separated by commas and
+     * displays the details of all selected appointments in one batch. If no appointments are available, it displays a
      * message and exits the method.
      * </p>
      */
@@ -108,12 +126,80 @@ public class DisplayAppointmentDetailView extends MainView {
             System.out.println("  - " + id);
         }
 
-        // Prompt the user to enter an appointment ID
-        System.out.println("Enter the Appointment Id: ");
-        String appointmentId = Helper.readString();
+        // Prompt the user to enter one or more appointment IDs
+        System.out.println("Enter the Appointment Id(s), separated by commas: ");
+        List<String> selectedIds = new ArrayList<>();
+        for (String id : Helper.readString().split(",")) {
+            if (!id.trim().isEmpty()) {
+                selectedIds.add(id.trim());
+            }
+        }
+
+        // Fetch and display the appointment details in one batch
+        for (String appointmentDetails : AppointmentController.getAppointmentDetails(selectedIds)) {
+            System.out.println(appointmentDetails);
+            System.out.println();
+        }
+    }
+
+    /**
+     * Lets the administrator page through the appointments matching a date and
+     * status filter.
+     * <p>
+     * The matching appointments are fetched once using
+     * {@link AppointmentController#findAppointments(LocalDate, AppointmentStatus)},
+     * and every page is formatted from that same list.
+     * </p>
+     */
+    private void browseAppointments() {
+        LocalDate date = null;
+        while (true) {
+            System.out.println("Enter the date (yyyy-MM-dd), or leave blank for all dates: ");
+            String dateInput = Helper.readString().trim();
+            if (dateInput.isEmpty()) {
+                break;
+            }
+            if (Helper.isValidDate(dateInput)) {
+                date = LocalDate.parse(dateInput);
+                break;
+            }
+        }
+
+        AppointmentStatus[] statuses = AppointmentStatus.values();
+        System.out.println("Select the status:");
+        for (int i = 0; i < statuses.length; i++) {
+            System.out.println("(" + (i + 1) + ") " + statuses[i]);
+        }
+        System.out.println("(" + (statuses.length + 1) + ") All");
+        int statusOpt = Helper.readInt(1, statuses.length + 1);
+        AppointmentStatus status = statusOpt <= statuses.length ? statuses[statusOpt - 1] : null;
+
+        List<Appointment> appointments = AppointmentController.findAppointments(date, status);
+        if (appointments.isEmpty()) {
+            System.out.println("No appointments found.");
+            Helper.pressAnyKeyToContinue();
+            return;
+        }
 
-        // Fetch and display the appointment details
-        String appointmentDetails = AppointmentController.getAppointmentDetails(appointmentId);  // Get details from controller
-        System.out.println(appointmentDetails);  // Display the details
+        int pageCount = (appointments.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        int page = 1;
+        while (true) {
+            Helper.clearScreen();
+            printBreadCrumbs("Hospital Management App View > Login View > Admin View > Browse Appointments View");
+            System.out.println(String.format("Page %d of %d (%d appointments)", page, pageCount, appointments.size()));
+            for (String row : AppointmentController.getAppointmentRows(appointments, page, PAGE_SIZE)) {
+                System.out.println(row);
+            }
+            System.out.println();
+            System.out.println("(n) Next page, (p) Previous page, (q) Back");
+            String input = Helper.readString().trim().toLowerCase();
+            if (input.equals("n") && page < pageCount) {
+                page++;
+            } else if (input.equals("p") && page > 1) {
+                page--;
+            } else if (input.equals("q")) {
+                break;
+            }
+        }
     }
 }
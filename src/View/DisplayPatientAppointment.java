@@ -3,16 +3,17 @@ package src.View;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import src.Controller.AppointmentController;
 import src.Controller.DoctorController;
 import src.Enum.AppointmentStatus;
 import src.Helper.Helper;
 import src.Model.Appointment;
+import src.Model.AvailableSlot;
 import src.Model.Doctor;
 import src.Model.Patient;
 import src.Model.Schedule;
@@ -39,6 +40,11 @@ import src.Model.Specialization;
  */
 public class DisplayPatientAppointment extends MainView {
 
+    /**
+     * Maximum number of slots listed when viewing all available appointments.
+     */
+    private static final int SLOT_SEARCH_LIMIT = 20;
+
     private Patient patient;
 
     /**
@@ -138,7 +144,7 @@ public class DisplayPatientAppointment extends MainView {
             Appointment appointment = pendingAppointments.get(i);
             System.out.println((i + 1) + ". Appointment ID - " + appointment.getAppointmentId() + ":");
             System.out.println("Patient: " + appointment.getPatient().getName());
-            System.out.println("Doctor: " + appointment.getAttendingDoctor().getName());
+            System.out.println("Doctor: " + AppointmentController.getDoctorName(appointment));
             System.out.println("From: " + appointment.getAppointmentStartDate() + " to " + appointment.getAppointmentEndDate());
             System.out.println("Status: " + appointment.getStatus());
             System.out.println();
@@ -154,6 +160,10 @@ public class DisplayPatientAppointment extends MainView {
         System.out.println("Status: " + selectedAppointment.getStatus() + "\n");
 
         // Prompt for new appointment time within the doctor's availability
+        if (selectedAppointment.getAttendingDoctor() == null) {
+            System.out.println("The doctor of this appointment is no longer available.");
+            return;
+        }
         Schedule newSchedule = promptNewScheduleForReschedule(selectedAppointment.getAttendingDoctor(), selectedAppointment);
         if (newSchedule != null) {
             boolean rescheduled = AppointmentController.rescheduleAppointment(selectedAppointment, newSchedule);
@@ -167,48 +177,24 @@ public class DisplayPatientAppointment extends MainView {
      * Prompts the patient to reschedule a new appointment.
      */
     private Schedule promptNewScheduleForReschedule(Doctor doctor, Appointment currentAppointment) {
-        List<Schedule> availableSchedules = doctor.getAvailability();
-        if (availableSchedules.isEmpty()) {
+        // Fetch the slots the appointment can be moved to, including its current time
+        TreeMap<LocalDate, List<Schedule>> groupedSlots = AppointmentController.getAvailableSlotsForReschedule(doctor, currentAppointment);
+        if (groupedSlots.isEmpty()) {
             System.out.println("The doctor has no available schedules for rescheduling.");
             return null;
         }
 
-        // Fetch available slots for the selected doctor
-        List<Schedule> availableSlots = AppointmentController.getAvailableSlotsForDoctor(doctor);
-        availableSlots.add(new Schedule(currentAppointment.getAppointmentStartDate(), currentAppointment.getAppointmentEndDate()));
-
-        availableSlots.sort(Comparator.comparing(Schedule::getStartTime));
-        List<Schedule> mergedSlots = new ArrayList<>();
-        Schedule tempSlot = availableSlots.get(0);
-
-        // Merge overlapping slots
-        for (int i = 1; i < availableSlots.size(); i++) {
-            Schedule currentSlot = availableSlots.get(i);
-            if (!currentSlot.getStartTime().isAfter(tempSlot.getEndTime())) {
-                tempSlot = new Schedule(tempSlot.getStartTime(),
-                        currentSlot.getEndTime().isAfter(tempSlot.getEndTime()) ? currentSlot.getEndTime() : tempSlot.getEndTime());
-            } else {
-                mergedSlots.add(tempSlot);
-                tempSlot = currentSlot;
-            }
-        }
-        mergedSlots.add(tempSlot);
-
-        Map<String, List<Schedule>> groupedSlots = new HashMap<>();
-        for (Schedule slot : mergedSlots) {
-            String date = slot.getStartTime().toLocalDate().toString();
-            groupedSlots.computeIfAbsent(date, k -> new ArrayList<>()).add(slot);
-        }
-
         System.out.println("Available Appointment Slots For Dr. " + doctor.getName().toUpperCase() + ":");
+        List<Schedule> mergedSlots = new ArrayList<>();
         int index = 1;
-        for (Map.Entry<String, List<Schedule>> entry : groupedSlots.entrySet()) {
+        for (Map.Entry<LocalDate, List<Schedule>> entry : groupedSlots.entrySet()) {
             System.out.println(entry.getKey());
             System.out.println("-------------");
 
             for (Schedule slot : entry.getValue()) {
                 String timeRange = slot.getStartTime().toLocalTime() + " - " + slot.getEndTime().toLocalTime();
                 System.out.println("(" + index + ") From: " + timeRange);
+                mergedSlots.add(slot);
                 index++;
             }
             System.out.println();
@@ -225,40 +211,12 @@ public class DisplayPatientAppointment extends MainView {
         LocalDateTime startTime = appointmentTimes[0];
         LocalDateTime endTime = appointmentTimes[1];
 
-        // Check if the selected time is within the doctor's availability
-        boolean isTimeAvailable = false;
-        for (Schedule schedule : availableSchedules) {
-            if (!startTime.isBefore(schedule.getStartTime()) && !endTime.isAfter(schedule.getEndTime())) {
-                isTimeAvailable = true;
-                break;
-            }
-        }
-
-        if (!isTimeAvailable) {
+        // Check if the selected time is within the selected slot, other bookings are checked when rescheduling
+        if (startTime.isBefore(selectedSchedule.getStartTime()) || endTime.isAfter(selectedSchedule.getEndTime())) {
             System.out.println("The selected time is not within the doctor's available schedule.");
             return null;
         }
 
-        // Check if the selected time slot overlaps with any other appointments
-        List<Appointment> doctorAppointments = AppointmentController.viewDoctorAppointments(doctor).stream()
-                .filter(appointment -> appointment.getStatus() == AppointmentStatus.PENDING || appointment.getStatus() == AppointmentStatus.CONFIRMED)
-                .collect(Collectors.toList());
-
-        for (Appointment appointment : doctorAppointments) {
-            if (appointment.getAppointmentId().equals(currentAppointment.getAppointmentId())) {
-                // Allow rescheduling if the time slot overlaps only with the current appointment
-                if (startTime.isBefore(appointment.getAppointmentEndDate()) && endTime.isAfter(appointment.getAppointmentStartDate())) {
-                    //System.out.println("Rescheduling allowed as the time slot overlaps with the current appointment.");
-                    continue;
-                }
-
-                if (startTime.isBefore(appointment.getAppointmentEndDate()) && endTime.isAfter(appointment.getAppointmentStartDate())) {
-                    System.out.println("The selected time slot is already occupied by another appointment.");
-                    return null;
-                }
-            }
-        }
-
         return new Schedule(startTime, endTime);
     }
 
@@ -286,7 +244,7 @@ public class DisplayPatientAppointment extends MainView {
             Appointment appointment = pendingAppointments.get(i);
             System.out.println((i + 1) + ". Appointment ID - " + appointment.getAppointmentId() + ":");
             System.out.println("Patient: " + appointment.getPatient().getName());
-            System.out.println("Doctor: " + appointment.getAttendingDoctor().getName());
+            System.out.println("Doctor: " + AppointmentController.getDoctorName(appointment));
             System.out.println("From: " + appointment.getAppointmentStartDate() + " to " + appointment.getAppointmentEndDate());
             System.out.println("Status: " + appointment.getStatus());
             System.out.println();
@@ -331,7 +289,7 @@ public class DisplayPatientAppointment extends MainView {
                 Appointment appointment = appointmentsOnDate.get(i);
                 System.out.println((i + 1) + ". Appointment ID - " + appointment.getAppointmentId() + ":");
                 System.out.println("Patient: " + appointment.getPatient().getName());
-                System.out.println("Doctor: " + appointment.getAttendingDoctor().getName());
+                System.out.println("Doctor: " + AppointmentController.getDoctorName(appointment));
                 System.out.println("From: " + appointment.getAppointmentStartDate() + " to " + appointment.getAppointmentEndDate());
                 System.out.println("Status: " + appointment.getStatus());
                 System.out.println();
@@ -421,25 +379,19 @@ public class DisplayPatientAppointment extends MainView {
             return false;
         }
 
-        // Fetch available slots for the selected doctor (with pending appointments excluded)
-        List<Schedule> availableSlots = AppointmentController.getAvailableSlotsForDoctor(selectedDoctor);
+        // Fetch available slots for the selected doctor (with pending appointments excluded), grouped by date
+        TreeMap<LocalDate, List<Schedule>> groupedSlots = AppointmentController.getAvailableSlotsByDate(selectedDoctor);
 
-        if (availableSlots.isEmpty()) {
+        if (groupedSlots.isEmpty()) {
             System.out.println("No available appointment slots for this doctor.");
             return false;
         }
 
-        // Group available slots by date
-        Map<String, List<Schedule>> groupedSlots = new HashMap<>();
-        for (Schedule slot : availableSlots) {
-            String date = slot.getStartTime().toLocalDate().toString();
-            groupedSlots.computeIfAbsent(date, k -> new ArrayList<>()).add(slot);
-        }
-
         System.out.println("Available Appointment Slots:");
+        List<Schedule> availableSlots = new ArrayList<>();
         int index = 1;
         // Display available slots grouped by date
-        for (Map.Entry<String, List<Schedule>> entry : groupedSlots.entrySet()) {
+        for (Map.Entry<LocalDate, List<Schedule>> entry : groupedSlots.entrySet()) {
             System.out.println(entry.getKey()); // Date
             System.out.println("-------------");
 
@@ -447,6 +399,7 @@ public class DisplayPatientAppointment extends MainView {
                 // Display the time range for the slot
                 String timeRange = slot.getStartTime().toLocalTime() + " - " + slot.getEndTime().toLocalTime();
                 System.out.println("(" + index + ") From: " + timeRange);
+                availableSlots.add(slot);
                 index++;
             }
             System.out.println();
@@ -461,104 +414,45 @@ public class DisplayPatientAppointment extends MainView {
     }
 
     /**
-     * Prompts the patient to view all available appointments.
+     * Prompts the patient to view the earliest available appointments across
+     * all doctors.
      *
      * @return {@code true} if an appointment was scheduled successfully;
      * {@code false} otherwise.
      */
     public boolean promptAllAvailableAppt() {
-        List<Doctor> availableDoctors = DoctorController.getAllDoctors();
+        // Fetch the earliest available slots across all doctors (excluding pending appointments)
+        List<AvailableSlot> availableSlots = AppointmentController.findAvailableSlots(null, null, null, null, SLOT_SEARCH_LIMIT);
 
-        if (availableDoctors.isEmpty()) {
-            System.out.println("No doctors available.");
-            return false;
-        }
-
-        boolean hasAvailableSlots = false;
-        System.out.println("All Available Appointment Slots:");
-
-        // Map to hold doctor's name as the key and a map of dates to their available slots
-        Map<String, Map<String, List<Schedule>>> doctorSchedules = new HashMap<>();
-
-        // Loop through all available doctors
-        for (Doctor doctor : availableDoctors) {
-            // Fetch available slots for each doctor (excluding pending appointments)
-            List<Schedule> availableSlots = AppointmentController.getAvailableSlotsForDoctor(doctor);
-
-            if (!availableSlots.isEmpty()) {
-                hasAvailableSlots = true;
-
-                // Group the available slots by date for the current doctor
-                Map<String, List<Schedule>> groupedSchedulesByDate = new HashMap<>();
-                for (Schedule schedule : availableSlots) {
-                    String date = schedule.getStartTime().toLocalDate().toString();
-                    groupedSchedulesByDate.computeIfAbsent(date, k -> new ArrayList<>()).add(schedule);
-                }
-
-                // Add the grouped schedules to the main map for the doctor
-                doctorSchedules.put(doctor.getName(), groupedSchedulesByDate);
-            }
-        }
-
-        if (!hasAvailableSlots) {
+        if (availableSlots.isEmpty()) {
             System.out.println("No available appointment slots for any doctor.");
             return false;
         }
 
+        System.out.println("Earliest Available Appointment Slots:");
+        LocalDate currentDate = null;
         int index = 1;
-
-        // Display the available slots grouped by doctor and date
-        for (Map.Entry<String, Map<String, List<Schedule>>> doctorEntry : doctorSchedules.entrySet()) {
-            String doctorName = doctorEntry.getKey();
-            Map<String, List<Schedule>> dateSchedules = doctorEntry.getValue();
-
-            // Display the doctor's name
-            System.out.println("\nDr. " + doctorName.toUpperCase());
-
-            // Display the available slots grouped by date
-            for (Map.Entry<String, List<Schedule>> dateEntry : dateSchedules.entrySet()) {
-                String date = dateEntry.getKey();
-                List<Schedule> schedules = dateEntry.getValue();
-
-                // Display the date and its available slots
+        // Display the slots in time order, grouped by date
+        for (AvailableSlot slot : availableSlots) {
+            Schedule schedule = slot.getSchedule();
+            LocalDate date = schedule.getStartTime().toLocalDate();
+            if (!date.equals(currentDate)) {
+                System.out.println();
                 System.out.println(date);
                 System.out.println("-------------");
-
-                // Display each available slot for the current date
-                for (Schedule schedule : schedules) {
-                    String timeRange = schedule.getStartTime().toLocalTime() + " - " + schedule.getEndTime().toLocalTime();
-                    System.out.println("(" + index + ") From: " + timeRange);
-                    index++;
-                }
+                currentDate = date;
             }
+            String timeRange = schedule.getStartTime().toLocalTime() + " - " + schedule.getEndTime().toLocalTime();
+            System.out.println("(" + index + ") From: " + timeRange + " - Dr. " + slot.getDoctor().getName().toUpperCase());
+            index++;
         }
 
         System.out.println("\nPlease select an appointment slot by entering the number: ");
-        int choice = Helper.readInt(1, doctorSchedules.values().stream().flatMap(dateSchedules -> dateSchedules.values().stream()).mapToInt(List::size).sum());
-
-        int selectedIndex = 1;
-        Schedule selectedSchedule = null;
-        Doctor selectedDoctor = null;
-        for (Map.Entry<String, Map<String, List<Schedule>>> doctorEntry : doctorSchedules.entrySet()) {
-            for (Map.Entry<String, List<Schedule>> dateEntry : doctorEntry.getValue().entrySet()) {
-                for (Schedule schedule : dateEntry.getValue()) {
-                    if (selectedIndex == choice) {
-                        selectedSchedule = schedule;
-                        selectedDoctor = availableDoctors.stream().filter(doc -> doc.getName().equals(doctorEntry.getKey())).findFirst().orElse(null);
-                        break;
-                    }
-                    selectedIndex++;
-                }
-                if (selectedSchedule != null) {
-                    break;
-                }
-            }
-            if (selectedSchedule != null) {
-                break;
-            }
-        }
+        int choice = Helper.readInt(1, availableSlots.size());
+
+        AvailableSlot selectedSlot = availableSlots.get(choice - 1);
         // Call the scheduleAppointment method to proceed with scheduling
-        return scheduleAppointmentInput(selectedDoctor, selectedSchedule);
+        return scheduleAppointmentInput(selectedSlot.getDoctor(), selectedSlot.getSchedule());
     }
 
     /**
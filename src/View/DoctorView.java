@@ -7,16 +7,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import src.Controller.AppointmentController;
-import src.Controller.AppointmentOutcomeController;
 import src.Controller.DoctorController;
 import src.Controller.PatientController;
 import src.Enum.ServiceType;
 import src.Helper.Helper;
 import src.Model.Appointment;
-import src.Model.AppointmentOutcome;
 import src.Model.Diagnosis;
 import src.Model.Doctor;
-import src.Model.MedicalRecord;
 import src.Model.Medicine;
 import src.Model.Patient;
 import src.Model.Schedule;
@@ -24,6 +21,9 @@ import src.Model.Specialization;
 import src.Model.Treatment;
 import src.Repository.FileType;
 import src.Repository.Repository;
+import src.Service.AppointmentService;
+import src.Service.MedicalRecordService;
+import src.Service.ServiceException;
 
 /**
  * The {@code DoctorView} class provides the interface for doctors to manage
@@ -225,22 +225,17 @@ public class DoctorView extends MainView {
         if (pid.length() == 0) {
             return;
         }
-        Patient patient = Repository.PATIENT.get(pid);
         System.out.println("Enter new Diagnosis and Treatment plan:");
         System.out.println("Enter Diagnosis:");
         String diagnosisName = Helper.readString();
         System.out.println("Enter Description:");
         String description = Helper.readString();
 
-        int diagId = PatientController.getLastDiagId(patient);
-        MedicalRecord medicalRecord = patient.getMedicalRecord();
-        if (medicalRecord == null) {
-            medicalRecord = new MedicalRecord("MR" + patient.getPatientId());
-            patient.setMedicalRecord(medicalRecord);
-        }
-        Diagnosis diagnosis = new Diagnosis(++diagId, diagnosisName, description);
+        // The diagnosis ID is assigned when the diagnosis is added to the medical record
+        Diagnosis diagnosis = new Diagnosis(0, diagnosisName, description);
 
         // Prompt for medications and create a unique treatment
+        Repository.readData(FileType.INVENTORY);
         System.out.println("Enter number of Treatments: ");
         int numTreatments = Helper.readInt();
         for (int a = 0; a < numTreatments; a++) {
@@ -270,10 +265,12 @@ public class DoctorView extends MainView {
             // Add the treatment to the diagnosis
             diagnosis.addTreatment(treatment);
         }
-        medicalRecord.addDiagnosis(diagnosis);
-        System.out.println("Diagnosis added");
-        Repository.PATIENT.put(patient.getPatientId(), patient);
-        Repository.persistData(FileType.PATIENT);
+        try {
+            MedicalRecordService.addDiagnoses(pid, List.of(diagnosis));
+            System.out.println("Diagnosis added");
+        } catch (ServiceException e) {
+            System.out.println(e.getMessage());
+        }
     }
 
     /**
@@ -434,15 +431,6 @@ public class DoctorView extends MainView {
 
         int selectedIndex = Helper.readInt(1, docAppointments.size()) - 1;
         Appointment appointment = docAppointments.get(selectedIndex);
-        Patient patient = Repository.PATIENT.get(appointment.getPatient().getPatientId());
-
-        // Checking for existing medical record
-        MedicalRecord medicalRecord = patient.getMedicalRecord();
-        int diagId = PatientController.getLastDiagId(patient);
-        if (medicalRecord == null) {
-            medicalRecord = new MedicalRecord("MR" + patient.getPatientId());
-            patient.setMedicalRecord(medicalRecord);
-        }
 
         List<Integer> medicineAmounts = new ArrayList<>();
         // Prompt for diagnosis details
@@ -456,8 +444,10 @@ public class DoctorView extends MainView {
             System.out.println("Enter Description:");
             String description = Helper.readString();
 
-            Diagnosis diagnosis = new Diagnosis(++diagId, diagnosisName, description);
+            // The diagnosis ID is assigned when the outcome is recorded
+            Diagnosis diagnosis = new Diagnosis(0, diagnosisName, description);
 
+            Repository.readData(FileType.INVENTORY);
             System.out.println("Enter number of Treatments: ");
             int numTreatments = Helper.readInt();
             for (int b = 0; b < numTreatments; b++) {
@@ -492,7 +482,6 @@ public class DoctorView extends MainView {
                 // Add the treatment to the diagnosis
                 diagnosis.addTreatment(treatment);
             }
-            medicalRecord.addDiagnosis(diagnosis);
             diagList.add(diagnosis);
         }
 
@@ -522,26 +511,13 @@ public class DoctorView extends MainView {
         System.out.println("Enter Doctor Note: ");
         String note = Helper.readString();
 
-        // Create the AppointmentOutcome
-        AppointmentOutcome outcome = new AppointmentOutcome(
-                AppointmentOutcomeController.generateApptOutcomeId(),
-                prescribedMedicines,
-                medicineAmounts,
-                diagList,
-                services,
-                note,
-                LocalDateTime.now()
-        );
-
-        // Set the outcome and update the medical record
-        appointment.setOutcome(outcome);
-        Repository.APPOINTMENT_OUTCOME.put(outcome.getOutcomeId(), outcome);
-        Repository.persistData(FileType.APPOINTMENT_OUTCOME);
-        Repository.APPOINTMENT_LIST.put(appointment.getAppointmentId(), appointment);
-        Repository.persistData(FileType.APPOINTMENT_LIST);
-        // Save the updated patient data back to the repository
-        Repository.PATIENT.put(patient.getPatientId(), patient);
-        Repository.persistData(FileType.PATIENT);
+        // Record the outcome, which also adds the diagnoses to the medical record
+        try {
+            AppointmentService.recordOutcome(appointment, prescribedMedicines, medicineAmounts, diagList, services, note);
+        } catch (ServiceException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
         System.out.println("Outcome recorded successfully.");
     }
 
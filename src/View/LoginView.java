@@ -9,6 +9,7 @@ import src.Model.AppointmentList;
 import src.Model.Doctor;
 import src.Model.Patient;
 import src.Model.Staff;
+import src.Repository.Repository;
 
 /**
  * The LoginView class provides an interface for handling user authentication
@@ -166,6 +167,8 @@ public class LoginView extends MainView {
                     loggedInStaff = StaffController.getStaffById(loginId);
                     pharmacistView.viewApp();
                 }
+                // Make sure the changes of this session are saved on logout
+                Repository.flush();
             } else {
                 System.out.println("Invalid username/password or employee position");
             }
@@ -202,6 +205,8 @@ public class LoginView extends MainView {
             System.out.println("Patient login successful, welcome " + loggedInPatient.getPatientId());
             PatientView patientView = new PatientView(loggedInPatient);
             patientView.viewApp();
+            // Make sure the changes of this session are saved on logout
+            Repository.flush();
         } else {
             System.out.println("Invalid patient ID/password.");
         }
@@ -5,6 +5,7 @@ import src.Controller.InventoryController;
 import src.Enum.Gender;
 import src.Enum.StaffType;
 import src.Helper.Helper;
+import src.Repository.FileType;
 import src.Repository.Repository;
 
 /**
@@ -151,7 +152,7 @@ public class ManageMedicalInventory extends MainView {
      */
     public String generateMedicalInventoryId(String name) {
         String prefix = "";
-        int uniqueId = Helper.generateUniqueId(Repository.INVENTORY);
+        long uniqueId = Repository.nextId(FileType.INVENTORY);
         return prefix + String.format("%03d", uniqueId);
     }
 
@@ -168,6 +169,7 @@ public class ManageMedicalInventory extends MainView {
         System.out.println("Enter the medical inventory item ID you want to remove: ");
         String medicineId = Helper.readString();
 
+        Repository.readData(FileType.INVENTORY);
         if (Repository.INVENTORY.containsKey(medicineId)) {
             if (!InventoryController.removeMedicalInventoryItem(medicineId)) {
                 System.out.println("Medical Inventory Removal canceled!");
@@ -1,6 +1,7 @@
 package src.View;
 
 import src.Controller.InventoryController;
+import src.Enum.InventoryRequestStatus;
 import src.Helper.Helper;
 import src.Model.InventoryList;
 import src.Model.ReplenishmentRequest;
@@ -12,7 +13,7 @@ import src.Model.ReplenishmentRequest;
  * This class allows administrators to:
  * </p>
  * <ul>
- *   <li>View all replenishment requests (pending, approved, rejected).</li>
+ *   <li>Page through the replenishment requests of one status (pending, approved, rejected).</li>
  *   <li>Approve or reject pending replenishment requests.</li>
  *   <li>View the details of inventory items related to requests.</li>
  *   <li>Navigate back to the previous menu.</li>
@@ -36,22 +37,31 @@ import src.Model.ReplenishmentRequest;
 
 public class ManageReplenishmentRequestView extends MainView {
 
+    /**
+     * Number of requests shown on each page when browsing.
+     */
+    private static final int PAGE_SIZE = 10;
+
     /**
      * Displays the actions available in the Replenishment Request View.
      * <p>
      * The menu options include:
      * </p>
      * <ul>
-     *   <li>(1) View replenishment requests.</li>
-     *   <li>(2) Back to the previous menu.</li>
+     *   <li>(1) View pending replenishment requests.</li>
+     *   <li>(2) View approved replenishment requests.</li>
+     *   <li>(3) View rejected replenishment requests.</li>
+     *   <li>(4) Back to the previous menu.</li>
      * </ul>
      */
     @Override
     protected void printActions() {
         Helper.clearScreen();
         printBreadCrumbs("Hospital Management App View > Login View > Admin View > Replenishment Request View");
-        System.out.println("(1) View Replenishment Requests");
-        System.out.println("(2) Back");
+        System.out.println("(1) View Pending Replenishment Requests");
+        System.out.println("(2) View Approved Replenishment Requests");
+        System.out.println("(3) View Rejected Replenishment Requests");
+        System.out.println("(4) Back");
     }
 
     /**
@@ -66,30 +76,18 @@ public class ManageReplenishmentRequestView extends MainView {
         int opt = -1;
         do {
             printActions();
-            opt = Helper.readInt(1, 2);
+            opt = Helper.readInt(1, 4);
             switch (opt) {
                 case 1:
-                    Helper.clearScreen();
-                    printBreadCrumbs("Hospital Management App View > Login View > Admin View > Display Replenishment Request View");
-
-                    // Display all requests
-                    String allRequests = InventoryController.findAllReplenishmentRequests();
-                    System.out.println(allRequests);
-
-                    System.out.println("\n(1) Manage a pending request");
-                    System.out.println("(2) Back");
-
-                    int choice = Helper.readInt(1, 2);
-                    if (choice == 1) {
-                        System.out.println("Enter the Request ID to manage:");
-                        String requestId = Helper.readString();
-                        manageReplenishmentRequest(requestId);
-                    }
-
-                    Helper.pressAnyKeyToContinue();
+                    browseReplenishmentRequests(InventoryRequestStatus.PENDING);
                     break;
-
                 case 2:
+                    browseReplenishmentRequests(InventoryRequestStatus.APPROVED);
+                    break;
+                case 3:
+                    browseReplenishmentRequests(InventoryRequestStatus.REJECTED);
+                    break;
+                case 4:
                     Helper.pressAnyKeyToContinue();
                     break;
 
@@ -97,7 +95,50 @@ public class ManageReplenishmentRequestView extends MainView {
                     System.out.println("Invalid option");
                     break;
             }
-        } while (opt != 2);
+        } while (opt != 4);
+    }
+
+    /**
+     * Lets the administrator page through the replenishment requests that have
+     * the given status.
+     * <p>
+     * Only the requests of that status are read, one page at a time, using
+     * {@link InventoryController#findReplenishmentRequests(InventoryRequestStatus, int, int)}.
+     * Pending requests can be approved or rejected from the listing.
+     * </p>
+     *
+     * @param status The status of the requests to browse.
+     */
+    private void browseReplenishmentRequests(InventoryRequestStatus status) {
+        int page = 1;
+        while (true) {
+            int requestCount = InventoryController.countReplenishmentRequests(status);
+            int pageCount = Math.max(1, (requestCount + PAGE_SIZE - 1) / PAGE_SIZE);
+            page = Math.min(page, pageCount);
+
+            Helper.clearScreen();
+            printBreadCrumbs("Hospital Management App View > Login View > Admin View > Display Replenishment Request View");
+            System.out.println(String.format("Page %d of %d (%d requests)", page, pageCount, requestCount));
+            System.out.println(InventoryController.findReplenishmentRequests(status, page, PAGE_SIZE));
+
+            boolean pending = status == InventoryRequestStatus.PENDING;
+            System.out.println(pending
+                    ? "(n) Next page, (p) Previous page, (m) Manage a pending request, (q) Back"
+                    : "(n) Next page, (p) Previous page, (q) Back");
+            String input = Helper.readString().trim().toLowerCase();
+            if (input.equals("n") && page < pageCount) {
+                page++;
+            } else if (input.equals("p") && page > 1) {
+                page--;
+            } else if (input.equals("m") && pending) {
+                System.out.println("Enter the Request ID to manage:");
+                String requestId = Helper.readString();
+                manageReplenishmentRequest(requestId);
+                Helper.pressAnyKeyToContinue();
+            } else if (input.equals("q")) {
+                break;
+            }
+        }
     }
 
     /**
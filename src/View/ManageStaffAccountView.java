@@ -4,6 +4,7 @@ import src.Controller.AdminController;
 import src.Enum.Gender;
 import src.Enum.StaffType;
 import src.Helper.Helper;
+import src.Repository.FileType;
 import src.Repository.Repository;
 
 /**
@@ -163,7 +164,7 @@ public class ManageStaffAccountView extends MainView {
                 prefix = "A";
                 break;
         }
-        int uniqueId = Helper.generateUniqueStaffId(Repository.STAFF);
+        long uniqueId = Repository.nextId(FileType.STAFF);
         return prefix + String.format("%03d", uniqueId); // e.g., D001
     }
 
@@ -117,7 +117,7 @@ public class PaymentView extends MainView {
         List<Appointment> appointments = AppointmentController.viewCompleteAppointments(patient);
         for (int i = 0; i < appointments.size(); i++) {
             System.out.println((i + 1) + ".");
-            PaymentController.generateReceipt(appointments.get(i).getOutcome().getOutcomeId());
+            PaymentController.generateReceipt(appointments.get(i).getOutcomeId());
         }
         System.out.println("====================================================");
         System.out.println("Enter the index of the appointment to be paid for: ");
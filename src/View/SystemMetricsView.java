@@ -0,0 +1,122 @@
+package src.View;
+
+import java.io.File;
+import src.Helper.Helper;
+import src.Metrics.Metrics;
+import src.Repository.PersistenceStatistics;
+
+/**
+ * The SystemMetricsView class lets administrators see how long the operations
+ * of the hospital management system take, and how its data files grow.
+ * <p>
+ * This class allows administrators to:
+ * </p>
+ * <ul>
+ * <li>View the count, mean and percentiles of the latency of every
+ * operation.</li>
+ * <li>Save the latencies to a CSV file, to compare them over time.</li>
+ * <li>Reset the latencies.</li>
+ * <li>View the disk I/O and growth of every data file.</li>
+ * <li>Save the disk I/O and file sizes to a CSV file, to track their growth
+ * over time.</li>
+ * <li>Navigate back to the previous menu.</li>
+ * </ul>
+ *
+ * <p>
+ * <b>Key Features:</b></p>
+ * <ul>
+ * <li>Integrates with {@link Metrics} to read the recorded latencies.</li>
+ * <li>Integrates with {@link PersistenceStatistics} to read the disk I/O and
+ * file sizes.</li>
+ * <li>Lets operators spot slow operations before users complain.</li>
+ * </ul>
+ *
+ * @see Metrics
+ * @see PersistenceStatistics
+ * @see AdminView
+ * @see MainView
+ */
+public class SystemMetricsView extends MainView {
+
+    /**
+     * Displays the actions available in the System Metrics View.
+     * <p>
+     * The menu options include:
+     * </p>
+     * <ul>
+     * <li>(1) View the latencies of all operations.</li>
+     * <li>(2) Save the latencies to a file.</li>
+     * <li>(3) Reset the latencies.</li>
+     * <li>(4) View the disk I/O and growth of the data files.</li>
+     * <li>(5) Save the disk I/O and file sizes to a file.</li>
+     * <li>(6) Navigate back to the previous menu.</li>
+     * </ul>
+     */
+    @Override
+    protected void printActions() {
+        Helper.clearScreen();
+        printBreadCrumbs("Hospital Management App View > Login View > Admin View > System Metrics View");
+        System.out.println("(1) View Operation Latencies");
+        System.out.println("(2) Save Operation Latencies to File");
+        System.out.println("(3) Reset Operation Latencies");
+        System.out.println("(4) View Persistence Statistics");
+        System.out.println("(5) Save Persistence Statistics to File");
+        System.out.println("(6) Back");
+    }
+
+    /**
+     * Controls the workflow of the System Metrics View.
+     * <p>
+     * Allows the administrator to choose from the available options until
+     * they go back.
+     * </p>
+     */
+    @Override
+    public void viewApp() {
+        int opt = -1;
+        do {
+            printActions();
+            opt = Helper.readInt(1, 6);
+            switch (opt) {
+                case 1:
+                    Helper.clearScreen();
+                    printBreadCrumbs("Hospital Management App View > Login View > Admin View > System Metrics View > Operation Latencies");
+                    System.out.println(Metrics.report());
+                    Helper.pressAnyKeyToContinue();
+                    break;
+                case 2:
+                    File file = Metrics.getDumpFile();
+                    if (Metrics.dump(file)) {
+                        System.out.println("Operation latencies appended to " + file.getPath());
+                    }
+                    Helper.pressAnyKeyToContinue();
+                    break;
+                case 3:
+                    if (Helper.promptConfirmation("reset the operation latencies")) {
+                        Metrics.reset();
+                        System.out.println("Operation latencies reset.");
+                    }
+                    Helper.pressAnyKeyToContinue();
+                    break;
+                case 4:
+                    Helper.clearScreen();
+                    printBreadCrumbs("Hospital Management App View > Login View > Admin View > System Metrics View > Persistence Statistics");
+                    System.out.println(PersistenceStatistics.report());
+                    Helper.pressAnyKeyToContinue();
+                    break;
+                case 5:
+                    File statisticsFile = PersistenceStatistics.getDumpFile();
+                    if (PersistenceStatistics.dump(statisticsFile)) {
+                        System.out.println("Persistence statistics appended to " + statisticsFile.getPath());
+                    }
+                    Helper.pressAnyKeyToContinue();
+                    break;
+                case 6:
+                    break;
+                default:
+                    System.out.println("Invalid option");
+                    break;
+            }
+        } while (opt != 6);
+    }
+}